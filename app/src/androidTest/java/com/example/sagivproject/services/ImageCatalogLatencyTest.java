@@ -0,0 +1,150 @@
+package com.example.sagivproject.services;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.ImageData;
+import com.example.sagivproject.services.impl.ImageServiceImpl;
+import com.example.sagivproject.services.impl.LocalFileBlobStore;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Measures the memory game start (picking and resolving 6 images) against catalogs of 10, 100
+ * and 1000 legacy images, comparing the image index with downloading the whole catalog.
+ * Timings are written to logcat under the {@value #TAG} tag.
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageCatalogLatencyTest {
+    private static final String TAG = "ImageCatalogLatency";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final int PAIR_COUNT = 6;
+    private static final int IMAGE_BYTES = 16 * 1024;
+    private static final int RUNS = 5;
+
+    private static FirebaseDatabase database;
+    private static IImageService imageService;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context), TAG);
+        database = FirebaseDatabase.getInstance(app);
+        database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        imageService = new ImageServiceImpl(database, new LocalFileBlobStore(new File(context.getCacheDir(), TAG)));
+    }
+
+    @Test
+    public void gameStart_10Images() throws Exception {
+        measure(10);
+    }
+
+    @Test
+    public void gameStart_100Images() throws Exception {
+        measure(100);
+    }
+
+    @Test
+    public void gameStart_1000Images() throws Exception {
+        measure(1000);
+    }
+
+    private void measure(int catalogSize) throws Exception {
+        seedCatalog(catalogSize);
+
+        long allImagesNanos = 0;
+        long indexNanos = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            List<ImageData> all = await(imageService::getAllImages);
+            allImagesNanos += System.nanoTime() - start;
+            assertEquals(catalogSize, all.size());
+
+            start = System.nanoTime();
+            List<String> ids = await(callback -> imageService.pickRandomImageIds(PAIR_COUNT, callback));
+            List<ImageData> picked = await(callback -> imageService.getImages(ids, callback));
+            indexNanos += System.nanoTime() - start;
+            assertEquals(PAIR_COUNT, picked.size());
+        }
+
+        Log.i(TAG, catalogSize + " images: all images " + millis(allImagesNanos / RUNS) + "ms, index pick "
+                + millis(indexNanos / RUNS) + "ms");
+    }
+
+    /**
+     * Replaces the database with a catalog of records holding inline Base64 content, as stored
+     * before the blob store, plus their index entries.
+     */
+    private static void seedCatalog(int catalogSize) throws Exception {
+        Random random = new Random(catalogSize);
+        char[] body = new char[IMAGE_BYTES * 4 / 3];
+        Arrays.fill(body, 'A');
+        Map<String, Object> images = new HashMap<>();
+        Map<String, Object> index = new HashMap<>();
+        for (int i = 1; i <= catalogSize; i++) {
+            String id = "card" + i;
+            images.put(id, new ImageData(id, new String(body)));
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("rand", random.nextDouble());
+            index.put(id, entry);
+        }
+        Map<String, Object> root = new HashMap<>();
+        root.put("images", images);
+        root.put("images_index", index);
+        Tasks.await(database.getReference().setValue(root), 60, TimeUnit.SECONDS);
+    }
+
+    private static <T> T await(Consumer<DatabaseCallback<T>> call) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        call.accept(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(T object) {
+                result.set(object);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                error.set(e);
+                latch.countDown();
+            }
+        });
+        if (!latch.await(60, TimeUnit.SECONDS)) throw new AssertionError("Timed out");
+        if (error.get() != null) throw error.get();
+        return result.get();
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
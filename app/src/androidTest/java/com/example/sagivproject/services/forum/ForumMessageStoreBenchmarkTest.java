@@ -0,0 +1,123 @@
+package com.example.sagivproject.services.forum;
+
+import static org.junit.Assert.assertEquals;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.sagivproject.models.ForumMessage;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reports the time spent per incoming message with 50, 500 and 5000 messages loaded, for
+ * {@link ForumMessageStore} and for the list merge it replaced, to logcat under the
+ * {@value #TAG} tag.
+ * <p>
+ * Each new message is applied to a store holding the loaded messages; the legacy merge receives
+ * the latest 50 messages as one batch per post and merges it into the loaded list, as
+ * {@code ForumActivity.mergeMessages} did. Adapter notifications are not included. Every size
+ * runs once unmeasured first, to warm up the runtime.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ForumMessageStoreBenchmarkTest {
+    private static final String TAG = "ForumMessageStoreBenchmark";
+    private static final int INCOMING = 200;
+    private static final int WINDOW = 50;
+
+    @Test
+    public void timePerIncomingMessage() {
+        int[] loadedCounts = {50, 500, 5000};
+        for (int loaded : loadedCounts) timePerIncomingMessage(loaded);
+        for (int loaded : loadedCounts) {
+            double[] micros = timePerIncomingMessage(loaded);
+            Log.i(TAG, loaded + " loaded: store " + Math.round(micros[0] * 10) / 10.0 + "us, legacy merge "
+                    + Math.round(micros[1] * 10) / 10.0 + "us per message");
+        }
+    }
+
+    /**
+     * Applies {@value #INCOMING} new messages to a store and to the legacy merge, both holding
+     * {@code loaded} messages.
+     *
+     * @return The average microseconds per message of the store and of the legacy merge.
+     */
+    private static double[] timePerIncomingMessage(int loaded) {
+        ForumMessageStore store = new ForumMessageStore();
+        List<ForumMessage> all = new ArrayList<>();
+        for (int i = 0; i < loaded; i++) all.add(message(i));
+        store.putAll(all);
+        List<ForumMessage> legacyList = new ArrayList<>(all);
+
+        long storeNanos = 0;
+        long legacyNanos = 0;
+        for (int i = 0; i < INCOMING; i++) {
+            ForumMessage message = message(loaded + i);
+            all.add(message);
+            List<ForumMessage> window = new ArrayList<>(all.subList(Math.max(0, all.size() - WINDOW), all.size()));
+
+            long start = SystemClock.elapsedRealtimeNanos();
+            store.put(message);
+            storeNanos += SystemClock.elapsedRealtimeNanos() - start;
+
+            start = SystemClock.elapsedRealtimeNanos();
+            legacyList = legacyMerge(legacyList, window);
+            legacyNanos += SystemClock.elapsedRealtimeNanos() - start;
+        }
+
+        assertEquals(ids(legacyList), ids(store.asList()));
+        return new double[]{storeNanos / 1000.0 / INCOMING, legacyNanos / 1000.0 / INCOMING};
+    }
+
+    /**
+     * The list merge that {@code ForumActivity} ran for every batch of the latest messages.
+     */
+    private static List<ForumMessage> legacyMerge(List<ForumMessage> currentList, List<ForumMessage> latestMessages) {
+        List<ForumMessage> result = new ArrayList<>(currentList);
+        String newestTs = latestMessages.get(latestMessages.size() - 1).getTimestamp();
+        String oldestInWindowTs = latestMessages.get(0).getTimestamp();
+        result.removeIf(m ->
+                m.getTimestamp().compareTo(oldestInWindowTs) >= 0 &&
+                        m.getTimestamp().compareTo(newestTs) <= 0 &&
+                        latestMessages.stream().noneMatch(lm -> lm.getId().equals(m.getId()))
+        );
+        for (ForumMessage newMsg : latestMessages) {
+            int existingIndex = -1;
+            for (int i = 0; i < result.size(); i++) {
+                if (result.get(i).getId().equals(newMsg.getId())) {
+                    existingIndex = i;
+                    break;
+                }
+            }
+            if (existingIndex != -1) {
+                if (!result.get(existingIndex).equals(newMsg)) result.set(existingIndex, newMsg);
+            } else {
+                result.add(newMsg);
+            }
+        }
+        result.sort(Comparator.comparing(ForumMessage::getTimestamp));
+        return result;
+    }
+
+    /**
+     * Creates a message whose timestamp sorts by its number.
+     */
+    private static ForumMessage message(int number) {
+        return new ForumMessage(String.format("m%06d", number), "text " + number,
+                String.format("2026-01-01T%06d", number), "user" + (number % 7));
+    }
+
+    private static List<String> ids(List<ForumMessage> messages) {
+        List<String> ids = new ArrayList<>();
+        for (ForumMessage message : messages) ids.add(message.getId());
+        return ids;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.sagivproject.services.forum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.sagivproject.models.ForumMessage;
+import com.example.sagivproject.services.DatabaseCallback;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reports what scrolling from the latest message to the first of a 10,000-message category and
+ * back costs, for {@link ForumPager} and for the paging it replaced, to logcat under the
+ * {@value #TAG} tag: the peak number of loaded messages, the stalled frames and the work per frame.
+ * <p>
+ * Each simulated frame scrolls one row with {@value #VISIBLE_ROWS} rows visible, and a page
+ * arrives {@value #LATENCY_FRAMES} frames (about 160 ms) after it is requested. A frame is stalled
+ * when the viewport has reached an edge whose next page has not arrived yet. The replaced paging
+ * read 20 messages only once the first row was reached and never unloaded anything. Both run once
+ * unmeasured first, to warm up the runtime.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ForumPagerScrollTest {
+    private static final String TAG = "ForumPagerScroll";
+    private static final int MESSAGES = 10_000;
+    private static final int VISIBLE_ROWS = 8;
+    private static final int LATENCY_FRAMES = 10;
+    private static final Comparator<ForumMessage> ORDER = Comparator.comparing(ForumMessage::getTimestamp)
+            .thenComparing(ForumMessage::getId);
+
+    @Test
+    public void scrollThrough10000Messages() {
+        scroll(true);
+        scroll(false);
+        ScrollReport pager = scroll(true);
+        ScrollReport legacy = scroll(false);
+        log("Pager", pager);
+        log("Legacy paging", legacy);
+
+        assertTrue(pager.peakLoaded <= 150);
+        assertTrue(pager.stalledFrames < legacy.stalledFrames);
+    }
+
+    private static ScrollReport scroll(boolean usePager) {
+        List<ForumMessage> all = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) all.add(message(i));
+        DelayedSource source = new DelayedSource(all);
+        ForumMessageStore store = new ForumMessageStore();
+        Viewport viewport = new Viewport();
+        store.setListener(viewport);
+        ForumPager pager = new ForumPager(store, source, 20, 150, e -> {
+        });
+        LegacyPaging legacy = new LegacyPaging(store, source);
+
+        store.putAll(all.subList(MESSAGES - 50, MESSAGES));
+        viewport.first = store.size() - VISIBLE_ROWS;
+        ScrollReport report = new ScrollReport();
+
+        // Up to the first message, then back down to the latest one
+        for (int direction = -1; direction <= 1; direction += 2) {
+            while (true) {
+                int last = viewport.first + VISIBLE_ROWS - 1;
+                boolean atTop = viewport.first == 0;
+                boolean atBottom = last >= store.size() - 1;
+                boolean moreAbove = usePager ? pager.hasMoreOlder() : legacy.hasMoreOlder;
+                boolean moreBelow = usePager && pager.isDetached();
+                if (direction < 0 && atTop && !moreAbove) break;
+                if (direction > 0 && atBottom && !moreBelow) break;
+
+                if (direction < 0 ? atTop : atBottom) report.stalledFrames++;
+                viewport.first = Math.max(0, Math.min(store.size() - VISIBLE_ROWS, viewport.first + direction));
+
+                long start = SystemClock.elapsedRealtimeNanos();
+                if (usePager) pager.onVisibleRangeChanged(viewport.first, viewport.first + VISIBLE_ROWS - 1);
+                else legacy.onScrolled(viewport.first);
+                source.tick();
+                long frameNanos = SystemClock.elapsedRealtimeNanos() - start;
+                report.frames++;
+                report.totalNanos += frameNanos;
+                report.maxFrameNanos = Math.max(report.maxFrameNanos, frameNanos);
+                report.peakLoaded = Math.max(report.peakLoaded, store.size());
+            }
+        }
+        assertEquals(all.get(MESSAGES - 1).getId(), store.getNewest().getId());
+        return report;
+    }
+
+    private static void log(String label, ScrollReport report) {
+        Log.i(TAG, label + ": " + MESSAGES + " messages, peak " + report.peakLoaded + " loaded, "
+                + report.stalledFrames + " stalled frames, " + report.totalNanos / 1000 / Math.max(1, report.frames)
+                + "us mean / " + report.maxFrameNanos / 1000 + "us max work per frame");
+    }
+
+    /**
+     * Creates a message whose timestamp sorts by its number.
+     */
+    private static ForumMessage message(int number) {
+        return new ForumMessage(String.format("m%06d", number), "text " + number,
+                String.format("2026-01-01T%06d", number), "user" + (number % 7));
+    }
+
+    private static final class ScrollReport {
+        private int peakLoaded;
+        private int stalledFrames;
+        private int frames;
+        private long totalNanos;
+        private long maxFrameNanos;
+    }
+
+    /**
+     * Keeps the first visible row on the same message when rows are inserted or removed above it,
+     * as a RecyclerView does.
+     */
+    private static final class Viewport implements ForumMessageStore.Listener {
+        private int first;
+
+        @Override
+        public void onItemRangeInserted(int position, int count) {
+            if (position <= first) first += count;
+        }
+
+        @Override
+        public void onItemChanged(int position) {
+        }
+
+        @Override
+        public void onItemRemoved(int position) {
+            if (position < first) first--;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int position, int count) {
+            if (position < first) first -= Math.min(count, first - position);
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+        }
+    }
+
+    /**
+     * The paging {@code ForumActivity} did before: a page of 20 once the first row is reached.
+     */
+    private static final class LegacyPaging {
+        private final ForumMessageStore store;
+        private final DelayedSource source;
+        private boolean loading = false;
+        private boolean hasMoreOlder = true;
+
+        private LegacyPaging(ForumMessageStore store, DelayedSource source) {
+            this.store = store;
+            this.source = source;
+        }
+
+        private void onScrolled(int first) {
+            if (first != 0 || loading || !hasMoreOlder) return;
+            loading = true;
+            source.loadBefore(store.getOldest(), 20, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(List<ForumMessage> page) {
+                    if (page.isEmpty()) hasMoreOlder = false;
+                    else store.putAll(page);
+                    loading = false;
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    loading = false;
+                }
+            });
+        }
+    }
+
+    /**
+     * Serves pages from a sorted list, each delivered {@value #LATENCY_FRAMES} calls to
+     * {@link #tick} after it was requested.
+     */
+    private static final class DelayedSource implements ForumPager.PageSource {
+        private final List<ForumMessage> all;
+        private final List<Delivery> pending = new ArrayList<>();
+
+        private DelayedSource(List<ForumMessage> all) {
+            this.all = all;
+        }
+
+        @Override
+        public void loadBefore(ForumMessage before, int limit, DatabaseCallback<List<ForumMessage>> callback) {
+            int end = before == null ? all.size() : position(before);
+            enqueue(all.subList(Math.max(0, end - limit), end), callback);
+        }
+
+        @Override
+        public void loadAfter(ForumMessage after, int limit, DatabaseCallback<List<ForumMessage>> callback) {
+            int start = position(after) + 1;
+            enqueue(all.subList(start, Math.min(all.size(), start + limit)), callback);
+        }
+
+        private void tick() {
+            for (Delivery delivery : new ArrayList<>(pending)) {
+                if (--delivery.framesLeft <= 0) {
+                    pending.remove(delivery);
+                    delivery.callback.onCompleted(delivery.page);
+                }
+            }
+        }
+
+        private int position(ForumMessage message) {
+            return Collections.binarySearch(all, message, ORDER);
+        }
+
+        private void enqueue(List<ForumMessage> page, DatabaseCallback<List<ForumMessage>> callback) {
+            Delivery delivery = new Delivery();
+            delivery.page = new ArrayList<>(page);
+            delivery.callback = callback;
+            delivery.framesLeft = LATENCY_FRAMES;
+            pending.add(delivery);
+        }
+    }
+
+    private static final class Delivery {
+        private List<ForumMessage> page;
+        private DatabaseCallback<List<ForumMessage>> callback;
+        private int framesLeft;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sagivproject.services.game;
+
+import static org.junit.Assert.assertEquals;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.GameRoom;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays complete games between two {@link MemoryGameEngine}s sharing one room in memory and
+ * reports moves per second to logcat under the {@value #TAG} tag.
+ * <p>
+ * This measures the engine alone, on the device; {@code MemoryGameSimulatorTest} measures it
+ * together with the database. The bots pick random closed cards, and a warm-up round is played
+ * before the measured one. The number of games defaults to {@value #DEFAULT_GAMES} and can be set
+ * with the {@code games} instrumentation argument.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class MemoryGameEngineBenchmarkTest {
+    private static final String TAG = "MemoryGameEngineBenchmark";
+    private static final String DEFAULT_GAMES = "10000";
+    private static final int WARM_UP_GAMES = 1000;
+    private static final int PAIR_COUNT = 6;
+    private static final String PLAYER1 = "p1";
+    private static final String PLAYER2 = "p2";
+
+    @Test
+    public void inMemoryGames() {
+        int games = Integer.parseInt(InstrumentationRegistry.getArguments().getString("games", DEFAULT_GAMES));
+        playGames(WARM_UP_GAMES, 1);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        long[] result = playGames(games, 7);
+        double seconds = (SystemClock.elapsedRealtimeNanos() - start) / 1e9;
+
+        Log.i(TAG, result[0] + " games, " + result[1] + " moves, " + Math.round(result[1] / seconds) + " moves/sec");
+        assertEquals(games, result[0]);
+    }
+
+    /**
+     * Plays complete games between two engines that pick random closed cards.
+     *
+     * @return The number of completed games and the number of moves sent.
+     */
+    private static long[] playGames(int games, long seed) {
+        Random random = new Random(seed);
+        long[] result = new long[2];
+        for (int g = 0; g < games; g++) {
+            GameRoom shared = createRoom(random);
+            long[] clock = {0};
+            GameTransport transport = move -> {
+                result[1]++;
+                MemoryGameEngine.apply(shared, move);
+            };
+            MemoryGameEngine[] players = {
+                    new MemoryGameEngine(PLAYER1, () -> clock[0], transport),
+                    new MemoryGameEngine(PLAYER2, () -> clock[0], transport)
+            };
+            for (MemoryGameEngine player : players) player.setRoom(shared);
+
+            int guard = 0;
+            while (!players[0].isBoardComplete() && guard++ < 10000) {
+                MemoryGameEngine player = players[0].isMyTurn() ? players[0] : players[1];
+                int first = pickClosedCard(shared, random, -1);
+                int second = pickClosedCard(shared, random, first);
+                player.selectCard(first);
+                player.selectCard(second);
+                if (!player.checkMatch(first, second)) player.endTurn(first, second);
+                clock[0] += 1000;
+            }
+            if (players[0].isBoardComplete()) result[0]++;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a playing room with a shuffled board of {@value #PAIR_COUNT} pairs.
+     */
+    private static GameRoom createRoom(Random random) {
+        GameRoom room = new GameRoom("room1", PLAYER1, PLAYER2);
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            cards.add(new Card("card" + i, null));
+            cards.add(new Card("card" + i, null));
+        }
+        for (int i = cards.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            cards.set(i, cards.set(j, cards.get(i)));
+        }
+        room.setCards(cards);
+        room.setCurrentTurnUid(PLAYER1);
+        room.setTurnDeadline(MemoryGameEngine.TURN_TIME_LIMIT);
+        room.setGameDeadline(MemoryGameEngine.TOTAL_GAME_TIME_LIMIT);
+        return room;
+    }
+
+    private static int pickClosedCard(GameRoom room, Random random, int except) {
+        List<Integer> closed = new ArrayList<>();
+        for (int i = 0; i < room.getCards().size(); i++) {
+            Card card = room.getCards().get(i);
+            if (i != except && !card.getIsMatched() && !card.getIsRevealed()) closed.add(i);
+        }
+        return closed.get(random.nextInt(closed.size()));
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.DailyStats;
+import com.example.sagivproject.models.User;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IUserService.UserProjection;
+import com.example.sagivproject.services.ReadMode;
+import com.example.sagivproject.utils.CalendarUtil;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Measures the time from starting a screen's read to its first render, that is the first
+ * callback with data, for the splash and math screens. Results (p50/p95 over the runs) are
+ * written to logcat under the {@value #TAG} tag.
+ * <p>
+ * The reads go through a connection with disk persistence enabled and the user's nodes synced,
+ * as the app is set up after login. Each screen is measured reading from the server only
+ * ({@link ReadMode#FRESH}), cached first ({@link ReadMode#CACHED_THEN_FRESH}), and cached first
+ * while offline. The math screen used to read the whole user, like the splash screen, and now
+ * reads only today's statistics node.
+ * </p>
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}. The number of runs defaults to
+ * {@value #DEFAULT_RUNS} and can be set with the {@code runs} instrumentation argument.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class FirstRenderLatencyTest {
+    private static final String TAG = "FirstRenderLatency";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final String DEFAULT_RUNS = "20";
+    private static final String UID = "u1";
+    private static final int DAYS = 365;
+
+    private final List<FirebaseApp> apps = new ArrayList<>();
+    private final String today = new CalendarUtil().getCurrentDate();
+    private Context context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Tasks.await(connect(false).getReference().setValue(createUserNodes()), 60, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Tasks.await(connect(false).getReference().removeValue(), 60, TimeUnit.SECONDS);
+        for (FirebaseApp app : apps) app.delete();
+    }
+
+    @Test
+    public void timeToFirstRender() throws Exception {
+        FirebaseDatabase database = connect(true);
+        UserServiceImpl userService = new UserServiceImpl(database, new LocalFileBlobStore(new File(context.getCacheDir(), TAG)));
+        StatsServiceImpl statsService = new StatsServiceImpl(database, new CalendarUtil());
+        userService.setUserSynced(UID, true);
+        assertNotNull(firstResult(callback -> userService.getUser(UID, UserProjection.FULL, ReadMode.FRESH, callback)));
+
+        for (ReadMode mode : ReadMode.values()) {
+            measure("Whole user (SplashActivity), " + mode,
+                    () -> firstResult(callback -> userService.getUser(UID, UserProjection.FULL, mode, callback)));
+            measure("MathProblemsActivity (today's statistics), " + mode,
+                    () -> firstResult(callback -> statsService.getDailyStats(UID, today, mode, callback)));
+        }
+
+        database.goOffline();
+        try {
+            measure("Whole user (SplashActivity), offline", () -> {
+                User user = firstResult(callback -> userService.getUser(UID, UserProjection.FULL, ReadMode.CACHED_THEN_FRESH, callback));
+                assertEquals(DAYS, user.getDailyStats().size());
+                return user;
+            });
+            measure("MathProblemsActivity (today's statistics), offline",
+                    () -> firstResult(callback -> statsService.getDailyStats(UID, today, ReadMode.CACHED_THEN_FRESH, callback)));
+        } finally {
+            database.goOnline();
+        }
+    }
+
+    /**
+     * Runs a read the configured number of times and logs the percentiles of its duration.
+     */
+    private void measure(String label, ThrowingSupplier<Object> read) throws Exception {
+        int runs = Integer.parseInt(InstrumentationRegistry.getArguments().getString("runs", DEFAULT_RUNS));
+        List<Long> latencies = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            long start = SystemClock.elapsedRealtime();
+            assertNotNull(label, read.get());
+            latencies.add(SystemClock.elapsedRealtime() - start);
+        }
+        Collections.sort(latencies);
+        Log.i(TAG, label + ": first render p50 " + latencies.get(runs / 2) + "ms, p95 "
+                + latencies.get(Math.min(runs - 1, runs * 95 / 100)) + "ms");
+    }
+
+    private FirebaseDatabase connect(boolean persistent) {
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context),
+                TAG + "-" + apps.size() + "-" + System.currentTimeMillis());
+        apps.add(app);
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        if (persistent) database.setPersistenceEnabled(true);
+        database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        return database;
+    }
+
+    /**
+     * Builds the normalized nodes of a user with a year of daily statistics.
+     */
+    private Map<String, Object> createUserNodes() {
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("id", UID);
+        profile.put("firstName", "Dana");
+        profile.put("lastName", "Levi");
+        profile.put("email", "dana@example.com");
+        profile.put("role", User.UserRole.REGULAR.name());
+
+        Map<String, Object> dailyStats = new HashMap<>();
+        LocalDate date = LocalDate.parse(today);
+        for (int i = 0; i < DAYS; i++) {
+            DailyStats day = new DailyStats();
+            day.setId(date.toString());
+            day.setMathCorrect(i % 20);
+            day.setMathWrong(i % 5);
+            dailyStats.put(date.toString(), day);
+            date = date.minusDays(1);
+        }
+
+        Map<String, Object> root = new HashMap<>();
+        root.put("user_profiles", Collections.singletonMap(UID, profile));
+        root.put("user_stats", Collections.singletonMap(UID, dailyStats));
+        return root;
+    }
+
+    /**
+     * Starts a read and waits for its first callback; a revalidated read completes again later,
+     * which is ignored.
+     */
+    private static <T> T firstResult(Consumer<DatabaseCallback<T>> call) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean delivered = new AtomicBoolean();
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        call.accept(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(T object) {
+                if (!delivered.compareAndSet(false, true)) return;
+                result.set(object);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (!delivered.compareAndSet(false, true)) return;
+                error.set(e);
+                latch.countDown();
+            }
+        });
+        if (!latch.await(60, TimeUnit.SECONDS)) throw new AssertionError("Timed out");
+        if (error.get() != null) throw error.get();
+        return result.get();
+    }
+
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.GameMove;
+import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.game.MemoryGameEngine;
+import com.example.sagivproject.utils.BoardCodec;
+import com.example.sagivproject.utils.CalendarUtil;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the listener callbacks and bytes of one matching turn (two card selections and the
+ * match check) written field by field, as before {@link GameMove}, with the same turn written as
+ * moves. Bytes written are the JSON size of the updates; bytes received are the JSON size of the
+ * room delivered to the room listener on every callback. The field-by-field turn runs on a room
+ * with the legacy list of cards, the moves on the compact board. Results are written to logcat
+ * under the {@value #TAG} tag.
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class GameMoveTest {
+    private static final String TAG = "GameMoveTest";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final String ROOM_ID = "room1";
+    private static final String PLAYER1 = "p1";
+    private static final String PLAYER2 = "p2";
+
+    private static FirebaseDatabase database;
+
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+    private MemoryGameServiceImpl gameService;
+    private DatabaseReference roomReference;
+    private ValueEventListener listener;
+    private GameRoom room;
+    private int callbacks;
+    private int bytesReceived;
+    private int bytesWritten;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        if (database == null) {
+            FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context), TAG);
+            database = FirebaseDatabase.getInstance(app);
+            database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        }
+        gameService = new MemoryGameServiceImpl(database, new CalendarUtil(), new ServerClock(database));
+        roomReference = database.getReference("rooms/" + ROOM_ID);
+
+        room = new GameRoom(ROOM_ID, PLAYER1, PLAYER2);
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            cards.add(new Card("card" + i, null));
+            cards.add(new Card("card" + i, null));
+        }
+        room.setCards(cards);
+        room.setCurrentTurnUid(PLAYER1);
+    }
+
+    /**
+     * Writes the room and starts counting the callbacks of a listener on it.
+     *
+     * @param legacyBoard Whether to store the board as the legacy list of cards.
+     */
+    private void seedRoom(boolean legacyBoard) throws Exception {
+        Tasks.await(roomReference.setValue(room), 30, TimeUnit.SECONDS);
+        if (legacyBoard) {
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("board", null);
+            updates.put("revealedMask", null);
+            updates.put("matchedMask", null);
+            updates.put("cards", room.getCards());
+            Tasks.await(roomReference.updateChildren(updates), 30, TimeUnit.SECONDS);
+        }
+
+        listener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callbacks++;
+                bytesReceived += jsonBytes(snapshot.getValue());
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+            }
+        };
+        roomReference.addValueEventListener(listener);
+        settle();
+        callbacks = 0;
+        bytesReceived = 0;
+    }
+
+    @After
+    public void tearDown() {
+        if (listener != null) roomReference.removeEventListener(listener);
+    }
+
+    @Test
+    public void matchingTurn_fieldByField() throws Exception {
+        seedRoom(true);
+        setCard(0, true, false);
+        set("firstSelectedCardIndex", 0);
+        set("processingMatch", true);
+        setCard(1, true, false);
+        setCard(0, true, true);
+        setCard(1, true, true);
+        incrementScoreInTransaction();
+        set("firstSelectedCardIndex", null);
+        set("processingMatch", false);
+        settle();
+
+        Log.i(TAG, "Field by field: " + callbacks + " callbacks, " + bytesWritten + " bytes written, "
+                + bytesReceived + " bytes received");
+        assertScored(true);
+    }
+
+    @Test
+    public void matchingTurn_asMoves() throws Exception {
+        seedRoom(false);
+        List<GameMove> moves = new ArrayList<>();
+        moves.add(new GameMove().setCard(0, true, false).setFirstSelectedCardIndex(0));
+        moves.add(new GameMove().setCard(1, true, false).setProcessingMatch(true));
+        moves.add(new GameMove()
+                .setCard(0, true, true)
+                .setCard(1, true, true)
+                .addPoint(room, PLAYER1)
+                .setFirstSelectedCardIndex(null)
+                .setProcessingMatch(false));
+
+        for (GameMove move : moves) {
+            move.onBoard(room.getCards());
+            MemoryGameEngine.apply(room, move);
+            bytesWritten += jsonBytes(gameService.createMoveUpdates(ROOM_ID, move));
+            TaskCompletionSource<Void> done = new TaskCompletionSource<>();
+            gameService.applyMove(ROOM_ID, move, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(Void object) {
+                    done.setResult(null);
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    done.setException(e);
+                }
+            });
+            Tasks.await(done.getTask(), 30, TimeUnit.SECONDS);
+        }
+        settle();
+
+        Log.i(TAG, "Moves: " + callbacks + " callbacks, " + bytesWritten + " bytes written, "
+                + bytesReceived + " bytes received");
+        assertEquals(moves.size(), callbacks);
+        assertScored(false);
+    }
+
+    private void assertScored(boolean legacyBoard) throws Exception {
+        DataSnapshot snapshot = Tasks.await(roomReference.get(), 30, TimeUnit.SECONDS);
+        GameRoom result = snapshot.getValue(GameRoom.class);
+        List<Card> cards = legacyBoard ? BoardCodec.readLegacy(snapshot.child("cards").getValue()) : result.getCards();
+        assertEquals(1, result.getPlayer1Score());
+        assertTrue(cards.get(0).getIsMatched());
+        assertTrue(cards.get(1).getIsMatched());
+        assertNull(result.getFirstSelectedCardIndex());
+    }
+
+    private void set(String field, Object value) throws Exception {
+        bytesWritten += jsonBytes(value);
+        Tasks.await(roomReference.child(field).setValue(value), 30, TimeUnit.SECONDS);
+    }
+
+    private void setCard(int index, boolean revealed, boolean matched) throws Exception {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("isRevealed", revealed);
+        updates.put("isMatched", matched);
+        bytesWritten += jsonBytes(updates);
+        Tasks.await(roomReference.child("cards/" + index).updateChildren(updates), 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Increments the score the way the service did before moves: a transaction that reads and
+     * uploads the whole room.
+     */
+    private void incrementScoreInTransaction() throws Exception {
+        TaskCompletionSource<Void> done = new TaskCompletionSource<>();
+        roomReference.runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                GameRoom current = currentData.getValue(GameRoom.class);
+                if (current == null) return Transaction.success(currentData);
+                current.setPlayer1Score(current.getPlayer1Score() + 1);
+                currentData.setValue(current);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    done.setException(error.toException());
+                } else {
+                    bytesWritten += jsonBytes(snapshot.getValue());
+                    done.setResult(null);
+                }
+            }
+        });
+        Tasks.await(done.getTask(), 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Waits until every listener callback queued on the main thread has run.
+     */
+    private static void settle() {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    private int jsonBytes(Object value) {
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8).length;
+    }
+}
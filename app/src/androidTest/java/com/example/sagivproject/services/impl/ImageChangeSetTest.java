@@ -0,0 +1,131 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.ImageData;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Checks that a single-image change to a 500-image catalog only writes the affected records.
+ * Bytes written are measured as the JSON size of the multi-path update sent to the database.
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageChangeSetTest {
+    private static final String TAG = "ImageChangeSetTest";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final int CATALOG_SIZE = 500;
+    private static final int IMAGE_BYTES = 16 * 1024;
+
+    private static FirebaseDatabase database;
+
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+    private ImageServiceImpl imageService;
+    private Map<String, ImageData> catalog;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        if (database == null) {
+            FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context), TAG);
+            database = FirebaseDatabase.getInstance(app);
+            database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        }
+        imageService = new ImageServiceImpl(database, new LocalFileBlobStore(new File(context.getCacheDir(), TAG)));
+
+        catalog = new HashMap<>();
+        for (int i = 1; i <= CATALOG_SIZE; i++) {
+            String id = "card" + i;
+            char[] body = new char[IMAGE_BYTES * 4 / 3];
+            Arrays.fill(body, (char) ('A' + i % 26));
+            catalog.put(id, new ImageData(id, new String(body)));
+        }
+        Map<String, Object> root = new HashMap<>();
+        root.put("images", catalog);
+        Tasks.await(database.getReference().setValue(root), 60, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void deleteWithRenumbering_writesOnlyTwoRecords() throws Exception {
+        ImageData last = catalog.get("card" + CATALOG_SIZE);
+        ImageData moved = new ImageData("card7", last.getBase64());
+        List<String> removed = Collections.singletonList("card7");
+        Map<String, ImageData> renamed = Collections.singletonMap(last.getId(), moved);
+
+        int changeBytes = jsonBytes(imageService.createChangeUpdates(Collections.emptyList(), removed, renamed));
+        int fullBytes = jsonBytes(catalog);
+        Log.i(TAG, "Change set " + changeBytes + " bytes, full catalog " + fullBytes + " bytes");
+
+        assertTrue("Change set wrote " + changeBytes + " bytes", changeBytes < 2 * (IMAGE_BYTES * 4 / 3) + 1024);
+
+        await(callback -> imageService.applyImageChanges(Collections.emptyList(), removed, renamed, callback));
+        DataSnapshot images = Tasks.await(database.getReference("images").get(), 60, TimeUnit.SECONDS);
+        assertEquals(CATALOG_SIZE - 1, images.getChildrenCount());
+        assertFalse(images.hasChild(last.getId()));
+        assertEquals(last.getBase64(), images.child("card7").child("base64").getValue(String.class));
+    }
+
+    @Test
+    public void emptyChangeSet_writesNothing() {
+        assertTrue(imageService.createChangeUpdates(Collections.emptyList(), Collections.emptyList(), Collections.emptyMap()).isEmpty());
+    }
+
+    private int jsonBytes(Object value) {
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void await(Consumer<DatabaseCallback<Void>> call) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        call.accept(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void object) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                error.set(e);
+                latch.countDown();
+            }
+        });
+        if (!latch.await(60, TimeUnit.SECONDS)) throw new AssertionError("Timed out");
+        if (error.get() != null) throw error.get();
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.models.User;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.utils.CalendarUtil;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stress test of the sharded matchmaking queue of {@link MemoryGameServiceImpl}: many players
+ * search at once, a share of them cancel while waiting, and the test checks that nobody is left
+ * stuck and that no room is created against a player who left. The run is repeated with 10, 100 and
+ * 1000 players, and the median and p99 pairing latency of each is written to logcat under the
+ * {@value #TAG} tag.
+ * <p>
+ * Players are spread over several database connections, so claims and cancels race through the
+ * database as they do between devices. A waiting player retries like the game home screen does,
+ * and a player whose room is torn down by a cancelling opponent searches again. The run ends once
+ * at most one player is still searching, and the final {@code rooms} and queue are then checked.
+ * </p>
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class MatchmakingStressTest {
+    private static final String TAG = "MatchmakingStress";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final int CONNECTIONS = 4;
+    private static final int CANCEL_EVERY = 5;
+    private static final int MAX_CANCEL_DELAY_MILLIS = 300;
+    private static final long RETRY_INTERVAL = 1000;
+
+    private static final List<FirebaseDatabase> databases = new ArrayList<>();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Player> players = new ArrayList<>();
+    private final List<Long> latencies = new ArrayList<>();
+    private long searches, failures;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context), TAG + "-" + i);
+            FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+            database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+            databases.add(database);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        reset();
+    }
+
+    @Test
+    public void concurrentMatchmaking() throws Exception {
+        for (int count : new int[]{10, 100, 1000}) {
+            runPlayers(count);
+            reset();
+        }
+    }
+
+    /**
+     * Stops the players of the last run, clears their results and empties the rooms and queue.
+     */
+    private void reset() throws Exception {
+        CountDownLatch stopped = new CountDownLatch(1);
+        mainHandler.post(() -> {
+            for (Player player : players) player.stop();
+            players.clear();
+            latencies.clear();
+            searches = 0;
+            failures = 0;
+            stopped.countDown();
+        });
+        stopped.await(10, TimeUnit.SECONDS);
+        FirebaseDatabase database = databases.get(0);
+        Tasks.await(database.getReference("rooms").removeValue(), 60, TimeUnit.SECONDS);
+        Tasks.await(database.getReference("matchmaking").removeValue(), 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Lets {@code count} players search at once, logs their pairing latency and checks the
+     * final rooms and queue.
+     */
+    private void runPlayers(int count) throws Exception {
+        List<MemoryGameServiceImpl> services = new ArrayList<>();
+        for (FirebaseDatabase database : databases) {
+            services.add(new MemoryGameServiceImpl(database, new CalendarUtil(), new ServerClock(database)));
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        mainHandler.post(() -> {
+            Random random = new Random(count);
+            for (int i = 0; i < count; i++) {
+                int connection = i % CONNECTIONS;
+                long cancelDelay = (i % CANCEL_EVERY == 0) ? random.nextInt(MAX_CANCEL_DELAY_MILLIS) : -1;
+                players.add(new Player("player" + i, databases.get(connection), services.get(connection), cancelDelay));
+            }
+            for (Player player : players) player.start();
+        });
+        boolean settled = awaitSettled(TimeUnit.MINUTES.toMillis(5));
+        long elapsed = SystemClock.elapsedRealtime() - start;
+
+        // Stop retrying and outlive every claim, so a late claimer would have created its room by now
+        mainHandler.post(() -> {
+            for (Player player : players) player.stop();
+        });
+        Thread.sleep(MemoryGameServiceImpl.CLAIM_TIMEOUT);
+        DataSnapshot rooms = Tasks.await(databases.get(0).getReference("rooms").get(), 60, TimeUnit.SECONDS);
+        DataSnapshot queue = Tasks.await(databases.get(0).getReference("matchmaking/waiting").get(), 60, TimeUnit.SECONDS);
+
+        CountDownLatch reported = new CountDownLatch(1);
+        Map<String, Player> byUid = new HashMap<>();
+        mainHandler.post(() -> {
+            for (Player player : players) byUid.put(player.uid, player);
+            Collections.sort(latencies);
+            Log.i(TAG, players.size() + " players in " + elapsed + "ms: " + searches + " searches, "
+                    + latencies.size() + " pairings, latency p50 " + percentile(50) + "ms, p99 "
+                    + percentile(99) + "ms, " + failures + " failures");
+            reported.countDown();
+        });
+        reported.await(10, TimeUnit.SECONDS);
+
+        assertTrue(count + " players: players still searching after the timeout", settled);
+        assertEquals(0, failures);
+
+        Set<String> seated = new HashSet<>();
+        int waitingTickets = 0;
+        for (DataSnapshot shard : queue.getChildren()) waitingTickets += (int) shard.getChildrenCount();
+        for (DataSnapshot child : rooms.getChildren()) {
+            GameRoom room = child.getValue(GameRoom.class);
+            if (room == null || !"playing".equals(room.getStatus())) continue;
+            for (String uid : new String[]{room.getPlayer1Uid(), room.getPlayer2Uid()}) {
+                Player player = byUid.get(uid);
+                assertFalse("Room " + room.getId() + " was created against " + uid + " who cancelled", player.cancelled);
+                assertTrue(uid + " is seated in more than one room", seated.add(uid));
+                assertEquals(uid + " is not following its room", room.getId(), player.pairedRoomId);
+            }
+        }
+        int searching = 0;
+        for (Player player : players) {
+            if (!player.cancelled && player.pairedRoomId == null) searching++;
+        }
+        assertTrue("More than one player left without a room", searching <= 1);
+        assertEquals("Tickets left in the queue", searching, waitingTickets);
+    }
+
+    /**
+     * Waits until at most one player is still searching and no pairing is in flight.
+     */
+    private boolean awaitSettled(long timeoutMillis) throws InterruptedException {
+        long deadline = SystemClock.elapsedRealtime() + timeoutMillis;
+        while (SystemClock.elapsedRealtime() < deadline) {
+            CountDownLatch checked = new CountDownLatch(1);
+            int[] searching = new int[1];
+            mainHandler.post(() -> {
+                for (Player player : players) {
+                    if (!player.cancelled && (player.pairedRoomId == null || player.searchPending)) searching[0]++;
+                }
+                checked.countDown();
+            });
+            checked.await(10, TimeUnit.SECONDS);
+            if (!players.isEmpty() && searching[0] <= 1) return true;
+            Thread.sleep(500);
+        }
+        return false;
+    }
+
+    private long percentile(int percent) {
+        if (latencies.isEmpty()) return 0;
+        return latencies.get(Math.min(latencies.size() - 1, latencies.size() * percent / 100));
+    }
+
+    /**
+     * One player searching for an opponent. Everything runs on the main thread, like the
+     * database callbacks.
+     */
+    private class Player implements ValueEventListener {
+        private final String uid;
+        private final User user;
+        private final FirebaseDatabase database;
+        private final MemoryGameServiceImpl service;
+        private final long cancelDelay;
+        private GameRoom currentRoom;
+        private DatabaseReference roomReference;
+        private String pairedRoomId;
+        private long searchStartedAt;
+        private boolean searchPending, roomSeen, cancelled, stopped;
+
+        Player(String uid, FirebaseDatabase database, MemoryGameServiceImpl service, long cancelDelay) {
+            this.uid = uid;
+            this.user = new User();
+            this.user.setId(uid);
+            this.database = database;
+            this.service = service;
+            this.cancelDelay = cancelDelay;
+        }
+
+        void start() {
+            search();
+            if (cancelDelay >= 0) mainHandler.postDelayed(this::cancelIfWaiting, cancelDelay);
+        }
+
+        void stop() {
+            stopped = true;
+            unfollow();
+        }
+
+        private void search() {
+            searches++;
+            searchPending = true;
+            pairedRoomId = null;
+            searchStartedAt = SystemClock.elapsedRealtime();
+            service.findOrCreateRoom(user, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(GameRoom room) {
+                    searchPending = false;
+                    if (cancelled || stopped) return;
+                    follow(room);
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    searchPending = false;
+                    // A search of an earlier run may fail once its rooms are cleared
+                    if (stopped) return;
+                    Log.e(TAG, "Search of " + uid + " failed", e);
+                    failures++;
+                }
+            });
+        }
+
+        private void retry() {
+            GameRoom waitingRoom = currentRoom;
+            if (cancelled || stopped || waitingRoom == null || pairedRoomId != null) return;
+            searchPending = true;
+            service.retryMatchmaking(waitingRoom, user, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(GameRoom room) {
+                    searchPending = false;
+                    if (cancelled || stopped || currentRoom != waitingRoom || pairedRoomId != null) return;
+                    if (room.getId().equals(waitingRoom.getId()) && !"playing".equals(room.getStatus())) {
+                        currentRoom = room;
+                        mainHandler.postDelayed(Player.this::retry, RETRY_INTERVAL);
+                    } else {
+                        follow(room);
+                    }
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    searchPending = false;
+                    mainHandler.postDelayed(Player.this::retry, RETRY_INTERVAL);
+                }
+            });
+        }
+
+        /**
+         * Listens to a room, like the game home screen and the game screen do.
+         */
+        private void follow(GameRoom room) {
+            unfollow();
+            currentRoom = room;
+            roomSeen = "playing".equals(room.getStatus());
+            roomReference = database.getReference("rooms/" + room.getId());
+            roomReference.addValueEventListener(this);
+            if ("playing".equals(room.getStatus())) paired(room);
+            else mainHandler.postDelayed(this::retry, RETRY_INTERVAL);
+        }
+
+        private void unfollow() {
+            if (roomReference != null) roomReference.removeEventListener(this);
+            roomReference = null;
+        }
+
+        private void paired(GameRoom room) {
+            if (room.getId().equals(pairedRoomId)) return;
+            pairedRoomId = room.getId();
+            latencies.add(SystemClock.elapsedRealtime() - searchStartedAt);
+        }
+
+        /**
+         * Cancels like the game home screen: only while waiting as the room's first player.
+         */
+        private void cancelIfWaiting() {
+            if (stopped || pairedRoomId != null || searchPending || currentRoom == null) return;
+            cancelled = true;
+            unfollow();
+            service.cancelRoom(currentRoom.getId(), null);
+        }
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            if (cancelled || stopped) return;
+            if (!snapshot.exists()) {
+                // The opponent cancelled before the board was dealt, so search again
+                if (roomSeen) {
+                    unfollow();
+                    currentRoom = null;
+                    search();
+                }
+                return;
+            }
+            roomSeen = true;
+            GameRoom room = snapshot.getValue(GameRoom.class);
+            if (room != null && "playing".equals(room.getStatus())) paired(room);
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            if (stopped) return;
+            Log.e(TAG, "Room listener of " + uid + " failed", error.toException());
+            failures++;
+        }
+    }
+}
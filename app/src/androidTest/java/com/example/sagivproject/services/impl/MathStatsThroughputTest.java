@@ -0,0 +1,232 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.net.TrafficStats;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.MedicationUsage;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.utils.CalendarUtil;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares recording math answers with a whole-day {@code DailyStats} transaction per answer,
+ * as done before, with the batched server-side increments of {@link StatsServiceImpl}. Reports
+ * transactions (attempts and retries) per second, database writes and bytes per answer to
+ * logcat under the {@value #TAG} tag.
+ * <p>
+ * Two devices of the same user answer at once, every {@value #ANSWER_INTERVAL_MS}ms, so the
+ * transactions contend on the same day node the way a user answering rapidly in
+ * MathProblemsActivity while another screen writes the day does. The day holds a few medication
+ * usage logs, which the transaction downloads and uploads on every attempt. Bytes are the app's
+ * network traffic ({@link TrafficStats}) over the whole run.
+ * </p>
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}. The number of answers per device defaults to
+ * {@value #DEFAULT_ANSWERS} and can be set with the {@code answers} instrumentation argument.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class MathStatsThroughputTest {
+    private static final String TAG = "MathStatsThroughput";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final String DEFAULT_ANSWERS = "200";
+    private static final int DEVICES = 2;
+    private static final long ANSWER_INTERVAL_MS = 50;
+    private static final String UID = "u1";
+
+    private static final List<FirebaseDatabase> databases = new ArrayList<>();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final String today = new CalendarUtil().getCurrentDate();
+
+    @BeforeClass
+    public static void setUpClass() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        for (int i = 0; i < DEVICES; i++) {
+            FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context), TAG + "-" + i);
+            FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+            database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+            databases.add(database);
+        }
+        assertNotEquals("Traffic statistics are not supported on this device",
+                TrafficStats.UNSUPPORTED, TrafficStats.getUidRxBytes(Process.myUid()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Tasks.await(databases.get(0).getReference().removeValue(), 60, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void transactionPerAnswer() throws Exception {
+        int answers = getAnswerCount();
+        seedDay("legacy_stats/" + UID + "/" + today);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger commits = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(DEVICES * answers);
+
+        long bytesBefore = getTrafficBytes();
+        long start = SystemClock.elapsedRealtime();
+        for (FirebaseDatabase database : databases) {
+            DatabaseReference day = database.getReference("legacy_stats/" + UID + "/" + today);
+            scheduleAnswers(answers, () -> day.runTransaction(new Transaction.Handler() {
+                @NonNull
+                @Override
+                @SuppressWarnings("unchecked")
+                public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                    attempts.incrementAndGet();
+                    Map<String, Object> stats = (Map<String, Object>) currentData.getValue();
+                    if (stats == null) stats = new HashMap<>();
+                    Object correct = stats.get("mathCorrect");
+                    stats.put("mathCorrect", (correct == null) ? 1L : (Long) correct + 1);
+                    currentData.setValue(stats);
+                    return Transaction.success(currentData);
+                }
+
+                @Override
+                public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                    if (committed) commits.incrementAndGet();
+                    done.countDown();
+                }
+            }));
+        }
+        assertTrue("Answers still pending after the timeout", done.await(5, TimeUnit.MINUTES));
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        long bytes = getTrafficBytes() - bytesBefore;
+
+        int total = DEVICES * answers;
+        Log.i(TAG, "Transaction per answer: " + total + " answers in " + elapsed + "ms, " + attempts.get()
+                + " transaction attempts (" + (attempts.get() * 1000L / Math.max(1, elapsed)) + "/sec, "
+                + (attempts.get() - commits.get()) + " retries), " + commits.get() + " writes, "
+                + (bytes / total) + " bytes/answer");
+        assertEquals(total, commits.get());
+        assertEquals(Long.valueOf(total), readCounter("legacy_stats/" + UID + "/" + today + "/mathCorrect"));
+    }
+
+    @Test
+    public void batchedIncrements() throws Exception {
+        int answers = getAnswerCount();
+        seedDay("user_stats/" + UID + "/" + today);
+        List<CountingStatsService> services = new ArrayList<>();
+        for (FirebaseDatabase database : databases) services.add(new CountingStatsService(database));
+
+        long bytesBefore = getTrafficBytes();
+        long start = SystemClock.elapsedRealtime();
+        CountDownLatch answered = new CountDownLatch(DEVICES);
+        for (CountingStatsService service : services) {
+            scheduleAnswers(answers, () -> service.updateDailyMathStats(UID, true));
+            mainHandler.postDelayed(() -> {
+                service.flushPendingStats();
+                answered.countDown();
+            }, answers * ANSWER_INTERVAL_MS);
+        }
+        assertTrue(answered.await(5, TimeUnit.MINUTES));
+
+        int total = DEVICES * answers;
+        String counterPath = "user_stats/" + UID + "/" + today + "/mathCorrect";
+        long deadline = SystemClock.elapsedRealtime() + TimeUnit.MINUTES.toMillis(1);
+        while (!Long.valueOf(total).equals(readCounter(counterPath)) && SystemClock.elapsedRealtime() < deadline) {
+            Thread.sleep(100);
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        long bytes = getTrafficBytes() - bytesBefore;
+
+        int writes = 0;
+        for (CountingStatsService service : services) writes += service.writes.get();
+        Log.i(TAG, "Batched increments: " + total + " answers in " + elapsed + "ms, 0 transactions, " + writes
+                + " writes (" + (writes * 1000L / Math.max(1, elapsed)) + "/sec), " + (bytes / total) + " bytes/answer");
+        assertEquals(Long.valueOf(total), readCounter(counterPath));
+        assertTrue("Answers should be coalesced", writes < total);
+    }
+
+    private int getAnswerCount() {
+        return Integer.parseInt(InstrumentationRegistry.getArguments().getString("answers", DEFAULT_ANSWERS));
+    }
+
+    /**
+     * Posts an answer every {@value #ANSWER_INTERVAL_MS}ms on the main thread, like a user tapping.
+     */
+    private void scheduleAnswers(int answers, Runnable answer) {
+        for (int i = 0; i < answers; i++) mainHandler.postDelayed(answer, i * ANSWER_INTERVAL_MS);
+    }
+
+    /**
+     * Writes the day with a few medication usage logs, as a day of a regular user looks.
+     */
+    private void seedDay(String path) throws Exception {
+        Map<String, Object> day = new HashMap<>();
+        day.put("id", today);
+        day.put("medicationsTaken", 3);
+        List<MedicationUsage> logs = new ArrayList<>();
+        for (String time : new String[]{"08:00", "14:00", "20:00"}) {
+            logs.add(new MedicationUsage(MedicationUsage.createId("m1", time), "m1", time, time, MedicationUsage.MedicationStatus.TAKEN));
+        }
+        day.put("medicationUsageLogs", logs);
+        Tasks.await(databases.get(0).getReference(path).setValue(day), 60, TimeUnit.SECONDS);
+    }
+
+    private Long readCounter(String path) throws Exception {
+        return Tasks.await(databases.get(0).getReference(path).get(), 60, TimeUnit.SECONDS).getValue(Long.class);
+    }
+
+    private static long getTrafficBytes() {
+        int uid = Process.myUid();
+        return TrafficStats.getUidRxBytes(uid) + TrafficStats.getUidTxBytes(uid);
+    }
+
+    /**
+     * Counts the multi-path writes the service sends.
+     */
+    private static class CountingStatsService extends StatsServiceImpl {
+        private final AtomicInteger writes = new AtomicInteger();
+
+        CountingStatsService(FirebaseDatabase database) {
+            super(database, new CalendarUtil());
+        }
+
+        @Override
+        protected void updateChildren(@NotNull Map<String, Object> updates, @Nullable DatabaseCallback<Void> callback) {
+            writes.incrementAndGet();
+            super.updateChildren(updates, callback);
+        }
+    }
+}
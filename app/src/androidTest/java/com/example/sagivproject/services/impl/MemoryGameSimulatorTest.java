@@ -0,0 +1,295 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.GameMove;
+import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.services.IMemoryGameService;
+import com.example.sagivproject.services.game.MemoryGameEngine;
+import com.example.sagivproject.utils.CalendarUtil;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless simulator that plays many concurrent bot games through {@link MemoryGameEngine},
+ * {@link MemoryGameServiceImpl#applyMove} and {@link GameRoomStream}, and reports moves per
+ * second, the conflict rate and the end-to-end move latency to logcat under the {@value #TAG} tag.
+ * <p>
+ * Each game has two bots. All first players share one database connection and all second
+ * players another, so every move reaches the opponent through the database. A conflict is a bot
+ * action that the engine rejected because the room changed while the bot was thinking. The
+ * latency of a move is the time from sending a card change until the opponent's stream reports it.
+ * </p>
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}. The number of games defaults to
+ * {@value #DEFAULT_GAMES} and can be set with the {@code games} instrumentation argument.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class MemoryGameSimulatorTest {
+    private static final String TAG = "MemoryGameSimulator";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final String DEFAULT_GAMES = "1000";
+    private static final int PAIR_COUNT = 6;
+    private static final int MAX_THINK_MILLIS = 20;
+    private static final String PLAYER1 = "bot1";
+    private static final String PLAYER2 = "bot2";
+
+    private static FirebaseDatabase player1Database, player2Database;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Bot> bots = new ArrayList<>();
+    private final Map<String, Long> pendingCardChanges = new HashMap<>();
+    private final List<Long> latencies = new ArrayList<>();
+    private CountDownLatch finished;
+    private long moves, actions, conflicts, failures;
+
+    @BeforeClass
+    public static void setUpClass() {
+        player1Database = connect(TAG + "-1");
+        player2Database = connect(TAG + "-2");
+    }
+
+    private static FirebaseDatabase connect(String appName) {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context), appName);
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        return database;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mainHandler.post(() -> {
+            for (Bot bot : bots) bot.stop();
+        });
+        Tasks.await(player1Database.getReference("rooms").removeValue(), 60, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void concurrentBotGames() throws Exception {
+        int games = Integer.parseInt(InstrumentationRegistry.getArguments().getString("games", DEFAULT_GAMES));
+        seedRooms(games);
+
+        ServerClock player1Clock = new ServerClock(player1Database);
+        ServerClock player2Clock = new ServerClock(player2Database);
+        MemoryGameServiceImpl player1Service = new MemoryGameServiceImpl(player1Database, new CalendarUtil(), player1Clock);
+        MemoryGameServiceImpl player2Service = new MemoryGameServiceImpl(player2Database, new CalendarUtil(), player2Clock);
+        finished = new CountDownLatch(2 * games);
+        long start = SystemClock.elapsedRealtime();
+        mainHandler.post(() -> {
+            for (int i = 0; i < games; i++) {
+                bots.add(new Bot(roomId(i), PLAYER1, player1Database, player1Service, player1Clock, i));
+                bots.add(new Bot(roomId(i), PLAYER2, player2Database, player2Service, player2Clock, games + i));
+            }
+            for (Bot bot : bots) bot.start();
+        });
+        boolean completed = finished.await(10, TimeUnit.MINUTES);
+        long elapsed = SystemClock.elapsedRealtime() - start;
+
+        CountDownLatch reported = new CountDownLatch(1);
+        mainHandler.post(() -> {
+            Collections.sort(latencies);
+            Log.i(TAG, games + " games in " + elapsed + "ms: " + (moves * 1000 / Math.max(1, elapsed)) + " moves/sec, "
+                    + "conflict rate " + String.format(Locale.ROOT, "%.2f%%", 100.0 * conflicts / Math.max(1, actions))
+                    + " (" + conflicts + "/" + actions + "), move latency p50 " + percentile(50) + "ms, p95 "
+                    + percentile(95) + "ms, p99 " + percentile(99) + "ms, " + failures + " stream failures");
+            reported.countDown();
+        });
+        reported.await(10, TimeUnit.SECONDS);
+
+        assertEquals("Games still running after the timeout", 0, completed ? 0 : finished.getCount());
+        assertEquals(0, failures);
+    }
+
+    /**
+     * Writes the rooms of all games, each with a shuffled board and the first player's turn.
+     */
+    private static void seedRooms(int games) throws Exception {
+        Random random = new Random(games);
+        Map<String, Object> rooms = new HashMap<>();
+        for (int i = 0; i < games; i++) {
+            GameRoom room = new GameRoom(roomId(i), PLAYER1, PLAYER2);
+            List<Card> cards = new ArrayList<>();
+            for (int p = 0; p < PAIR_COUNT; p++) {
+                cards.add(new Card("card" + p, null));
+                cards.add(new Card("card" + p, null));
+            }
+            Collections.shuffle(cards, random);
+            room.setCards(cards);
+            room.setCurrentTurnUid(PLAYER1);
+            rooms.put(room.getId(), room);
+        }
+        Tasks.await(player1Database.getReference("rooms").setValue(rooms), 120, TimeUnit.SECONDS);
+    }
+
+    private static String roomId(int game) {
+        return "sim" + game;
+    }
+
+    private long percentile(int percent) {
+        if (latencies.isEmpty()) return 0;
+        return latencies.get(Math.min(latencies.size() - 1, latencies.size() * percent / 100));
+    }
+
+    /**
+     * One player of one game. Everything runs on the main thread, like the database callbacks.
+     */
+    private class Bot implements IMemoryGameService.IGameEventListener {
+        private final String roomId;
+        private final String uid;
+        private final Random random;
+        private final MemoryGameEngine engine;
+        private final GameRoomStream stream;
+        private boolean actionScheduled = false, done = false;
+
+        Bot(String roomId, String uid, FirebaseDatabase database, MemoryGameServiceImpl service, ServerClock clock, long seed) {
+            this.roomId = roomId;
+            this.uid = uid;
+            this.random = new Random(seed);
+            this.engine = new MemoryGameEngine(uid, clock, move -> send(service, move));
+            this.stream = new GameRoomStream(database.getReference("rooms/" + roomId), this);
+        }
+
+        void start() {
+            stream.start();
+        }
+
+        void stop() {
+            stream.stop();
+        }
+
+        private void send(MemoryGameServiceImpl service, GameMove move) {
+            moves++;
+            long now = SystemClock.elapsedRealtime();
+            for (Integer index : move.getCards().keySet()) {
+                pendingCardChanges.put(roomId + "/" + index + "/" + uid, now);
+            }
+            service.applyMove(roomId, move, null);
+        }
+
+        @Override
+        public void onRoomLoaded(@NonNull GameRoom room) {
+            engine.setRoom(room);
+            maybeAct();
+        }
+
+        @Override
+        public void onBoardChanged(@NonNull List<Card> cards) {
+            maybeAct();
+        }
+
+        @Override
+        public void onCardChanged(int index, @NonNull Card card) {
+            Long sentAt = pendingCardChanges.remove(roomId + "/" + index + "/" + engine.getOpponentUid());
+            if (sentAt != null) latencies.add(SystemClock.elapsedRealtime() - sentAt);
+            checkFinished();
+            maybeAct();
+        }
+
+        @Override
+        public void onTurnChanged(@Nullable String currentTurnUid) {
+            maybeAct();
+        }
+
+        @Override
+        public void onScoreChanged(int player1Score, int player2Score) {
+            checkFinished();
+            maybeAct();
+        }
+
+        @Override
+        public void onStatusChanged(@NonNull GameRoom room) {
+        }
+
+        @Override
+        public void onRoomRemoved() {
+            finish();
+        }
+
+        @Override
+        public void onFailed(Exception e) {
+            Log.e(TAG, "Stream of " + roomId + " failed", e);
+            failures++;
+            finish();
+        }
+
+        private void maybeAct() {
+            if (done || actionScheduled || !engine.isMyTurn() || engine.isCheckPending()) return;
+            actionScheduled = true;
+            mainHandler.postDelayed(this::act, 1 + random.nextInt(MAX_THINK_MILLIS));
+        }
+
+        private void act() {
+            actionScheduled = false;
+            GameRoom room = engine.getRoom();
+            if (done || room == null) return;
+            Integer first = room.getFirstSelectedCardIndex();
+            int index = pickClosedCard(room, first);
+            if (index < 0) return;
+
+            actions++;
+            MemoryGameEngine.Selection selection = engine.selectCard(index);
+            if (selection == MemoryGameEngine.Selection.IGNORED) {
+                conflicts++;
+                maybeAct();
+            } else if (selection == MemoryGameEngine.Selection.SECOND_CARD && first != null) {
+                mainHandler.postDelayed(() -> {
+                    if (!done && !engine.checkMatch(first, index)) engine.endTurn(first, index);
+                }, 1 + random.nextInt(MAX_THINK_MILLIS));
+            }
+        }
+
+        private int pickClosedCard(GameRoom room, @Nullable Integer except) {
+            List<Integer> closed = new ArrayList<>();
+            for (int i = 0; i < room.getCards().size(); i++) {
+                Card card = room.getCards().get(i);
+                if ((except == null || i != except) && !card.getIsMatched() && !card.getIsRevealed()) closed.add(i);
+            }
+            return closed.isEmpty() ? -1 : closed.get(random.nextInt(closed.size()));
+        }
+
+        private void checkFinished() {
+            if (engine.isBoardComplete()) finish();
+        }
+
+        private void finish() {
+            if (done) return;
+            done = true;
+            stream.stop();
+            finished.countDown();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.net.TrafficStats;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.EmergencyContact;
+import com.example.sagivproject.models.Medication;
+import com.example.sagivproject.models.MedicationUsage;
+import com.example.sagivproject.models.User;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IUserService.UserProjection;
+import com.example.sagivproject.services.ReadMode;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Measures the bytes each screen transfers to load the signed-in user, comparing the legacy
+ * single {@code users/{uid}} record with the normalized profile and sibling nodes read through
+ * {@link UserServiceImpl} with the screen's {@link UserProjection}. Results are written to logcat
+ * under the {@value #TAG} tag.
+ * <p>
+ * The user has a year of daily statistics with three logged doses a day, ten medications, five
+ * emergency contacts and a profile image. The legacy record is read first, then migrated with
+ * {@link UserServiceImpl#migrateLegacyUsers} and {@link UserServiceImpl#migrateProfileImagesToBlobStore}.
+ * Every read runs on a new database connection, so nothing is served from the client cache,
+ * and the bytes are the app's network traffic ({@link TrafficStats}) during the read.
+ * </p>
+ * <p>
+ * Runs against the Realtime Database emulator on the host
+ * ({@code firebase emulators:start --only database}), reached from the Android emulator at
+ * {@value #EMULATOR_HOST}:{@value #EMULATOR_PORT}.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserStorageBytesTest {
+    private static final String TAG = "UserStorageBytes";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final String UID = "u1";
+    private static final int DAYS = 365;
+    private static final int IMAGE_BYTES = 48 * 1024;
+    private static final int RUNS = 3;
+
+    /**
+     * The projection each screen loads the user with.
+     */
+    private static final Map<String, UserProjection> SCREENS = new LinkedHashMap<>();
+
+    static {
+        SCREENS.put("SplashActivity", UserProjection.FULL);
+        SCREENS.put("EmergencyContactsActivity", UserProjection.FULL);
+        SCREENS.put("DetailsAboutUserActivity", UserProjection.PROFILE);
+        SCREENS.put("UsersTableActivity", UserProjection.PROFILE);
+        SCREENS.put("UserStatsActivity", UserProjection.SUMMARY);
+    }
+
+    private final List<FirebaseApp> apps = new ArrayList<>();
+    private Context context;
+    private File blobDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        blobDirectory = new File(context.getCacheDir(), TAG);
+        assertNotEquals("Traffic statistics are not supported on this device",
+                TrafficStats.UNSUPPORTED, TrafficStats.getUidRxBytes(Process.myUid()));
+        Tasks.await(connect().getReference().setValue(Collections.singletonMap("users",
+                Collections.singletonMap(UID, createLegacyUser()))), 60, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Tasks.await(connect().getReference().removeValue(), 60, TimeUnit.SECONDS);
+        for (FirebaseApp app : apps) app.delete();
+    }
+
+    @Test
+    public void bytesPerScreen() throws Exception {
+        long legacyBytes = 0;
+        for (int run = 0; run < RUNS; run++) {
+            legacyBytes += measureBytes(database -> Tasks.await(database.getReference("users/" + UID).get(), 60, TimeUnit.SECONDS));
+        }
+        legacyBytes /= RUNS;
+
+        UserServiceImpl migrator = new UserServiceImpl(connect(), new LocalFileBlobStore(blobDirectory));
+        assertEquals(Integer.valueOf(1), await(migrator::migrateLegacyUsers));
+        assertEquals(Integer.valueOf(1), await(migrator::migrateProfileImagesToBlobStore));
+
+        Map<UserProjection, Long> projectionBytes = new HashMap<>();
+        for (UserProjection projection : UserProjection.values()) {
+            long bytes = 0;
+            for (int run = 0; run < RUNS; run++) {
+                bytes += measureBytes(database -> {
+                    UserServiceImpl userService = new UserServiceImpl(database, new LocalFileBlobStore(blobDirectory));
+                    User user = await(callback -> userService.getUser(UID, projection, ReadMode.FRESH, callback));
+                    assertEquals(UID, user.getId());
+                });
+            }
+            projectionBytes.put(projection, bytes / RUNS);
+        }
+
+        for (Map.Entry<String, UserProjection> screen : SCREENS.entrySet()) {
+            long after = projectionBytes.get(screen.getValue());
+            Log.i(TAG, screen.getKey() + " (" + screen.getValue() + "): legacy " + legacyBytes + " bytes, normalized "
+                    + after + " bytes (" + (100 - after * 100 / Math.max(1, legacyBytes)) + "% less)");
+        }
+        assertTrue("A summary should transfer less than the legacy record",
+                projectionBytes.get(UserProjection.SUMMARY) < legacyBytes);
+        assertTrue("A profile should transfer less than the legacy record",
+                projectionBytes.get(UserProjection.PROFILE) < legacyBytes);
+    }
+
+    /**
+     * Runs a read on a new connection and returns the bytes sent and received during it.
+     * The connection is opened with a small read first, so the handshake is not counted.
+     */
+    private long measureBytes(ThrowingConsumer<FirebaseDatabase> read) throws Exception {
+        FirebaseDatabase database = connect();
+        Tasks.await(database.getReference("probe").get(), 60, TimeUnit.SECONDS);
+        int uid = Process.myUid();
+        long before = TrafficStats.getUidRxBytes(uid) + TrafficStats.getUidTxBytes(uid);
+        read.accept(database);
+        return TrafficStats.getUidRxBytes(uid) + TrafficStats.getUidTxBytes(uid) - before;
+    }
+
+    private FirebaseDatabase connect() {
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseOptions.fromResource(context), TAG + "-" + apps.size());
+        apps.add(app);
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        database.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        return database;
+    }
+
+    /**
+     * Builds the user record as stored before the normalized schema, with every part embedded.
+     */
+    private static Map<String, Object> createLegacyUser() {
+        Map<String, Object> user = new HashMap<>();
+        user.put("id", UID);
+        user.put("firstName", "Dana");
+        user.put("lastName", "Levi");
+        user.put("birthDate", "1950-01-01");
+        user.put("email", "dana@example.com");
+        user.put("password", "secret");
+        user.put("role", User.UserRole.REGULAR.name());
+        char[] image = new char[IMAGE_BYTES * 4 / 3];
+        Arrays.fill(image, 'A');
+        user.put("profileImage", new String(image));
+
+        Map<String, Object> dailyStats = new HashMap<>();
+        LocalDate date = LocalDate.now();
+        for (int i = 0; i < DAYS; i++) {
+            Map<String, Object> day = new HashMap<>();
+            day.put("id", date.toString());
+            day.put("mathCorrect", i % 20);
+            day.put("mathWrong", i % 5);
+            day.put("memoryGamesPlayed", i % 3);
+            day.put("memoryWins", i % 2);
+            List<MedicationUsage> logs = new ArrayList<>();
+            for (String time : new String[]{"08:00", "14:00", "20:00"}) {
+                logs.add(new MedicationUsage(MedicationUsage.createId("m1", time), "m1", time, time,
+                        MedicationUsage.MedicationStatus.TAKEN));
+            }
+            day.put("medicationUsageLogs", logs);
+            dailyStats.put(date.toString(), day);
+            date = date.minusDays(1);
+        }
+        user.put("dailyStats", dailyStats);
+
+        Map<String, Object> medications = new HashMap<>();
+        for (int i = 1; i <= 10; i++) {
+            medications.put("m" + i, new Medication("m" + i, "תרופה " + i, "פעמיים ביום אחרי האוכל",
+                    Medication.MedicationType.PILL, Arrays.asList("08:00", "20:00")));
+        }
+        user.put("medications", medications);
+
+        Map<String, Object> contacts = new HashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            contacts.put("c" + i, new EmergencyContact("c" + i, "איש", "קשר " + i, "050000000" + i));
+        }
+        user.put("emergencyContacts", contacts);
+        return user;
+    }
+
+    private static <T> T await(Consumer<DatabaseCallback<T>> call) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        call.accept(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(T object) {
+                result.set(object);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                error.set(e);
+                latch.countDown();
+            }
+        });
+        if (!latch.await(60, TimeUnit.SECONDS)) throw new AssertionError("Timed out");
+        if (error.get() != null) throw error.get();
+        return result.get();
+    }
+
+    private interface ThrowingConsumer<T> {
+        void accept(T value) throws Exception;
+    }
+}
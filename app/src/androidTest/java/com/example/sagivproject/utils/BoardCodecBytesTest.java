@@ -0,0 +1,79 @@
+package com.example.sagivproject.utils;
+
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.sagivproject.models.Card;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Reports the JSON bytes a room snapshot spends on the board, as the legacy list of card objects
+ * and as the compact layout and masks of {@link BoardCodec}, to logcat under the {@value #TAG} tag.
+ * <p>
+ * Boards of 12, 24 and 48 cards are measured with half of the cards open, and image IDs that look
+ * like database push IDs.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class BoardCodecBytesTest {
+    private static final String TAG = "BoardCodecBytes";
+    private static final String PUSH_ID_CHARS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    public void snapshotBytesPerBoardSize() {
+        Gson gson = new Gson();
+        Random random = new Random(6);
+        for (int cardCount : new int[]{12, 24, 48}) {
+            List<Card> cards = createBoard(cardCount, random);
+            for (int i = 0; i < cardCount; i += 2) cards.get(i).setRevealed(true);
+
+            List<Map<String, Object>> legacy = new ArrayList<>();
+            for (Card card : cards) {
+                Map<String, Object> legacyCard = new LinkedHashMap<>();
+                legacyCard.put("id", card.getId());
+                legacyCard.put("isRevealed", card.getIsRevealed());
+                legacyCard.put("isMatched", card.getIsMatched());
+                legacy.add(legacyCard);
+            }
+            Map<String, Object> compact = new LinkedHashMap<>();
+            compact.put("board", BoardCodec.encode(cards));
+            compact.put("revealedMask", BoardCodec.revealedMask(cards));
+            compact.put("matchedMask", BoardCodec.matchedMask(cards));
+
+            int legacyBytes = gson.toJson(legacy).getBytes(StandardCharsets.UTF_8).length;
+            int compactBytes = gson.toJson(compact).getBytes(StandardCharsets.UTF_8).length;
+            Log.i(TAG, cardCount + " cards: legacy " + legacyBytes + " bytes, compact " + compactBytes + " bytes ("
+                    + (100 - compactBytes * 100 / legacyBytes) + "% less)");
+            assertTrue(compactBytes < legacyBytes);
+        }
+    }
+
+    /**
+     * Creates a shuffled board of pairs whose image IDs look like database push IDs.
+     */
+    private static List<Card> createBoard(int cardCount, Random random) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < cardCount / 2; i++) {
+            StringBuilder id = new StringBuilder("-");
+            for (int c = 0; c < 19; c++) id.append(PUSH_ID_CHARS.charAt(random.nextInt(PUSH_ID_CHARS.length())));
+            cards.add(new Card(id.toString(), null));
+            cards.add(new Card(id.toString(), null));
+        }
+        Collections.shuffle(cards, random);
+        return cards;
+    }
+}
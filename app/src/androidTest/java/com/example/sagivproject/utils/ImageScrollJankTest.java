@@ -0,0 +1,268 @@
+package com.example.sagivproject.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.hardware.display.DisplayManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
+import com.example.sagivproject.services.impl.LocalFileBlobStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Scrolls a grid of images down and back up, one row per frame, and reports janky frames and
+ * decode counts to logcat under the {@value #TAG} tag.
+ * <p>
+ * The grid is driven by {@link Choreographer} frame callbacks and recycles a screenful of views,
+ * like a RecyclerView. It is scrolled twice: binding the inline Base64 content with a full-size
+ * decode on the main thread, as images were loaded before, and binding content hashes through
+ * {@link ImageUtil#loadImage}. A frame is janky when it starts more than one and a half refresh
+ * intervals after the previous one. Decodes of the pipeline are counted as the variants it
+ * fetches from the blob store; every other bind is served from the bitmap cache.
+ * </p>
+ * <p>
+ * The number of images defaults to {@value #DEFAULT_IMAGES} and can be set with the
+ * {@code images} instrumentation argument.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageScrollJankTest {
+    private static final String TAG = "ImageScrollJank";
+    private static final String DEFAULT_IMAGES = "200";
+    private static final int COLUMNS = 3;
+    private static final int VISIBLE_ROWS = 5;
+    private static final int VIEW_SIZE = 320;
+    private static final int SOURCE_WIDTH = 1600;
+    private static final int SOURCE_HEIGHT = 1200;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<String> hashes = new ArrayList<>();
+    private final List<String> inlineImages = new ArrayList<>();
+    private Context context;
+    private File blobDirectory;
+    private CountingBlobStore blobStore;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        blobDirectory = new File(context.getCacheDir(), TAG);
+        blobStore = new CountingBlobStore(new LocalFileBlobStore(blobDirectory));
+
+        int imageCount = Integer.parseInt(InstrumentationRegistry.getArguments().getString("images", DEFAULT_IMAGES));
+        for (int i = 0; i < imageCount; i++) {
+            Bitmap source = createImage(i);
+            ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+            source.compress(Bitmap.CompressFormat.JPEG, 90, legacy);
+            inlineImages.add(Base64.encodeToString(legacy.toByteArray(), Base64.DEFAULT));
+
+            Map<ImageVariant, byte[]> variants = ImageUtil.createVariants(source);
+            String hash = await(callback -> blobStore.put(variants.get(ImageVariant.FULL), callback));
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (variant.getSuffix() == null) continue;
+                await(callback -> blobStore.putVariant(hash, variant.getSuffix(), variants.get(variant), callback));
+            }
+            hashes.add(hash);
+        }
+        blobStore.fetches.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = blobDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        blobDirectory.delete();
+    }
+
+    @Test
+    public void scrollGrid() throws Exception {
+        ScrollReport legacy = scroll((index, view) -> {
+            byte[] data = Base64.decode(inlineImages.get(index), Base64.DEFAULT);
+            view.setImageBitmap(BitmapFactory.decodeByteArray(data, 0, data.length));
+        });
+        log("Inline Base64, decoded on the main thread", legacy, legacy.binds);
+
+        ImageUtil imageUtil = new ImageUtil(blobStore);
+        ScrollReport pipeline = scroll((index, view) -> imageUtil.loadImage(hashes.get(index), view));
+        log("Content hashes through ImageUtil", pipeline, blobStore.fetches.get());
+
+        assertEquals(legacy.binds, pipeline.binds);
+        assertTrue("Every bind should decode at most once", blobStore.fetches.get() <= pipeline.binds);
+    }
+
+    /**
+     * Scrolls the grid down to the last row and back up to the first, binding one row per frame.
+     */
+    private ScrollReport scroll(Binder binder) throws InterruptedException {
+        int imageCount = hashes.size();
+        int rowCount = (imageCount + COLUMNS - 1) / COLUMNS;
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) rows.add(row);
+        for (int row = rowCount - 1; row >= 0; row--) rows.add(row);
+
+        DisplayManager displayManager = context.getSystemService(DisplayManager.class);
+        float refreshRate = displayManager.getDisplay(Display.DEFAULT_DISPLAY).getRefreshRate();
+        long jankThresholdNanos = (long) (1.5 * TimeUnit.SECONDS.toNanos(1) / refreshRate);
+
+        ScrollReport report = new ScrollReport();
+        CountDownLatch done = new CountDownLatch(1);
+        mainHandler.post(() -> {
+            ImageView[] views = new ImageView[VISIBLE_ROWS * COLUMNS];
+            for (int i = 0; i < views.length; i++) {
+                views[i] = new ImageView(context);
+                views[i].setLayoutParams(new ViewGroup.LayoutParams(VIEW_SIZE, VIEW_SIZE));
+            }
+            Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                private int next;
+                private long previousFrameNanos;
+
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    if (previousFrameNanos != 0 && frameTimeNanos - previousFrameNanos > jankThresholdNanos) {
+                        report.jankFrames++;
+                    }
+                    previousFrameNanos = frameTimeNanos;
+                    if (next == rows.size()) {
+                        done.countDown();
+                        return;
+                    }
+
+                    int row = rows.get(next++);
+                    long start = System.nanoTime();
+                    for (int column = 0; column < COLUMNS; column++) {
+                        int index = row * COLUMNS + column;
+                        if (index >= imageCount) break;
+                        binder.bind(index, views[(row % VISIBLE_ROWS) * COLUMNS + column]);
+                        report.binds++;
+                    }
+                    report.worstBindNanos = Math.max(report.worstBindNanos, System.nanoTime() - start);
+                    report.frames++;
+                    Choreographer.getInstance().postFrameCallback(this);
+                }
+            });
+        });
+        assertTrue("Scrolling did not finish", done.await(5, TimeUnit.MINUTES));
+        return report;
+    }
+
+    private static void log(String label, ScrollReport report, int decodes) {
+        Log.i(TAG, label + ": " + report.frames + " frames, " + report.jankFrames + " janky ("
+                + (report.jankFrames * 100 / Math.max(1, report.frames)) + "%), worst row bind "
+                + TimeUnit.NANOSECONDS.toMillis(report.worstBindNanos) + "ms, " + decodes + " decodes for "
+                + report.binds + " binds");
+    }
+
+    /**
+     * Creates a distinct photo-sized image, so every image is decoded on its own.
+     */
+    private static Bitmap createImage(int seed) {
+        int[] pixels = new int[SOURCE_WIDTH * SOURCE_HEIGHT];
+        int tint = (seed * 37) & 0xFF;
+        for (int y = 0; y < SOURCE_HEIGHT; y++) {
+            for (int x = 0; x < SOURCE_WIDTH; x++) {
+                int noise = (x * 31 + y * 17 + seed * 13) & 0x3F;
+                pixels[y * SOURCE_WIDTH + x] = 0xFF000000 | (x * 255 / SOURCE_WIDTH) << 16 | ((y * 255 / SOURCE_HEIGHT + noise) & 0xFF) << 8 | tint;
+            }
+        }
+        return Bitmap.createBitmap(pixels, SOURCE_WIDTH, SOURCE_HEIGHT, Bitmap.Config.ARGB_8888);
+    }
+
+    private static <T> T await(Consumer<DatabaseCallback<T>> call) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        call.accept(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(T object) {
+                result.set(object);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                error.set(e);
+                latch.countDown();
+            }
+        });
+        if (!latch.await(60, TimeUnit.SECONDS)) throw new AssertionError("Timed out");
+        if (error.get() != null) throw error.get();
+        return result.get();
+    }
+
+    private interface Binder {
+        void bind(int index, ImageView view);
+    }
+
+    private static final class ScrollReport {
+        private int frames;
+        private int jankFrames;
+        private int binds;
+        private long worstBindNanos;
+    }
+
+    /**
+     * Counts the images fetched for decoding.
+     */
+    private static final class CountingBlobStore implements IBlobStore {
+        private final IBlobStore delegate;
+        private final AtomicInteger fetches = new AtomicInteger();
+
+        private CountingBlobStore(IBlobStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void put(@NonNull byte[] data, @NonNull DatabaseCallback<String> callback) {
+            delegate.put(data, callback);
+        }
+
+        @Override
+        public void get(@NonNull String hash, @NonNull DatabaseCallback<byte[]> callback) {
+            fetches.incrementAndGet();
+            delegate.get(hash, callback);
+        }
+
+        @Override
+        public void putVariant(@NonNull String hash, @NonNull String variant, @NonNull byte[] data, @NonNull DatabaseCallback<Void> callback) {
+            delegate.putVariant(hash, variant, data, callback);
+        }
+
+        @Override
+        public void getVariant(@NonNull String hash, @NonNull String variant, @NonNull DatabaseCallback<byte[]> callback) {
+            fetches.incrementAndGet();
+            delegate.getVariant(hash, variant, callback);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.sagivproject.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks that {@link ImageUtil#createVariants} keeps every variant within its size budget.
+ * Random noise is used as the worst case for JPEG compression.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageUtilVariantsTest {
+    @Test
+    public void createVariants_largeNoisyImage_staysWithinBudgets() {
+        Map<ImageVariant, byte[]> variants = ImageUtil.createVariants(createNoise(4000, 3000));
+
+        assertEquals(ImageVariant.values().length, variants.size());
+        for (ImageVariant variant : ImageVariant.values()) {
+            byte[] jpeg = variants.get(variant);
+            assertTrue(variant + " is " + jpeg.length + " bytes", jpeg.length <= variant.getMaxBytes());
+
+            BitmapFactory.Options bounds = decodeBounds(jpeg);
+            assertTrue(variant + " is " + bounds.outWidth + "px wide", bounds.outWidth <= variant.getMaxDimension());
+            assertTrue(variant + " is " + bounds.outHeight + "px high", bounds.outHeight <= variant.getMaxDimension());
+        }
+    }
+
+    @Test
+    public void createVariants_smallImage_isNotScaledUp() {
+        Map<ImageVariant, byte[]> variants = ImageUtil.createVariants(createGradient(100, 80));
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            byte[] jpeg = variants.get(variant);
+            assertTrue(variant + " is " + jpeg.length + " bytes", jpeg.length <= variant.getMaxBytes());
+
+            BitmapFactory.Options bounds = decodeBounds(jpeg);
+            assertEquals(100, bounds.outWidth);
+            assertEquals(80, bounds.outHeight);
+        }
+    }
+
+    private static Bitmap createNoise(int width, int height) {
+        Random random = new Random(42);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private static Bitmap createGradient(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = 0xFF000000 | (x * 255 / width) << 16 | (y * 255 / height) << 8;
+            }
+        }
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private static BitmapFactory.Options decodeBounds(byte[] jpeg) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(jpeg, 0, jpeg.length, options);
+        return options;
+    }
+}
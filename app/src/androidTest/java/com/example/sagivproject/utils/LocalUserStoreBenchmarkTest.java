@@ -0,0 +1,126 @@
+package com.example.sagivproject.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sagivproject.models.DailyStats;
+import com.example.sagivproject.models.MedicationUsage;
+import com.example.sagivproject.models.User;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Microbenchmark comparing {@link LocalUserStore#getUser()} with parsing the legacy single JSON
+ * blob, for users with one and three years of daily statistics. Timings are written to logcat
+ * under the {@value #TAG} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LocalUserStoreBenchmarkTest {
+    private static final String TAG = "LocalUserStoreBenchmark";
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int ITERATIONS = 200;
+
+    private final Gson gson = new Gson();
+    private LocalUserStore store;
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        store = new LocalUserStore(context, gson);
+        store.clear();
+    }
+
+    @After
+    public void tearDown() {
+        store.clear();
+    }
+
+    @Test
+    public void getUser_oneYearOfStats() {
+        benchmark(365);
+    }
+
+    @Test
+    public void getUser_threeYearsOfStats() {
+        benchmark(3 * 365);
+    }
+
+    private void benchmark(int days) {
+        User user = createUser(days);
+        String legacyJson = gson.toJson(user);
+        store.saveUser(user);
+
+        long legacyNanos = measure(() -> gson.fromJson(legacyJson, User.class));
+        long storeNanos = measure(() -> store.getUser());
+
+        long coldStart = System.nanoTime();
+        User reloaded = new LocalUserStore(context, gson).getUser();
+        long coldNanos = System.nanoTime() - coldStart;
+
+        DailyStats today = user.getDailyStatsForDate(LocalDate.now().toString());
+        long saveNanos = measure(() -> {
+            today.addMathCorrect();
+            store.saveDailyStats(LocalDate.now().toString(), today);
+        });
+
+        Log.i(TAG, days + " days: legacy parse " + micros(legacyNanos) + "us, store read " + micros(storeNanos)
+                + "us, cold load " + micros(coldNanos) + "us, save one day " + micros(saveNanos) + "us");
+
+        assertEquals(days, reloaded.getDailyStats().size());
+        assertTrue("Store read should be faster than parsing the blob", storeNanos < legacyNanos);
+    }
+
+    /**
+     * @return The mean duration of one run in nanoseconds, after a warm-up.
+     */
+    private long measure(Runnable runnable) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) runnable.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) runnable.run();
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+
+    private static User createUser(int days) {
+        User user = new User("u1", "Dana", "Levi", "1950-01-01", "dana@example.com", "secret", User.UserRole.REGULAR);
+        char[] image = new char[40_000];
+        Arrays.fill(image, 'A');
+        user.setProfileImage(new String(image));
+
+        HashMap<String, DailyStats> dailyStats = new HashMap<>();
+        LocalDate date = LocalDate.now();
+        for (int i = 0; i < days; i++) {
+            DailyStats stats = new DailyStats();
+            stats.setId(date.toString());
+            stats.setMathCorrect(i % 20);
+            stats.setMathWrong(i % 5);
+            stats.setMemoryGamesPlayed(i % 3);
+            for (String time : new String[]{"08:00", "14:00", "20:00"}) {
+                stats.addMedicationUsageLog(new MedicationUsage(MedicationUsage.createId("m1", time), "m1", time, time,
+                        MedicationUsage.MedicationStatus.TAKEN));
+            }
+            dailyStats.put(date.toString(), stats);
+            date = date.minusDays(1);
+        }
+        user.setDailyStats(dailyStats);
+        return user;
+    }
+}
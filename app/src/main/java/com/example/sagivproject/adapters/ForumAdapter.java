@@ -22,15 +22,15 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseAdapter;
 import com.example.sagivproject.models.ForumMessage;
-import com.example.sagivproject.models.User;
+import com.example.sagivproject.models.UserSummary;
+import com.example.sagivproject.services.IUserDirectory;
+import com.example.sagivproject.services.forum.ForumMessageStore;
+import com.example.sagivproject.services.forum.ForumPager;
 import com.example.sagivproject.utils.CalendarUtil;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -39,12 +39,14 @@ import javax.inject.Inject;
  * <p>
  * This adapter handles the binding of forum message data to views and includes:
  * <ul>
- * <li>Dynamic user data display: Sender details (name, email, role) are pre-populated
- * by the service layer into the {@link ForumMessage} object.</li>
+ * <li>Dynamic user data display: Sender details (name, email, role) are resolved by the
+ * service layer before a message arrives, and read from the {@link IUserDirectory} cache.</li>
  * <li>Text-to-Speech (TTS) integration for reading messages aloud.</li>
  * <li>Admin moderation tools (conditional menu for deletion).</li>
  * <li>Real-time visual feedback for the currently speaking message.</li>
  * </ul>
+ * Messages are held in a {@link ForumMessageStore} instead of the base class list, so a single
+ * new, edited or deleted message is applied in place and only its row is notified.
  * </p>
  */
 public class ForumAdapter extends BaseAdapter<ForumMessage, ForumAdapter.ForumViewHolder> {
@@ -53,6 +55,11 @@ public class ForumAdapter extends BaseAdapter<ForumMessage, ForumAdapter.ForumVi
      */
     private final CalendarUtil calendarUtil;
 
+    /**
+     * Shared directory holding the sender details of the displayed messages.
+     */
+    private final IUserDirectory userDirectory;
+
     /**
      * Listener for message-related events.
      */
@@ -69,18 +76,46 @@ public class ForumAdapter extends BaseAdapter<ForumMessage, ForumAdapter.ForumVi
     private String currentUserId;
 
     /**
-     * A map of sender details indexed by their UID.
+     * The displayed messages, in chronological order.
      */
-    private Map<String, User> senderMap = new HashMap<>();
+    private final ForumMessageStore store = new ForumMessageStore();
 
     /**
      * Constructs a new ForumAdapter.
      *
-     * @param calendarUtil The utility for date operations.
+     * @param calendarUtil  The utility for date operations.
+     * @param userDirectory The directory holding the sender details.
      */
     @Inject
-    public ForumAdapter(CalendarUtil calendarUtil) {
+    public ForumAdapter(CalendarUtil calendarUtil, IUserDirectory userDirectory) {
         this.calendarUtil = calendarUtil;
+        this.userDirectory = userDirectory;
+        store.setListener(new ForumMessageStore.Listener() {
+            @Override
+            public void onItemRangeInserted(int position, int count) {
+                notifyItemRangeInserted(position, count);
+            }
+
+            @Override
+            public void onItemChanged(int position) {
+                notifyItemChanged(position);
+            }
+
+            @Override
+            public void onItemRemoved(int position) {
+                notifyItemRemoved(position);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int position, int count) {
+                notifyItemRangeRemoved(position, count);
+            }
+
+            @Override
+            public void onItemMoved(int fromPosition, int toPosition) {
+                notifyItemMoved(fromPosition, toPosition);
+            }
+        });
     }
 
     /**
@@ -93,47 +128,61 @@ public class ForumAdapter extends BaseAdapter<ForumMessage, ForumAdapter.ForumVi
     }
 
     /**
-     * Updates the map of senders.
+     * Sets the listener for message-specific actions (e.g., deletion).
      *
-     * @param senderMap Map of user details indexed by userId.
+     * @param listener The {@link ForumMessageListener} implementation.
      */
-    public void setSenderMap(Map<String, User> senderMap) {
-        if (senderMap != null) {
-            this.senderMap = new HashMap<>(senderMap);
-        }
+    public void setForumMessageListener(ForumMessageListener listener) {
+        this.listener = listener;
     }
 
     /**
-     * Sets the listener for message-specific actions (e.g., deletion).
+     * Replaces all displayed messages.
      *
-     * @param listener The {@link ForumMessageListener} implementation.
+     * @param newData The messages to display.
      */
-    public void setForumMessageListener(ForumMessageListener listener) {
-        this.listener = listener;
+    @Override
+    public void setData(List<ForumMessage> newData) {
+        store.clear();
+        store.putAll(newData);
     }
 
     /**
-     * Adds older messages to the beginning of the list for pagination.
+     * Returns the store behind the displayed messages. Every change made to it is notified to
+     * the affected rows, so a {@link ForumPager} can page messages into it directly.
      *
-     * @param olderMessages List of older {@link ForumMessage} objects to prepend.
+     * @return The store of the displayed messages.
      */
-    public void addOlderMessages(List<ForumMessage> olderMessages) {
-        if (olderMessages == null || olderMessages.isEmpty()) return;
-        List<ForumMessage> newList = new ArrayList<>(olderMessages);
-        newList.addAll(dataList);
-        setData(newList);
+    public ForumMessageStore getMessageStore() {
+        return store;
     }
 
     /**
-     * Removes a specific message from the list and notifies the adapter.
+     * Notifies the row of a message, such as when it starts or stops being spoken.
      *
-     * @param message The message object to remove.
+     * @param messageId The ID of the message.
      */
-    public void removeMessage(ForumMessage message) {
-        List<ForumMessage> newList = new ArrayList<>(dataList);
-        if (newList.remove(message)) {
-            setData(newList);
-        }
+    public void notifyMessageChanged(String messageId) {
+        int position = store.indexOf(messageId);
+        if (position >= 0) notifyItemChanged(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return store.size();
+    }
+
+    @Override
+    protected ForumMessage getItem(int position) {
+        return store.get(position);
+    }
+
+    /**
+     * @return A read-only view of the displayed messages.
+     */
+    @Override
+    public List<ForumMessage> getItemList() {
+        return store.asList();
     }
 
     @NonNull
@@ -158,7 +207,7 @@ public class ForumAdapter extends BaseAdapter<ForumMessage, ForumAdapter.ForumVi
             cachedFont = ResourcesCompat.getFont(holder.itemView.getContext(), R.font.text_hebrew);
         }
 
-        User sender = senderMap.get(msg.getUserId());
+        UserSummary sender = userDirectory.peek(msg.getUserId());
 
         // Use default anonymous name
         String senderName = sender != null ? sender.getFullName() : "אנונימי";
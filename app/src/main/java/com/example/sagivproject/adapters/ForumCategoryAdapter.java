@@ -12,8 +12,11 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseAdapter;
 import com.example.sagivproject.models.ForumCategory;
+import com.example.sagivproject.models.ForumReadMarker;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -22,7 +25,8 @@ import javax.inject.Inject;
  * <p>
  * This adapter manages the display of {@link ForumCategory} items and dynamically
  * adapts its UI based on the user's role. Admins are provided with additional
- * buttons for editing and deleting categories directly from the list.
+ * buttons for editing and deleting categories directly from the list. Each row shows a badge with
+ * the number of messages the user has not read yet.
  * </p>
  */
 public class ForumCategoryAdapter extends BaseAdapter<ForumCategory, ForumCategoryAdapter.CategoryViewHolder> {
@@ -36,6 +40,11 @@ public class ForumCategoryAdapter extends BaseAdapter<ForumCategory, ForumCatego
      */
     private boolean isAdmin;
 
+    /**
+     * The current user's read markers, indexed by category ID.
+     */
+    private Map<String, ForumReadMarker> readMarkers = new HashMap<>();
+
     /**
      * Constructs a new ForumCategoryAdapter.
      * Use {@link #init(OnCategoryInteractionListener, boolean)} to configure after injection.
@@ -64,6 +73,16 @@ public class ForumCategoryAdapter extends BaseAdapter<ForumCategory, ForumCatego
         setData(newCategories);
     }
 
+    /**
+     * Sets the current user's read markers and refreshes the unread badges.
+     *
+     * @param readMarkers The read markers, indexed by category ID.
+     */
+    public void setReadMarkers(Map<String, ForumReadMarker> readMarkers) {
+        this.readMarkers = readMarkers != null ? readMarkers : new HashMap<>();
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
     /**
      * Removes a specific category from the adapter's data set and notifies changes.
      *
@@ -89,6 +108,11 @@ public class ForumCategoryAdapter extends BaseAdapter<ForumCategory, ForumCatego
         ForumCategory category = getItem(position);
         holder.categoryName.setText(category.getName());
 
+        long unread = category.countUnread(readMarkers.get(category.getId()));
+        holder.unreadBadge.setVisibility(unread > 0 ? View.VISIBLE : View.GONE);
+        holder.unreadBadge.setText(unread > 99 ? "99+" : String.valueOf(unread));
+        holder.unreadBadge.setContentDescription(unread + " הודעות חדשות");
+
         if (isAdmin && listener != null) {
             holder.deleteButton.setVisibility(View.VISIBLE);
             holder.deleteButton.setOnClickListener(v -> listener.onDelete(category));
@@ -150,6 +174,11 @@ public class ForumCategoryAdapter extends BaseAdapter<ForumCategory, ForumCatego
          */
         final TextView categoryName;
 
+        /**
+         * Badge displaying the number of unread messages.
+         */
+        final TextView unreadBadge;
+
         /**
          * Button for deleting the category (Admin only).
          */
@@ -168,6 +197,7 @@ public class ForumCategoryAdapter extends BaseAdapter<ForumCategory, ForumCatego
         public CategoryViewHolder(@NonNull View itemView) {
             super(itemView);
             categoryName = itemView.findViewById(R.id.txt_category_name);
+            unreadBadge = itemView.findViewById(R.id.txt_category_unread);
             deleteButton = itemView.findViewById(R.id.btn_delete_category);
             editButton = itemView.findViewById(R.id.btn_edit_category);
         }
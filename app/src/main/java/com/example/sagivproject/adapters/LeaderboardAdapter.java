@@ -10,8 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseAdapter;
-import com.example.sagivproject.models.DailyStats;
-import com.example.sagivproject.models.User;
+import com.example.sagivproject.models.LeaderboardEntry;
 
 import java.text.MessageFormat;
 import java.util.List;
@@ -21,26 +20,26 @@ import javax.inject.Inject;
 /**
  * A RecyclerView adapter for displaying a leaderboard of users based on their memory game performance.
  * <p>
- * This adapter manages the display of usernames and their total wins across all dates.
+ * This adapter displays the pre-aggregated {@link LeaderboardEntry} records (name and total wins).
  * It highlights the top-ranked user with a special "Gold Medal" icon (emoji) for better engagement.
  * </p>
  */
-public class LeaderboardAdapter extends BaseAdapter<User, LeaderboardAdapter.ViewHolder> {
+public class LeaderboardAdapter extends BaseAdapter<LeaderboardEntry, LeaderboardAdapter.ViewHolder> {
     /**
      * Constructs a new LeaderboardAdapter.
-     * Use {@link #setUsers(List)} to populate the list after creation.
+     * Use {@link #setEntries(List)} to populate the list after creation.
      */
     @Inject
     public LeaderboardAdapter() {
     }
 
     /**
-     * Sets the list of users to be displayed in the leaderboard.
+     * Sets the list of entries to be displayed in the leaderboard.
      *
-     * @param users The list of {@link User} objects, typically pre-sorted by total wins.
+     * @param entries The list of {@link LeaderboardEntry} objects, pre-sorted by total wins.
      */
-    public void setUsers(List<User> users) {
-        setData(users);
+    public void setEntries(List<LeaderboardEntry> entries) {
+        setData(entries);
     }
 
     @NonNull
@@ -52,10 +51,10 @@ public class LeaderboardAdapter extends BaseAdapter<User, LeaderboardAdapter.Vie
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        User user = getItem(position);
-        holder.tvName.setText(user.getFullName());
+        LeaderboardEntry entry = getItem(position);
+        holder.tvName.setText(entry.getFullName() != null ? entry.getFullName() : "אנונימי");
 
-        int totalWins = getTotalWins(user);
+        int totalWins = entry.getTotalWins();
 
         if (position == 0 && totalWins > 0) {
             holder.tvWins.setText(MessageFormat.format("\uD83E\uDD47 {0}", totalWins));
@@ -64,22 +63,6 @@ public class LeaderboardAdapter extends BaseAdapter<User, LeaderboardAdapter.Vie
         }
     }
 
-    /**
-     * Calculates the sum of all memory game wins across the user's daily statistics.
-     *
-     * @param u The user to calculate wins for.
-     * @return The total number of wins.
-     */
-    private int getTotalWins(User u) {
-        int total = 0;
-        if (u.getDailyStats() != null) {
-            for (DailyStats ds : u.getDailyStats().values()) {
-                total += ds.getMemoryWins();
-            }
-        }
-        return total;
-    }
-
     /**
      * ViewHolder class for leaderboard rows.
      */
@@ -13,6 +13,7 @@ import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseAdapter;
 import com.example.sagivproject.models.ImageData;
 import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
 import com.google.android.material.button.MaterialButton;
 
 import java.util.List;
@@ -29,7 +30,7 @@ import javax.inject.Inject;
  */
 public class MedicationImagesTableAdapter extends BaseAdapter<ImageData, MedicationImagesTableAdapter.ViewHolder> {
     /**
-     * Utility for loading images from Base64 strings.
+     * Utility for loading images from their references.
      */
     private final ImageUtil imageUtil;
 
@@ -41,7 +42,7 @@ public class MedicationImagesTableAdapter extends BaseAdapter<ImageData, Medicat
     /**
      * Constructs a new MedicationImagesTableAdapter.
      *
-     * @param imageUtil A utility class for loading and processing images from Base64 strings.
+     * @param imageUtil A utility class for loading and processing images.
      */
     @Inject
     public MedicationImagesTableAdapter(ImageUtil imageUtil) {
@@ -83,7 +84,7 @@ public class MedicationImagesTableAdapter extends BaseAdapter<ImageData, Medicat
         holder.txtId.setText(String.format("ID: %s", displayId));
 
         holder.btnDelete.setVisibility(View.VISIBLE);
-        imageUtil.loadImage(data.getBase64(), holder.imgView);
+        imageUtil.loadImage(data.getImageRef(), holder.imgView, ImageVariant.THUMBNAIL);
 
         holder.imgView.setOnClickListener(v -> {
             if (listener != null) {
@@ -98,6 +99,12 @@ public class MedicationImagesTableAdapter extends BaseAdapter<ImageData, Medicat
         });
     }
 
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        imageUtil.cancel(holder.imgView);
+    }
+
     /**
      * Interface for handling user interactions with image items in the table.
      */
@@ -12,6 +12,7 @@ import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseAdapter;
 import com.example.sagivproject.models.Card;
 import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,7 +26,7 @@ import javax.inject.Inject;
  * <p>
  * This adapter handles the visual state of game cards, including their revealed/hidden status,
  * matching transparency, and complex 3D flip animations. It relies on {@link ImageUtil}
- * to decode and display card content from Base64 strings.
+ * to load and display card content from image references.
  * </p>
  */
 public class MemoryGameAdapter extends BaseAdapter<Card, MemoryGameAdapter.CardViewHolder> {
@@ -45,7 +46,7 @@ public class MemoryGameAdapter extends BaseAdapter<Card, MemoryGameAdapter.CardV
     private MemoryGameListener listener;
 
     /**
-     * Cache mapping image IDs to Base64 content for quick lookups.
+     * Cache mapping image IDs to image references for quick lookups.
      */
     private Map<String, String> imageCache = new HashMap<>();
 
@@ -69,9 +70,9 @@ public class MemoryGameAdapter extends BaseAdapter<Card, MemoryGameAdapter.CardV
     }
 
     /**
-     * Sets the image cache to resolve card IDs to Base64 strings.
+     * Sets the image cache to resolve card IDs to image references.
      *
-     * @param imageCache A map of image IDs to Base64 content.
+     * @param imageCache A map of image IDs to image references.
      */
     public void setImageCache(Map<String, String> imageCache) {
         this.imageCache = imageCache != null ? imageCache : new HashMap<>();
@@ -87,6 +88,20 @@ public class MemoryGameAdapter extends BaseAdapter<Card, MemoryGameAdapter.CardV
         setData(cards);
     }
 
+    /**
+     * Replaces a single card and rebinds only its view. The card keeps the flip state of the
+     * card it replaces, so the flip animation runs once per change.
+     *
+     * @param position The position of the card on the board.
+     * @param card     The new state of the card.
+     */
+    public void updateCard(int position, Card card) {
+        if (position < 0 || position >= dataList.size()) return;
+        card.setWasRevealed(dataList.get(position).wasRevealed());
+        dataList.set(position, card);
+        notifyItemChanged(position);
+    }
+
     @NonNull
     @Override
     public CardViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -106,20 +121,21 @@ public class MemoryGameAdapter extends BaseAdapter<Card, MemoryGameAdapter.CardV
         holder.itemView.setAlpha(1f);
         holder.cardImage.setRotationY(0f);
 
-        String base64 = imageCache.get(card.getId());
+        String imageRef = imageCache.get(card.getId());
 
         if (card.getIsMatched() || card.getIsRevealed()) {
-            imageUtil.loadImage(base64, holder.cardImage);
+            imageUtil.loadImage(imageRef, holder.cardImage, ImageVariant.GRID);
             if (card.getIsMatched()) {
                 holder.itemView.setAlpha(0.6f);
             }
         } else {
+            imageUtil.cancel(holder.cardImage);
             holder.cardImage.setImageResource(R.drawable.fold_card_img);
         }
 
         if (card.getIsRevealed() && !card.wasRevealed()) {
             if (listener != null) {
-                listener.animateFlipOpen(holder.cardImage, base64);
+                listener.animateFlipOpen(holder.cardImage, imageRef);
             }
             card.setWasRevealed(true);
         } else if (!card.getIsRevealed() && card.wasRevealed()) {
@@ -145,6 +161,7 @@ public class MemoryGameAdapter extends BaseAdapter<Card, MemoryGameAdapter.CardV
         super.onViewRecycled(holder);
         holder.itemView.animate().cancel();
         holder.cardImage.animate().cancel();
+        imageUtil.cancel(holder.cardImage);
     }
 
     /**
@@ -170,9 +187,9 @@ public class MemoryGameAdapter extends BaseAdapter<Card, MemoryGameAdapter.CardV
          * Animates the card flipping open.
          *
          * @param imageView The {@link ImageView} to animate.
-         * @param base64    The Base64 content to load.
+         * @param imageRef  The image reference to load.
          */
-        void animateFlipOpen(ImageView imageView, String base64);
+        void animateFlipOpen(ImageView imageView, String imageRef);
 
         /**
          * Animates the card flipping closed.
@@ -10,7 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseAdapter;
-import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.models.GameResult;
 
 import java.text.MessageFormat;
 import java.util.List;
@@ -19,14 +19,15 @@ import java.util.Map;
 import javax.inject.Inject;
 
 /**
- * A RecyclerView adapter for displaying a real-time log of memory game sessions.
+ * A RecyclerView adapter for displaying a log of memory game sessions.
  * <p>
- * This adapter is used by administrators to monitor game history and status. It uses an
+ * This adapter is used by administrators to monitor active games and the monthly game history.
+ * Both are shown as compact {@link GameResult} rows. It uses an
  * external UID-to-Name mapping to display human-readable participant names instead of
  * raw database IDs.
  * </p>
  */
-public class MemoryGameLogAdapter extends BaseAdapter<GameRoom, MemoryGameLogAdapter.ViewHolder> {
+public class MemoryGameLogAdapter extends BaseAdapter<GameResult, MemoryGameLogAdapter.ViewHolder> {
     /**
      * A map for resolving user UIDs to full names for display purposes.
      */
@@ -40,23 +41,23 @@ public class MemoryGameLogAdapter extends BaseAdapter<GameRoom, MemoryGameLogAda
     }
 
     /**
-     * Updates the game room data list.
+     * Updates the game result data list.
      *
-     * @param newRooms The new list of {@link GameRoom} objects.
+     * @param newResults The new list of {@link GameResult} objects.
      */
-    public void setRooms(List<GameRoom> newRooms) {
-        setData(newRooms);
+    public void setResults(List<GameResult> newResults) {
+        setData(newResults);
     }
 
     /**
      * Updates both the data list and the name resolution map simultaneously.
      *
-     * @param newRooms The new list of {@link GameRoom} objects.
-     * @param newMap   The updated UID-to-Name resolution map.
+     * @param newResults The new list of {@link GameResult} objects.
+     * @param newMap     The updated UID-to-Name resolution map.
      */
-    public void submitData(List<GameRoom> newRooms, Map<String, String> newMap) {
+    public void submitData(List<GameResult> newResults, Map<String, String> newMap) {
         this.uidToNameMap = newMap;
-        setRooms(newRooms);
+        setResults(newResults);
     }
 
     @NonNull
@@ -68,17 +69,17 @@ public class MemoryGameLogAdapter extends BaseAdapter<GameRoom, MemoryGameLogAda
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        GameRoom room = getItem(position);
+        GameResult result = getItem(position);
 
-        String p1Name = uidToNameMap != null ? uidToNameMap.getOrDefault(room.getPlayer1Uid(), "אנונימי") : "אנונימי";
-        String p2Name = uidToNameMap != null ? uidToNameMap.getOrDefault(room.getPlayer2Uid(), "ממתין...") : "ממתין...";
+        String p1Name = uidToNameMap != null ? uidToNameMap.getOrDefault(result.getPlayer1Uid(), "אנונימי") : "אנונימי";
+        String p2Name = uidToNameMap != null ? uidToNameMap.getOrDefault(result.getPlayer2Uid(), "ממתין...") : "ממתין...";
 
         holder.txtPlayers.setText(String.format("%s נגד %s", p1Name, p2Name));
-        holder.txtScore.setText(MessageFormat.format("תוצאה: {0} - {1}", room.getPlayer1Score(), room.getPlayer2Score()));
-        holder.txtStatus.setText(String.format("סטטוס: %s", room.getStatus()));
+        holder.txtScore.setText(MessageFormat.format("תוצאה: {0} - {1}", result.getPlayer1Score(), result.getPlayer2Score()));
+        holder.txtStatus.setText(String.format("סטטוס: %s", result.getStatus()));
 
-        String winnerUid = room.getWinnerUid();
-        if ("finished".equals(room.getStatus()) && winnerUid != null && !winnerUid.isEmpty()) {
+        String winnerUid = result.getWinnerUid();
+        if ("finished".equals(result.getStatus()) && winnerUid != null && !winnerUid.isEmpty()) {
             holder.txtWinner.setVisibility(View.VISIBLE);
             if (winnerUid.equals("draw")) {
                 holder.txtWinner.setText("תוצאה: תיקו");
@@ -13,6 +13,7 @@ import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseAdapter;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
 
 import java.util.List;
 
@@ -84,7 +85,7 @@ public class UsersTableAdapter extends BaseAdapter<User, UsersTableAdapter.UserV
         holder.txtUserEmail.setText(user.getEmail());
         holder.txtUserIsAdmin.setText(String.format("מנהל: %s", user.isAdmin() ? "כן" : "לא"));
 
-        imageUtil.loadImage(user.getProfileImage(), holder.imgUserProfile);
+        imageUtil.loadImage(user.getProfileImage(), holder.imgUserProfile, ImageVariant.THUMBNAIL);
 
         if (listener != null) {
             if (user.isAdmin()) {
@@ -113,6 +114,12 @@ public class UsersTableAdapter extends BaseAdapter<User, UsersTableAdapter.UserV
         });
     }
 
+    @Override
+    public void onViewRecycled(@NonNull UserViewHolder holder) {
+        super.onViewRecycled(holder);
+        imageUtil.cancel(holder.imgUserProfile);
+    }
+
     /**
      * Interface for listening to administrative actions on user accounts.
      */
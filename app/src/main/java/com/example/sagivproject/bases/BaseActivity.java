@@ -40,7 +40,9 @@ import com.example.sagivproject.screens.AdminPageActivity;
 import com.example.sagivproject.screens.LandingActivity;
 import com.example.sagivproject.screens.LoginActivity;
 import com.example.sagivproject.screens.MainActivity;
+import com.example.sagivproject.services.IAuthService;
 import com.example.sagivproject.ui.AppMenuFragment;
+import com.example.sagivproject.utils.LocalUserStore;
 import com.example.sagivproject.utils.SharedPreferencesUtil;
 
 import java.util.Arrays;
@@ -71,6 +73,16 @@ public abstract class BaseActivity extends AppCompatActivity implements AppMenuF
      */
     @Inject
     protected SharedPreferencesUtil sharedPreferencesUtil;
+    /**
+     * Service managing authentication and the user session.
+     */
+    @Inject
+    protected IAuthService authService;
+    /**
+     * In-memory store of the logged-in user, used to follow changes of the displayed name.
+     */
+    @Inject
+    protected LocalUserStore localUserStore;
     /**
      * The root layout for the navigation drawer.
      */
@@ -91,6 +103,11 @@ public abstract class BaseActivity extends AppCompatActivity implements AppMenuF
      */
     private Runnable onPermissionGrantedCallback;
 
+    /**
+     * Keeps the greeting set by {@link #setGreeting(int)} in sync with the stored user's name.
+     */
+    private LocalUserStore.OnUserChangedListener greetingListener;
+
     /**
      * Standard launcher for requesting multiple runtime permissions.
      * Results are handled in {@link #onPermissionsResult(Map)}.
@@ -154,6 +171,9 @@ public abstract class BaseActivity extends AppCompatActivity implements AppMenuF
 
     @Override
     protected void onDestroy() {
+        if (greetingListener != null) {
+            localUserStore.removeListener(greetingListener);
+        }
         super.onDestroy();
         Log.d("Lifecycle", "onDestroy: " + getClass().getSimpleName());
     }
@@ -185,8 +205,7 @@ public abstract class BaseActivity extends AppCompatActivity implements AppMenuF
      */
     protected void setupMenu() {
         drawerLayout = findViewById(R.id.drawer_layout);
-        User currentUser = sharedPreferencesUtil.getUser();
-        boolean isAdmin = currentUser != null && currentUser.isAdmin();
+        boolean isAdmin = localUserStore.getRole() == User.UserRole.ADMIN;
 
         if (drawerLayout != null) {
             if (isAdmin) {
@@ -311,7 +330,7 @@ public abstract class BaseActivity extends AppCompatActivity implements AppMenuF
      * @param textViewId The ID of the TextView to update.
      */
     protected void setGreeting(int textViewId) {
-        User user = sharedPreferencesUtil.getUser();
+        User user = localUserStore.getProfile();
         if (user != null) {
             TextView textView = findViewById(textViewId);
             if (textView != null) {
@@ -322,6 +341,15 @@ public abstract class BaseActivity extends AppCompatActivity implements AppMenuF
                         .setDuration(1000)
                         .setInterpolator(new android.view.animation.DecelerateInterpolator())
                         .start();
+
+                if (greetingListener == null) {
+                    greetingListener = updatedUser -> {
+                        if (updatedUser != null) {
+                            textView.setText(String.format("שלום %s", updatedUser.getFullName()));
+                        }
+                    };
+                    localUserStore.addListener(greetingListener);
+                }
             }
         }
     }
@@ -358,10 +386,10 @@ public abstract class BaseActivity extends AppCompatActivity implements AppMenuF
      */
     @Override
     public void onLogout() {
-        User user = sharedPreferencesUtil.getUser();
+        User user = localUserStore.getProfile();
         String email = (user != null) ? user.getEmail() : "";
 
-        sharedPreferencesUtil.signOutUser();
+        authService.logout();
 
         onNavigate(new Intent(this, LoginActivity.class)
                 .putExtra("userEmail", email)
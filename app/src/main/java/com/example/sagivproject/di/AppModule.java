@@ -4,6 +4,7 @@ import android.app.AlarmManager;
 import android.content.Context;
 
 import com.example.sagivproject.services.IAuthService;
+import com.example.sagivproject.services.IBlobStore;
 import com.example.sagivproject.services.IEmergencyService;
 import com.example.sagivproject.services.IFallDetectionService;
 import com.example.sagivproject.services.IForumService;
@@ -13,22 +14,32 @@ import com.example.sagivproject.services.IMemoryGameService;
 import com.example.sagivproject.services.IStatsService;
 import com.example.sagivproject.services.ITTSService;
 import com.example.sagivproject.services.ITipOfTheDayService;
+import com.example.sagivproject.services.IUserDirectory;
 import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.game.GameClock;
 import com.example.sagivproject.services.impl.AuthServiceImpl;
+import com.example.sagivproject.services.impl.CachedBlobStore;
 import com.example.sagivproject.services.impl.EmergencyServiceImpl;
 import com.example.sagivproject.services.impl.FallDetectionServiceImpl;
+import com.example.sagivproject.services.impl.FirebaseStorageBlobStore;
 import com.example.sagivproject.services.impl.ForumServiceImpl;
 import com.example.sagivproject.services.impl.ImageServiceImpl;
+import com.example.sagivproject.services.impl.LocalFileBlobStore;
 import com.example.sagivproject.services.impl.MedicationServiceImpl;
 import com.example.sagivproject.services.impl.MemoryGameServiceImpl;
+import com.example.sagivproject.services.impl.ServerClock;
 import com.example.sagivproject.services.impl.StatsServiceImpl;
 import com.example.sagivproject.services.impl.TTSServiceImpl;
 import com.example.sagivproject.services.impl.TipOfTheDayServiceImpl;
+import com.example.sagivproject.services.impl.UserDirectory;
 import com.example.sagivproject.services.impl.UserServiceImpl;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.storage.FirebaseStorage;
 import com.google.gson.Gson;
 
+import java.io.File;
+
 import javax.inject.Singleton;
 
 import dagger.Binds;
@@ -49,6 +60,23 @@ import dagger.hilt.components.SingletonComponent;
 @Module
 @InstallIn(SingletonComponent.class)
 public abstract class AppModule {
+    /**
+     * Size of the database's on-disk cache. Large enough to hold the logged-in user's synced
+     * nodes, the leaderboard and the recently viewed forum threads (the SDK default is 10MB).
+     */
+    static final long DATABASE_CACHE_SIZE_BYTES = 25L * 1024 * 1024;
+
+    /**
+     * Directory under the app's cache directory holding downloaded and uploaded blobs. Older
+     * versions kept it under the files directory, where it is deleted.
+     */
+    static final String BLOB_CACHE_DIRECTORY = "blobs";
+
+    /**
+     * Size of the blob cache, after which the least recently used blobs are evicted. Every blob
+     * has a copy in Firebase Storage, so an evicted one is downloaded again when needed.
+     */
+    static final long BLOB_CACHE_SIZE_BYTES = 50L * 1024 * 1024;
 
     /**
      * Provides a singleton instance of {@link DatabaseReference}.
@@ -64,13 +92,52 @@ public abstract class AppModule {
 
     /**
      * Provides a singleton instance of {@link FirebaseDatabase}.
+     * <p>
+     * Disk persistence is enabled so reads are served from the local cache when offline and
+     * writes are queued across restarts. This must happen before the instance is first used,
+     * which is why all services receive the database through this provider.
+     * </p>
      *
      * @return The {@link FirebaseDatabase} instance.
      */
     @Provides
     @Singleton
     public static FirebaseDatabase provideFirebaseDatabase() {
-        return FirebaseDatabase.getInstance();
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        database.setPersistenceEnabled(true);
+        database.setPersistenceCacheSizeBytes(DATABASE_CACHE_SIZE_BYTES);
+        return database;
+    }
+
+    /**
+     * Provides a singleton instance of {@link FirebaseStorage}.
+     *
+     * @return The {@link FirebaseStorage} instance.
+     */
+    @Provides
+    @Singleton
+    public static FirebaseStorage provideFirebaseStorage() {
+        return FirebaseStorage.getInstance();
+    }
+
+    /**
+     * Provides the {@link IBlobStore} holding image content.
+     * <p>
+     * Blobs are kept in Firebase Storage and cached on disk in {@code cache/blobs}, up to
+     * {@link #BLOB_CACHE_SIZE_BYTES}. Replace the remote store here to move the content to
+     * another backend.
+     * </p>
+     *
+     * @param context         The application context.
+     * @param firebaseStorage The {@link FirebaseStorage} instance.
+     * @return The blob store.
+     */
+    @Provides
+    @Singleton
+    public static IBlobStore provideBlobStore(@ApplicationContext Context context, FirebaseStorage firebaseStorage) {
+        LocalFileBlobStore cache = new LocalFileBlobStore(new File(context.getCacheDir(), BLOB_CACHE_DIRECTORY), BLOB_CACHE_SIZE_BYTES);
+        cache.deleteDirectory(new File(context.getFilesDir(), BLOB_CACHE_DIRECTORY));
+        return new CachedBlobStore(cache, new FirebaseStorageBlobStore(firebaseStorage));
     }
 
     /**
@@ -116,6 +183,16 @@ public abstract class AppModule {
     @Singleton
     public abstract IUserService bindUserService(UserServiceImpl userService);
 
+    /**
+     * Binds the {@link IUserDirectory} interface to its implementation.
+     *
+     * @param userDirectory The {@link UserDirectory} implementation.
+     * @return The bound interface.
+     */
+    @Binds
+    @Singleton
+    public abstract IUserDirectory bindUserDirectory(UserDirectory userDirectory);
+
     /**
      * Binds the {@link IMedicationService} interface to its implementation.
      *
@@ -199,4 +276,14 @@ public abstract class AppModule {
     @Binds
     @Singleton
     public abstract ITTSService bindTTSService(TTSServiceImpl ttsService);
+
+    /**
+     * Binds the memory game's {@link GameClock} to the database server time.
+     *
+     * @param serverClock The {@link ServerClock} implementation.
+     * @return The bound interface.
+     */
+    @Binds
+    @Singleton
+    public abstract GameClock bindGameClock(ServerClock serverClock);
 }
\ No newline at end of file
@@ -10,6 +10,8 @@ import androidx.fragment.app.DialogFragment;
 
 import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseDialog;
+import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
 
 import javax.inject.Inject;
 
@@ -21,14 +23,25 @@ import dagger.hilt.android.AndroidEntryPoint;
  * This dialog is styled to remove system bars and use the entire screen real estate.
  * It is used for inspecting profile pictures or medication card images in detail.
  * Tapping anywhere on the image dismisses the dialog.
+ * The image the caller already shows is used as a preview while the full variant loads.
  * </p>
  */
 @AndroidEntryPoint
 public class FullImageDialog extends BaseDialog {
+    @Inject
+    protected ImageUtil imageUtil;
+
+    /**
+     * Reference of the image to display in full resolution.
+     */
+    private String imageRef;
+
     /**
-     * The image content to display.
+     * Lower resolution copy shown until the full image is loaded.
      */
-    private Drawable imageDrawable;
+    private Drawable previewDrawable;
+
+    private ImageView dialogImage;
 
     /**
      * Constructs a new FullImageDialog.
@@ -38,12 +51,14 @@ public class FullImageDialog extends BaseDialog {
     }
 
     /**
-     * Sets the image drawable to be displayed.
+     * Sets the image to be displayed.
      *
-     * @param imageDrawable The {@link Drawable} source.
+     * @param imageRef        The image reference (content hash or legacy Base64), or null to only show the preview.
+     * @param previewDrawable The {@link Drawable} shown while the full image loads.
      */
-    public void setImage(Drawable imageDrawable) {
-        this.imageDrawable = imageDrawable;
+    public void setImage(@Nullable String imageRef, @Nullable Drawable previewDrawable) {
+        this.imageRef = imageRef;
+        this.previewDrawable = previewDrawable;
     }
 
     /**
@@ -69,13 +84,22 @@ public class FullImageDialog extends BaseDialog {
     protected void setupViews(Dialog dialog) {
         dialog.setCancelable(true);
 
-        ImageView dialogImage = dialog.findViewById(R.id.dialogImage);
-        if (imageDrawable != null) {
-            dialogImage.setImageDrawable(imageDrawable);
+        dialogImage = dialog.findViewById(R.id.dialogImage);
+        if (imageRef != null) {
+            imageUtil.loadImage(imageRef, dialogImage, ImageVariant.FULL);
+        }
+        if (dialogImage.getDrawable() == null && previewDrawable != null) {
+            dialogImage.setImageDrawable(previewDrawable);
         }
 
         dialogImage.setOnClickListener(v -> dismiss());
 
         dialog.findViewById(R.id.btn_close_full_image).setOnClickListener(v -> dismiss());
     }
-}
\ No newline at end of file
+
+    @Override
+    public void onDestroyView() {
+        if (dialogImage != null) imageUtil.cancel(dialogImage);
+        super.onDestroyView();
+    }
+}
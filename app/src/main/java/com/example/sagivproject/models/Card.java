@@ -10,7 +10,7 @@ import java.util.Objects;
  * Represents a single card in the online memory game.
  * <p>
  * This class holds the state of a card, including its unique identifier (shared
- * with its matching pair), its image content as a Base64 string, and its current state
+ * with its matching pair), a local reference to its image content, and its current state
  * in the game (revealed, matched).
  * </p>
  */
@@ -40,11 +40,11 @@ public class Card extends ImageData {
     /**
      * Constructs a new Card with a specific ID and image content.
      *
-     * @param id     The identifier for the card, shared with its match.
-     * @param base64 The Base64 encoded string of the card's image.
+     * @param id       The identifier for the card, shared with its match.
+     * @param imageRef The image reference of the card (see {@link ImageData#getImageRef()}).
      */
-    public Card(String id, String base64) {
-        super(id, base64);
+    public Card(String id, String imageRef) {
+        super(id, imageRef);
     }
 
     /**
@@ -70,6 +70,28 @@ public class Card extends ImageData {
         super.setBase64(base64);
     }
 
+    /**
+     * Overridden to keep the blob hash out of the game room node as well.
+     *
+     * @return The content hash (not stored in Firebase).
+     */
+    @Exclude
+    @Override
+    public String getHash() {
+        return super.getHash();
+    }
+
+    /**
+     * Overridden to keep the blob hash out of the game room node as well.
+     *
+     * @param hash The content hash.
+     */
+    @Exclude
+    @Override
+    public void setHash(String hash) {
+        super.setHash(hash);
+    }
+
     /**
      * Checks if the card is currently revealed (flipped up).
      *
@@ -0,0 +1,84 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The stored layout of a memory game board.
+ * <p>
+ * Instead of a full object per card, the board is stored as a table of the distinct image IDs
+ * and a layout string with one character per card, naming the card's entry in the table. The
+ * revealed and matched state of the cards is kept apart from it, in the room's bitmasks, so
+ * the layout is written once when the board is dealt. See
+ * {@link com.example.sagivproject.utils.BoardCodec}.
+ * </p>
+ */
+public class CompactBoard {
+    /**
+     * The distinct image IDs on the board, in order of first appearance.
+     */
+    private List<String> images;
+
+    /**
+     * One character per card, encoding the card's index in {@link #images}.
+     */
+    private String layout;
+
+    /**
+     * Default constructor required for Firebase deserialization.
+     */
+    public CompactBoard() {
+        this.images = new ArrayList<>();
+        this.layout = "";
+    }
+
+    /**
+     * @param images The distinct image IDs on the board.
+     * @param layout The layout string, one character per card.
+     */
+    public CompactBoard(List<String> images, String layout) {
+        this.images = images;
+        this.layout = layout;
+    }
+
+    public List<String> getImages() {
+        return images;
+    }
+
+    public void setImages(List<String> images) {
+        this.images = images;
+    }
+
+    public String getLayout() {
+        return layout;
+    }
+
+    public void setLayout(String layout) {
+        this.layout = layout;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactBoard that = (CompactBoard) o;
+        return Objects.equals(images, that.images) && Objects.equals(layout, that.layout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(images, layout);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "CompactBoard{" +
+                "images=" + images +
+                ", layout='" + layout + '\'' +
+                '}';
+    }
+}
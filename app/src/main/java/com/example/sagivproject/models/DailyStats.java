@@ -6,7 +6,9 @@ import com.example.sagivproject.models.MedicationUsage.MedicationStatus;
 import com.google.firebase.database.Exclude;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents combined daily statistics for a user.
@@ -15,6 +17,10 @@ import java.util.List;
  * and medication compliance (taken vs missed) for a single calendar day.
  * It is used to generate graphs and insights for users and administrators.
  * </p>
+ * <p>
+ * The medication usage logs are stored in their own keyed node and attached to this object when
+ * loaded, so only the per-day taken/missed counters are part of the stored record.
+ * </p>
  */
 public class DailyStats implements Idable {
     /**
@@ -43,9 +49,19 @@ public class DailyStats implements Idable {
     private int mathWrong;
 
     /**
-     * List of individual medication intake events for this day.
+     * Number of doses marked as TAKEN on this day, maintained alongside the usage logs.
+     */
+    private int medicationsTaken;
+
+    /**
+     * Number of doses marked as NOT_TAKEN on this day, maintained alongside the usage logs.
      */
-    private List<MedicationUsage> medicationUsageLogs;
+    private int medicationsMissed;
+
+    /**
+     * Individual medication intake events for this day, keyed by {@link MedicationUsage#createId}.
+     */
+    private Map<String, MedicationUsage> medicationUsage;
 
     /**
      * Constructs a new DailyStats object with all counters initialized to zero.
@@ -55,7 +71,30 @@ public class DailyStats implements Idable {
         this.memoryGamesPlayed = 0;
         this.mathCorrect = 0;
         this.mathWrong = 0;
-        this.medicationUsageLogs = new ArrayList<>();
+        this.medicationsTaken = 0;
+        this.medicationsMissed = 0;
+        this.medicationUsage = new LinkedHashMap<>();
+    }
+
+    /**
+     * Copy constructor. The usage logs are copied as well.
+     *
+     * @param other The statistics to copy from.
+     */
+    public DailyStats(DailyStats other) {
+        this.id = other.id;
+        this.memoryWins = other.memoryWins;
+        this.memoryGamesPlayed = other.memoryGamesPlayed;
+        this.mathCorrect = other.mathCorrect;
+        this.mathWrong = other.mathWrong;
+        this.medicationsTaken = other.medicationsTaken;
+        this.medicationsMissed = other.medicationsMissed;
+        this.medicationUsage = new LinkedHashMap<>();
+        if (other.medicationUsage != null) {
+            for (Map.Entry<String, MedicationUsage> entry : other.medicationUsage.entrySet()) {
+                this.medicationUsage.put(entry.getKey(), new MedicationUsage(entry.getValue()));
+            }
+        }
     }
 
     @Override
@@ -113,56 +152,48 @@ public class DailyStats implements Idable {
     }
 
     /**
-     * Calculates the total count of medication doses marked as TAKEN on this day from the logs.
-     * Annotated with {@code @Exclude} to prevent redundant storage in Firebase.
-     *
-     * @return The count of taken medications.
+     * @return Number of doses marked as TAKEN on this day.
      */
-    @Exclude
     public int getMedicationsTaken() {
-        if (medicationUsageLogs == null) return 0;
-        int count = 0;
-        for (MedicationUsage log : medicationUsageLogs) {
-            if (log.getStatus() == MedicationStatus.TAKEN) count++;
-        }
-        return count;
+        return medicationsTaken;
+    }
+
+    public void setMedicationsTaken(int medicationsTaken) {
+        this.medicationsTaken = medicationsTaken;
     }
 
     /**
-     * Calculates the total count of medication doses marked as NOT_TAKEN on this day from the logs.
-     * Annotated with {@code @Exclude} to prevent redundant storage in Firebase.
-     *
-     * @return The count of missed medications.
+     * @return Number of doses marked as NOT_TAKEN on this day.
      */
-    @Exclude
     public int getMedicationsMissed() {
-        if (medicationUsageLogs == null) return 0;
-        int count = 0;
-        for (MedicationUsage log : medicationUsageLogs) {
-            if (log.getStatus() == MedicationStatus.NOT_TAKEN) count++;
-        }
-        return count;
+        return medicationsMissed;
+    }
+
+    public void setMedicationsMissed(int medicationsMissed) {
+        this.medicationsMissed = medicationsMissed;
     }
 
     /**
-     * Gets the list of detailed medication usage logs for the day.
+     * Gets the detailed medication usage logs for the day.
+     * Annotated with {@code @Exclude} because the logs are stored in their own node.
      *
      * @return A list of {@link MedicationUsage} objects.
      */
+    @Exclude
     public List<MedicationUsage> getMedicationUsageLogs() {
-        if (medicationUsageLogs == null) {
-            medicationUsageLogs = new ArrayList<>();
-        }
-        return medicationUsageLogs;
+        if (medicationUsage == null) return new ArrayList<>();
+        return new ArrayList<>(medicationUsage.values());
     }
 
     /**
-     * Sets the medication usage logs list.
+     * Replaces the medication usage logs of the day.
+     * Annotated with {@code @Exclude} because the logs are stored in their own node.
      *
-     * @param medicationUsageLogs The list of {@link MedicationUsage} objects.
+     * @param medicationUsage The logs, keyed by {@link MedicationUsage#createId}.
      */
-    public void setMedicationUsageLogs(List<MedicationUsage> medicationUsageLogs) {
-        this.medicationUsageLogs = medicationUsageLogs;
+    @Exclude
+    public void setMedicationUsage(Map<String, MedicationUsage> medicationUsage) {
+        this.medicationUsage = medicationUsage;
     }
 
     /**
@@ -195,23 +226,43 @@ public class DailyStats implements Idable {
 
     /**
      * Adds or updates a detailed medication usage log entry to this day's statistics.
-     * If a log for the same medication and scheduled time already exists, it is updated.
+     * A log for the same medication and scheduled time replaces the existing one, and the
+     * taken/missed counters are adjusted accordingly.
      *
      * @param log The {@link MedicationUsage} record to append or update.
      */
     public void addMedicationUsageLog(MedicationUsage log) {
-        if (medicationUsageLogs == null) {
-            medicationUsageLogs = new ArrayList<>();
+        if (medicationUsage == null) {
+            medicationUsage = new LinkedHashMap<>();
         }
-        for (int i = 0; i < medicationUsageLogs.size(); i++) {
-            MedicationUsage existing = medicationUsageLogs.get(i);
-            if (existing.getMedicationId().equals(log.getMedicationId()) &&
-                    existing.getScheduledTime().equals(log.getScheduledTime())) {
-                medicationUsageLogs.set(i, log);
-                return;
-            }
-        }
-        medicationUsageLogs.add(log);
+        MedicationUsage previous = medicationUsage.put(MedicationUsage.createId(log.getMedicationId(), log.getScheduledTime()), log);
+        if (previous != null) adjustCounters(previous.getStatus(), -1);
+        adjustCounters(log.getStatus(), 1);
+    }
+
+    /**
+     * Removes a medication usage log entry and adjusts the taken/missed counters.
+     *
+     * @param usageId The ID of the log to remove.
+     */
+    public void removeMedicationUsageLog(String usageId) {
+        if (medicationUsage == null) return;
+        MedicationUsage removed = medicationUsage.remove(usageId);
+        if (removed != null) adjustCounters(removed.getStatus(), -1);
+    }
+
+    /**
+     * Removes all medication usage logs of the day and resets the counters.
+     */
+    public void clearMedicationUsageLogs() {
+        if (medicationUsage != null) medicationUsage.clear();
+        medicationsTaken = 0;
+        medicationsMissed = 0;
+    }
+
+    private void adjustCounters(MedicationStatus status, int delta) {
+        if (status == MedicationStatus.TAKEN) medicationsTaken += delta;
+        else if (status == MedicationStatus.NOT_TAKEN) medicationsMissed += delta;
     }
 
     @NonNull
@@ -222,9 +273,9 @@ public class DailyStats implements Idable {
                 ", memoryGamesPlayed=" + memoryGamesPlayed +
                 ", mathCorrect=" + mathCorrect +
                 ", mathWrong=" + mathWrong +
-                ", medicationsTaken=" + getMedicationsTaken() +
-                ", medicationsMissed=" + getMedicationsMissed() +
-                ", medicationUsageLogs=" + medicationUsageLogs +
+                ", medicationsTaken=" + medicationsTaken +
+                ", medicationsMissed=" + medicationsMissed +
+                ", medicationUsage=" + medicationUsage +
                 '}';
     }
 }
\ No newline at end of file
@@ -56,6 +56,18 @@ public class EmergencyContact implements Idable {
         this.phoneNumber = phoneNumber;
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other The contact to copy from.
+     */
+    public EmergencyContact(EmergencyContact other) {
+        this.id = other.id;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.phoneNumber = other.phoneNumber;
+    }
+
     @Override
     public String getId() {
         return id;
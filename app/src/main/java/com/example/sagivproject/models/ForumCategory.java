@@ -1,12 +1,16 @@
 package com.example.sagivproject.models;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * Represents a single category in the application forum.
  * <p>
  * This class holds the metadata for a forum category, including its unique identifier
  * and display name. Categories are used to group forum messages by topic.
+ * The category list is read from the {@code forum_category_index} node, whose entries also
+ * carry the message count and the time of the last post, so the list never downloads messages.
+ * The post count is compared with the user's {@link ForumReadMarker} to show unread messages.
  * </p>
  */
 public class ForumCategory implements Idable {
@@ -20,6 +24,22 @@ public class ForumCategory implements Idable {
      */
     private String name;
 
+    /**
+     * Number of messages in the category, maintained on every send and delete.
+     */
+    private long messageCount;
+
+    /**
+     * Number of messages ever sent to the category. Unlike the message count it is never
+     * decremented, so it only grows by the messages a reader has not seen.
+     */
+    private long postCount;
+
+    /**
+     * Timestamp of the latest message sent to the category (ISO format), or null if none was sent.
+     */
+    private String lastActivity;
+
     /**
      * Default constructor required for Firebase deserialization.
      */
@@ -58,12 +78,59 @@ public class ForumCategory implements Idable {
         this.name = name;
     }
 
+    /**
+     * @return The number of messages in the category.
+     */
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(long messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    /**
+     * @return The number of messages ever sent to the category.
+     */
+    public long getPostCount() {
+        return postCount;
+    }
+
+    public void setPostCount(long postCount) {
+        this.postCount = postCount;
+    }
+
+    /**
+     * Counts the messages sent since a user last read the category.
+     *
+     * @param marker The user's read marker for this category, or null if they never read it.
+     * @return The number of unread messages.
+     */
+    public long countUnread(@Nullable ForumReadMarker marker) {
+        long readCount = marker != null ? marker.getReadCount() : 0;
+        return Math.max(0, postCount - readCount);
+    }
+
+    /**
+     * @return The timestamp of the latest message, or null if the category has none.
+     */
+    public String getLastActivity() {
+        return lastActivity;
+    }
+
+    public void setLastActivity(String lastActivity) {
+        this.lastActivity = lastActivity;
+    }
+
     @NonNull
     @Override
     public String toString() {
         return "ForumCategory{" +
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
+                ", messageCount=" + messageCount +
+                ", postCount=" + postCount +
+                ", lastActivity='" + lastActivity + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Marks how far a user has read in one forum category.
+ * <p>
+ * Stored in {@code forum_read_markers/{uid}/{categoryId}}. The marker holds the category's
+ * {@link ForumCategory#getPostCount() post count} at the time the user last read it, so the
+ * number of unread messages is the difference between the two counters and no message is read
+ * to compute it.
+ * </p>
+ */
+public class ForumReadMarker {
+    /**
+     * Post count of the category when the user last read it, plus the messages they sent since.
+     */
+    private long readCount;
+
+    /**
+     * Timestamp of the last time the user read or posted in the category (ISO format).
+     */
+    private String lastRead;
+
+    /**
+     * Default constructor required for Firebase deserialization.
+     */
+    public ForumReadMarker() {
+    }
+
+    /**
+     * @param readCount The post count of the category when the user read it.
+     * @param lastRead  The timestamp of the read (ISO format).
+     */
+    public ForumReadMarker(long readCount, String lastRead) {
+        this.readCount = readCount;
+        this.lastRead = lastRead;
+    }
+
+    /**
+     * @return The post count of the category when the user last read it.
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    public void setReadCount(long readCount) {
+        this.readCount = readCount;
+    }
+
+    /**
+     * @return The timestamp of the last time the user read or posted in the category.
+     */
+    public String getLastRead() {
+        return lastRead;
+    }
+
+    public void setLastRead(String lastRead) {
+        this.lastRead = lastRead;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ForumReadMarker{" +
+                "readCount=" + readCount +
+                ", lastRead='" + lastRead + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.utils.BoardCodec;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of changes to a memory game room that are applied together.
+ * <p>
+ * A move collects everything a single step of a turn changes (card flips, a score point, the
+ * selected card, the processing flag and the next turn) so the service can write it as one
+ * atomic multi-path update instead of a separate write per field. Fields that are not set are
+ * left unchanged in the room. A move is never stored itself.
+ * </p>
+ * <p>
+ * Card states are stored as bitmasks of the whole board, so a move with card changes must be
+ * placed on the board it changes with {@link #onBoard} before it is written.
+ * </p>
+ */
+public class GameMove {
+    /**
+     * The new state of each changed card, keyed by its board position.
+     */
+    private final Map<Integer, CardState> cards = new LinkedHashMap<>();
+
+    /**
+     * Points to add to each player's score.
+     */
+    private int player1ScoreDelta, player2ScoreDelta;
+
+    /**
+     * Whether {@link #firstSelectedCardIndex} should be written (it may be cleared to null).
+     */
+    private boolean firstSelectedCardIndexSet;
+    private Integer firstSelectedCardIndex;
+
+    private Boolean processingMatch;
+    private String currentTurnUid;
+    private Long turnDeadline;
+
+    /**
+     * The turn deadline the room must still have for the move to apply, or null to apply it
+     * unconditionally.
+     */
+    private Long requiredTurnDeadline;
+
+    /**
+     * The board's masks with the card changes applied, set by {@link #onBoard}.
+     */
+    private Long revealedMask, matchedMask;
+
+    /**
+     * Flips a card up or down.
+     *
+     * @param index    The position of the card on the board.
+     * @param revealed Whether the card is face-up.
+     * @param matched  Whether the card has been matched.
+     * @return This move.
+     */
+    public GameMove setCard(int index, boolean revealed, boolean matched) {
+        if (index >= 0) cards.put(index, new CardState(revealed, matched));
+        return this;
+    }
+
+    /**
+     * Adds a point to a player's score.
+     *
+     * @param room      The room the move is made in, used to find the player's score field.
+     * @param playerUid The UID of the scoring player.
+     * @return This move.
+     */
+    public GameMove addPoint(@NonNull GameRoom room, @NonNull String playerUid) {
+        if (playerUid.equals(room.getPlayer1Uid())) player1ScoreDelta++;
+        else if (playerUid.equals(room.getPlayer2Uid())) player2ScoreDelta++;
+        return this;
+    }
+
+    /**
+     * Sets or clears the first card selected in the current turn.
+     *
+     * @param index The position of the card, or null to clear the selection.
+     * @return This move.
+     */
+    public GameMove setFirstSelectedCardIndex(@Nullable Integer index) {
+        firstSelectedCardIndexSet = true;
+        firstSelectedCardIndex = index;
+        return this;
+    }
+
+    /**
+     * Sets whether a match check is in progress.
+     *
+     * @param processingMatch true while the two selected cards are being compared.
+     * @return This move.
+     */
+    public GameMove setProcessingMatch(boolean processingMatch) {
+        this.processingMatch = processingMatch;
+        return this;
+    }
+
+    /**
+     * Passes the turn to a player.
+     *
+     * @param currentTurnUid The UID of the player whose turn starts.
+     * @return This move.
+     */
+    public GameMove setCurrentTurnUid(@NonNull String currentTurnUid) {
+        this.currentTurnUid = currentTurnUid;
+        return this;
+    }
+
+    /**
+     * Sets the server time at which the current turn ends.
+     *
+     * @param turnDeadline The deadline in server milliseconds.
+     * @return This move.
+     */
+    public GameMove setTurnDeadline(long turnDeadline) {
+        this.turnDeadline = turnDeadline;
+        return this;
+    }
+
+    /**
+     * Makes the move conditional: it is only applied while the room's turn deadline is still the
+     * given one. A timeout uses this so that it is committed once per turn, even if both players
+     * report it.
+     *
+     * @param turnDeadline The turn deadline the move was decided on.
+     * @return This move.
+     */
+    public GameMove requireTurnDeadline(long turnDeadline) {
+        this.requiredTurnDeadline = turnDeadline;
+        return this;
+    }
+
+    /**
+     * Computes the board's revealed and matched masks after this move's card changes.
+     * Only the player whose turn it is changes cards, so the masks of the board the player
+     * sees are the ones the move builds on.
+     *
+     * @param board The cards of the board before the move.
+     * @return This move.
+     */
+    public GameMove onBoard(@NonNull List<Card> board) {
+        long revealed = BoardCodec.revealedMask(board);
+        long matched = BoardCodec.matchedMask(board);
+        for (Map.Entry<Integer, CardState> card : cards.entrySet()) {
+            revealed = BoardCodec.withBit(revealed, card.getKey(), card.getValue().isRevealed());
+            matched = BoardCodec.withBit(matched, card.getKey(), card.getValue().isMatched());
+        }
+        this.revealedMask = revealed;
+        this.matchedMask = matched;
+        return this;
+    }
+
+    /**
+     * @return The new state of each changed card, keyed by its board position.
+     */
+    public Map<Integer, CardState> getCards() {
+        return Collections.unmodifiableMap(cards);
+    }
+
+    public int getPlayer1ScoreDelta() {
+        return player1ScoreDelta;
+    }
+
+    public int getPlayer2ScoreDelta() {
+        return player2ScoreDelta;
+    }
+
+    /**
+     * @return true if the move sets or clears the first selected card.
+     */
+    public boolean isFirstSelectedCardIndexSet() {
+        return firstSelectedCardIndexSet;
+    }
+
+    @Nullable
+    public Integer getFirstSelectedCardIndex() {
+        return firstSelectedCardIndex;
+    }
+
+    /**
+     * @return The new processing flag, or null if the move leaves it unchanged.
+     */
+    @Nullable
+    public Boolean getProcessingMatch() {
+        return processingMatch;
+    }
+
+    /**
+     * @return The UID of the next player, or null if the turn does not change.
+     */
+    @Nullable
+    public String getCurrentTurnUid() {
+        return currentTurnUid;
+    }
+
+    /**
+     * @return The new turn deadline in server milliseconds, or null if it does not change.
+     */
+    @Nullable
+    public Long getTurnDeadline() {
+        return turnDeadline;
+    }
+
+    /**
+     * @return The turn deadline the room must have for the move to apply, or null if the move is unconditional.
+     */
+    @Nullable
+    public Long getRequiredTurnDeadline() {
+        return requiredTurnDeadline;
+    }
+
+    /**
+     * @return The board's revealed mask after the move, or null if {@link #onBoard} was not called.
+     */
+    @Nullable
+    public Long getRevealedMask() {
+        return revealedMask;
+    }
+
+    /**
+     * @return The board's matched mask after the move, or null if {@link #onBoard} was not called.
+     */
+    @Nullable
+    public Long getMatchedMask() {
+        return matchedMask;
+    }
+
+    /**
+     * @return true if the move changes nothing.
+     */
+    public boolean isEmpty() {
+        return cards.isEmpty() && player1ScoreDelta == 0 && player2ScoreDelta == 0 && !firstSelectedCardIndexSet
+                && processingMatch == null && currentTurnUid == null && turnDeadline == null;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "GameMove{" +
+                "cards=" + cards +
+                ", player1ScoreDelta=" + player1ScoreDelta +
+                ", player2ScoreDelta=" + player2ScoreDelta +
+                ", firstSelectedCardIndex=" + (firstSelectedCardIndexSet ? firstSelectedCardIndex : "unchanged") +
+                ", processingMatch=" + processingMatch +
+                ", currentTurnUid='" + currentTurnUid + '\'' +
+                ", turnDeadline=" + turnDeadline +
+                ", requiredTurnDeadline=" + requiredTurnDeadline +
+                ", revealedMask=" + revealedMask +
+                ", matchedMask=" + matchedMask +
+                '}';
+    }
+
+    /**
+     * The state a move gives to a single card.
+     */
+    public static class CardState {
+        private final boolean revealed, matched;
+
+        CardState(boolean revealed, boolean matched) {
+            this.revealed = revealed;
+            this.matched = matched;
+        }
+
+        /**
+         * @return true if the card is face-up.
+         */
+        public boolean isRevealed() {
+            return revealed;
+        }
+
+        /**
+         * @return true if the card has been matched.
+         */
+        public boolean isMatched() {
+            return matched;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "CardState{revealed=" + revealed + ", matched=" + matched + '}';
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * A compact summary of a single memory game session.
+ * <p>
+ * When a game finishes, its {@link GameRoom} is archived as a GameResult under the
+ * date-partitioned {@code game_history/yyyy-MM} node and removed from the live {@code rooms} node.
+ * Unlike the room, a result carries no card list, so reading a month of history stays cheap.
+ * </p>
+ */
+public class GameResult implements Idable {
+    /**
+     * The ID of the original game room.
+     */
+    private String id;
+
+    /**
+     * Status of the session: "waiting", "playing", or "finished".
+     */
+    private String status;
+
+    /**
+     * UID of the host player (Player 1).
+     */
+    private String player1Uid;
+
+    /**
+     * UID of the opponent player (Player 2).
+     */
+    private String player2Uid;
+
+    /**
+     * Final score of the first player.
+     */
+    private int player1Score;
+
+    /**
+     * Final score of the second player.
+     */
+    private int player2Score;
+
+    /**
+     * UID of the player who won the match, or "draw".
+     */
+    private String winnerUid;
+
+    /**
+     * Time (in milliseconds) when the room was created.
+     */
+    private long startedAt;
+
+    /**
+     * Time (in milliseconds) when the game was finished, or 0 if it is still in progress.
+     */
+    private long finishedAt;
+
+    /**
+     * Default constructor required for Firebase deserialization.
+     */
+    public GameResult() {
+    }
+
+    /**
+     * Creates a result summary from the state of a game room.
+     *
+     * @param room       The room to summarize.
+     * @param finishedAt The time the game was finished, or 0 for a game still in progress.
+     * @return A new {@link GameResult} without the room's card list.
+     */
+    public static GameResult fromRoom(@NonNull GameRoom room, long finishedAt) {
+        GameResult result = new GameResult();
+        result.id = room.getId();
+        result.status = room.getStatus();
+        result.player1Uid = room.getPlayer1Uid();
+        result.player2Uid = room.getPlayer2Uid();
+        result.player1Score = room.getPlayer1Score();
+        result.player2Score = room.getPlayer2Score();
+        result.winnerUid = room.getWinnerUid();
+        result.startedAt = room.getStartedAt();
+        result.finishedAt = finishedAt;
+        return result;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The session status ("waiting", "playing", "finished").
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * @return The unique ID of the room host (Player 1).
+     */
+    public String getPlayer1Uid() {
+        return player1Uid;
+    }
+
+    public void setPlayer1Uid(String player1Uid) {
+        this.player1Uid = player1Uid;
+    }
+
+    /**
+     * @return The unique ID of the opponent (Player 2).
+     */
+    public String getPlayer2Uid() {
+        return player2Uid;
+    }
+
+    public void setPlayer2Uid(String player2Uid) {
+        this.player2Uid = player2Uid;
+    }
+
+    /**
+     * @return The final score of Player 1.
+     */
+    public int getPlayer1Score() {
+        return player1Score;
+    }
+
+    public void setPlayer1Score(int player1Score) {
+        this.player1Score = player1Score;
+    }
+
+    /**
+     * @return The final score of Player 2.
+     */
+    public int getPlayer2Score() {
+        return player2Score;
+    }
+
+    public void setPlayer2Score(int player2Score) {
+        this.player2Score = player2Score;
+    }
+
+    /**
+     * @return The UID of the winner or "draw".
+     */
+    public String getWinnerUid() {
+        return winnerUid;
+    }
+
+    public void setWinnerUid(String winnerUid) {
+        this.winnerUid = winnerUid;
+    }
+
+    /**
+     * @return The time the room was created, in milliseconds.
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * @return The time the game was finished, in milliseconds.
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GameResult that = (GameResult) o;
+        return player1Score == that.player1Score &&
+                player2Score == that.player2Score &&
+                startedAt == that.startedAt &&
+                finishedAt == that.finishedAt &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(status, that.status) &&
+                Objects.equals(player1Uid, that.player1Uid) &&
+                Objects.equals(player2Uid, that.player2Uid) &&
+                Objects.equals(winnerUid, that.winnerUid);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status, player1Uid, player2Uid, player1Score, player2Score, winnerUid, startedAt, finishedAt);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "GameResult{" +
+                "id='" + id + '\'' +
+                ", status='" + status + '\'' +
+                ", player1Uid='" + player1Uid + '\'' +
+                ", player2Uid='" + player2Uid + '\'' +
+                ", player1Score=" + player1Score +
+                ", player2Score=" + player2Score +
+                ", winnerUid='" + winnerUid + '\'' +
+                ", startedAt=" + startedAt +
+                ", finishedAt=" + finishedAt +
+                '}';
+    }
+}
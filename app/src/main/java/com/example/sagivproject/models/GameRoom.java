@@ -1,6 +1,11 @@
 package com.example.sagivproject.models;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.utils.BoardCodec;
+import com.google.firebase.database.Exclude;
+import com.google.firebase.database.PropertyName;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +17,11 @@ import java.util.List;
  * via Firebase. It tracks player UIDs, the game board (list of cards), current turn,
  * scores, and the overall status of the match (waiting, playing, finished).
  * </p>
+ * <p>
+ * The board is stored compactly: a {@link CompactBoard} with the layout, plus a revealed and a
+ * matched bitmask (see {@link BoardCodec}). Rooms stored by older versions with a {@code cards}
+ * list are still read.
+ * </p>
  */
 public class GameRoom implements Idable {
     /**
@@ -35,10 +45,15 @@ public class GameRoom implements Idable {
     private String player2Uid;
 
     /**
-     * The shuffled deck of cards for this game session.
+     * The shuffled deck of cards for this game session. Not stored as a list; see {@link #getBoard()}.
      */
     private List<Card> cards;
 
+    /**
+     * Card states read before the board they belong to, applied once the board is read.
+     */
+    private long pendingRevealedMask, pendingMatchedMask;
+
     /**
      * UID of the player whose turn it currently is.
      */
@@ -74,6 +89,21 @@ public class GameRoom implements Idable {
      */
     private boolean statsUpdated;
 
+    /**
+     * Local time (in milliseconds) when the room was created.
+     */
+    private long startedAt;
+
+    /**
+     * Server time (in milliseconds) at which the current turn ends, or 0 before the board is dealt.
+     */
+    private long turnDeadline;
+
+    /**
+     * Server time (in milliseconds) at which the whole game ends, or 0 before the board is dealt.
+     */
+    private long gameDeadline;
+
     /**
      * Default constructor required for Firebase deserialization.
      */
@@ -97,6 +127,28 @@ public class GameRoom implements Idable {
         this.firstSelectedCardIndex = null;
         this.processingMatch = false;
         this.cards = new ArrayList<>();
+        this.startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Constructs a new GameRoom for two players paired by matchmaking.
+     * The room starts in the "playing" state; the board is initialized later by player 1.
+     *
+     * @param id         The unique ID of the room.
+     * @param player1Uid The UID of the waiting player (host).
+     * @param player2Uid The UID of the player who claimed the match.
+     */
+    public GameRoom(String id, String player1Uid, String player2Uid) {
+        this.id = id;
+        this.player1Uid = player1Uid;
+        this.player2Uid = player2Uid;
+        this.status = "playing";
+        this.player1Score = 0;
+        this.player2Score = 0;
+        this.firstSelectedCardIndex = null;
+        this.processingMatch = false;
+        this.cards = new ArrayList<>();
+        this.startedAt = System.currentTimeMillis();
     }
 
     @Override
@@ -145,14 +197,68 @@ public class GameRoom implements Idable {
     /**
      * @return The current list of cards on the game board.
      */
+    @Exclude
     public List<Card> getCards() {
         return cards;
     }
 
+    @Exclude
     public void setCards(List<Card> cards) {
         this.cards = cards;
     }
 
+    /**
+     * @return The stored layout of the board, or null before the board is dealt.
+     */
+    @Nullable
+    public CompactBoard getBoard() {
+        return (cards == null || cards.isEmpty()) ? null : BoardCodec.encode(cards);
+    }
+
+    public void setBoard(@Nullable CompactBoard board) {
+        this.cards = (board == null) ? new ArrayList<>() : BoardCodec.decode(board, pendingRevealedMask, pendingMatchedMask);
+    }
+
+    /**
+     * @return A mask with the bit of every revealed card set.
+     */
+    public long getRevealedMask() {
+        return BoardCodec.revealedMask(cards);
+    }
+
+    public void setRevealedMask(long revealedMask) {
+        this.pendingRevealedMask = revealedMask;
+        if (cards == null) return;
+        for (int i = 0; i < cards.size(); i++) {
+            cards.get(i).setRevealed(BoardCodec.isSet(revealedMask, i));
+        }
+    }
+
+    /**
+     * @return A mask with the bit of every matched card set.
+     */
+    public long getMatchedMask() {
+        return BoardCodec.matchedMask(cards);
+    }
+
+    public void setMatchedMask(long matchedMask) {
+        this.pendingMatchedMask = matchedMask;
+        if (cards == null) return;
+        for (int i = 0; i < cards.size(); i++) {
+            cards.get(i).setMatched(BoardCodec.isSet(matchedMask, i));
+        }
+    }
+
+    /**
+     * Reads a board stored by older versions as a list of cards.
+     *
+     * @param cards The raw value of the legacy {@code cards} node.
+     */
+    @PropertyName("cards")
+    public void setLegacyCards(@Nullable Object cards) {
+        if (this.cards == null || this.cards.isEmpty()) this.cards = BoardCodec.readLegacy(cards);
+    }
+
     /**
      * @return The UID of the player whose turn it is.
      */
@@ -230,6 +336,39 @@ public class GameRoom implements Idable {
         this.statsUpdated = statsUpdated;
     }
 
+    /**
+     * @return The time the room was created, in milliseconds.
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * @return The server time at which the current turn ends, or 0 if not set.
+     */
+    public long getTurnDeadline() {
+        return turnDeadline;
+    }
+
+    public void setTurnDeadline(long turnDeadline) {
+        this.turnDeadline = turnDeadline;
+    }
+
+    /**
+     * @return The server time at which the game ends, or 0 if not set.
+     */
+    public long getGameDeadline() {
+        return gameDeadline;
+    }
+
+    public void setGameDeadline(long gameDeadline) {
+        this.gameDeadline = gameDeadline;
+    }
+
     @NonNull
     @Override
     public String toString() {
@@ -246,6 +385,9 @@ public class GameRoom implements Idable {
                 ", processingMatch=" + processingMatch +
                 ", winnerUid='" + winnerUid + '\'' +
                 ", statsUpdated=" + statsUpdated +
+                ", startedAt=" + startedAt +
+                ", turnDeadline=" + turnDeadline +
+                ", gameDeadline=" + gameDeadline +
                 '}';
     }
 }
\ No newline at end of file
@@ -2,10 +2,14 @@ package com.example.sagivproject.models;
 
 import androidx.annotation.NonNull;
 
+import com.google.firebase.database.Exclude;
+
 /**
  * Represents an image asset used in the application, primarily for the memory game cards.
  * <p>
- * This class holds the image's unique identifier and its content as a Base64 encoded string.
+ * This class holds the image's unique identifier and a reference to its content: the content
+ * hash of the image in the {@link com.example.sagivproject.services.IBlobStore}, or, for images
+ * stored by older versions and not migrated yet, the content itself as a Base64 encoded string.
  * It is used for both storing images in the database and passing image data between screens.
  * </p>
  */
@@ -16,10 +20,15 @@ public class ImageData implements Idable {
     private String id;
 
     /**
-     * The raw image content encoded as a Base64 string.
+     * The raw image content encoded as a Base64 string (legacy, null once migrated to the blob store).
      */
     private String base64;
 
+    /**
+     * The SHA-256 content hash of the image in the blob store.
+     */
+    private String hash;
+
     /**
      * Default constructor required for Firebase deserialization.
      */
@@ -58,12 +67,35 @@ public class ImageData implements Idable {
         this.base64 = base64;
     }
 
+    /**
+     * @return The content hash of the image in the blob store, or null for a legacy inline image.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the reference to pass to {@link com.example.sagivproject.utils.ImageUtil#loadImage}:
+     * the content hash if the image is in the blob store, otherwise its inline Base64 content.
+     *
+     * @return The image reference, or null if the image has no content.
+     */
+    @Exclude
+    public String getImageRef() {
+        return hash != null ? hash : base64;
+    }
+
     @NonNull
     @Override
     public String toString() {
         return "ImageData{" +
                 "id='" + id + '\'' +
                 ", base64='" + base64 + '\'' +
+                ", hash='" + hash + '\'' +
                 '}';
     }
 }
\ No newline at end of file
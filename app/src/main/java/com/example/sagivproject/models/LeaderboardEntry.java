@@ -0,0 +1,129 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * A denormalized per-user aggregate of memory game results.
+ * <p>
+ * Entries are stored under {@code leaderboard/{uid}} and updated together with the user's
+ * daily statistics, so the leaderboard can be read with a small ordered query instead of
+ * downloading every user record.
+ * </p>
+ */
+public class LeaderboardEntry implements Idable {
+    /**
+     * The UID of the user this entry belongs to.
+     */
+    private String id;
+
+    /**
+     * The user's full name, kept in sync with the user's profile.
+     */
+    private String fullName;
+
+    /**
+     * Whether the user is an administrator (administrators are not ranked).
+     */
+    private boolean admin;
+
+    /**
+     * Total number of memory games won.
+     */
+    private int totalWins;
+
+    /**
+     * Total number of memory games played.
+     */
+    private int gamesPlayed;
+
+    /**
+     * Default constructor required for Firebase deserialization.
+     */
+    public LeaderboardEntry() {
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The user's full name.
+     */
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    /**
+     * @return true if the user is an administrator.
+     */
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public void setAdmin(boolean admin) {
+        this.admin = admin;
+    }
+
+    /**
+     * @return Total number of memory games won.
+     */
+    public int getTotalWins() {
+        return totalWins;
+    }
+
+    public void setTotalWins(int totalWins) {
+        this.totalWins = totalWins;
+    }
+
+    /**
+     * @return Total number of memory games played.
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public void setGamesPlayed(int gamesPlayed) {
+        this.gamesPlayed = gamesPlayed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LeaderboardEntry that = (LeaderboardEntry) o;
+        return admin == that.admin &&
+                totalWins == that.totalWins &&
+                gamesPlayed == that.gamesPlayed &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(fullName, that.fullName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, fullName, admin, totalWins, gamesPlayed);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "LeaderboardEntry{" +
+                "id='" + id + '\'' +
+                ", fullName='" + fullName + '\'' +
+                ", admin=" + admin +
+                ", totalWins=" + totalWins +
+                ", gamesPlayed=" + gamesPlayed +
+                '}';
+    }
+}
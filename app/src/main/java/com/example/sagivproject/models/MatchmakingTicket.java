@@ -0,0 +1,133 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Represents a single player waiting in the online memory game matchmaking queue.
+ * <p>
+ * Tickets are stored in small shards under {@code matchmaking/waiting/{shard}} and keyed by
+ * the pre-allocated room ID. When another player claims a ticket, the claim is recorded in the
+ * ticket itself, and the room is then created under that ID with both players already assigned,
+ * so the waiting player only has to listen to it. The ticket is removed once the room exists.
+ * </p>
+ */
+public class MatchmakingTicket implements Idable {
+    /**
+     * The pre-allocated room ID, also used as the ticket key.
+     */
+    private String id;
+
+    /**
+     * UID of the waiting player.
+     */
+    private String uid;
+
+    /**
+     * Local time (in milliseconds) when the ticket was enqueued.
+     */
+    private long createdAt;
+
+    /**
+     * UID of the player who claimed the ticket, or null while it is open.
+     */
+    private String claimedBy;
+
+    /**
+     * Server time (in milliseconds) when the ticket was claimed.
+     */
+    private long claimedAt;
+
+    /**
+     * Default constructor required for Firebase deserialization.
+     */
+    public MatchmakingTicket() {
+    }
+
+    /**
+     * Constructs a new MatchmakingTicket.
+     *
+     * @param id        The pre-allocated room ID.
+     * @param uid       The UID of the waiting player.
+     * @param createdAt The time the ticket was enqueued, in milliseconds.
+     */
+    public MatchmakingTicket(String id, String uid, long createdAt) {
+        this.id = id;
+        this.uid = uid;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The UID of the waiting player.
+     */
+    public String getUid() {
+        return uid;
+    }
+
+    public void setUid(String uid) {
+        this.uid = uid;
+    }
+
+    /**
+     * @return The time the ticket was enqueued, in milliseconds.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @return The UID of the player who claimed the ticket, or null while it is open.
+     */
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    /**
+     * @return The server time the ticket was claimed, in milliseconds.
+     */
+    public long getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(long claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    /**
+     * @param now     The current server time, in milliseconds.
+     * @param timeout How long a claim is held before the room must exist.
+     * @return true if the ticket was claimed less than {@code timeout} ago.
+     */
+    public boolean isClaimActive(long now, long timeout) {
+        return claimedBy != null && now - claimedAt < timeout;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "MatchmakingTicket{" +
+                "id='" + id + '\'' +
+                ", uid='" + uid + '\'' +
+                ", createdAt=" + createdAt +
+                ", claimedBy='" + claimedBy + '\'' +
+                ", claimedAt=" + claimedAt +
+                '}';
+    }
+}
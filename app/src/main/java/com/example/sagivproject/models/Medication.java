@@ -2,6 +2,7 @@ package com.example.sagivproject.models;
 
 import androidx.annotation.NonNull;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -61,6 +62,19 @@ public class Medication implements Idable {
         this.reminderHours = reminderHours;
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other The medication to copy from.
+     */
+    public Medication(Medication other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.details = other.details;
+        this.type = other.type;
+        this.reminderHours = other.reminderHours != null ? new ArrayList<>(other.reminderHours) : null;
+    }
+
     @Override
     public String getId() {
         return this.id;
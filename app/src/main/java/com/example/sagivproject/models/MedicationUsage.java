@@ -58,6 +58,34 @@ public class MedicationUsage implements Idable {
         this.status = status;
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other The usage record to copy from.
+     */
+    public MedicationUsage(MedicationUsage other) {
+        this.id = other.id;
+        this.medicationId = other.medicationId;
+        this.time = other.time;
+        this.scheduledTime = other.scheduledTime;
+        this.status = other.status;
+    }
+
+    /**
+     * Builds the deterministic ID of the usage log for a scheduled dose.
+     * <p>
+     * A dose has at most one log per day, so the ID doubles as the database key and
+     * logging the same dose again overwrites the previous entry.
+     * </p>
+     *
+     * @param medicationId  The unique ID of the medication.
+     * @param scheduledTime The time the medication was scheduled for (HH:mm).
+     * @return The usage log ID.
+     */
+    public static String createId(String medicationId, String scheduledTime) {
+        return medicationId + "_" + scheduledTime;
+    }
+
     /**
      * @return The unique ID of the medication record.
      */
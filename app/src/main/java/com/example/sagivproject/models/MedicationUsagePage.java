@@ -0,0 +1,54 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single page of a user's medication usage history, grouped by date.
+ * <p>
+ * Pages are read newest first. The {@link #getNextCursor() cursor} is passed back to
+ * {@link com.example.sagivproject.services.IMedicationService#getMedicationUsageLogs} to load
+ * the next, older page.
+ * </p>
+ */
+public class MedicationUsagePage {
+    private final Map<String, List<MedicationUsage>> logsByDate;
+    private final String nextCursor;
+
+    /**
+     * Constructs a new MedicationUsagePage.
+     *
+     * @param logsByDate The logs of the page, keyed by date (yyyy-MM-dd) in descending order.
+     * @param nextCursor The cursor of the next page, or null if this is the last page.
+     */
+    public MedicationUsagePage(@NonNull Map<String, List<MedicationUsage>> logsByDate, @Nullable String nextCursor) {
+        this.logsByDate = logsByDate;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return The logs of the page, keyed by date (yyyy-MM-dd) in descending order.
+     */
+    @NonNull
+    public Map<String, List<MedicationUsage>> getLogsByDate() {
+        return logsByDate;
+    }
+
+    /**
+     * @return The cursor of the next page, or null if there are no older logs in the range.
+     */
+    @Nullable
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return true if older logs exist in the requested range.
+     */
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
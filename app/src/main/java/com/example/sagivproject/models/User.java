@@ -15,6 +15,11 @@ import java.util.Objects;
  * medication schedules, activity statistics, and emergency contacts.
  * It is the central data model for authentication and personalization.
  * </p>
+ * <p>
+ * Only the identity fields are stored in {@code user_profiles/{uid}}. The profile image and the
+ * sub-collections are stored in sibling nodes and excluded from Firebase serialization; the user
+ * service fills them in according to the requested projection.
+ * </p>
  */
 public class User implements Idable {
     private static final int YEAR = Calendar.YEAR;
@@ -259,10 +264,12 @@ public class User implements Idable {
     /**
      * @return Base64 encoded profile image string.
      */
+    @Exclude
     public String getProfileImage() {
         return profileImage;
     }
 
+    @Exclude
     public void setProfileImage(String profileImage) {
         this.profileImage = profileImage;
     }
@@ -270,10 +277,12 @@ public class User implements Idable {
     /**
      * @return Map of medications indexed by ID.
      */
+    @Exclude
     public HashMap<String, Medication> getMedications() {
         return this.medications;
     }
 
+    @Exclude
     public void setMedications(HashMap<String, Medication> medications) {
         this.medications = medications;
     }
@@ -281,11 +290,13 @@ public class User implements Idable {
     /**
      * @return Map of daily statistics indexed by date (yyyy-MM-dd).
      */
+    @Exclude
     public HashMap<String, DailyStats> getDailyStats() {
         if (dailyStats == null) dailyStats = new HashMap<>();
         return dailyStats;
     }
 
+    @Exclude
     public void setDailyStats(HashMap<String, DailyStats> dailyStats) {
         this.dailyStats = dailyStats;
     }
@@ -311,15 +322,30 @@ public class User implements Idable {
     /**
      * @return Map of emergency contacts indexed by ID.
      */
+    @Exclude
     public HashMap<String, EmergencyContact> getEmergencyContacts() {
         if (emergencyContacts == null) emergencyContacts = new HashMap<>();
         return emergencyContacts;
     }
 
+    @Exclude
     public void setEmergencyContacts(HashMap<String, EmergencyContact> emergencyContacts) {
         this.emergencyContacts = emergencyContacts;
     }
 
+    /**
+     * Copies the sub-collections (medications, daily statistics and emergency contacts) from another user.
+     * Used to keep a fully loaded local user intact when only a lighter projection is refreshed.
+     *
+     * @param other The user to copy the collections from.
+     */
+    public void copyCollectionsFrom(User other) {
+        if (other == null) return;
+        this.medications = other.medications;
+        this.dailyStats = other.dailyStats;
+        this.emergencyContacts = other.emergencyContacts;
+    }
+
     /**
      * Gets the full name of the user.
      * Annotated with {@code @Exclude} to prevent redundant storage in Firebase.
@@ -0,0 +1,154 @@
+package com.example.sagivproject.models;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.Exclude;
+
+import java.util.Objects;
+
+/**
+ * A slim, cacheable view of a user, as shown next to their forum posts and games.
+ * <p>
+ * It holds only what other users see: the name, the email, the role and the content hash of the
+ * profile image. It is read field by field from the user's profile, so resolving a sender never
+ * downloads the rest of the user (password, birth date, medications or statistics).
+ * </p>
+ */
+public class UserSummary implements Idable {
+    /**
+     * UID of the user.
+     */
+    private String id;
+
+    /**
+     * First and last name of the user.
+     */
+    private String fullName;
+
+    /**
+     * Email address of the user.
+     */
+    private String email;
+
+    /**
+     * Role of the user.
+     */
+    private User.UserRole role;
+
+    /**
+     * Blob hash of the profile image, or null if the user has none (or it is not migrated yet).
+     */
+    private String avatarHash;
+
+    /**
+     * Default constructor required for Firebase deserialization.
+     */
+    public UserSummary() {
+    }
+
+    /**
+     * @param id         UID of the user.
+     * @param fullName   First and last name of the user.
+     * @param email      Email address of the user.
+     * @param role       Role of the user.
+     * @param avatarHash Blob hash of the profile image, or null.
+     */
+    public UserSummary(String id, String fullName, String email, User.UserRole role, String avatarHash) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.role = role;
+        this.avatarHash = avatarHash;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The first and last name of the user.
+     */
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    /**
+     * @return The email address of the user.
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    /**
+     * @return The role of the user.
+     */
+    public User.UserRole getRole() {
+        return role;
+    }
+
+    public void setRole(User.UserRole role) {
+        this.role = role;
+    }
+
+    /**
+     * @return The blob hash of the profile image, or null.
+     */
+    public String getAvatarHash() {
+        return avatarHash;
+    }
+
+    public void setAvatarHash(String avatarHash) {
+        this.avatarHash = avatarHash;
+    }
+
+    /**
+     * @return true if the user has an administrative role.
+     */
+    @Exclude
+    public boolean isAdmin() {
+        return role == User.UserRole.ADMIN;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UserSummary that = (UserSummary) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(fullName, that.fullName) &&
+                Objects.equals(email, that.email) &&
+                role == that.role &&
+                Objects.equals(avatarHash, that.avatarHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, fullName, email, role, avatarHash);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "UserSummary{" +
+                "id='" + id + '\'' +
+                ", fullName='" + fullName + '\'' +
+                ", email='" + email + '\'' +
+                ", role=" + role +
+                ", avatarHash='" + avatarHash + '\'' +
+                '}';
+    }
+}
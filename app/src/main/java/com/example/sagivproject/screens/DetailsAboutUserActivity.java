@@ -27,9 +27,12 @@ import com.example.sagivproject.services.IAuthService;
 import com.example.sagivproject.services.IUserService;
 import com.example.sagivproject.utils.CalendarUtil;
 import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
+import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -67,9 +70,6 @@ public class DetailsAboutUserActivity extends BaseActivity {
     @Inject
     protected IUserService userService;
 
-    @Inject
-    protected IAuthService authService;
-
     @Inject
     protected Provider<UserDialog> userDialogProvider;
 
@@ -124,7 +124,7 @@ public class DetailsAboutUserActivity extends BaseActivity {
         imgUserProfile.setOnClickListener(v -> {
             if (user != null && user.getProfileImage() != null) {
                 FullImageDialog dialog = fullImageDialogProvider.get();
-                dialog.setImage(imgUserProfile.getDrawable());
+                dialog.setImage(user.getProfileImage(), imgUserProfile.getDrawable());
                 dialog.show(getSupportFragmentManager(), "FullImageDialog");
             }
         });
@@ -142,7 +142,7 @@ public class DetailsAboutUserActivity extends BaseActivity {
                 new ActivityResultContracts.TakePicturePreview(),
                 bitmap -> {
                     if (bitmap != null) {
-                        handleImageBitmap(bitmap);
+                        handleImage(() -> bitmap);
                     }
                 }
         );
@@ -151,14 +151,11 @@ public class DetailsAboutUserActivity extends BaseActivity {
                 new ActivityResultContracts.PickVisualMedia(),
                 uri -> {
                     if (uri != null) {
-                        try {
-                            Bitmap bitmap = BitmapFactory.decodeStream(this.getContentResolver().openInputStream(uri));
-                            if (bitmap != null) {
-                                handleImageBitmap(bitmap);
+                        handleImage(() -> {
+                            try (InputStream stream = getContentResolver().openInputStream(uri)) {
+                                return BitmapFactory.decodeStream(stream);
                             }
-                        } catch (Exception e) {
-                            Toast.makeText(this, "שגיאה בטעינת התמונה", Toast.LENGTH_SHORT).show();
-                        }
+                        });
                     }
                 }
         );
@@ -194,11 +191,12 @@ public class DetailsAboutUserActivity extends BaseActivity {
     private void loadUserFromDatabase() {
         if (user == null) return;
         showLoading();
-        userService.getUser(user.getId(), new DatabaseCallback<>() {
+        userService.getUser(user.getId(), IUserService.UserProjection.PROFILE, new DatabaseCallback<>() {
             @Override
             public void onCompleted(User dbUser) {
                 hideLoading();
                 if (dbUser != null) {
+                    dbUser.copyCollectionsFrom(user);
                     user = dbUser;
                     sharedPreferencesUtil.saveUser(user);
                     loadUserDetailsToUI();
@@ -225,7 +223,7 @@ public class DetailsAboutUserActivity extends BaseActivity {
         txtEmail.setText(user.getEmail());
         txtPassword.setText(user.getPassword());
 
-        imageUtil.loadImage(user.getProfileImage(), imgUserProfile);
+        imageUtil.loadImage(user.getProfileImage(), imgUserProfile, ImageVariant.GRID);
 
         int age = user.getAge();
         txtAge.setText(age == -1 ? "לא ידוע" : String.valueOf(age));
@@ -312,7 +310,7 @@ public class DetailsAboutUserActivity extends BaseActivity {
         imgUserProfile.setImageResource(R.drawable.ic_user);
 
         showLoading();
-        userService.updateUser(user, new DatabaseCallback<>() {
+        userService.updateProfileImage(user.getId(), null, new DatabaseCallback<>() {
             @Override
             public void onCompleted(Void object) {
                 hideLoading();
@@ -329,27 +327,42 @@ public class DetailsAboutUserActivity extends BaseActivity {
     }
 
     /**
-     * Processes a new image bitmap, converts it to Base64, and updates the profile.
+     * Decodes a new image and compresses it into every variant in the background, then shows it
+     * and uploads it as the profile image.
      *
-     * @param bitmap The new image bitmap.
+     * @param source Produces the new image; runs on a background thread.
      */
-    private void handleImageBitmap(Bitmap bitmap) {
-        imgUserProfile.setImageBitmap(bitmap);
-        String base64 = imageUtil.convertTo64Base(imgUserProfile);
-        user.setProfileImage(base64);
-        saveProfileImage();
+    private void handleImage(Callable<Bitmap> source) {
+        showLoading();
+        imageUtil.createVariantsAsync(source, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Map<ImageVariant, byte[]> variants) {
+                saveProfileImage(variants);
+                hideLoading();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                hideLoading();
+                Toast.makeText(DetailsAboutUserActivity.this, "שגיאה בטעינת התמונה", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     /**
-     * Commits the updated profile image string to the database.
+     * Uploads the new profile image and stores its content hash on the user.
+     *
+     * @param variants The compressed variants of the image.
      */
-    private void saveProfileImage() {
+    private void saveProfileImage(Map<ImageVariant, byte[]> variants) {
         showLoading();
-        userService.updateUser(user, new DatabaseCallback<>() {
+        userService.uploadProfileImage(user.getId(), variants, new DatabaseCallback<>() {
             @Override
-            public void onCompleted(Void object) {
+            public void onCompleted(String hash) {
                 hideLoading();
+                user.setProfileImage(hash);
                 sharedPreferencesUtil.saveUser(user);
+                imageUtil.loadImage(hash, imgUserProfile, ImageVariant.GRID);
                 Toast.makeText(DetailsAboutUserActivity.this, "תמונת הפרופיל עודכנה!", Toast.LENGTH_SHORT).show();
             }
 
@@ -360,4 +373,4 @@ public class DetailsAboutUserActivity extends BaseActivity {
             }
         });
     }
-}
\ No newline at end of file
+}
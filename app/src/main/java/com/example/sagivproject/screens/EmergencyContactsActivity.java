@@ -31,6 +31,7 @@ import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IEmergencyService;
 import com.example.sagivproject.services.IFallDetectionService;
 import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.ReadMode;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.location.Priority;
@@ -267,14 +268,20 @@ public class EmergencyContactsActivity extends BaseActivity {
 
     /**
      * Fetches the latest user profile from the database to ensure UI consistency.
+     * The cached contacts are listed first and refreshed once the server answers.
      */
     private void loadUserFromDatabase() {
         if (user == null) return;
         showLoading();
-        userService.getUser(user.getId(), new DatabaseCallback<>() {
+        userService.getUser(user.getId(), IUserService.UserProjection.FULL, ReadMode.CACHED_THEN_FRESH, new DatabaseCallback<>() {
+            private boolean loaded;
+
             @Override
             public void onCompleted(User dbUser) {
-                hideLoading();
+                if (!loaded) {
+                    loaded = true;
+                    hideLoading();
+                }
                 if (dbUser != null) {
                     user = dbUser;
                     sharedPreferencesUtil.saveUser(user);
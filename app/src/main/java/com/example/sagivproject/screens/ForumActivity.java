@@ -10,6 +10,7 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -22,9 +23,8 @@ import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IForumService;
 import com.example.sagivproject.services.ITTSService;
 import com.example.sagivproject.services.ITTSService.TTSListener;
+import com.example.sagivproject.services.forum.ForumPager;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -40,9 +40,24 @@ import dagger.hilt.android.AndroidEntryPoint;
  * Following the project's data optimization policy, it relies on the service layer to provide
  * fully populated {@link ForumMessage} objects with sender details retrieved from the user database.
  * </p>
+ * <p>
+ * History is paged by a {@link ForumPager}: the next page is read while the user is still a page
+ * away from it, and at most {@value #MAX_LOADED_MESSAGES} messages stay loaded, so a long session
+ * in a busy category does not keep every message it scrolled past in memory.
+ * </p>
  */
 @AndroidEntryPoint
 public class ForumActivity extends BaseActivity {
+    /**
+     * How many messages each page of history holds.
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * How many messages are kept loaded before pages far from the viewport are unloaded.
+     */
+    private static final int MAX_LOADED_MESSAGES = 150;
+
     /**
      * UI thread handler for updating components from callbacks.
      */
@@ -79,14 +94,9 @@ public class ForumActivity extends BaseActivity {
     private String currentlySpeakingMsgId = null;
 
     /**
-     * Flag to prevent multiple concurrent pagination requests.
+     * Pages the history of the category into the adapter as the user scrolls.
      */
-    private boolean isLoadingOlder = false;
-
-    /**
-     * Flag indicating if more historical messages are available in the database.
-     */
-    private boolean hasMoreOlder = true;
+    private ForumPager pager;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -105,10 +115,7 @@ public class ForumActivity extends BaseActivity {
 
         findViewById(R.id.btn_forum_back_to_categories).setOnClickListener(v -> finish());
         findViewById(R.id.btn_forum_send_message).setOnClickListener(v -> sendMessage());
-        btnNewMessagesIndicator.setOnClickListener(v -> {
-            scrollToBottom(true);
-            btnNewMessagesIndicator.setVisibility(View.GONE);
-        });
+        btnNewMessagesIndicator.setOnClickListener(v -> scrollToLatest());
         title.setText(categoryName);
 
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
@@ -117,18 +124,30 @@ public class ForumActivity extends BaseActivity {
 
         adapter.setCurrentUserId(user.getId());
         recycler.setAdapter(adapter);
+        pager = new ForumPager(adapter.getMessageStore(), new ForumPager.PageSource() {
+            @Override
+            public void loadBefore(@Nullable ForumMessage before, int limit, @NonNull DatabaseCallback<List<ForumMessage>> callback) {
+                forumService.loadOlderMessages(categoryId, before, limit, callback);
+            }
+
+            @Override
+            public void loadAfter(@NonNull ForumMessage after, int limit, @NonNull DatabaseCallback<List<ForumMessage>> callback) {
+                forumService.loadNewerMessages(categoryId, after, limit, callback);
+            }
+        }, PAGE_SIZE, MAX_LOADED_MESSAGES,
+                e -> Toast.makeText(this, "שגיאה בטעינת הודעות", Toast.LENGTH_SHORT).show());
 
         recycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
             public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                if (isLastItemVisible() && btnNewMessagesIndicator != null) {
+                if (isLastItemVisible() && !pager.isDetached() && btnNewMessagesIndicator != null) {
                     btnNewMessagesIndicator.setVisibility(View.GONE);
                 }
 
-                // Pagination: detect scroll to top
+                // Pagination: the pager reads the next page once an edge is within a page
                 LinearLayoutManager lm = (LinearLayoutManager) recycler.getLayoutManager();
-                if (lm != null && lm.findFirstCompletelyVisibleItemPosition() == 0 && !isLoadingOlder && hasMoreOlder) {
-                    loadMoreMessages();
+                if (lm != null) {
+                    pager.onVisibleRangeChanged(lm.findFirstVisibleItemPosition(), lm.findLastVisibleItemPosition());
                 }
             }
         });
@@ -141,7 +160,8 @@ public class ForumActivity extends BaseActivity {
                     @Override
                     public void onCompleted(Void data) {
                         hideLoading();
-                        adapter.removeMessage(message);
+                        pager.onMessageRemoved(message.getId());
+                        updateEmptyState();
                         Toast.makeText(ForumActivity.this, "ההודעה נמחקה", Toast.LENGTH_SHORT).show();
                     }
 
@@ -206,32 +226,25 @@ public class ForumActivity extends BaseActivity {
     }
 
     /**
-     * Loads older messages for pagination.
-     * Fetches a slice of history preceding the current oldest message.
+     * Scrolls to the latest message. If the latest messages were unloaded while reading older
+     * history, the latest page is read first.
      */
-    private void loadMoreMessages() {
-        List<ForumMessage> currentMessages = adapter.getItemList();
-        if (currentMessages.isEmpty()) return;
-
-        isLoadingOlder = true;
-        String oldestTimestamp = currentMessages.get(0).getTimestamp();
-
-        forumService.loadOlderMessages(categoryId, oldestTimestamp, 20, new DatabaseCallback<>() {
+    private void scrollToLatest() {
+        btnNewMessagesIndicator.setVisibility(View.GONE);
+        if (!pager.isDetached()) {
+            scrollToBottom(true);
+            return;
+        }
+        pager.jumpToLatest(new DatabaseCallback<>() {
             @Override
-            public void onCompleted(List<ForumMessage> list) {
-                if (list.isEmpty()) {
-                    hasMoreOlder = false;
-                } else {
-                    adapter.setSenderMap(forumService.getUserCache());
-                    adapter.addOlderMessages(list);
-                }
-                isLoadingOlder = false;
+            public void onCompleted(Void data) {
+                updateEmptyState();
+                scrollToBottom(false);
             }
 
             @Override
             public void onFailed(Exception e) {
-                isLoadingOlder = false;
-                Toast.makeText(ForumActivity.this, "שגיאה בטעינת הודעות ישנות", Toast.LENGTH_SHORT).show();
+                Toast.makeText(ForumActivity.this, "שגיאה בטעינת הודעות", Toast.LENGTH_SHORT).show();
             }
         });
     }
@@ -239,34 +252,52 @@ public class ForumActivity extends BaseActivity {
     /**
      * Starts listening for real-time message updates in the current category.
      * <p>
-     * Implements a "Smart Merge" strategy:
-     * 1. Detects deletions by identifying missing messages within the latest synchronized window.
-     * 2. Updates existing messages if their content or sender details have changed.
-     * 3. Adds new messages and triggers the "New Message" indicator if the user is scrolled up.
+     * The latest messages are applied as one window, which also drops displayed messages deleted
+     * while the screen was paused. After that each message change is applied to its own row:
+     * new messages follow the bottom of the list if the user was there, and otherwise show the
+     * "New Message" indicator. While the pager is detached from the latest messages, new
+     * messages are not added and only show the indicator.
      * </p>
      */
     private void loadMessages() {
-        forumService.listenToMessages(categoryId, new DatabaseCallback<>() {
+        forumService.listenToMessages(categoryId, new IForumService.IForumMessageListener() {
             @Override
-            public void onCompleted(List<ForumMessage> latestMessages) {
-                if (latestMessages == null) return;
+            public void onMessagesLoaded(@NonNull List<ForumMessage> messages) {
+                boolean wasAtBottom = isLastItemVisible() && !pager.isDetached();
+                pager.onWindowLoaded(messages);
+                updateEmptyState();
+                if (wasAtBottom) scrollToBottom(false);
+                forumService.markCategoryRead(user.getId(), categoryId, null);
+            }
 
-                TextView txtNoMessages = findViewById(R.id.txt_no_messages);
-                if (txtNoMessages != null) {
-                    txtNoMessages.setVisibility(latestMessages.isEmpty() && adapter.getItemCount() == 0 ? View.VISIBLE : View.GONE);
+            @Override
+            public void onMessageAdded(@NonNull ForumMessage message) {
+                boolean wasAtBottom = isLastItemVisible() && !pager.isDetached();
+                if (!pager.onMessageAdded(message)) {
+                    if (pager.isDetached() && btnNewMessagesIndicator != null) {
+                        btnNewMessagesIndicator.setVisibility(View.VISIBLE);
+                    }
+                    return;
                 }
-
-                boolean wasAtBottom = isLastItemVisible();
-                List<ForumMessage> currentList = mergeMessages(adapter.getItemList(), latestMessages, wasAtBottom);
-
-                adapter.setSenderMap(forumService.getUserCache());
-                adapter.setData(currentList);
-
+                updateEmptyState();
                 if (wasAtBottom) {
                     scrollToBottom(false);
+                } else if (btnNewMessagesIndicator != null) {
+                    btnNewMessagesIndicator.setVisibility(View.VISIBLE);
                 }
             }
 
+            @Override
+            public void onMessageChanged(@NonNull ForumMessage message) {
+                pager.onMessageChanged(message);
+            }
+
+            @Override
+            public void onMessageRemoved(@NonNull String messageId) {
+                pager.onMessageRemoved(messageId);
+                updateEmptyState();
+            }
+
             @Override
             public void onFailed(Exception e) {
                 Toast.makeText(ForumActivity.this, "שגיאה בסנכרון הודעות", Toast.LENGTH_SHORT).show();
@@ -274,6 +305,16 @@ public class ForumActivity extends BaseActivity {
         });
     }
 
+    /**
+     * Shows the "no messages" text while the category has no messages.
+     */
+    private void updateEmptyState() {
+        TextView txtNoMessages = findViewById(R.id.txt_no_messages);
+        if (txtNoMessages != null) {
+            txtNoMessages.setVisibility(adapter.getItemCount() == 0 ? View.VISIBLE : View.GONE);
+        }
+    }
+
     /**
      * Sends the text currently in the EditText as a new message.
      */
@@ -288,7 +329,7 @@ public class ForumActivity extends BaseActivity {
             @Override
             public void onCompleted(Void data) {
                 edtMessage.setText("");
-                scrollToBottom(true);
+                scrollToLatest();
             }
 
             @Override
@@ -344,72 +385,12 @@ public class ForumActivity extends BaseActivity {
      * @param msgId The unique ID of the message.
      */
     private void notifyItemChangedById(String msgId) {
-        List<ForumMessage> messages = adapter.getItemList();
-        for (int i = 0; i < messages.size(); i++) {
-            if (messages.get(i).getId().equals(msgId)) {
-                adapter.notifyItemChanged(i);
-                break;
-            }
-        }
-    }
-
-    /**
-     * Merges a batch of synchronized messages into the existing message list.
-     * <p>
-     * This method applies a deletion detection strategy and updates existing messages
-     * or adds new ones, while maintaining the overall chronological order.
-     * </p>
-     *
-     * @param currentList    The current list of messages in the adapter.
-     * @param latestMessages The new batch of messages from the database.
-     * @param wasAtBottom    Whether the user was at the bottom of the list before the merge.
-     * @return A new, sorted list of {@link ForumMessage} objects.
-     */
-    private List<ForumMessage> mergeMessages(List<ForumMessage> currentList, List<ForumMessage> latestMessages, boolean wasAtBottom) {
-        List<ForumMessage> result = new ArrayList<>(currentList);
-
-        if (latestMessages == null || latestMessages.isEmpty()) return result;
-
-        // 1. Handle Deletions
-        String newestTs = latestMessages.get(latestMessages.size() - 1).getTimestamp();
-        String oldestInWindowTs = latestMessages.get(0).getTimestamp();
-
-        result.removeIf(m ->
-                m.getTimestamp().compareTo(oldestInWindowTs) >= 0 &&
-                        m.getTimestamp().compareTo(newestTs) <= 0 &&
-                        latestMessages.stream().noneMatch(lm -> lm.getId().equals(m.getId()))
-        );
-
-        // 2. Handle Adds and Updates
-        for (ForumMessage newMsg : latestMessages) {
-            int existingIndex = -1;
-            for (int i = 0; i < result.size(); i++) {
-                if (result.get(i).getId().equals(newMsg.getId())) {
-                    existingIndex = i;
-                    break;
-                }
-            }
-
-            if (existingIndex != -1) {
-                if (!result.get(existingIndex).equals(newMsg)) {
-                    result.set(existingIndex, newMsg);
-                }
-            } else {
-                result.add(newMsg);
-                if (!wasAtBottom && btnNewMessagesIndicator != null) {
-                    btnNewMessagesIndicator.setVisibility(View.VISIBLE);
-                }
-            }
-        }
-
-        result.sort(Comparator.comparing(ForumMessage::getTimestamp));
-        return result;
+        adapter.notifyMessageChanged(msgId);
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        forumService.clearUserCache();
         loadMessages();
     }
 
@@ -417,6 +398,8 @@ public class ForumActivity extends BaseActivity {
     protected void onPause() {
         super.onPause();
         forumService.stopListeningToMessages(categoryId);
+        // Messages that arrived while the category was open were seen
+        forumService.markCategoryRead(user.getId(), categoryId, null);
         ttsService.stop();
     }
 
@@ -16,11 +16,13 @@ import com.example.sagivproject.adapters.ForumCategoryAdapter;
 import com.example.sagivproject.bases.BaseActivity;
 import com.example.sagivproject.dialogs.EditForumCategoryDialog;
 import com.example.sagivproject.models.ForumCategory;
+import com.example.sagivproject.models.ForumReadMarker;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IForumService;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -36,7 +38,8 @@ import dagger.hilt.android.AndroidEntryPoint;
  * <li>Standard users can browse and select categories to view messages.</li>
  * <li>Administrators can additionally add, rename, and delete categories.</li>
  * </ul>
- * It uses {@link ForumCategoryAdapter} to manage the list display.
+ * It uses {@link ForumCategoryAdapter} to manage the list display. Unread badges come from the
+ * post counts in the category index and the user's read markers, two small listeners in total.
  * </p>
  */
 @AndroidEntryPoint
@@ -109,23 +112,46 @@ public class ForumCategoriesActivity extends BaseActivity {
                 adminAddBtn.setVisibility(View.GONE);
             }
         }
-    }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
         loadCategories();
+        if (currentUser != null) loadReadMarkers(currentUser.getId());
+    }
+
+    /**
+     * Follows the current user's read markers while this activity is started, for the unread
+     * badges. Reading a category updates its marker, so its badge clears on return.
+     *
+     * @param userId The UID of the current user.
+     */
+    private void loadReadMarkers(String userId) {
+        forumService.getReadMarkers(this, userId, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Map<String, ForumReadMarker> markers) {
+                adapter.setReadMarkers(markers);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                Toast.makeText(ForumCategoriesActivity.this, "שגיאה בטעינת הודעות שלא נקראו", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     /**
-     * Fetches the current list of forum categories from the database.
+     * Follows the list of forum categories while this activity is started.
+     * Added, renamed and deleted categories arrive through the same listener.
      */
     private void loadCategories() {
         showLoading();
-        forumService.getCategories(new DatabaseCallback<>() {
+        forumService.getCategories(this, new DatabaseCallback<>() {
+            /**
+             * Whether the loading dialog shown for the first result is still up.
+             */
+            private boolean loading = true;
+
             @Override
             public void onCompleted(List<ForumCategory> data) {
-                hideLoading();
+                stopLoading();
                 adapter.setCategories(data);
                 TextView txtNoCategories = findViewById(R.id.txt_no_categories);
                 if (txtNoCategories != null) {
@@ -135,9 +161,15 @@ public class ForumCategoriesActivity extends BaseActivity {
 
             @Override
             public void onFailed(Exception e) {
-                hideLoading();
+                stopLoading();
                 Toast.makeText(ForumCategoriesActivity.this, "שגיאה בטעינת קטגוריות", Toast.LENGTH_SHORT).show();
             }
+
+            private void stopLoading() {
+                if (!loading) return;
+                loading = false;
+                hideLoading();
+            }
         });
     }
 
@@ -154,7 +186,6 @@ public class ForumCategoriesActivity extends BaseActivity {
             public void onCompleted(Void data) {
                 hideLoading();
                 editText.setText("");
-                loadCategories();
                 Toast.makeText(ForumCategoriesActivity.this, "קטגוריה נוספה", Toast.LENGTH_SHORT).show();
             }
 
@@ -179,7 +210,6 @@ public class ForumCategoriesActivity extends BaseActivity {
                 @Override
                 public void onCompleted(Void data) {
                     hideLoading();
-                    loadCategories();
                     Toast.makeText(ForumCategoriesActivity.this, "שם הקטגוריה עודכן", Toast.LENGTH_SHORT).show();
                 }
 
@@ -4,6 +4,8 @@ import static android.view.animation.AnimationUtils.loadAnimation;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
@@ -18,12 +20,15 @@ import com.example.sagivproject.adapters.LeaderboardAdapter;
 import com.example.sagivproject.bases.BaseActivity;
 import com.example.sagivproject.models.DailyStats;
 import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.models.LeaderboardEntry;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IMemoryGameService;
+import com.example.sagivproject.services.IStatsService;
 import com.example.sagivproject.services.ITTSService;
 import com.example.sagivproject.services.ITTSService.TTSListener;
 import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.ReadMode;
 import com.example.sagivproject.utils.CalendarUtil;
 
 import java.text.MessageFormat;
@@ -48,6 +53,20 @@ import dagger.hilt.android.AndroidEntryPoint;
  */
 @AndroidEntryPoint
 public class GameHomeScreenActivity extends BaseActivity {
+    /**
+     * Interval in milliseconds between matchmaking retries while waiting for an opponent.
+     */
+    private static final long MATCHMAKING_RETRY_INTERVAL = 5000;
+
+    /**
+     * Maximum number of players shown on the leaderboard.
+     */
+    private static final int LEADERBOARD_SIZE = 20;
+
+    /**
+     * UI thread handler used to schedule matchmaking retries.
+     */
+    private final Handler matchmakingHandler = new Handler(Looper.getMainLooper());
     @Inject
     protected CalendarUtil calendarUtil;
     /**
@@ -58,6 +77,8 @@ public class GameHomeScreenActivity extends BaseActivity {
     @Inject
     protected IUserService userService;
     @Inject
+    protected IStatsService statsService;
+    @Inject
     protected IMemoryGameService gameService;
     @Inject
     protected LeaderboardAdapter adapter;
@@ -182,9 +203,10 @@ public class GameHomeScreenActivity extends BaseActivity {
 
     /**
      * Fetches current user data from the database to refresh win/game counts.
+     * The cached counts are displayed first and refreshed once the server answers.
      */
     private void loadStats() {
-        userService.getUser(user.getId(), new DatabaseCallback<>() {
+        userService.getUser(user.getId(), IUserService.UserProjection.FULL, ReadMode.CACHED_THEN_FRESH, new DatabaseCallback<>() {
             @Override
             public void onCompleted(User updatedUser) {
                 if (updatedUser != null) {
@@ -217,17 +239,14 @@ public class GameHomeScreenActivity extends BaseActivity {
     }
 
     /**
-     * Fetches all users and populates the leaderboard adapter, sorted by total wins.
+     * Fetches the top players from the leaderboard and populates the leaderboard adapter.
      */
     private void setupLeaderboard() {
-        userService.getUserList(new DatabaseCallback<>() {
+        statsService.getTopPlayers(LEADERBOARD_SIZE, new DatabaseCallback<>() {
             @Override
-            public void onCompleted(List<User> users) {
-                if (users != null) {
-                    users.removeIf(User::isAdmin);
-                    users.sort((u1, u2) -> Integer.compare(getTotalWins(u2), getTotalWins(u1)));
-                    users.removeIf(u -> getTotalWins(u) < 1);
-                    adapter.setUsers(users);
+            public void onCompleted(List<LeaderboardEntry> entries) {
+                if (entries != null) {
+                    adapter.setEntries(entries);
                 }
             }
 
@@ -238,19 +257,6 @@ public class GameHomeScreenActivity extends BaseActivity {
         });
     }
 
-    /**
-     * Helper to calculate cumulative wins for a user across all days.
-     */
-    private int getTotalWins(User u) {
-        int total = 0;
-        if (u.getDailyStats() != null) {
-            for (DailyStats ds : u.getDailyStats().values()) {
-                total += ds.getMemoryWins();
-            }
-        }
-        return total;
-    }
-
     /**
      * Helper to calculate total memory games played for a user across all days.
      */
@@ -275,6 +281,7 @@ public class GameHomeScreenActivity extends BaseActivity {
                 if (room != null) {
                     currentRoom = room;
                     listenToRoom(room.getId());
+                    scheduleMatchmakingRetry();
                 }
             }
 
@@ -286,10 +293,46 @@ public class GameHomeScreenActivity extends BaseActivity {
         });
     }
 
+    /**
+     * Schedules another matchmaking pass if the user is still waiting for an opponent.
+     */
+    private void scheduleMatchmakingRetry() {
+        matchmakingHandler.removeCallbacksAndMessages(null);
+        if (currentRoom == null || gameStarted || !"waiting".equals(currentRoom.getStatus()))
+            return;
+        matchmakingHandler.postDelayed(this::retryMatchmaking, MATCHMAKING_RETRY_INTERVAL);
+    }
+
+    /**
+     * Re-runs matchmaking for the current waiting room and follows the room if its ID changed.
+     */
+    private void retryMatchmaking() {
+        GameRoom waitingRoom = currentRoom;
+        if (waitingRoom == null || gameStarted) return;
+        gameService.retryMatchmaking(waitingRoom, user, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(GameRoom room) {
+                if (room == null || currentRoom != waitingRoom || gameStarted) return;
+                if (!room.getId().equals(waitingRoom.getId())) {
+                    gameService.removeRoomListener(waitingRoom.getId());
+                    listenToRoom(room.getId());
+                }
+                currentRoom = room;
+                scheduleMatchmakingRetry();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (currentRoom == waitingRoom) scheduleMatchmakingRetry();
+            }
+        });
+    }
+
     /**
      * Cancels an active search and cleans up the pending room in the database.
      */
     private void cancelSearch() {
+        matchmakingHandler.removeCallbacksAndMessages(null);
         if (currentRoom != null) {
             gameService.removeRoomListener(currentRoom.getId());
             if ("waiting".equals(currentRoom.getStatus()) && user.getId().equals(currentRoom.getPlayer1Uid()))
@@ -315,6 +358,7 @@ public class GameHomeScreenActivity extends BaseActivity {
             public void onRoomStarted(GameRoom startedRoom) {
                 if (gameStarted) return;
                 gameStarted = true;
+                matchmakingHandler.removeCallbacksAndMessages(null);
                 updateUI(SearchState.GAME_FOUND);
 
                 onNavigate(new Intent(GameHomeScreenActivity.this, MemoryGameActivity.class)
@@ -34,9 +34,6 @@ public class LoginActivity extends BaseActivity {
     @Inject
     protected Validator validator;
 
-    @Inject
-    protected IAuthService authService;
-
     /**
      * Form input fields for user credentials.
      */
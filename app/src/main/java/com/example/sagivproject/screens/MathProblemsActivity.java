@@ -19,7 +19,7 @@ import com.example.sagivproject.models.DailyStats;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IStatsService;
-import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.ReadMode;
 import com.example.sagivproject.utils.CalendarUtil;
 import com.google.android.material.card.MaterialCardView;
 
@@ -61,9 +61,6 @@ public class MathProblemsActivity extends BaseActivity {
     @Inject
     protected CalendarUtil calendarUtil;
 
-    @Inject
-    protected IUserService userService;
-
     @Inject
     protected IStatsService statsService;
 
@@ -134,6 +131,7 @@ public class MathProblemsActivity extends BaseActivity {
     @Override
     protected void onPause() {
         super.onPause();
+        statsService.flushPendingStats();
         // Save state to SharedPreferences
         sharedPreferencesUtil.saveInt(PREF_MATH_CORRECT_ANSWER, correctAnswer);
         sharedPreferencesUtil.saveString(PREF_MATH_USER_INPUT, userInput.toString());
@@ -149,17 +147,27 @@ public class MathProblemsActivity extends BaseActivity {
     }
 
     /**
-     * Refreshes the user's daily statistics from the database to ensure the UI is current.
+     * Refreshes today's math counters from the database to ensure the UI is current.
+     * Only today's statistics node is read; the cached counters are shown first and replaced
+     * once the server answers.
      */
     private void fetchLatestStats() {
         showLoading();
-        userService.getUser(user.getId(), new DatabaseCallback<>() {
+        String today = calendarUtil.getCurrentDate();
+        statsService.getDailyStats(user.getId(), today, ReadMode.CACHED_THEN_FRESH, new DatabaseCallback<>() {
+            private boolean loaded;
+
             @Override
-            public void onCompleted(User updatedUser) {
-                hideLoading();
-                if (updatedUser != null) {
-                    user = updatedUser;
-                    sharedPreferencesUtil.saveUser(user);
+            public void onCompleted(DailyStats latestStats) {
+                if (!loaded) {
+                    loaded = true;
+                    hideLoading();
+                }
+                if (latestStats != null) {
+                    DailyStats todayStats = user.getDailyStatsForDate(today);
+                    todayStats.setMathCorrect(latestStats.getMathCorrect());
+                    todayStats.setMathWrong(latestStats.getMathWrong());
+                    sharedPreferencesUtil.saveDailyStats(today, todayStats);
                     updateStatsUI();
                 }
             }
@@ -294,19 +302,20 @@ public class MathProblemsActivity extends BaseActivity {
         if (userInput.length() == 0) return;
         int userAnswer = Integer.parseInt(userInput.toString());
         String today = calendarUtil.getCurrentDate();
+        DailyStats todayStats = user.getDailyStatsForDate(today);
 
         if (userAnswer == correctAnswer) {
-            user.getDailyStatsForDate(today).addMathCorrect();
+            todayStats.addMathCorrect();
             showFeedback(true);
             generateProblem();
             statsService.updateDailyMathStats(user.getId(), true);
         } else {
-            user.getDailyStatsForDate(today).addMathWrong();
+            todayStats.addMathWrong();
             showFeedback(false);
             statsService.updateDailyMathStats(user.getId(), false);
         }
 
-        sharedPreferencesUtil.saveUser(user);
+        sharedPreferencesUtil.saveDailyStats(today, todayStats);
         updateStatsUI();
     }
 
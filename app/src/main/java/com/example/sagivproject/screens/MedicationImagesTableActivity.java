@@ -3,7 +3,6 @@ package com.example.sagivproject.screens;
 import static android.view.animation.AnimationUtils.loadAnimation;
 
 import android.Manifest;
-import android.graphics.Bitmap;
 import android.graphics.ImageDecoder;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
@@ -28,10 +27,12 @@ import com.example.sagivproject.models.ImageData;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IImageService;
 import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -57,6 +58,8 @@ import dagger.hilt.android.AndroidEntryPoint;
  */
 @AndroidEntryPoint
 public class MedicationImagesTableActivity extends BaseActivity {
+    private static final String CARD_ID_PREFIX = "card";
+
     private final List<ImageData> allImages = new ArrayList<>();
     @Inject
     protected ImageUtil imageUtil;
@@ -93,7 +96,7 @@ public class MedicationImagesTableActivity extends BaseActivity {
                 Drawable drawable = imageView.getDrawable();
                 if (drawable != null) {
                     FullImageDialog dialog = fullImageDialogProvider.get();
-                    dialog.setImage(drawable);
+                    dialog.setImage(image.getImageRef(), drawable);
                     dialog.show(getSupportFragmentManager(), "FullImageDialog");
                 }
             }
@@ -190,24 +193,21 @@ public class MedicationImagesTableActivity extends BaseActivity {
     }
 
     /**
-     * Decodes a selected image URI, converts it to Base64, and saves it as a new card record.
+     * Decodes a selected image URI and compresses it into every variant in the background, then
+     * uploads it as a new card record.
      *
      * @param uri The URI of the selected image.
      */
     private void uploadImage(Uri uri) {
-        try {
-            Bitmap bitmap = ImageDecoder.decodeBitmap(ImageDecoder.createSource(getContentResolver(), uri));
-            ImageView tempIv = new ImageView(this);
-            tempIv.setImageBitmap(bitmap);
-            String base64 = imageUtil.convertTo64Base(tempIv);
-
-            if (base64 != null) {
-                String newId = "card" + (allImages.size() + 1);
-                ImageData newImg = new ImageData(newId, base64);
-                showLoading();
-                imageService.createImage(newImg, new DatabaseCallback<>() {
+        showLoading();
+        imageUtil.createVariantsAsync(() -> ImageDecoder.decodeBitmap(ImageDecoder.createSource(getContentResolver(), uri)), new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Map<ImageVariant, byte[]> variants) {
+                ImageData last = findLastImage();
+                String newId = CARD_ID_PREFIX + (last != null ? getCardNumber(last) + 1 : 1);
+                imageService.uploadImage(newId, variants, new DatabaseCallback<>() {
                     @Override
-                    public void onCompleted(Void object) {
+                    public void onCompleted(ImageData newImg) {
                         hideLoading();
                         Toast.makeText(MedicationImagesTableActivity.this, "התמונה נוספה כ-" + newId, Toast.LENGTH_SHORT).show();
                         allImages.add(newImg);
@@ -221,25 +221,43 @@ public class MedicationImagesTableActivity extends BaseActivity {
                     }
                 });
             }
-        } catch (IOException ignored) {
-            Toast.makeText(this, "שגיאה בטעינת הנתונים", Toast.LENGTH_SHORT).show();
-        }
+
+            @Override
+            public void onFailed(Exception e) {
+                hideLoading();
+                Toast.makeText(MedicationImagesTableActivity.this, "שגיאה בטעינת הנתונים", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     /**
-     * Deletes an image from the database and triggers a batch update to re-index IDs.
+     * Deletes an image and keeps the IDs sequential by moving the highest-numbered image into the
+     * freed ID, in a single change set that only touches those two records. Nothing is moved if
+     * the deleted image is the highest-numbered one or either image has no card number.
      *
      * @param imageToDelete The image object to remove.
      */
     private void deleteImageAndReorder(ImageData imageToDelete) {
+        String freedId = imageToDelete.getId();
+        int freedNumber = getCardNumber(imageToDelete);
+        ImageData last = findLastImage();
+        ImageData movedImage = (freedNumber > 0 && last != null && getCardNumber(last) > freedNumber) ? last : null;
+        Map<String, ImageData> renamed = new HashMap<>();
+        if (movedImage != null) {
+            ImageData moved = new ImageData(freedId, movedImage.getBase64());
+            moved.setHash(movedImage.getHash());
+            renamed.put(movedImage.getId(), moved);
+        }
+
         showLoading();
-        imageService.deleteImage(imageToDelete.getId(), new DatabaseCallback<>() {
+        imageService.applyImageChanges(Collections.emptyList(), Collections.singletonList(freedId), renamed, new DatabaseCallback<>() {
             @Override
             public void onCompleted(Void object) {
                 hideLoading();
                 Toast.makeText(MedicationImagesTableActivity.this, "התמונה נמחקה בהצלחה", Toast.LENGTH_SHORT).show();
                 allImages.remove(imageToDelete);
-                reorderImages();
+                if (movedImage != null) movedImage.setId(freedId);
+                filterImages();
             }
 
             @Override
@@ -251,26 +269,30 @@ public class MedicationImagesTableActivity extends BaseActivity {
     }
 
     /**
-     * Re-assigns sequential IDs (card1, card2, etc.) to all remaining images and syncs with the database.
+     * Finds the image with the highest card number, whether or not the numbering has gaps.
+     *
+     * @return The image, or null if no image has an ID of the form "card" followed by a number.
      */
-    private void reorderImages() {
-        for (int i = 0; i < allImages.size(); i++)
-            allImages.get(i).setId("card" + (i + 1));
-
-        showLoading();
-        imageService.updateAllImages(allImages, new DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Void object) {
-                hideLoading();
-                Toast.makeText(MedicationImagesTableActivity.this, "הרשימה סודרה מחדש", Toast.LENGTH_SHORT).show();
-                filterImages();
-            }
+    @Nullable
+    private ImageData findLastImage() {
+        ImageData last = null;
+        for (ImageData img : allImages) {
+            int number = getCardNumber(img);
+            if (number > 0 && (last == null || number > getCardNumber(last))) last = img;
+        }
+        return last;
+    }
 
-            @Override
-            public void onFailed(Exception e) {
-                hideLoading();
-                Toast.makeText(MedicationImagesTableActivity.this, "שגיאה בעדכון הרשימה", Toast.LENGTH_SHORT).show();
-            }
-        });
+    /**
+     * @return The number in the image's "card" ID, or 0 if its ID has another form.
+     */
+    private static int getCardNumber(ImageData image) {
+        String id = image.getId();
+        if (id == null || !id.startsWith(CARD_ID_PREFIX)) return 0;
+        try {
+            return Integer.parseInt(id.substring(CARD_ID_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
-}
\ No newline at end of file
+}
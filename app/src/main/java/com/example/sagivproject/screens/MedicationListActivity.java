@@ -219,7 +219,7 @@ public class MedicationListActivity extends BaseActivity {
      */
     private void logMedicationStatus(Medication medication, String scheduledTime, MedicationStatus status) {
         String time = calendarUtil.formatDate(System.currentTimeMillis(), "HH:mm");
-        String usageId = medicationService.generateUsageId();
+        String usageId = MedicationUsage.createId(medication.getId(), scheduledTime);
         MedicationUsage usage = new MedicationUsage(usageId, medication.getId(), time, scheduledTime, status);
 
         showLoading();
@@ -227,9 +227,10 @@ public class MedicationListActivity extends BaseActivity {
             @Override
             public void onCompleted(Void object) {
                 hideLoading();
-                DailyStats stats = user.getDailyStatsForDate(calendarUtil.getCurrentDate());
+                String today = calendarUtil.getCurrentDate();
+                DailyStats stats = user.getDailyStatsForDate(today);
                 stats.addMedicationUsageLog(usage);
-                sharedPreferencesUtil.saveUser(user);
+                sharedPreferencesUtil.saveDailyStats(today, stats);
 
                 if (status == MedicationStatus.TAKEN) {
                     notificationService.cancelSpecificTime(medication.getId(), scheduledTime);
@@ -283,7 +284,7 @@ public class MedicationListActivity extends BaseActivity {
      */
     private void updateUserCache() {
         user.setMedications(new HashMap<>(medicationMap));
-        sharedPreferencesUtil.saveUser(user);
+        sharedPreferencesUtil.saveMedications(user.getMedications());
     }
 
     /**
@@ -3,15 +3,19 @@ package com.example.sagivproject.screens;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.sagivproject.BuildConfig;
 import com.example.sagivproject.R;
 import com.example.sagivproject.adapters.MemoryGameAdapter;
 import com.example.sagivproject.bases.BaseActivity;
@@ -20,20 +24,26 @@ import com.example.sagivproject.models.Card;
 import com.example.sagivproject.models.GameRoom;
 import com.example.sagivproject.models.ImageData;
 import com.example.sagivproject.models.User;
+import com.example.sagivproject.models.UserSummary;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IImageService;
 import com.example.sagivproject.services.IMemoryGameService;
 import com.example.sagivproject.services.IStatsService;
-import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.IUserDirectory;
+import com.example.sagivproject.services.game.GameClock;
+import com.example.sagivproject.services.game.MemoryGameEngine;
 import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -43,27 +53,27 @@ import dagger.hilt.android.AndroidEntryPoint;
 /**
  * Activity managing a live 1-on-1 online memory game session.
  * <p>
- * This class handles the real-time game state, including card reveal logic, matching verification,
- * score tracking, and turn management. It implements the {@link MemoryGameAdapter.MemoryGameListener}
- * to handle card clicks. Key features:
+ * This class connects the views to the game: the rules (card selection, matching, turn
+ * timeouts, winner and finish detection) live in {@link MemoryGameEngine}, while this class
+ * handles the real-time room state, animations and timers. It implements the
+ * {@link MemoryGameAdapter.MemoryGameListener} to handle card clicks. Key features:
  * <ul>
- * <li>Real-time synchronization with Firebase database.</li>
- * <li>Turn-based countdown timer.</li>
+ * <li>Real-time synchronization with Firebase database, applied one card or field at a time.</li>
+ * <li>Turn and game countdowns to deadlines kept in server time.</li>
  * <li>Automatic win detection and forfeit handling.</li>
  * <li>Dynamic board initialization with random card pairs.</li>
  * </ul>
+ * Only the images on the board are resolved and they are loaded into the bitmap cache before
+ * the board is revealed, so the catalog size does not affect the game start.
  * </p>
  */
 @AndroidEntryPoint
 public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapter.MemoryGameListener {
     /**
-     * The time limit for each turn in milliseconds (15 seconds).
+     * Number of distinct images on the board; every image appears on two cards.
      */
-    private static final long TURN_TIME_LIMIT = 15000;
-    /**
-     * The total time limit for the entire game in milliseconds (1.5 minutes).
-     */
-    private static final long TOTAL_GAME_TIME_LIMIT = 90000;
+    private static final int PAIR_COUNT = 6;
+    private static final String TAG = "MemoryGameActivity";
 
     private final Map<String, String> imageCache = new HashMap<>();
     @Inject
@@ -75,11 +85,13 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
     @Inject
     protected IMemoryGameService gameService;
     @Inject
-    protected IUserService userService;
+    protected IUserDirectory userDirectory;
     @Inject
     protected IStatsService statsService;
     @Inject
     ImageUtil imageUtil;
+    @Inject
+    GameClock serverClock;
     /**
      * UI components for the game board and timers.
      */
@@ -87,7 +99,7 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
     /**
      * Flags for managing game conclusion and move locking.
      */
-    private boolean endDialogShown = false, localLock = false;
+    private boolean endDialogShown = false, localLock = false, finishRequested = false;
     /**
      * Unique identifier for the shared game session.
      */
@@ -100,11 +112,24 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
      * The shared real-time state of the game room.
      */
     private GameRoom currentRoom;
+    /**
+     * The game rules for the local player; its moves are sent to the database.
+     */
+    private MemoryGameEngine engine;
     /**
      * UI elements for time tracking.
      */
     private TextView tvTimer, tvTotalTimer;
 
+    /**
+     * Board preparation state: the card images are resolved and prefetched once per game.
+     */
+    private boolean boardReady = false, preparingBoard = false;
+    /**
+     * Time the screen started loading, used to log the game start latency in debug builds.
+     */
+    private long loadStartedAt;
+
     /**
      * Timer for the active player's turn (15 seconds).
      */
@@ -123,6 +148,8 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
 
         roomId = getIntent().getStringExtra("roomId");
         user = sharedPreferencesUtil.getUser();
+        engine = new MemoryGameEngine(user.getId(), serverClock,
+                move -> gameService.applyMove(roomId, move, null));
 
         recyclerCards = findViewById(R.id.recycler_OnlineMemoryGame);
         recyclerCards.setLayoutManager(new GridLayoutManager(this, 3));
@@ -150,7 +177,7 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
         Runnable onConfirm = () -> {
             endDialogShown = true;
             if (currentRoom != null && !"finished".equals(currentRoom.getStatus())) {
-                String opponentUid = user.getId().equals(currentRoom.getPlayer1Uid()) ? currentRoom.getPlayer2Uid() : currentRoom.getPlayer1Uid();
+                String opponentUid = engine.getOpponentUid();
                 currentRoom.setWinnerUid(opponentUid);
                 finishGame(currentRoom);
             }
@@ -171,7 +198,7 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
         if (endDialogShown) return;
         endDialogShown = true;
 
-        String winnerUid = room.getWinnerUid() != null ? room.getWinnerUid() : calculateWinner(room);
+        String winnerUid = room.getWinnerUid() != null ? room.getWinnerUid() : MemoryGameEngine.calculateWinner(room);
         boolean isWin = user.getId().equals(winnerUid);
         boolean isDraw = "draw".equals(winnerUid);
 
@@ -203,29 +230,29 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
 
     /**
      * Initializes the board by shuffling 6 pairs of random images.
-     * Typically executed by the room host (Player 1).
+     * Typically executed by the room host (Player 1). Only the IDs of the picked images are
+     * downloaded; their content is resolved when the board is prepared.
      *
      * @param room The room to configure.
      */
     private void setupGameBoard(GameRoom room) {
         if ((room.getCards() == null || room.getCards().isEmpty()) && user.getId().equals(room.getPlayer1Uid())) {
             showLoading();
-            imageService.getAllImages(new DatabaseCallback<>() {
+            imageService.pickRandomImageIds(PAIR_COUNT, new DatabaseCallback<>() {
                 @Override
-                public void onCompleted(List<ImageData> allImages) {
+                public void onCompleted(List<String> imageIds) {
                     hideLoading();
-                    if (allImages == null || allImages.size() < 6) {
+                    if (imageIds == null || imageIds.size() < PAIR_COUNT) {
                         Toast.makeText(MemoryGameActivity.this, "אין מספיק תמונות.", Toast.LENGTH_LONG).show();
                         gameService.cancelRoom(roomId, null);
                         goBack();
                         return;
                     }
 
-                    Collections.shuffle(allImages);
                     List<Card> cards = new ArrayList<>();
-                    for (ImageData img : allImages.subList(0, 6)) {
-                        cards.add(new Card(img.getId(), img.getBase64()));
-                        cards.add(new Card(img.getId(), img.getBase64()));
+                    for (String imageId : imageIds) {
+                        cards.add(new Card(imageId, null));
+                        cards.add(new Card(imageId, null));
                     }
                     Collections.shuffle(cards);
                     gameService.initGameBoard(roomId, cards, room.getPlayer1Uid(), null);
@@ -242,89 +269,102 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
     }
 
     /**
-     * Handler for card clicks. Validates move eligibility before processing selection.
+     * Resolves the images of the board's cards and loads them into the bitmap cache, then reveals
+     * the board. Images that cannot be resolved are shown with the placeholder.
+     *
+     * @param room The room whose cards should be prepared.
      */
-    @Override
-    public void onCardClicked(Card card, int position) {
-        if (currentRoom == null || localLock || !isMyTurn()) return;
-        if (card.getIsMatched() || card.getIsRevealed()) return;
-        handleCardSelection(position);
+    private void prepareBoard(GameRoom room) {
+        if (preparingBoard) return;
+        preparingBoard = true;
+        showLoading();
+
+        Set<String> imageIds = new LinkedHashSet<>();
+        for (Card card : room.getCards()) imageIds.add(card.getId());
+        imageService.getImages(new ArrayList<>(imageIds), new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<ImageData> images) {
+                for (ImageData img : images) {
+                    imageCache.put(img.getId(), img.getImageRef());
+                }
+                adapter.setImageCache(imageCache);
+                imageUtil.prefetch(imageCache.values(), ImageVariant.GRID, MemoryGameActivity.this::revealBoard);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                adapter.setImageCache(imageCache);
+                revealBoard();
+            }
+        });
     }
 
-    /**
-     * @return true if the local user is authorized to make a move.
-     */
-    @Override
-    public boolean isMyTurn() {
-        return currentRoom != null && user.getId().equals(currentRoom.getCurrentTurnUid()) && !currentRoom.isProcessingMatch();
+    private void revealBoard() {
+        if (isFinishing() || isDestroyed()) return;
+        hideLoading();
+        boardReady = true;
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Board ready " + (SystemClock.elapsedRealtime() - loadStartedAt) + "ms after opening the game");
+        }
+        if (currentRoom != null) showBoard();
     }
 
     /**
-     * Logic for selecting a card. Synchronizes revealed status with the database.
+     * Handler for card clicks. The engine validates the selection and sends the move; a second
+     * card starts the match check after a short reveal.
      */
-    private void handleCardSelection(int clickedIndex) {
+    @Override
+    public void onCardClicked(Card card, int position) {
+        if (currentRoom == null || localLock) return;
         Integer firstIndex = currentRoom.getFirstSelectedCardIndex();
-        if (firstIndex == null) {
-            gameService.updateCardStatus(roomId, clickedIndex, true, false);
-            gameService.updateRoomField(roomId, "firstSelectedCardIndex", clickedIndex);
-        } else {
-            if (firstIndex == clickedIndex) return;
+        if (engine.selectCard(position) == MemoryGameEngine.Selection.SECOND_CARD) {
             localLock = true;
-            gameService.setProcessing(roomId, true);
-            gameService.updateCardStatus(roomId, clickedIndex, true, false);
-
             // Safer way to delay action using view-based posting
-            recyclerCards.postDelayed(() -> checkMatch(firstIndex, clickedIndex), 1000);
+            recyclerCards.postDelayed(() -> checkMatch(firstIndex, position), 1000);
         }
     }
 
     /**
-     * Compares two revealed cards and updates matches/turns accordingly.
+     * @return true if the local user is authorized to make a move.
      */
-    private void checkMatch(int idx1, int idx2) {
-        if (currentRoom == null || currentRoom.getCards() == null) return;
-        List<Card> cards = currentRoom.getCards();
-        Card c1 = cards.get(idx1);
-        Card c2 = cards.get(idx2);
+    @Override
+    public boolean isMyTurn() {
+        return engine.isMyTurn();
+    }
 
-        if (c1 != null && c2 != null && c1.getId().equals(c2.getId())) {
+    /**
+     * Runs the engine's match check and animates the result. After a mismatch the cards stay
+     * open briefly before the engine flips them back and passes the turn.
+     */
+    private void checkMatch(int idx1, int idx2) {
+        if (engine.checkMatch(idx1, idx2)) {
             animateSuccess(idx1);
             animateSuccess(idx2);
-            gameService.updateCardStatus(roomId, idx1, true, true);
-            gameService.updateCardStatus(roomId, idx2, true, true);
-            gameService.incrementScore(roomId, user.getId(), null);
+            recyclerCards.postDelayed(() -> localLock = false, 700);
         } else {
             animateError(idx1);
             animateError(idx2);
 
             recyclerCards.postDelayed(() -> {
-                gameService.updateCardStatus(roomId, idx1, false, false);
-                gameService.updateCardStatus(roomId, idx2, false, false);
-                String nextTurn = user.getId().equals(currentRoom.getPlayer1Uid()) ? currentRoom.getPlayer2Uid() : currentRoom.getPlayer1Uid();
-                gameService.updateRoomField(roomId, "currentTurnUid", nextTurn);
+                engine.endTurn(idx1, idx2);
+                localLock = false;
             }, 600);
         }
-
-        gameService.updateRoomField(roomId, "firstSelectedCardIndex", null);
-
-        recyclerCards.postDelayed(() -> {
-            gameService.setProcessing(roomId, false);
-            localLock = false;
-        }, 700);
     }
 
     @Override
-    public void animateFlipOpen(ImageView imageView, String base64) {
+    public void animateFlipOpen(ImageView imageView, String imageRef) {
         imageView.animate().rotationY(90f).setDuration(150).withEndAction(() -> {
             Runnable flipIn = () -> {
                 imageView.setRotationY(-90f);
                 imageView.animate().rotationY(0f).setDuration(150).start();
             };
 
-            if (base64 != null) {
-                imageUtil.loadImage(base64, imageView);
+            if (imageRef != null) {
+                imageUtil.loadImage(imageRef, imageView, ImageVariant.GRID);
                 flipIn.run();
             } else {
+                imageUtil.cancel(imageView);
                 imageView.setImageResource(R.drawable.fold_card_img);
                 flipIn.run();
             }
@@ -334,6 +374,7 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
     @Override
     public void animateFlipClose(ImageView imageView) {
         imageView.animate().rotationY(90f).setDuration(150).withEndAction(() -> {
+            imageUtil.cancel(imageView);
             imageView.setImageResource(R.drawable.fold_card_img);
             imageView.setRotationY(-90f);
             imageView.animate().rotationY(0f).setDuration(150).start();
@@ -373,20 +414,10 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
     }
 
     /**
-     * Scans the board to determine if all pairs have been found and scores are fully synchronized.
+     * Finishes the game once the engine reports that all pairs were found and scored.
      */
     private void checkIfGameFinished() {
-        if (currentRoom == null || currentRoom.getCards() == null || currentRoom.getCards().isEmpty())
-            return;
-
-        // Don't check if game is already finished in DB
-        if ("finished".equals(currentRoom.getStatus())) return;
-
-        boolean allCardsMatched = currentRoom.getCards().stream().allMatch(Card::getIsMatched);
-        int totalScore = currentRoom.getPlayer1Score() + currentRoom.getPlayer2Score();
-        int totalPairs = currentRoom.getCards().size() / 2;
-
-        if (allCardsMatched && totalScore == totalPairs) {
+        if (engine.isBoardComplete()) {
             finishGame(currentRoom);
         }
     }
@@ -396,13 +427,15 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
      * Note: This calculates the winner based on the provided room state.
      */
     private void finishGame(GameRoom room) {
-        if (room == null || room.isStatsUpdated()) return;
+        if (room == null || room.isStatsUpdated() || finishRequested) return;
 
-        // Use a local flag to prevent multiple redundant calls from this same Activity instance
-        room.setStatsUpdated(true);
+        // Use a local flag to prevent multiple redundant calls from this same Activity instance.
+        // The room itself is left untouched: it mirrors the database and its stats flag is
+        // only set by the stream.
+        finishRequested = true;
 
         // ALWAYS calculate winner from scores if not already set (e.g. by forfeit)
-        String winnerUid = calculateWinner(room);
+        String winnerUid = MemoryGameEngine.calculateWinner(room);
 
         showLoading();
         // Update room status to finished and statsUpdated to true atomically
@@ -425,108 +458,58 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
             public void onFailed(Exception e) {
                 hideLoading();
                 // If it failed, allow retry from this client if necessary
-                room.setStatsUpdated(false);
+                finishRequested = false;
             }
         });
     }
 
     /**
-     * Establishes a persistent listener for the game room's database node.
+     * Follows the game room. The room is loaded once; after that only the changed card or field
+     * is applied to the screen.
      */
     private void listenToGame() {
+        loadStartedAt = SystemClock.elapsedRealtime();
         showLoading();
-        imageService.getAllImages(new DatabaseCallback<>() {
+        gameService.listenToGame(roomId, new IMemoryGameService.IGameEventListener() {
             @Override
-            public void onCompleted(List<ImageData> allImages) {
-                if (allImages != null) {
-                    for (ImageData img : allImages) {
-                        imageCache.put(img.getId(), img.getBase64());
-                    }
-                }
-                adapter.setImageCache(imageCache);
-                startListeningToRoom();
+            public void onRoomLoaded(@NonNull GameRoom room) {
+                hideLoading();
+                onGameLoaded(room);
             }
 
             @Override
-            public void onFailed(Exception e) {
-                hideLoading();
-                startListeningToRoom();
+            public void onBoardChanged(@NonNull List<Card> cards) {
+                prepareBoard(currentRoom);
             }
-        });
-    }
-
-    private void startListeningToRoom() {
-        gameService.listenToGame(roomId, new DatabaseCallback<>() {
-            private boolean firstLoad = true;
 
             @Override
-            public void onCompleted(GameRoom room) {
-                if (firstLoad) {
-                    hideLoading();
-                    firstLoad = false;
-                }
-                if (room == null) {
-                    goBack();
-                    return;
-                }
-                currentRoom = room;
-                if (room.getPlayer1Uid() != null && room.getPlayer2Uid() != null) {
-                    String opponentUid = user.getId().equals(room.getPlayer1Uid()) ? room.getPlayer2Uid() : room.getPlayer1Uid();
-                    userService.getUser(opponentUid, new DatabaseCallback<>() {
-                        @Override
-                        public void onCompleted(User opponent) {
-                            if (opponent != null)
-                                ((TextView) findViewById(R.id.tv_OnlineMemoryGame_opponent_name)).setText(String.format("משחק נגד: %s", opponent.getFullName()));
-                        }
-
-                        @Override
-                        public void onFailed(Exception e) {
-                            ((TextView) findViewById(R.id.tv_OnlineMemoryGame_opponent_name)).setText("משחק נגד: יריב");
-                        }
-                    });
-                }
-                updateScoreUI(room);
-                if (room.getCards() == null || room.getCards().isEmpty()) {
-                    setupGameBoard(room);
-                    return;
-                }
-                adapter.setCards(room.getCards());
-
-                String opponentUid = user.getId().equals(room.getPlayer1Uid()) ? room.getPlayer2Uid() : room.getPlayer1Uid();
-                gameService.setupForfeitOnDisconnect(roomId, opponentUid);
-
-                if ("finished".equals(room.getStatus())) {
-                    if (turnTimer != null) turnTimer.cancel();
-                    if (totalGameTimer != null) totalGameTimer.cancel();
-                    gameService.removeForfeitOnDisconnect(roomId);
-
-                    if (!room.isStatsUpdated()) {
-                        finishGame(room);
-                        return;
-                    }
+            public void onCardChanged(int index, @NonNull Card card) {
+                if (!boardReady) return;
+                adapter.updateCard(index, card);
+                checkIfGameFinished();
+            }
 
-                    showGameEndDialog(room);
-                    return;
-                }
+            @Override
+            public void onTurnChanged(@Nullable String currentTurnUid) {
+                if (boardReady) updateTurnUI();
+            }
 
-                if (totalGameTimer == null) {
-                    startTotalGameTimer();
-                }
+            @Override
+            public void onScoreChanged(int player1Score, int player2Score) {
+                updateScoreUI(currentRoom);
+                if (boardReady) checkIfGameFinished();
+            }
 
-                checkIfGameFinished();
+            @Override
+            public void onStatusChanged(@NonNull GameRoom room) {
+                if (boardReady && "finished".equals(room.getStatus())) onGameFinished(room);
+            }
 
-                boolean isMyTurn = user.getId().equals(room.getCurrentTurnUid());
-                TextView tvTurnStatus = findViewById(R.id.tv_OnlineMemoryGame_turn_status);
-                if (isMyTurn) {
-                    tvTurnStatus.setText("תורך!");
-                    tvTurnStatus.setTextColor(getColor(android.R.color.holo_green_dark));
-                    startTurnTimer();
-                } else {
-                    tvTurnStatus.setText("תור היריב...");
-                    tvTurnStatus.setTextColor(getColor(android.R.color.holo_red_dark));
-                    if (turnTimer != null) turnTimer.cancel();
-                    tvTimer.setText("");
-                }
+            @Override
+            public void onRoomRemoved() {
+                // Finished rooms are archived and removed; keep the end dialog open
+                gameService.removeForfeitOnDisconnect(roomId);
+                if (!endDialogShown) goBack();
             }
 
             @Override
@@ -537,62 +520,137 @@ public class MemoryGameActivity extends BaseActivity implements MemoryGameAdapte
     }
 
     /**
-     * Determines the winner UID based on scores or returns "draw".
+     * Sets up the screen for a loaded room. The opponent is looked up and the forfeit is
+     * armed once per game, not on every move.
+     *
+     * @param room The loaded room.
      */
-    private String calculateWinner(GameRoom room) {
-        // If a winner was already set (like in technical forfeit), respect it.
-        if (room.getWinnerUid() != null && !room.getWinnerUid().equals("draw"))
-            return room.getWinnerUid();
+    private void onGameLoaded(@NonNull GameRoom room) {
+        currentRoom = room;
+        engine.setRoom(room);
+        if (room.getPlayer1Uid() != null && room.getPlayer2Uid() != null) {
+            String opponentUid = engine.getOpponentUid();
+            userDirectory.getUser(opponentUid, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(UserSummary opponent) {
+                    if (opponent != null)
+                        ((TextView) findViewById(R.id.tv_OnlineMemoryGame_opponent_name)).setText(String.format("משחק נגד: %s", opponent.getFullName()));
+                }
 
-        int p1 = room.getPlayer1Score();
-        int p2 = room.getPlayer2Score();
-        if (p1 == p2) return "draw";
-        return p1 > p2 ? room.getPlayer1Uid() : room.getPlayer2Uid();
+                @Override
+                public void onFailed(Exception e) {
+                    ((TextView) findViewById(R.id.tv_OnlineMemoryGame_opponent_name)).setText("משחק נגד: יריב");
+                }
+            });
+            if (!"finished".equals(room.getStatus())) gameService.setupForfeitOnDisconnect(roomId, opponentUid);
+        }
+        updateScoreUI(room);
+        if (room.getCards() == null || room.getCards().isEmpty()) {
+            setupGameBoard(room);
+        } else if (boardReady) {
+            showBoard();
+        } else {
+            prepareBoard(room);
+        }
     }
 
     /**
-     * Manages the countdown for the active player's turn.
+     * Shows the prepared board and the current game state.
+     */
+    private void showBoard() {
+        adapter.setCards(currentRoom.getCards());
+        if ("finished".equals(currentRoom.getStatus())) {
+            onGameFinished(currentRoom);
+            return;
+        }
+        if (totalGameTimer == null) {
+            startTotalGameTimer();
+        }
+        updateTurnUI();
+        checkIfGameFinished();
+    }
+
+    /**
+     * Stops the timers and either completes the finish (stats) or shows the end dialog.
+     *
+     * @param room The finished room.
+     */
+    private void onGameFinished(@NonNull GameRoom room) {
+        if (turnTimer != null) turnTimer.cancel();
+        if (totalGameTimer != null) totalGameTimer.cancel();
+        gameService.removeForfeitOnDisconnect(roomId);
+
+        if (!room.isStatsUpdated()) {
+            finishGame(room);
+            return;
+        }
+
+        showGameEndDialog(room);
+    }
+
+    /**
+     * Shows whose turn it is and restarts the turn timer for the room's turn deadline.
+     */
+    private void updateTurnUI() {
+        boolean isMyTurn = user.getId().equals(currentRoom.getCurrentTurnUid());
+        TextView tvTurnStatus = findViewById(R.id.tv_OnlineMemoryGame_turn_status);
+        if (isMyTurn) {
+            tvTurnStatus.setText("תורך!");
+            tvTurnStatus.setTextColor(getColor(android.R.color.holo_green_dark));
+        } else {
+            tvTurnStatus.setText("תור היריב...");
+            tvTurnStatus.setTextColor(getColor(android.R.color.holo_red_dark));
+            tvTimer.setText("");
+        }
+        startTurnTimer();
+    }
+
+    /**
+     * Counts down to the turn deadline. The timer runs on both devices, but only shows the time
+     * on the device of the player whose turn it is; the engine decides which device commits
+     * the timeout.
      */
     private void startTurnTimer() {
         if (turnTimer != null) turnTimer.cancel();
-        turnTimer = new CountDownTimer(TURN_TIME_LIMIT, 1000) {
+        turnTimer = new CountDownTimer(engine.getTurnTimeoutDelay(), 1000) {
             @Override
             public void onTick(long millisUntilFinished) {
-                tvTimer.setText(MessageFormat.format("זמן נותר: {0}", millisUntilFinished / 1000));
+                if (user.getId().equals(currentRoom.getCurrentTurnUid())) {
+                    tvTimer.setText(MessageFormat.format("זמן נותר: {0}", engine.getTurnTimeLeft() / 1000));
+                }
             }
 
             @Override
             public void onFinish() {
-                // If it's my turn, only then I should handle the timer expiration
-                if (isMyTurn()) {
-                    if (currentRoom.getFirstSelectedCardIndex() != null) {
-                        gameService.updateCardStatus(roomId, currentRoom.getFirstSelectedCardIndex(), false, false);
-                        gameService.updateRoomField(roomId, "firstSelectedCardIndex", null);
-                    }
-                    String nextTurn = user.getId().equals(currentRoom.getPlayer1Uid()) ? currentRoom.getPlayer2Uid() : currentRoom.getPlayer1Uid();
-                    gameService.updateRoomField(roomId, "currentTurnUid", nextTurn);
-                }
+                // The server clock may have been corrected meanwhile; wait for the real deadline
+                if (!engine.onTurnTimeout() && engine.getTurnTimeoutDelay() > 0) startTurnTimer();
             }
         }.start();
     }
 
     /**
-     * Manages the countdown for the total game time.
+     * Counts down to the game deadline. Only the device the engine picks finishes the game
+     * when the time is up.
      */
     private void startTotalGameTimer() {
         if (totalGameTimer != null) totalGameTimer.cancel();
-        totalGameTimer = new CountDownTimer(TOTAL_GAME_TIME_LIMIT, 1000) {
+        totalGameTimer = new CountDownTimer(engine.getGameTimeoutDelay(), 1000) {
             @Override
             public void onTick(long millisUntilFinished) {
-                long minutes = (millisUntilFinished / 1000) / 60;
-                long seconds = (millisUntilFinished / 1000) % 60;
+                long secondsLeft = engine.getGameTimeLeft() / 1000;
+                long minutes = secondsLeft / 60;
+                long seconds = secondsLeft % 60;
                 tvTotalTimer.setText(String.format(Locale.getDefault(), "זמן משחק כולל: %02d:%02d", minutes, seconds));
             }
 
             @Override
             public void onFinish() {
-                tvTotalTimer.setText("זמן נגמר!");
-                finishGame(currentRoom);
+                if (engine.isGameTimeoutDue()) {
+                    tvTotalTimer.setText("זמן נגמר!");
+                    finishGame(currentRoom);
+                } else if (engine.getGameTimeoutDelay() > 0) {
+                    startTotalGameTimer();
+                }
             }
         }.start();
     }
@@ -1,56 +1,95 @@
 package com.example.sagivproject.screens;
 
+import android.graphics.Typeface;
 import android.os.Bundle;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.style.AbsoluteSizeSpan;
+import android.text.style.TypefaceSpan;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
+import androidx.core.content.res.ResourcesCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.sagivproject.R;
 import com.example.sagivproject.adapters.MemoryGameLogAdapter;
 import com.example.sagivproject.bases.BaseActivity;
+import com.example.sagivproject.models.GameResult;
 import com.example.sagivproject.models.GameRoom;
-import com.example.sagivproject.models.User;
+import com.example.sagivproject.models.UserSummary;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IMemoryGameService;
-import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.IUserDirectory;
+import com.example.sagivproject.utils.CalendarUtil;
+import com.google.android.material.tabs.TabLayout;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
 import dagger.hilt.android.AndroidEntryPoint;
 
 /**
- * Activity providing an administrative view of all historical and active memory game sessions.
+ * Activity providing an administrative view of active and historical memory game sessions.
  * <p>
- * This screen performs a real-time sync with the 'rooms' node in the database. It:
+ * Finished games are archived out of the live 'rooms' node into a monthly history, so this
+ * screen pages the log by month. It:
  * <ul>
- * <li>Fetches all registered users to build a UID-to-Name resolution map.</li>
- * <li>Displays a chronological log of game sessions using {@link MemoryGameLogAdapter}.</li>
- * <li>Updates the log dynamically as game statuses (waiting, playing, finished) or scores change.</li>
+ * <li>Resolves the names of the players shown through the shared {@link IUserDirectory}.</li>
+ * <li>Streams the active rooms in real-time on the first tab.</li>
+ * <li>Loads a single month of archived game results when a month tab is selected.</li>
+ * <li>Displays the log using {@link MemoryGameLogAdapter}.</li>
  * </ul>
  * </p>
  */
 @AndroidEntryPoint
 public class MemoryGameLogsTableActivity extends BaseActivity {
+    /**
+     * Number of past months offered as history tabs, including the current month.
+     */
+    private static final int HISTORY_MONTH_COUNT = 12;
+
     /**
      * A local map used to resolve participant UIDs to human-readable names in the log.
+     * Only the players of the displayed games are resolved.
      */
     private final Map<String, String> uidToNameMap = new HashMap<>();
 
+    /**
+     * Counts the loads of a tab, so results resolved after the user switched tabs are dropped.
+     */
+    private int tabLoadGeneration = 0;
+
+    /**
+     * Month keys (yyyy-MM) of the history tabs, in tab order after the active games tab.
+     */
+    private final List<String> monthKeys = new ArrayList<>();
+
     @Inject
     protected MemoryGameLogAdapter adapter;
 
     @Inject
-    protected IUserService userService;
+    protected IUserDirectory userDirectory;
 
     @Inject
     protected IMemoryGameService gameService;
 
+    @Inject
+    protected CalendarUtil calendarUtil;
+
+    /**
+     * TabLayout for switching between active games and the monthly history.
+     */
+    private TabLayout tabLayoutMonths;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -61,12 +100,15 @@ public class MemoryGameLogsTableActivity extends BaseActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
         recyclerView.setAdapter(adapter);
+
+        tabLayoutMonths = findViewById(R.id.tab_layout_MemoryGameLogsTable_months);
+        setupTabs();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        fetchUsersAndListenToGames();
+        loadSelectedTab();
     }
 
     @Override
@@ -76,39 +118,118 @@ public class MemoryGameLogsTableActivity extends BaseActivity {
     }
 
     /**
-     * Orchestrates the data loading sequence: first resolves names, then starts the game listener.
+     * Creates the active games tab followed by one tab per recent month.
      */
-    private void fetchUsersAndListenToGames() {
-        showLoading();
-        userService.getUserList(new DatabaseCallback<>() {
+    private void setupTabs() {
+        monthKeys.clear();
+        monthKeys.addAll(calendarUtil.getRecentMonthKeys(HISTORY_MONTH_COUNT));
+
+        addTab("משחקים פעילים");
+        for (String monthKey : monthKeys) {
+            addTab(calendarUtil.formatMonthKeyForDisplay(monthKey));
+        }
+
+        tabLayoutMonths.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
             @Override
-            public void onCompleted(List<User> userList) {
-                hideLoading();
-                if (userList != null) {
-                    for (User user : userList)
-                        uidToNameMap.put(user.getId(), user.getFullName());
+            public void onTabSelected(TabLayout.Tab tab) {
+                loadSelectedTab();
+            }
+
+            @Override
+            public void onTabUnselected(TabLayout.Tab tab) {
+            }
+
+            @Override
+            public void onTabReselected(TabLayout.Tab tab) {
+            }
+        });
+    }
+
+    /**
+     * Adds a tab styled with the app's Hebrew font.
+     *
+     * @param label The tab label.
+     */
+    private void addTab(String label) {
+        TabLayout.Tab tab = tabLayoutMonths.newTab();
+        Typeface typeface = ResourcesCompat.getFont(this, R.font.text_hebrew);
+        if (typeface != null) {
+            SpannableString s = new SpannableString(label);
+            s.setSpan(new TypefaceSpan(typeface), 0, s.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            s.setSpan(new AbsoluteSizeSpan(18, true), 0, s.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            tab.setText(s);
+        } else {
+            tab.setText(label);
+        }
+        tabLayoutMonths.addTab(tab);
+    }
+
+    /**
+     * Resolves the names of the players that are not known yet, then shows the results.
+     * Player summaries are shared with the other screens through the {@link IUserDirectory},
+     * so only players never seen before are read from the database.
+     *
+     * @param results    The results to show.
+     * @param generation The {@link #tabLoadGeneration} the results were loaded for.
+     */
+    private void submitResults(List<GameResult> results, int generation) {
+        Set<String> unknownUids = new HashSet<>();
+        for (GameResult result : results) {
+            for (String uid : new String[]{result.getPlayer1Uid(), result.getPlayer2Uid(), result.getWinnerUid()}) {
+                if (uid != null && !uid.isEmpty() && !"draw".equals(uid) && !uidToNameMap.containsKey(uid)) {
+                    unknownUids.add(uid);
                 }
-                listenToGamesRealtime();
+            }
+        }
+        if (unknownUids.isEmpty()) {
+            adapter.submitData(results, uidToNameMap);
+            return;
+        }
+
+        userDirectory.getUsers(unknownUids, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Map<String, UserSummary> users) {
+                for (UserSummary user : users.values()) {
+                    uidToNameMap.put(user.getId(), user.getFullName());
+                }
+                if (generation == tabLoadGeneration) adapter.submitData(results, uidToNameMap);
             }
 
             @Override
             public void onFailed(Exception e) {
-                hideLoading();
                 Toast.makeText(MemoryGameLogsTableActivity.this, "שגיאה בטעינת שמות המשתמשים", Toast.LENGTH_SHORT).show();
-                listenToGamesRealtime();
+                if (generation == tabLoadGeneration) adapter.submitData(results, uidToNameMap);
             }
         });
     }
 
     /**
-     * Establishes a persistent, real-time listener for all game room updates in the database.
+     * Loads the data of the selected tab: live rooms for the first tab, otherwise a month of history.
+     */
+    private void loadSelectedTab() {
+        tabLoadGeneration++;
+        int position = tabLayoutMonths.getSelectedTabPosition();
+        if (position <= 0) {
+            listenToGamesRealtime();
+        } else {
+            gameService.stopAllRoomsRealtime();
+            loadMonthHistory(monthKeys.get(position - 1));
+        }
+    }
+
+    /**
+     * Establishes a real-time listener for the rooms that are still waiting or being played.
      */
     private void listenToGamesRealtime() {
+        int generation = tabLoadGeneration;
         gameService.getAllRoomsRealtime(new DatabaseCallback<>() {
             @Override
             public void onCompleted(List<GameRoom> allRooms) {
-                if (allRooms != null)
-                    adapter.submitData(allRooms, uidToNameMap);
+                if (allRooms == null || tabLayoutMonths.getSelectedTabPosition() > 0) return;
+                List<GameResult> results = allRooms.stream()
+                        .map(room -> GameResult.fromRoom(room, 0))
+                        .collect(Collectors.toList());
+                submitResults(results, generation);
             }
 
             @Override
@@ -117,4 +238,29 @@ public class MemoryGameLogsTableActivity extends BaseActivity {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Loads the archived game results of a single month.
+     *
+     * @param monthKey The month to load, in yyyy-MM format.
+     */
+    private void loadMonthHistory(String monthKey) {
+        int generation = tabLoadGeneration;
+        showLoading();
+        gameService.getGameHistory(monthKey, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<GameResult> results) {
+                hideLoading();
+                int position = tabLayoutMonths.getSelectedTabPosition();
+                if (position <= 0 || !monthKey.equals(monthKeys.get(position - 1))) return;
+                submitResults(results, generation);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                hideLoading();
+                Toast.makeText(MemoryGameLogsTableActivity.this, "שגיאה בטעינת היסטוריית המשחקים", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+}
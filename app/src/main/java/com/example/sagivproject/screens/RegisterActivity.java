@@ -41,9 +41,6 @@ public class RegisterActivity extends BaseActivity {
     @Inject
     protected Validator validator;
 
-    @Inject
-    protected IAuthService authService;
-
     /**
      * Input fields for user personal details and credentials.
      */
@@ -11,7 +11,12 @@ import com.example.sagivproject.R;
 import com.example.sagivproject.bases.BaseActivity;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IImageService;
+import com.example.sagivproject.services.IMemoryGameService;
 import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.ReadMode;
+
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -24,6 +29,9 @@ import dagger.hilt.android.AndroidEntryPoint;
  * It performs an authentication check against the database to determine if a cached user session
  * is still valid. Based on the result, it redirects the user to the Admin Dashboard,
  * the User Main Dashboard, or the Landing screen for unauthenticated users.
+ * Before the first check it migrates any legacy user records to the normalized schema, and
+ * moves inline images to the blob store and, at most once a day, archives left-over finished
+ * games in the background.
  * </p>
  */
 @AndroidEntryPoint
@@ -32,16 +40,24 @@ public class SplashActivity extends BaseActivity {
      * Minimum duration in milliseconds to display the splash screen.
      */
     private static final long SPLASH_DELAY = 3000;
+    /**
+     * Minimum time in milliseconds between two sweeps of the finished game rooms from this device.
+     */
+    private static final long ROOM_SWEEP_INTERVAL = TimeUnit.DAYS.toMillis(1);
     /**
      * UI thread handler for scheduling the transition.
      */
     private final Handler handler = new Handler(Looper.getMainLooper());
     @Inject
     protected IUserService userService;
+    @Inject
+    protected IImageService imageService;
+    @Inject
+    protected IMemoryGameService gameService;
     /**
      * Reusable runnable for performing the navigation logic.
      */
-    private final Runnable navigateRunnable = this::navigateNext;
+    private final Runnable navigateRunnable = this::migrateUsersAndNavigate;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -81,11 +97,91 @@ public class SplashActivity extends BaseActivity {
         super.onDestroy();
     }
 
+    /**
+     * Runs the one-time legacy user migration if it has not completed yet, then navigates.
+     * A failed migration is retried on the next launch and does not block navigation.
+     */
+    private void migrateUsersAndNavigate() {
+        archiveFinishedRooms();
+        if (sharedPreferencesUtil.isUserSchemaMigrated()) {
+            migrateImages();
+            navigateNext();
+            return;
+        }
+
+        userService.migrateLegacyUsers(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Integer migratedCount) {
+                sharedPreferencesUtil.setUserSchemaMigrated(true);
+                migrateImages();
+                navigateNext();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                navigateNext();
+            }
+        });
+    }
+
+    /**
+     * Archives the finished rooms left in the live rooms node, if this device has not done so in
+     * the last day. Players archive their own rooms when a game ends, so this sweep only picks up
+     * rooms whose players never did.
+     */
+    private void archiveFinishedRooms() {
+        long now = System.currentTimeMillis();
+        if (now - sharedPreferencesUtil.getLastRoomSweep() < ROOM_SWEEP_INTERVAL) return;
+
+        gameService.archiveFinishedRooms(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Integer archivedCount) {
+                sharedPreferencesUtil.setLastRoomSweep(now);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+            }
+        });
+    }
+
+    /**
+     * Moves inline Base64 images to the blob store if that has not completed yet.
+     * Runs alongside navigation; until it completes, inline images keep loading as before.
+     */
+    private void migrateImages() {
+        if (sharedPreferencesUtil.isImagesMigrated()) return;
+
+        imageService.migrateImagesToBlobStore(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Integer migratedCount) {
+                userService.migrateProfileImagesToBlobStore(new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Integer migratedCount) {
+                        sharedPreferencesUtil.setImagesMigrated(true);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                    }
+                });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+            }
+        });
+    }
+
     /**
      * Determines the next destination activity based on the current authentication state.
      * <p>
-     * If a cached user is found, it verifies their status with the database.
-     * If authentication fails or no user is found, it redirects to the landing screen with an animation.
+     * If a cached user is found, it verifies their status with the database. The cached copy of
+     * the user is used to navigate right away; the server copy that follows only refreshes the
+     * session. A user the database no longer has is logged out, unless the app already navigated
+     * with the cached copy; the synced cache then holds the deletion and the next launch logs out.
+     * If the database cannot be reached and nothing is cached, the locally stored user is kept
+     * logged in. Without a stored user it redirects to the landing screen with an animation.
      * </p>
      */
     private void navigateNext() {
@@ -95,14 +191,21 @@ public class SplashActivity extends BaseActivity {
             return;
         }
 
-        userService.getUser(cachedUser.getId(), new DatabaseCallback<>() {
+        userService.setUserSynced(cachedUser.getId(), true);
+        userService.getUser(cachedUser.getId(), IUserService.UserProjection.FULL, ReadMode.CACHED_THEN_FRESH, new DatabaseCallback<>() {
+            private boolean navigated;
+
             @Override
             public void onCompleted(User user) {
                 if (user != null) {
                     sharedPreferencesUtil.saveUser(user);
+                }
+                if (navigated) return;
+                navigated = true;
+                if (user != null) {
                     navigateToUserHome(user);
                 } else {
-                    sharedPreferencesUtil.signOutUser();
+                    authService.logout();
                     navigateToLandingWithAnimation();
                 }
                 finish();
@@ -110,8 +213,9 @@ public class SplashActivity extends BaseActivity {
 
             @Override
             public void onFailed(Exception e) {
-                sharedPreferencesUtil.signOutUser();
-                navigateToLandingWithAnimation();
+                if (navigated) return;
+                navigated = true;
+                navigateToUserHome(cachedUser);
                 finish();
             }
         });
@@ -13,6 +13,7 @@ import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -27,6 +28,7 @@ import com.example.sagivproject.dialogs.ConfirmDialog;
 import com.example.sagivproject.models.DailyStats;
 import com.example.sagivproject.models.GraphData;
 import com.example.sagivproject.models.MedicationUsage;
+import com.example.sagivproject.models.MedicationUsagePage;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IMedicationService;
@@ -38,7 +40,7 @@ import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -55,7 +57,7 @@ import dagger.hilt.android.AndroidEntryPoint;
  * This screen features:
  * <ul>
  * <li>Interactive XY graphs for tracking memory game performance, math accuracy, and medication compliance over time.</li>
- * <li>A filterable historical log of medication usage events.</li>
+ * <li>A filterable historical log of medication usage events, whose older days are read page by page as the user scrolls back.</li>
  * <li>Administrative mode: allowing admins to select and view stats for any regular user in the system.</li>
  * <li>Date-based filtering using a calendar picker for usage logs.</li>
  * </ul>
@@ -64,6 +66,16 @@ import dagger.hilt.android.AndroidEntryPoint;
  */
 @AndroidEntryPoint
 public class UserStatsActivity extends BaseActivity {
+    /**
+     * Number of logged days loaded per page of medication history.
+     */
+    private static final int LOG_PAGE_DAYS = 14;
+
+    /**
+     * How close to the end of the loaded history, in rows, the next older page is read.
+     */
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     /**
      * Internal list of users available for selection in Admin mode.
      */
@@ -116,9 +128,25 @@ public class UserStatsActivity extends BaseActivity {
     private String filteredDate = null;
 
     /**
-     * The complete list of usage logs for the currently selected user.
+     * The usage logs loaded so far for the currently selected user, keyed by date.
+     */
+    private final Map<String, List<MedicationUsage>> logsByDate = new HashMap<>();
+
+    /**
+     * Whether the first page of usage logs has been loaded for the selected user.
      */
-    private List<MedicationUsage> allLogs = new ArrayList<>();
+    private boolean logsLoaded = false;
+
+    /**
+     * Oldest date from which all logs are loaded, or null once the whole history is loaded.
+     * It is also the cursor for reading the next, older page.
+     */
+    private String logsLoadedFrom = null;
+
+    /**
+     * Whether an older page of the whole history is being read while scrolling.
+     */
+    private boolean loadingOlderLogs = false;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -192,37 +220,48 @@ public class UserStatsActivity extends BaseActivity {
     private void openCalendar() {
         calendarUtil.openDatePicker(this, filteredDate, (dateMillis, dbDate, formattedDate) -> {
             filteredDate = dbDate;
-            applyFilter();
-            if (usageAdapter != null && usageAdapter.getItemCount() == 0) {
-                ConfirmDialog dialog = confirmDialogProvider.get();
-                dialog.setData("שגיאה", "לא נמצא תיעוד לתאריך זה.", "אישור", null, () -> {
-                });
-                dialog.show(getSupportFragmentManager(), "ErrorDialog");
-            }
+            ensureLogsLoaded(dbDate, () -> {
+                applyFilter();
+                if (usageAdapter != null && usageAdapter.getItemCount() == 0) {
+                    ConfirmDialog dialog = confirmDialogProvider.get();
+                    dialog.setData("שגיאה", "לא נמצא תיעוד לתאריך זה.", "אישור", null, () -> {
+                    });
+                    dialog.show(getSupportFragmentManager(), "ErrorDialog");
+                }
+            });
         }, false, true, CalendarUtil.DEFAULT_DATE_FORMAT);
     }
 
     /**
-     * Filters the {@link #allLogs} list based on the selected {@link #filteredDate}.
+     * Filters the loaded {@link #logsByDate} based on the selected {@link #filteredDate}.
      */
     private void applyFilter() {
-        if (allLogs.isEmpty() && filteredDate == null) {
+        boolean noHistory = logsByDate.isEmpty() && logsLoadedFrom == null;
+        if (noHistory && filteredDate == null) {
             txtNoHistory.setVisibility(View.VISIBLE);
             recyclerMedicationLogs.setVisibility(View.GONE);
             txtSelectedDate.setVisibility(View.GONE);
             return;
         }
 
-        txtNoHistory.setVisibility(allLogs.isEmpty() ? View.VISIBLE : View.GONE);
-        recyclerMedicationLogs.setVisibility(allLogs.isEmpty() ? View.GONE : View.VISIBLE);
+        txtNoHistory.setVisibility(noHistory ? View.VISIBLE : View.GONE);
+        recyclerMedicationLogs.setVisibility(noHistory ? View.GONE : View.VISIBLE);
         txtSelectedDate.setVisibility(View.VISIBLE);
 
         if (filteredDate == null) {
-            if (usageAdapter != null) usageAdapter.setData(allLogs);
-            txtSelectedDate.setText("מציג את כל ההיסטוריה");
+            List<MedicationUsage> loadedLogs = new TreeMap<>(logsByDate).descendingMap().values().stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+            if (usageAdapter != null) usageAdapter.setData(loadedLogs);
+            if (logsLoadedFrom == null) {
+                txtSelectedDate.setText("מציג את כל ההיסטוריה");
+            } else {
+                long millis = calendarUtil.parseDateFromDatabase(logsLoadedFrom);
+                String dateDisplay = (millis != -1) ? calendarUtil.formatDate(millis) : logsLoadedFrom;
+                txtSelectedDate.setText(String.format("מציג היסטוריה מתאריך: %s (גלול לטעינת ימים קודמים)", dateDisplay));
+            }
         } else {
-            DailyStats stats = currentUser.getDailyStats().get(filteredDate);
-            List<MedicationUsage> filtered = (stats != null) ? stats.getMedicationUsageLogs() : new ArrayList<>();
+            List<MedicationUsage> filtered = logsByDate.getOrDefault(filteredDate, new ArrayList<>());
 
             if (usageAdapter != null) usageAdapter.setData(filtered);
 
@@ -248,7 +287,7 @@ public class UserStatsActivity extends BaseActivity {
         if (loggedInUser.isAdmin()) {
             findViewById(R.id.card_user_selector).setVisibility(View.VISIBLE);
             showLoading();
-            userService.getUserList(new DatabaseCallback<>() {
+            userService.getUserList(IUserService.UserProjection.SUMMARY, new DatabaseCallback<>() {
                 @Override
                 public void onCompleted(List<User> list) {
                     hideLoading();
@@ -316,7 +355,7 @@ public class UserStatsActivity extends BaseActivity {
     private void fetchLatestUserData() {
         final String requestedUserId = currentUser.getId();
         showLoading();
-        userService.getUser(requestedUserId, new DatabaseCallback<>() {
+        userService.getUser(requestedUserId, IUserService.UserProjection.FULL, new DatabaseCallback<>() {
             @Override
             public void onCompleted(User updatedUser) {
                 hideLoading();
@@ -425,39 +464,108 @@ public class UserStatsActivity extends BaseActivity {
             dialog.show(getSupportFragmentManager(), "DeleteUsageDialog");
         });
         recyclerMedicationLogs.setAdapter(usageAdapter);
+        recyclerMedicationLogs.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null) return;
+                if (layoutManager.findLastVisibleItemPosition() >= usageAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadOlderLogs();
+                }
+            }
+        });
     }
 
     /**
-     * Loads the full medication usage history for the current user.
+     * Reads the next older page of the whole history and appends it, while no date is selected
+     * and older logs remain.
+     */
+    private void loadOlderLogs() {
+        if (filteredDate != null || !logsLoaded || logsLoadedFrom == null || loadingOlderLogs) return;
+
+        final String requestedUserId = currentUser.getId();
+        final String cursor = logsLoadedFrom;
+        loadingOlderLogs = true;
+        medicationService.getMedicationUsageLogs(requestedUserId, null, null, LOG_PAGE_DAYS, cursor, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(MedicationUsagePage page) {
+                loadingOlderLogs = false;
+                // The history was reloaded meanwhile, so this page may not follow the loaded one
+                if (!requestedUserId.equals(currentUser.getId()) || !cursor.equals(logsLoadedFrom)) return;
+                logsByDate.putAll(page.getLogsByDate());
+                logsLoadedFrom = page.getNextCursor();
+                applyFilter();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                loadingOlderLogs = false;
+                if (!requestedUserId.equals(currentUser.getId())) return;
+                Toast.makeText(UserStatsActivity.this, "שגיאה בטעינת היסטוריית התרופות", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Resets the loaded usage history and loads the most recent page for the current user.
      */
     private void loadMedicationLogs() {
         final String requestedUserId = currentUser.getId();
+        logsByDate.clear();
+        logsLoaded = false;
+        logsLoadedFrom = null;
         showLoading();
-        medicationService.getMedicationUsageLogs(requestedUserId, new DatabaseCallback<>() {
+        medicationService.getMedicationUsageLogs(requestedUserId, null, null, LOG_PAGE_DAYS, null, new DatabaseCallback<>() {
             @Override
-            public void onCompleted(List<MedicationUsage> list) {
+            public void onCompleted(MedicationUsagePage page) {
                 hideLoading();
                 if (!requestedUserId.equals(currentUser.getId())) return;
-                if (list != null) {
-                    allLogs = new ArrayList<>(list);
-                    Collections.reverse(allLogs);
-                    applyFilter();
-                } else {
-                    allLogs.clear();
-                    usageAdapter.setData(new ArrayList<>());
-                    applyFilter();
-                }
-                updateResetButtonState();
+                logsByDate.putAll(page.getLogsByDate());
+                logsLoadedFrom = page.getNextCursor();
+                logsLoaded = true;
+                ensureLogsLoaded(filteredDate, this::applyFilter);
             }
 
             @Override
             public void onFailed(Exception e) {
                 hideLoading();
                 if (!requestedUserId.equals(currentUser.getId())) return;
-                allLogs.clear();
-                usageAdapter.setData(new ArrayList<>());
                 applyFilter();
-                updateResetButtonState();
+            }
+        });
+    }
+
+    /**
+     * Makes sure the logs of a date are loaded, reading older pages back to it if needed.
+     *
+     * @param date     The date (yyyy-MM-dd) that is about to be shown, or null for the loaded history.
+     * @param onLoaded Invoked once the date is covered by the loaded history.
+     */
+    private void ensureLogsLoaded(@Nullable String date, Runnable onLoaded) {
+        if (!logsLoaded || date == null || logsLoadedFrom == null || date.compareTo(logsLoadedFrom) >= 0) {
+            onLoaded.run();
+            return;
+        }
+
+        final String requestedUserId = currentUser.getId();
+        showLoading();
+        medicationService.getMedicationUsageLogs(requestedUserId, date, null, LOG_PAGE_DAYS, logsLoadedFrom, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(MedicationUsagePage page) {
+                hideLoading();
+                if (!requestedUserId.equals(currentUser.getId())) return;
+                logsByDate.putAll(page.getLogsByDate());
+                // Without more pages in the range, everything from the requested date on is loaded
+                logsLoadedFrom = page.hasMore() ? page.getNextCursor() : date;
+                ensureLogsLoaded(date, onLoaded);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                hideLoading();
+                if (!requestedUserId.equals(currentUser.getId())) return;
+                Toast.makeText(UserStatsActivity.this, "שגיאה בטעינת היסטוריית התרופות", Toast.LENGTH_SHORT).show();
+                onLoaded.run();
             }
         });
     }
@@ -473,10 +581,10 @@ public class UserStatsActivity extends BaseActivity {
                 @Override
                 public void onCompleted(Void object) {
                     hideLoading();
-                    allLogs.clear();
+                    logsByDate.clear();
+                    logsLoadedFrom = null;
                     usageAdapter.setData(new ArrayList<>());
                     applyFilter();
-                    updateResetButtonState();
                     Toast.makeText(UserStatsActivity.this, "ההיסטוריה אופסה בהצלחה", Toast.LENGTH_SHORT).show();
                 }
 
@@ -521,11 +629,11 @@ public class UserStatsActivity extends BaseActivity {
      */
     private void updateResetButtonState() {
         if (btnClearMedLogs != null) {
-            btnClearMedLogs.setEnabled(!allLogs.isEmpty());
+            btnClearMedLogs.setEnabled(!logsByDate.isEmpty() || logsLoadedFrom != null);
         }
         if (btnClearDay != null) {
-            DailyStats stats = (filteredDate != null) ? currentUser.getDailyStats().get(filteredDate) : null;
-            btnClearDay.setEnabled(stats != null && stats.getMedicationUsageLogs() != null && !stats.getMedicationUsageLogs().isEmpty());
+            List<MedicationUsage> dayLogs = (filteredDate != null) ? logsByDate.get(filteredDate) : null;
+            btnClearDay.setEnabled(dayLogs != null && !dayLogs.isEmpty());
         }
     }
 }
\ No newline at end of file
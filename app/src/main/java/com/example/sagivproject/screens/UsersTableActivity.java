@@ -62,9 +62,6 @@ public class UsersTableActivity extends BaseActivity {
     @Inject
     protected UsersTableAdapter adapter;
 
-    @Inject
-    protected IAuthService authService;
-
     @Inject
     protected IUserService userService;
 
@@ -139,6 +136,7 @@ public class UsersTableActivity extends BaseActivity {
                             hideLoading();
                             usersMap.put(resultUser.getId(), resultUser);
                             if (resultUser.getId().equals(currentUser.getId())) {
+                                resultUser.copyCollectionsFrom(currentUser);
                                 sharedPreferencesUtil.saveUser(resultUser);
                                 currentUser = resultUser;
                             }
@@ -162,7 +160,7 @@ public class UsersTableActivity extends BaseActivity {
                 Drawable drawable = imageView.getDrawable();
                 if (drawable != null) {
                     FullImageDialog dialog = fullImageDialogProvider.get();
-                    dialog.setImage(drawable);
+                    dialog.setImage(user.getProfileImage(), drawable);
                     dialog.show(getSupportFragmentManager(), "FullImageDialog");
                 }
             }
@@ -237,7 +235,7 @@ public class UsersTableActivity extends BaseActivity {
      */
     private void loadUsers() {
         showLoading();
-        userService.getUserList(new DatabaseCallback<>() {
+        userService.getUserList(IUserService.UserProjection.PROFILE, new DatabaseCallback<>() {
             @Override
             public void onCompleted(List<User> list) {
                 hideLoading();
@@ -278,6 +276,7 @@ public class UsersTableActivity extends BaseActivity {
                 usersMap.put(updatedUser.getId(), updatedUser);
 
                 if (updatedUser.getId().equals(currentUser.getId())) {
+                    updatedUser.copyCollectionsFrom(currentUser);
                     sharedPreferencesUtil.saveUser(updatedUser);
                     currentUser = updatedUser;
 
@@ -314,7 +313,7 @@ public class UsersTableActivity extends BaseActivity {
             public void onCompleted(Void object) {
                 hideLoading();
                 if (user.getId().equals(currentUser.getId())) {
-                    sharedPreferencesUtil.signOutUser();
+                    authService.logout();
                     onNavigate(new Intent(UsersTableActivity.this, LandingActivity.class)
                             .addFlags(Intent.FLAG_ACTIVITY_CLEAR_TASK | Intent.FLAG_ACTIVITY_NEW_TASK));
                     return;
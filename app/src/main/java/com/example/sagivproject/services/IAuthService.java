@@ -56,6 +56,11 @@ public interface IAuthService {
      */
     void updateUser(User user, String newFirstName, String newLastName, String newBirthDate, String newEmail, String newPassword, UpdateUserCallback callback);
 
+    /**
+     * Ends the local session of the logged-in user and stops keeping their data synced.
+     */
+    void logout();
+
     /**
      * Callback interface for user login results.
      */
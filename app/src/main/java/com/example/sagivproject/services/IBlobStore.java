@@ -0,0 +1,64 @@
+package com.example.sagivproject.services;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A content-addressed store for binary objects such as images.
+ * <p>
+ * Every blob is identified by the lowercase hex SHA-256 hash of its bytes, so identical content
+ * is stored only once and the hash can be kept in the database in place of the data itself.
+ * Callbacks are invoked on the main thread.
+ * </p>
+ * <p>
+ * Renditions derived from a blob, such as image thumbnails, are stored side by side with it
+ * under the blob's hash and a variant name, so a single hash references all of them.
+ * </p>
+ */
+public interface IBlobStore {
+    /**
+     * Stores a blob, unless a blob with the same content is already stored.
+     *
+     * @param data     The bytes to store.
+     * @param callback The callback invoked with the content hash of the blob.
+     */
+    void put(@NonNull byte[] data, @NonNull DatabaseCallback<String> callback);
+
+    /**
+     * Retrieves the bytes of a blob.
+     *
+     * @param hash     The content hash returned by {@link #put}.
+     * @param callback The callback invoked with the bytes, or failed if no such blob exists.
+     */
+    void get(@NonNull String hash, @NonNull DatabaseCallback<byte[]> callback);
+
+    /**
+     * Stores a rendition derived from a blob next to it.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param data     The bytes of the rendition.
+     * @param callback The callback invoked once the rendition is stored.
+     */
+    void putVariant(@NonNull String hash, @NonNull String variant, @NonNull byte[] data, @NonNull DatabaseCallback<Void> callback);
+
+    /**
+     * Retrieves a rendition stored with {@link #putVariant}.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param callback The callback invoked with the bytes, or failed if no such rendition exists.
+     */
+    void getVariant(@NonNull String hash, @NonNull String variant, @NonNull DatabaseCallback<byte[]> callback);
+
+    /**
+     * Builds the name a rendition is stored under.
+     *
+     * @param hash    The content hash of the original blob.
+     * @param variant The name of the rendition.
+     * @return The storage name, {@code {hash}_{variant}}.
+     */
+    @NonNull
+    static String variantName(@NonNull String hash, @NonNull String variant) {
+        return hash + "_" + variant;
+    }
+}
@@ -2,9 +2,11 @@ package com.example.sagivproject.services;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
 
 import com.example.sagivproject.models.ForumCategory;
 import com.example.sagivproject.models.ForumMessage;
+import com.example.sagivproject.models.ForumReadMarker;
 import com.example.sagivproject.models.User;
 
 import java.util.List;
@@ -23,7 +25,8 @@ public interface IForumService {
      * Sends a new message to a specific forum category.
      * <p>
      * To optimize storage, this method ensures only the message text, timestamp, and sender ID
-     * are persisted. Full user details are not duplicated in the forum branch.
+     * are persisted. Full user details are not duplicated in the forum branch. The sender's
+     * read marker advances with the message, so it does not count as unread for them.
      * </p>
      *
      * @param user       The {@link User} sending the message (used to extract the user ID).
@@ -33,27 +36,66 @@ public interface IForumService {
      */
     void sendMessage(User user, String text, String categoryId, @Nullable DatabaseCallback<Void> callback);
 
+    /**
+     * Marks every message currently in a category as read by a user.
+     *
+     * @param userId     The UID of the reader.
+     * @param categoryId The ID of the category.
+     * @param callback   An optional callback invoked upon completion.
+     */
+    void markCategoryRead(@NonNull String userId, String categoryId, @Nullable DatabaseCallback<Void> callback);
+
+    /**
+     * Retrieves a user's read markers for all categories, with real-time updates.
+     * <p>
+     * Together with the post counts of {@link #getCategories}, the markers give the number of
+     * unread messages of every category (see {@link ForumCategory#countUnread}) without opening
+     * a listener on any category's messages. Updates are delivered only while the owner is
+     * started, and the listener is released when the owner is destroyed.
+     * </p>
+     *
+     * @param owner    The lifecycle (usually the calling activity) that scopes the listener.
+     * @param userId   The UID of the reader.
+     * @param callback A callback invoked with the markers by category ID whenever they change.
+     */
+    void getReadMarkers(@NonNull LifecycleOwner owner, @NonNull String userId, DatabaseCallback<Map<String, ForumReadMarker>> callback);
+
     /**
      * Attaches a listener to a forum category to receive real-time message updates.
      * <p>
-     * The returned {@link ForumMessage} objects will have their sender details (name, email, role)
-     * automatically populated by the service by cross-referencing the user database.
+     * The latest messages are delivered once as a batch; after that each added, changed or
+     * removed message is delivered on its own. The sender of every delivered message has already
+     * been resolved in the {@link IUserDirectory}.
      * </p>
      *
      * @param categoryId The unique identifier of the forum category to monitor.
-     * @param callback   The callback that will be invoked with the updated list of {@link ForumMessage} objects.
+     * @param listener   The listener that receives the messages and their changes.
+     */
+    void listenToMessages(String categoryId, IForumMessageListener listener);
+
+    /**
+     * Fetches the page of messages just before a cursor, for pagination.
+     * <p>
+     * The cursor is a message: its timestamp and ID together mark an exact position, so messages
+     * sharing a timestamp are neither skipped nor read twice.
+     * </p>
+     *
+     * @param categoryId The ID of the category.
+     * @param before     The oldest message currently loaded, or null to fetch the latest page.
+     * @param limit      How many messages to fetch.
+     * @param callback   The callback with the messages, oldest first.
      */
-    void listenToMessages(String categoryId, DatabaseCallback<List<ForumMessage>> callback);
+    void loadOlderMessages(String categoryId, @Nullable ForumMessage before, int limit, DatabaseCallback<List<ForumMessage>> callback);
 
     /**
-     * Fetches older messages for pagination.
+     * Fetches the page of messages just after a cursor, for paging back toward the latest messages.
      *
-     * @param categoryId      The ID of the category.
-     * @param oldestTimestamp The timestamp of the oldest message currently loaded.
-     * @param limit           How many more messages to fetch.
-     * @param callback        The callback with the list of older messages.
+     * @param categoryId The ID of the category.
+     * @param after      The newest message currently loaded.
+     * @param limit      How many messages to fetch.
+     * @param callback   The callback with the messages, oldest first.
      */
-    void loadOlderMessages(String categoryId, String oldestTimestamp, int limit, DatabaseCallback<List<ForumMessage>> callback);
+    void loadNewerMessages(String categoryId, @NonNull ForumMessage after, int limit, DatabaseCallback<List<ForumMessage>> callback);
 
     /**
      * Deletes a specific message from a forum category.
@@ -73,10 +115,16 @@ public interface IForumService {
 
     /**
      * Retrieves a list of all forum categories from the database, with real-time updates.
+     * <p>
+     * Categories are read from a lightweight index holding each category's name, message and
+     * post counts and last activity, without their messages. Updates are delivered only while the owner is
+     * started, and the listener is released when the owner is destroyed.
+     * </p>
      *
+     * @param owner    The lifecycle (usually the calling activity) that scopes the listener.
      * @param callback A callback to be invoked with the list of categories whenever the data changes.
      */
-    void getCategories(DatabaseCallback<List<ForumCategory>> callback);
+    void getCategories(@NonNull LifecycleOwner owner, DatabaseCallback<List<ForumCategory>> callback);
 
     /**
      * Adds a new forum category to the database.
@@ -104,12 +152,42 @@ public interface IForumService {
     void updateCategoryName(String categoryId, String newName, DatabaseCallback<Void> callback);
 
     /**
-     * @return A map of cached users indexed by their unique identifier.
+     * Listener for the messages of a category followed by {@link #listenToMessages}.
      */
-    Map<String, User> getUserCache();
+    interface IForumMessageListener {
+        /**
+         * Invoked once with the latest messages of the category when listening starts.
+         *
+         * @param messages The latest messages, from the oldest.
+         */
+        void onMessagesLoaded(@NonNull List<ForumMessage> messages);
 
-    /**
-     * Clears the internal user cache to force re-fetching of sender details.
-     */
-    void clearUserCache();
+        /**
+         * Invoked when a message is sent to the category.
+         *
+         * @param message The new message.
+         */
+        void onMessageAdded(@NonNull ForumMessage message);
+
+        /**
+         * Invoked when a followed message is edited.
+         *
+         * @param message The new version of the message.
+         */
+        void onMessageChanged(@NonNull ForumMessage message);
+
+        /**
+         * Invoked when a followed message is deleted.
+         *
+         * @param messageId The ID of the deleted message.
+         */
+        void onMessageRemoved(@NonNull String messageId);
+
+        /**
+         * Invoked when the messages could not be read.
+         *
+         * @param e The exception that occurred.
+         */
+        void onFailed(Exception e);
+    }
 }
\ No newline at end of file
@@ -4,15 +4,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.sagivproject.models.ImageData;
+import com.example.sagivproject.utils.ImageVariant;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * An interface that defines the contract for operations related to game card images.
  * <p>
  * This service manages the repository of images used as card faces in the memory game.
  * It provides methods for retrieving the full image list, uploading new images,
- * and performing batch updates for reordering or mass deletion.
+ * and applying change sets for renumbering or mass deletion.
+ * </p>
+ * <p>
+ * The image content lives in the {@link IBlobStore}; the database records only reference it by
+ * content hash.
  * </p>
  */
 public interface IImageService {
@@ -26,22 +32,50 @@ public interface IImageService {
     /**
      * Stores a new image record in the database.
      *
-     * @param image    The {@link ImageData} object containing the Base64 content and ID.
+     * @param image    The {@link ImageData} object containing the content hash and ID.
      * @param callback An optional callback invoked upon completion.
      */
     void createImage(@NonNull ImageData image, @Nullable DatabaseCallback<Void> callback);
 
     /**
-     * Replaces the entire image collection in the database with a new list.
+     * Stores the variants of a new image in the {@link IBlobStore} and creates its record.
+     *
+     * @param imageId  The identifier of the new image.
+     * @param variants The compressed variants of the image.
+     * @param callback The callback invoked with the created {@link ImageData}.
+     */
+    void uploadImage(@NonNull String imageId, @NonNull Map<ImageVariant, byte[]> variants, @NonNull DatabaseCallback<ImageData> callback);
+
+    /**
+     * Picks random images without downloading the catalog.
+     *
+     * @param count    The number of image IDs to pick.
+     * @param callback The callback invoked with the IDs; fewer than requested if the catalog is smaller.
+     */
+    void pickRandomImageIds(int count, @NonNull DatabaseCallback<List<String>> callback);
+
+    /**
+     * Retrieves specific images by ID, in parallel.
+     *
+     * @param imageIds The IDs of the images.
+     * @param callback The callback invoked with the images found, in the requested order.
+     */
+    void getImages(@NonNull List<String> imageIds, @NonNull DatabaseCallback<List<ImageData>> callback);
+
+    /**
+     * Applies a set of catalog changes in a single multi-path update.
      * <p>
-     * This method is useful for administrative tasks like reordering IDs or
-     * syncing a local state with the database in a single operation.
+     * Only the records (and index entries) of the affected images are written, so renumbering
+     * or removing an image costs the same regardless of the catalog size. Renaming moves a
+     * record to a new ID; the old ID may be reused by another change in the same set.
      * </p>
      *
-     * @param list     The complete list of {@link ImageData} objects to be saved.
-     * @param callback A callback invoked when the batch update is finished.
+     * @param added    The images to create.
+     * @param removed  The IDs of the images to delete.
+     * @param renamed  The images to move, keyed by their current ID and carrying their new ID.
+     * @param callback An optional callback invoked when the update is finished.
      */
-    void updateAllImages(List<ImageData> list, DatabaseCallback<Void> callback);
+    void applyImageChanges(@NonNull List<ImageData> added, @NonNull List<String> removed, @NonNull Map<String, ImageData> renamed, @Nullable DatabaseCallback<Void> callback);
 
     /**
      * Removes a specific image from the database by its identifier.
@@ -50,4 +84,13 @@ public interface IImageService {
      * @param callback An optional callback invoked upon completion.
      */
     void deleteImage(@NonNull String imageId, @Nullable DatabaseCallback<Void> callback);
+
+    /**
+     * One-shot migration of inline Base64 images into the {@link IBlobStore}.
+     * Each image is uploaded and its record switched to the content hash in a single update.
+     * Records that already have a hash are skipped, so running it again is a no-op.
+     *
+     * @param callback An optional callback invoked with the number of migrated images.
+     */
+    void migrateImagesToBlobStore(@Nullable DatabaseCallback<Integer> callback);
 }
\ No newline at end of file
@@ -4,7 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.sagivproject.models.Medication;
-import com.example.sagivproject.models.MedicationUsage;
+import com.example.sagivproject.models.MedicationUsagePage;
 
 import java.util.List;
 
@@ -23,13 +23,6 @@ public interface IMedicationService {
      */
     String generateMedicationId();
 
-    /**
-     * Generates a new, unique identifier for a medication usage log.
-     *
-     * @return A unique usage ID string.
-     */
-    String generateUsageId();
-
     /**
      * Creates a new medication record associated with a specific user.
      *
@@ -66,12 +59,21 @@ public interface IMedicationService {
     void updateMedication(String uid, Medication medication, @Nullable DatabaseCallback<Void> callback);
 
     /**
-     * Retrieves all historical medication usage logs for a specific user.
+     * Retrieves one page of a user's medication usage logs within a date range, newest first.
+     * <p>
+     * A page holds up to {@code pageSize} days that have logs. Pass the
+     * {@link MedicationUsagePage#getNextCursor() cursor} of the previous page to continue
+     * further back in time; when a cursor is given it replaces {@code toDate} as the upper bound.
+     * </p>
      *
      * @param uid      The unique identifier of the user.
-     * @param callback The callback invoked with the list of usage logs.
+     * @param fromDate The oldest date to include (yyyy-MM-dd), or null for no lower bound.
+     * @param toDate   The newest date to include (yyyy-MM-dd), or null for no upper bound.
+     * @param pageSize The maximum number of days in the page.
+     * @param cursor   The cursor of the previous page, or null for the first page.
+     * @param callback The callback invoked with the page.
      */
-    void getMedicationUsageLogs(@NonNull String uid, @NonNull DatabaseCallback<List<MedicationUsage>> callback);
+    void getMedicationUsageLogs(@NonNull String uid, @Nullable String fromDate, @Nullable String toDate, int pageSize, @Nullable String cursor, @NonNull DatabaseCallback<MedicationUsagePage> callback);
 
     /**
      * Clears all historical medication usage logs for a specific user.
@@ -4,6 +4,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.GameMove;
+import com.example.sagivproject.models.GameResult;
 import com.example.sagivproject.models.GameRoom;
 import com.example.sagivproject.models.User;
 
@@ -13,18 +15,33 @@ import java.util.List;
  * An interface that defines the contract for operations related to the online memory game.
  * <p>
  * This service manages matchmaking (finding or creating rooms), game board initialization,
- * real-time state synchronization (card flips, scores, turns), and automatic forfeit handling.
+ * real-time state synchronization (moves applied as single atomic updates), and automatic forfeit handling.
  * </p>
  */
 public interface IMemoryGameService {
     /**
-     * Finds an available game room with a "waiting" status or creates a new one if none exist.
+     * Claims a waiting opponent from the matchmaking queue, or enqueues the user if none is waiting.
+     * <p>
+     * When an opponent is claimed, the callback receives the created room in the "playing" state.
+     * Otherwise it receives a local "waiting" room whose ID the user should listen to; the room
+     * node itself is only written once an opponent claims the ticket.
+     * </p>
      *
      * @param user     The {@link User} looking for a game session.
-     * @param callback The callback invoked with the joined or newly created {@link GameRoom}.
+     * @param callback The callback invoked with the joined or waiting {@link GameRoom}.
      */
     void findOrCreateRoom(User user, DatabaseCallback<GameRoom> callback);
 
+    /**
+     * Re-runs matchmaking for a user who is still waiting, to pair players that were enqueued
+     * in different queue shards at the same time.
+     *
+     * @param waitingRoom The waiting room previously returned by {@link #findOrCreateRoom}.
+     * @param user        The {@link User} looking for a game session.
+     * @param callback    The callback invoked with the resulting room, which may have a different ID.
+     */
+    void retryMatchmaking(@NonNull GameRoom waitingRoom, @NonNull User user, @NonNull DatabaseCallback<GameRoom> callback);
+
     /**
      * Retrieves all active game rooms from the database with real-time updates.
      *
@@ -37,6 +54,24 @@ public interface IMemoryGameService {
      */
     void stopAllRoomsRealtime();
 
+    /**
+     * Retrieves the archived results of the games finished during a specific month.
+     * Finished rooms are moved out of the live rooms node into this monthly history.
+     *
+     * @param monthKey The month to read, in "yyyy-MM" format.
+     * @param callback The callback invoked with the results, newest first.
+     */
+    void getGameHistory(@NonNull String monthKey, @NonNull DatabaseCallback<List<GameResult>> callback);
+
+    /**
+     * Archives finished rooms that were left in the live rooms node, e.g. when the app was
+     * killed between finishing a game and archiving it, and removes expired matchmaking cancel
+     * markers. Safe to run repeatedly.
+     *
+     * @param callback An optional callback invoked with the number of rooms archived.
+     */
+    void archiveFinishedRooms(@Nullable DatabaseCallback<Integer> callback);
+
     /**
      * Attaches a listener to monitor the status changes of a specific game room (e.g., transitions to "playing" or "finished").
      *
@@ -53,7 +88,7 @@ public interface IMemoryGameService {
     void removeRoomListener(@NonNull String roomId);
 
     /**
-     * Cancels or deletes a game room from the database.
+     * Cancels a pending search by removing its matchmaking ticket, and deletes the room if its game has not started.
      *
      * @param roomId   The unique identifier of the room to cancel.
      * @param callback An optional callback invoked upon completion.
@@ -61,7 +96,8 @@ public interface IMemoryGameService {
     void cancelRoom(@NonNull String roomId, @Nullable DatabaseCallback<Void> callback);
 
     /**
-     * Initializes the game board by distributing cards and setting the first turn.
+     * Initializes the game board by distributing cards, setting the first turn and starting the
+     * turn and game deadlines.
      *
      * @param roomId       The unique identifier of the room.
      * @param cards        The list of {@link Card} objects representing the board layout.
@@ -71,12 +107,17 @@ public interface IMemoryGameService {
     void initGameBoard(String roomId, List<Card> cards, String firstTurnUid, @Nullable DatabaseCallback<Void> callback);
 
     /**
-     * Attaches a real-time listener to a specific game session to synchronize moves and scores.
+     * Follows a specific game session field by field.
+     * <p>
+     * The room is read once and reported to {@link IGameEventListener#onRoomLoaded}; after that
+     * only the changed card or field is read and reported as a typed event, instead of the whole
+     * room on every move. The loaded room object is kept up to date by the stream.
+     * </p>
      *
      * @param roomId   The unique identifier of the game room.
-     * @param callback The callback invoked with the current {@link GameRoom} state on every change.
+     * @param listener The {@link IGameEventListener} to report the changes to.
      */
-    void listenToGame(String roomId, DatabaseCallback<GameRoom> callback);
+    void listenToGame(@NonNull String roomId, @NonNull IGameEventListener listener);
 
     /**
      * Detaches the real-time listener from a specific game session.
@@ -86,40 +127,19 @@ public interface IMemoryGameService {
     void stopListeningToGame(String roomId);
 
     /**
-     * Updates a specific top-level field in a game room's database record.
-     *
-     * @param roomId The unique identifier of the room.
-     * @param field  The name of the field to modify.
-     * @param value  The new value to assign to the field.
-     */
-    void updateRoomField(String roomId, String field, Object value);
-
-    /**
-     * Increments the score counter for a specific player within a game session.
-     *
-     * @param roomId    The unique identifier of the room.
-     * @param playerUid The UID of the player whose score should be increased.
-     * @param callback  An optional callback invoked upon completion.
-     */
-    void incrementScore(String roomId, String playerUid, @Nullable DatabaseCallback<Void> callback);
-
-    /**
-     * Updates the interactive state (revealed/matched) of a specific card on the board.
+     * Applies a move to a game session as one atomic multi-path update.
+     * <p>
+     * Card flips, score points (added with a server-side increment), the selected card, the
+     * processing flag and the turn change of the move are written together, so both players'
+     * listeners see the whole move in a single update. A move that requires a turn deadline is
+     * only applied if the room still has that deadline.
+     * </p>
      *
      * @param roomId   The unique identifier of the room.
-     * @param index    The position of the card in the board list.
-     * @param revealed Whether the card is currently face-up.
-     * @param matched  Whether the card has been successfully matched.
-     */
-    void updateCardStatus(String roomId, int index, boolean revealed, boolean matched);
-
-    /**
-     * Sets whether the game session is currently processing a match check to prevent concurrent clicks.
-     *
-     * @param roomId       The unique identifier of the room.
-     * @param isProcessing true if an animation or validation is in progress.
+     * @param move     The {@link GameMove} to apply.
+     * @param callback An optional callback invoked upon completion.
      */
-    void setProcessing(String roomId, boolean isProcessing);
+    void applyMove(@NonNull String roomId, @NonNull GameMove move, @Nullable DatabaseCallback<Void> callback);
 
     /**
      * Marks the game session as finished and identifies the winner based on final scores or forfeit.
@@ -145,6 +165,68 @@ public interface IMemoryGameService {
      */
     void removeForfeitOnDisconnect(String roomId);
 
+    /**
+     * Listener for the changes of a game session followed by {@link #listenToGame}.
+     */
+    interface IGameEventListener {
+        /**
+         * Invoked once with the state of the room when the stream starts.
+         *
+         * @param room The room. The same object is updated as later events arrive.
+         */
+        void onRoomLoaded(@NonNull GameRoom room);
+
+        /**
+         * Invoked when the board of a room that had no cards is dealt.
+         *
+         * @param cards The cards of the board.
+         */
+        void onBoardChanged(@NonNull List<Card> cards);
+
+        /**
+         * Invoked when a single card is flipped or matched.
+         *
+         * @param index The position of the card on the board.
+         * @param card  The new state of the card.
+         */
+        void onCardChanged(int index, @NonNull Card card);
+
+        /**
+         * Invoked when the turn passes to another player or its deadline is renewed
+         * (e.g. after a match).
+         *
+         * @param currentTurnUid The UID of the player whose turn it is.
+         */
+        void onTurnChanged(@Nullable String currentTurnUid);
+
+        /**
+         * Invoked when a player's score changes.
+         *
+         * @param player1Score The score of the first player.
+         * @param player2Score The score of the second player.
+         */
+        void onScoreChanged(int player1Score, int player2Score);
+
+        /**
+         * Invoked when the status, winner or stats flag of the room changes.
+         *
+         * @param room The updated room.
+         */
+        void onStatusChanged(@NonNull GameRoom room);
+
+        /**
+         * Invoked when the room no longer exists, e.g. after it was archived.
+         */
+        void onRoomRemoved();
+
+        /**
+         * Invoked if an error occurs while following the room.
+         *
+         * @param e The exception encountered.
+         */
+        void onFailed(Exception e);
+    }
+
     /**
      * Callback interface for receiving significant game room status transitions.
      */
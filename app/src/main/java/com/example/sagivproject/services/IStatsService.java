@@ -3,8 +3,12 @@ package com.example.sagivproject.services;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.sagivproject.models.DailyStats;
+import com.example.sagivproject.models.LeaderboardEntry;
 import com.example.sagivproject.models.MedicationUsage;
 
+import java.util.List;
+
 /**
  * An interface that defines the contract for operations related to tracking user activity statistics.
  * <p>
@@ -18,7 +22,8 @@ public interface IStatsService {
      * Updates the daily math statistics for a specific user.
      * <p>
      * This method increments either the 'correct' or 'wrong' counter for the current calendar date
-     * using an atomic transaction to ensure data consistency.
+     * using server-side increments. Answers given within a short window are batched into one write;
+     * call {@link #flushPendingStats()} to send them immediately.
      * </p>
      *
      * @param uid     The unique identifier of the user.
@@ -26,11 +31,30 @@ public interface IStatsService {
      */
     void updateDailyMathStats(@NonNull String uid, boolean correct);
 
+    /**
+     * Immediately writes any batched statistics that are still pending.
+     * Should be called when the screen producing them goes to the background.
+     */
+    void flushPendingStats();
+
+    /**
+     * Retrieves a user's statistics for a single day, without loading the rest of the user.
+     * With {@link ReadMode#CACHED_THEN_FRESH} the callback completes with the cached day first
+     * and again with the server copy if it differs.
+     *
+     * @param uid      The unique identifier of the user.
+     * @param date     The date, in "yyyy-MM-dd" format.
+     * @param mode     How the read is served.
+     * @param callback The callback invoked with the statistics, or null if nothing was recorded that day.
+     */
+    void getDailyStats(@NonNull String uid, @NonNull String date, @NonNull ReadMode mode, @NonNull DatabaseCallback<DailyStats> callback);
+
     /**
      * Updates the daily memory statistics for a specific user.
      * <p>
      * This method increments the 'memoryGamesPlayed' counter and the 'memoryWins' counter
-     * if the user won the game for the current calendar date using an atomic transaction.
+     * if the user won the game for the current calendar date. The user's leaderboard entry is
+     * updated atomically in the same multi-path write.
      * </p>
      *
      * @param uid   The unique identifier of the user.
@@ -38,8 +62,18 @@ public interface IStatsService {
      */
     void updateDailyMemoryStats(@NonNull String uid, boolean isWin);
 
+    /**
+     * Retrieves the top-ranked memory game players from the leaderboard. Administrators and
+     * players without wins are not ranked.
+     *
+     * @param limit    The maximum number of players to return.
+     * @param callback The callback invoked with the players, sorted by total wins (highest first).
+     */
+    void getTopPlayers(int limit, @NonNull DatabaseCallback<List<LeaderboardEntry>> callback);
+
     /**
      * Logs a medication intake event and updates the daily performance statistics for today.
+     * Logging the same dose (medication and scheduled time) again replaces the previous log.
      *
      * @param uid      User identifier.
      * @param usage    Usage record details.
@@ -0,0 +1,70 @@
+package com.example.sagivproject.services;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.UserSummary;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * An app-wide directory of other users' {@link UserSummary summaries}, used to show who sent a
+ * forum message or played a game.
+ * <p>
+ * Summaries are cached in memory for a limited time and up to a fixed number of users, shared by
+ * every screen. Concurrent requests for the same user share one database read, and the hits,
+ * misses and reads are counted so the cache can be tuned.
+ * </p>
+ */
+public interface IUserDirectory {
+    /**
+     * Resolves the summary of a single user, from the cache when it is fresh.
+     *
+     * @param uid      The UID of the user.
+     * @param callback The callback invoked with the summary, or null if the user does not exist.
+     */
+    void getUser(@NonNull String uid, @NonNull DatabaseCallback<UserSummary> callback);
+
+    /**
+     * Resolves the summaries of several users at once. Only the users missing from the cache are
+     * read, in parallel.
+     *
+     * @param uids     The UIDs of the users. Duplicates and nulls are ignored.
+     * @param callback The callback invoked with the summaries of the users that exist, by UID.
+     *                 It fails only if every read failed.
+     */
+    void getUsers(@NonNull Collection<String> uids, @NonNull DatabaseCallback<Map<String, UserSummary>> callback);
+
+    /**
+     * Returns the cached summary of a user, even if it is no longer fresh, without reading the
+     * database. Meant for binding list rows after the users were resolved.
+     *
+     * @param uid The UID of the user.
+     * @return The cached summary, or null if the user is not cached.
+     */
+    @Nullable
+    UserSummary peek(@Nullable String uid);
+
+    /**
+     * Drops the cached summary of a user, so the next request reads it again.
+     *
+     * @param uid The UID of the user.
+     */
+    void invalidate(@NonNull String uid);
+
+    /**
+     * @return The number of requests served from the cache.
+     */
+    long getHitCount();
+
+    /**
+     * @return The number of requests that found no fresh summary in the cache.
+     */
+    long getMissCount();
+
+    /**
+     * @return The number of summaries read from the database. Coalesced requests share one read.
+     */
+    long getLoadCount();
+}
@@ -4,14 +4,17 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.sagivproject.models.User;
+import com.example.sagivproject.utils.ImageVariant;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * An interface that defines the contract for database operations related to the {@link User} model.
  * <p>
  * This service manages all CRUD (Create, Read, Update, Delete) operations for users,
  * as well as specific queries like authentication and email validation.
+ * Reads take a {@link UserProjection} so callers fetch only the parts of the user they render.
  * </p>
  */
 public interface IUserService {
@@ -33,17 +36,40 @@ public interface IUserService {
     /**
      * Retrieves a single user from the database by their unique ID.
      *
-     * @param uid      The ID of the user to retrieve.
-     * @param callback The callback invoked with the retrieved {@link User} object.
+     * @param uid        The ID of the user to retrieve.
+     * @param projection The parts of the user to load.
+     * @param callback   The callback invoked with the retrieved {@link User} object.
      */
-    void getUser(@NonNull String uid, @NonNull DatabaseCallback<User> callback);
+    void getUser(@NonNull String uid, @NonNull UserProjection projection, @NonNull DatabaseCallback<User> callback);
+
+    /**
+     * Retrieves a single user from the database by their unique ID.
+     * With {@link ReadMode#CACHED_THEN_FRESH} the callback completes with the cached user first
+     * and again with the server copy if it differs.
+     *
+     * @param uid        The ID of the user to retrieve.
+     * @param projection The parts of the user to load.
+     * @param mode       How the read is served.
+     * @param callback   The callback invoked with the retrieved {@link User} object.
+     */
+    void getUser(@NonNull String uid, @NonNull UserProjection projection, @NonNull ReadMode mode, @NonNull DatabaseCallback<User> callback);
+
+    /**
+     * Keeps all of a user's nodes synced with the local disk cache.
+     * Called for the logged-in user so their screens render offline and on slow links.
+     *
+     * @param uid    The ID of the user.
+     * @param synced true to keep the nodes synced, false to release them.
+     */
+    void setUserSynced(@NonNull String uid, boolean synced);
 
     /**
      * Retrieves a list of all registered users from the database.
      *
-     * @param callback The callback invoked with the list of all users.
+     * @param projection The parts of each user to load.
+     * @param callback   The callback invoked with the list of all users.
      */
-    void getUserList(@NonNull DatabaseCallback<List<User>> callback);
+    void getUserList(@NonNull UserProjection projection, @NonNull DatabaseCallback<List<User>> callback);
 
     /**
      * Deletes a user account and its associated data from the database.
@@ -58,7 +84,7 @@ public interface IUserService {
      *
      * @param email    The user's email address.
      * @param password The user's password.
-     * @param callback The callback invoked with the matching user, or null if not found.
+     * @param callback The callback invoked with the fully loaded matching user, or null if not found.
      */
     void getUserByEmailAndPassword(@NonNull String email, @NonNull String password, @NonNull DatabaseCallback<User> callback);
 
@@ -71,12 +97,34 @@ public interface IUserService {
     void checkIfEmailExists(@NonNull String email, @NonNull DatabaseCallback<Boolean> callback);
 
     /**
-     * Updates an existing user's information in the database.
+     * Updates an existing user's identity fields (name, email, password, etc.) in the database.
+     * Only the fields that differ from {@code original} are written; the profile image and
+     * sub-collections are never written.
      *
-     * @param user     The {@link User} object containing updated details.
+     * @param original The user as it was before the edit.
+     * @param updated  The {@link User} object containing updated details.
      * @param callback An optional callback invoked upon completion.
      */
-    void updateUser(@NonNull User user, @Nullable DatabaseCallback<Void> callback);
+    void updateUser(@NonNull User original, @NonNull User updated, @Nullable DatabaseCallback<Void> callback);
+
+    /**
+     * Sets or removes a user's profile image.
+     *
+     * @param uid          The ID of the user to modify.
+     * @param profileImage The content hash of the image in the {@link IBlobStore}, or null to remove it.
+     * @param callback     An optional callback invoked upon completion.
+     */
+    void updateProfileImage(@NonNull String uid, @Nullable String profileImage, @Nullable DatabaseCallback<Void> callback);
+
+    /**
+     * Stores the variants of a new profile image in the {@link IBlobStore} and points the user's
+     * image node at it.
+     *
+     * @param uid      The ID of the user to modify.
+     * @param variants The compressed variants of the image.
+     * @param callback An optional callback invoked with the content hash of the image.
+     */
+    void uploadProfileImage(@NonNull String uid, @NonNull Map<ImageVariant, byte[]> variants, @Nullable DatabaseCallback<String> callback);
 
     /**
      * Updates the administrative role of a specific user.
@@ -86,4 +134,45 @@ public interface IUserService {
      * @param callback An optional callback invoked upon completion.
      */
     void updateUserRole(@NonNull String uid, @NonNull User.UserRole role, @Nullable DatabaseCallback<Void> callback);
+
+    /**
+     * One-shot migration of the legacy {@code users/{uid}} records into the normalized schema.
+     * <p>
+     * Each legacy record is split into its profile, image, statistics, medications and
+     * emergency contacts nodes and removed in a single multi-path update. Running it again
+     * after all records were migrated is a no-op.
+     * </p>
+     *
+     * @param callback An optional callback invoked with the number of migrated users.
+     */
+    void migrateLegacyUsers(@Nullable DatabaseCallback<Integer> callback);
+
+    /**
+     * One-shot migration of inline Base64 profile images into the {@link IBlobStore}.
+     * Each image is uploaded and its node replaced by the content hash. Images that are already
+     * hashes are skipped, so running it again is a no-op.
+     *
+     * @param callback An optional callback invoked with the number of migrated images.
+     */
+    void migrateProfileImagesToBlobStore(@Nullable DatabaseCallback<Integer> callback);
+
+    /**
+     * Defines which parts of a {@link User} are loaded from the database.
+     */
+    enum UserProjection {
+        /**
+         * Identity fields only (name, email, role, birth date).
+         */
+        SUMMARY,
+
+        /**
+         * Identity fields and the profile image.
+         */
+        PROFILE,
+
+        /**
+         * Everything: identity fields, profile image, medications, daily statistics and emergency contacts.
+         */
+        FULL
+    }
 }
\ No newline at end of file
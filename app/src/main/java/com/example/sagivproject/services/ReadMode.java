@@ -0,0 +1,21 @@
+package com.example.sagivproject.services;
+
+/**
+ * Defines how a read is served when a local copy of the data may exist.
+ * <p>
+ * The database keeps an on-disk cache of every node the app has read or keeps synced, so a
+ * screen can render from it before the server answers.
+ * </p>
+ */
+public enum ReadMode {
+    /**
+     * Waits for the server value (or the cache only when offline) and delivers a single result.
+     */
+    FRESH,
+
+    /**
+     * Stale-while-revalidate: delivers the cached value immediately, then the server value once
+     * it arrives if it differs. The callback may therefore complete twice.
+     */
+    CACHED_THEN_FRESH
+}
@@ -0,0 +1,308 @@
+package com.example.sagivproject.services.forum;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.ForumMessage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The loaded messages of a forum category, kept in chronological order and keyed by message ID.
+ * <p>
+ * Messages are held in a list sorted by timestamp (then ID) and in a map by ID, so a message is
+ * found in O(1) and its position by binary search. New messages normally belong at the end of
+ * the list and are appended; older pages are inserted at the start in one step. Every change is
+ * reported with the positions it touched through a {@link Listener}, so a list adapter can
+ * notify exactly those items instead of diffing the whole list.
+ * </p>
+ */
+public class ForumMessageStore {
+    /**
+     * Orders messages by timestamp and breaks ties by ID, so every message has one position.
+     */
+    private static final Comparator<ForumMessage> ORDER = Comparator
+            .comparing(ForumMessage::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ForumMessage::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final List<ForumMessage> messages = new ArrayList<>();
+    private final Map<String, ForumMessage> messagesById = new HashMap<>();
+
+    @Nullable
+    private Listener listener;
+
+    /**
+     * @param listener The listener to report position changes to, or null to stop reporting.
+     */
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The number of loaded messages.
+     */
+    public int size() {
+        return messages.size();
+    }
+
+    /**
+     * @param position The position of the message, from the oldest.
+     * @return The message at the position.
+     */
+    @NonNull
+    public ForumMessage get(int position) {
+        return messages.get(position);
+    }
+
+    /**
+     * @return A read-only view of the loaded messages, from the oldest.
+     */
+    @NonNull
+    public List<ForumMessage> asList() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * @return The oldest loaded message, or null if none is loaded.
+     */
+    @Nullable
+    public ForumMessage getOldest() {
+        return messages.isEmpty() ? null : messages.get(0);
+    }
+
+    /**
+     * @return The newest loaded message, or null if none is loaded.
+     */
+    @Nullable
+    public ForumMessage getNewest() {
+        return messages.isEmpty() ? null : messages.get(messages.size() - 1);
+    }
+
+    /**
+     * @param messageId The ID of a message.
+     * @return true if the message is loaded.
+     */
+    public boolean contains(@Nullable String messageId) {
+        return messagesById.containsKey(messageId);
+    }
+
+    /**
+     * @param message A message, loaded or not.
+     * @return true if the message sorts after the newest loaded message, or nothing is loaded.
+     */
+    public boolean isNewerThanLoaded(@NonNull ForumMessage message) {
+        ForumMessage newest = getNewest();
+        return newest == null || ORDER.compare(message, newest) > 0;
+    }
+
+    /**
+     * @param messageId The ID of a message.
+     * @return The position of the message, or -1 if it is not loaded.
+     */
+    public int indexOf(@Nullable String messageId) {
+        ForumMessage message = messagesById.get(messageId);
+        return message == null ? -1 : Collections.binarySearch(messages, message, ORDER);
+    }
+
+    /**
+     * Adds a message, or replaces the loaded message with the same ID.
+     * <p>
+     * A replacement that is equal to the loaded message changes nothing and is not reported.
+     * </p>
+     *
+     * @param message The message to store.
+     * @return true if the message was not loaded before.
+     */
+    public boolean put(@NonNull ForumMessage message) {
+        ForumMessage existing = messagesById.get(message.getId());
+        if (existing != null) {
+            if (existing.equals(message)) return false;
+            int from = Collections.binarySearch(messages, existing, ORDER);
+            if (ORDER.compare(existing, message) == 0) {
+                messages.set(from, message);
+                messagesById.put(message.getId(), message);
+                if (listener != null) listener.onItemChanged(from);
+                return false;
+            }
+            messages.remove(from);
+            int to = insertionPoint(message);
+            messages.add(to, message);
+            messagesById.put(message.getId(), message);
+            if (listener != null) {
+                if (from != to) listener.onItemMoved(from, to);
+                listener.onItemChanged(to);
+            }
+            return false;
+        }
+
+        int position = insertionPoint(message);
+        messages.add(position, message);
+        messagesById.put(message.getId(), message);
+        if (listener != null) listener.onItemRangeInserted(position, 1);
+        return true;
+    }
+
+    /**
+     * Adds or replaces several messages, such as a page of history.
+     * <p>
+     * If all of the new messages are older than the loaded ones, they are inserted at the start
+     * in one step and reported as a single range; if all are newer, they are appended the same way.
+     * </p>
+     *
+     * @param page The messages to store, in any order.
+     */
+    public void putAll(@NonNull Collection<ForumMessage> page) {
+        List<ForumMessage> added = new ArrayList<>();
+        for (ForumMessage message : page) {
+            if (!messagesById.containsKey(message.getId())) added.add(message);
+            else put(message);
+        }
+        if (added.isEmpty()) return;
+        added.sort(ORDER);
+
+        int position;
+        if (isNewerThanLoaded(added.get(0))) {
+            position = messages.size();
+        } else if (ORDER.compare(added.get(added.size() - 1), messages.get(0)) < 0) {
+            position = 0;
+        } else {
+            for (ForumMessage message : added) put(message);
+            return;
+        }
+        messages.addAll(position, added);
+        for (ForumMessage message : added) messagesById.put(message.getId(), message);
+        if (listener != null) listener.onItemRangeInserted(position, added.size());
+    }
+
+    /**
+     * Removes a message.
+     *
+     * @param messageId The ID of the message to remove.
+     * @return true if the message was loaded.
+     */
+    public boolean remove(@Nullable String messageId) {
+        int position = indexOf(messageId);
+        if (position < 0) return false;
+        messages.remove(position);
+        messagesById.remove(messageId);
+        if (listener != null) listener.onItemRemoved(position);
+        return true;
+    }
+
+    /**
+     * Unloads the oldest messages, such as a page scrolled far out of view.
+     *
+     * @param count How many messages to unload. Capped at the number loaded.
+     */
+    public void removeOldest(int count) {
+        removeRange(0, Math.min(count, messages.size()));
+    }
+
+    /**
+     * Unloads the newest messages, such as a page scrolled far out of view.
+     *
+     * @param count How many messages to unload. Capped at the number loaded.
+     */
+    public void removeNewest(int count) {
+        int removed = Math.min(count, messages.size());
+        removeRange(messages.size() - removed, removed);
+    }
+
+    /**
+     * Replaces the loaded messages within the time span of a freshly read window.
+     * <p>
+     * Loaded messages whose timestamps fall between the oldest and the newest message of the
+     * window but that are missing from it were deleted while not being followed, and are removed.
+     * The window's messages are then stored as by {@link #putAll}.
+     * </p>
+     *
+     * @param window The latest messages of the category, as read from the database.
+     */
+    public void syncWindow(@NonNull List<ForumMessage> window) {
+        if (window.isEmpty()) return;
+        Set<String> windowIds = new HashSet<>();
+        ForumMessage oldest = window.get(0);
+        ForumMessage newest = window.get(0);
+        for (ForumMessage message : window) {
+            windowIds.add(message.getId());
+            if (ORDER.compare(message, oldest) < 0) oldest = message;
+            if (ORDER.compare(message, newest) > 0) newest = message;
+        }
+
+        int from = insertionPoint(oldest);
+        for (int i = messages.size() - 1; i >= from; i--) {
+            ForumMessage message = messages.get(i);
+            if (ORDER.compare(message, newest) > 0 || windowIds.contains(message.getId())) continue;
+            messages.remove(i);
+            messagesById.remove(message.getId());
+            if (listener != null) listener.onItemRemoved(i);
+        }
+        putAll(window);
+    }
+
+    /**
+     * Removes all messages.
+     */
+    public void clear() {
+        removeRange(0, messages.size());
+    }
+
+    private void removeRange(int position, int count) {
+        if (count <= 0) return;
+        List<ForumMessage> range = messages.subList(position, position + count);
+        for (ForumMessage message : range) messagesById.remove(message.getId());
+        range.clear();
+        if (listener != null) listener.onItemRangeRemoved(position, count);
+    }
+
+    /**
+     * Finds where a message belongs. Checks the end first, where new messages arrive.
+     */
+    private int insertionPoint(@NonNull ForumMessage message) {
+        int size = messages.size();
+        if (size == 0 || ORDER.compare(messages.get(size - 1), message) < 0) return size;
+        int position = Collections.binarySearch(messages, message, ORDER);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /**
+     * Receives the positions changed by a {@link ForumMessageStore}, after each change is made.
+     */
+    public interface Listener {
+        /**
+         * @param position The position of the first inserted message.
+         * @param count    The number of inserted messages.
+         */
+        void onItemRangeInserted(int position, int count);
+
+        /**
+         * @param position The position of the changed message.
+         */
+        void onItemChanged(int position);
+
+        /**
+         * @param position The position the message was removed from.
+         */
+        void onItemRemoved(int position);
+
+        /**
+         * @param position The position of the first removed message.
+         * @param count    The number of removed messages.
+         */
+        void onItemRangeRemoved(int position, int count);
+
+        /**
+         * @param fromPosition The old position of the message.
+         * @param toPosition   The new position of the message.
+         */
+        void onItemMoved(int fromPosition, int toPosition);
+    }
+}
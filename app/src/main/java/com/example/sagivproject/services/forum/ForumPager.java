@@ -0,0 +1,302 @@
+package com.example.sagivproject.services.forum;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.ForumMessage;
+import com.example.sagivproject.services.DatabaseCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pages the history of a forum category into a {@link ForumMessageStore} as the user scrolls.
+ * <p>
+ * Pages are read from a {@link PageSource} by a cursor: the oldest or newest loaded message,
+ * whose timestamp and ID continue the timestamp order exactly. A page is requested as soon as the
+ * viewport comes within one page of an edge of the loaded messages, so it is usually in place
+ * before the user reaches the edge. Only a bounded window of messages is kept: once more than
+ * the maximum is loaded, messages more than a page away from the viewport are unloaded from the
+ * far end and read again if the user scrolls back to them.
+ * </p>
+ * <p>
+ * While the newest messages are unloaded, the pager is detached from the live end of the
+ * category. New messages are then not added (the screen shows an indicator instead) until paging
+ * reaches the end again or {@link #jumpToLatest} reloads it. All methods must be called on the
+ * same thread, which is the main thread in the app.
+ * </p>
+ */
+public class ForumPager {
+    private final ForumMessageStore store;
+    private final PageSource source;
+    private final int pageSize;
+    private final int maxLoaded;
+    private final Consumer<Exception> onPageFailed;
+
+    /**
+     * New messages that arrived while detached and while a newer page was being read. The read
+     * may not include them, so they are added if that page turns out to be the last one.
+     */
+    private final List<ForumMessage> missedWhileLoading = new ArrayList<>();
+
+    private boolean hasMoreOlder = true;
+    private boolean detached = false;
+    private boolean loadingOlder = false;
+    private boolean loadingNewer = false;
+
+    /**
+     * Incremented by {@link #jumpToLatest}, so pages requested before it are dropped.
+     */
+    private int generation = 0;
+
+    private int firstVisible = -1;
+    private int lastVisible = -1;
+
+    /**
+     * @param store        The store the pages are loaded into.
+     * @param source       Reads the pages.
+     * @param pageSize     How many messages a page holds.
+     * @param maxLoaded    How many messages are kept before far pages are unloaded.
+     * @param onPageFailed Called when a page cannot be read. Paging is retried on the next scroll.
+     */
+    public ForumPager(@NonNull ForumMessageStore store, @NonNull PageSource source, int pageSize, int maxLoaded,
+                      @NonNull Consumer<Exception> onPageFailed) {
+        if (maxLoaded < pageSize * 3) {
+            throw new IllegalArgumentException("maxLoaded must hold at least three pages, got " + maxLoaded);
+        }
+        this.store = store;
+        this.source = source;
+        this.pageSize = pageSize;
+        this.maxLoaded = maxLoaded;
+        this.onPageFailed = onPageFailed;
+    }
+
+    /**
+     * @return true if the newest messages are not loaded, so new messages are not added.
+     */
+    public boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * @return true if older messages may still be read.
+     */
+    public boolean hasMoreOlder() {
+        return hasMoreOlder;
+    }
+
+    /**
+     * Records the visible positions and requests the next page if an edge is within a page.
+     *
+     * @param first The position of the first visible message.
+     * @param last  The position of the last visible message.
+     */
+    public void onVisibleRangeChanged(int first, int last) {
+        firstVisible = first;
+        lastVisible = last;
+        prefetch();
+    }
+
+    /**
+     * Applies a freshly read window of the latest messages, unless detached from them.
+     *
+     * @param window The latest messages of the category.
+     */
+    public void onWindowLoaded(@NonNull List<ForumMessage> window) {
+        if (detached) return;
+        store.syncWindow(window);
+        trimOldest();
+    }
+
+    /**
+     * Adds a new message, unless it belongs after the loaded messages while detached.
+     *
+     * @param message The new message.
+     * @return true if the message was added to the loaded messages.
+     */
+    public boolean onMessageAdded(@NonNull ForumMessage message) {
+        if (detached && !store.contains(message.getId()) && store.isNewerThanLoaded(message)) {
+            if (loadingNewer) missedWhileLoading.add(message);
+            return false;
+        }
+        if (!store.put(message)) return false;
+        trimOldest();
+        return true;
+    }
+
+    /**
+     * Replaces a message if it is loaded. Unloaded messages are read again with their page.
+     *
+     * @param message The edited message.
+     */
+    public void onMessageChanged(@NonNull ForumMessage message) {
+        if (store.contains(message.getId())) store.put(message);
+        for (int i = 0; i < missedWhileLoading.size(); i++) {
+            if (missedWhileLoading.get(i).getId().equals(message.getId())) missedWhileLoading.set(i, message);
+        }
+    }
+
+    /**
+     * Removes a message if it is loaded.
+     *
+     * @param messageId The ID of the deleted message.
+     */
+    public void onMessageRemoved(@NonNull String messageId) {
+        store.remove(messageId);
+        missedWhileLoading.removeIf(message -> messageId.equals(message.getId()));
+    }
+
+    /**
+     * Replaces the loaded messages with the latest page and attaches to the live end again.
+     *
+     * @param callback Called once the latest page is loaded.
+     */
+    public void jumpToLatest(@NonNull DatabaseCallback<Void> callback) {
+        int requested = ++generation;
+        loadingOlder = false;
+        loadingNewer = false;
+        missedWhileLoading.clear();
+        source.loadBefore(null, pageSize, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<ForumMessage> page) {
+                if (requested != generation) return;
+                store.clear();
+                store.putAll(page);
+                detached = false;
+                hasMoreOlder = page.size() >= pageSize;
+                firstVisible = -1;
+                lastVisible = -1;
+                callback.onCompleted(null);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (requested == generation) callback.onFailed(e);
+            }
+        });
+    }
+
+    private void prefetch() {
+        if (store.size() == 0 || lastVisible < 0) return;
+        if (hasMoreOlder && !loadingOlder && firstVisible <= pageSize) loadOlder();
+        if (detached && !loadingNewer && lastVisible >= store.size() - 1 - pageSize) loadNewer();
+    }
+
+    private void loadOlder() {
+        ForumMessage cursor = store.getOldest();
+        if (cursor == null) return;
+        int requested = generation;
+        loadingOlder = true;
+        source.loadBefore(cursor, pageSize, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<ForumMessage> page) {
+                if (requested != generation) return;
+                loadingOlder = false;
+                // Messages unloaded or deleted meanwhile moved the edge; the next scroll asks again
+                if (!isSameMessage(store.getOldest(), cursor)) return;
+                if (page.size() < pageSize) hasMoreOlder = false;
+                int before = store.size();
+                store.putAll(page);
+                shiftVisibleRange(store.size() - before);
+                trimNewest();
+                prefetch();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (requested != generation) return;
+                loadingOlder = false;
+                onPageFailed.accept(e);
+            }
+        });
+    }
+
+    private void loadNewer() {
+        ForumMessage cursor = store.getNewest();
+        if (cursor == null) return;
+        int requested = generation;
+        loadingNewer = true;
+        missedWhileLoading.clear();
+        source.loadAfter(cursor, pageSize, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<ForumMessage> page) {
+                if (requested != generation) return;
+                loadingNewer = false;
+                if (!isSameMessage(store.getNewest(), cursor)) return;
+                store.putAll(page);
+                if (page.size() < pageSize) {
+                    detached = false;
+                    List<ForumMessage> missed = new ArrayList<>();
+                    for (ForumMessage message : missedWhileLoading) {
+                        if (store.isNewerThanLoaded(message)) missed.add(message);
+                    }
+                    store.putAll(missed);
+                }
+                missedWhileLoading.clear();
+                trimOldest();
+                prefetch();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (requested != generation) return;
+                loadingNewer = false;
+                onPageFailed.accept(e);
+            }
+        });
+    }
+
+    /**
+     * Unloads the oldest messages beyond the maximum, keeping a page above the viewport.
+     */
+    private void trimOldest() {
+        int count = Math.min(store.size() - maxLoaded, firstVisible - pageSize);
+        if (lastVisible < 0 || count <= 0) return;
+        store.removeOldest(count);
+        hasMoreOlder = true;
+        shiftVisibleRange(-count);
+    }
+
+    /**
+     * Unloads the newest messages beyond the maximum, keeping a page below the viewport.
+     */
+    private void trimNewest() {
+        int count = Math.min(store.size() - maxLoaded, store.size() - 1 - (lastVisible + pageSize));
+        if (lastVisible < 0 || count <= 0) return;
+        store.removeNewest(count);
+        detached = true;
+    }
+
+    private static boolean isSameMessage(@Nullable ForumMessage edge, @NonNull ForumMessage cursor) {
+        return edge != null && cursor.getId().equals(edge.getId());
+    }
+
+    /**
+     * Moves the recorded viewport with messages inserted or removed above it, as the list does.
+     */
+    private void shiftVisibleRange(int count) {
+        if (lastVisible < 0) return;
+        firstVisible += count;
+        lastVisible += count;
+    }
+
+    /**
+     * Reads pages of a category's messages by cursor, in timestamp order.
+     */
+    public interface PageSource {
+        /**
+         * @param before   The oldest loaded message, or null to read the latest page.
+         * @param limit    The largest number of messages to read.
+         * @param callback Receives the messages just before the cursor, oldest first.
+         */
+        void loadBefore(@Nullable ForumMessage before, int limit, @NonNull DatabaseCallback<List<ForumMessage>> callback);
+
+        /**
+         * @param after    The newest loaded message.
+         * @param limit    The largest number of messages to read.
+         * @param callback Receives the messages just after the cursor, oldest first.
+         */
+        void loadAfter(@NonNull ForumMessage after, int limit, @NonNull DatabaseCallback<List<ForumMessage>> callback);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.sagivproject.services.game;
+
+/**
+ * Source of the current time for the {@link MemoryGameEngine}, so turn timeouts can be driven by a
+ * fake clock in tests and simulations. The room's deadlines are compared against it, so both
+ * players of a game must use the same time base (the server time in the app).
+ */
+public interface GameClock {
+    /**
+     * @return The current time in milliseconds, on the time base of the room's deadlines.
+     */
+    long now();
+}
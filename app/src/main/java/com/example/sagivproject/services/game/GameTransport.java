@@ -0,0 +1,20 @@
+package com.example.sagivproject.services.game;
+
+import androidx.annotation.NonNull;
+
+import com.example.sagivproject.models.GameMove;
+
+/**
+ * Delivers the moves decided by a {@link MemoryGameEngine}.
+ * <p>
+ * The app sends them to the database through
+ * {@link com.example.sagivproject.services.IMemoryGameService#applyMove}; tests can apply them to
+ * a room in memory with {@link MemoryGameEngine#apply}.
+ * </p>
+ */
+public interface GameTransport {
+    /**
+     * @param move The move to deliver.
+     */
+    void send(@NonNull GameMove move);
+}
@@ -0,0 +1,363 @@
+package com.example.sagivproject.services.game;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.GameMove;
+import com.example.sagivproject.models.GameRoom;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rules of the online memory game for one player, without any views or threads.
+ * <p>
+ * The engine reads the shared {@link GameRoom} (kept up to date by the caller, e.g. from the room
+ * stream) and turns the player's actions into {@link GameMove}s, which it hands to a
+ * {@link GameTransport}. Time is read from a {@link GameClock}. Animations and delays between the
+ * steps of a turn are left to the caller:
+ * <ol>
+ * <li>{@link #selectCard} twice; the second selection starts a match check.</li>
+ * <li>{@link #checkMatch}; a match scores a point and the player keeps the turn.</li>
+ * <li>{@link #endTurn} after a mismatch flips both cards back and passes the turn.</li>
+ * </ol>
+ * </p>
+ * <p>
+ * Turn and game time are kept as deadlines in the room, in the time of the {@link GameClock}, so
+ * both players count down to the same moment. Only one client commits each timeout: the player
+ * whose turn it is passes the turn, and the host (player 1) finishes the game. The other player
+ * steps in only after {@link #TIMEOUT_GRACE_PERIOD}, in case the authoritative client is gone. A
+ * turn timeout is conditional on the turn deadline it was decided on, so even then it is
+ * committed at most once per turn.
+ * </p>
+ */
+public class MemoryGameEngine {
+    /**
+     * The time limit for each turn in milliseconds (15 seconds).
+     */
+    public static final long TURN_TIME_LIMIT = 15000;
+    /**
+     * The total time limit for the entire game in milliseconds (1.5 minutes).
+     */
+    public static final long TOTAL_GAME_TIME_LIMIT = 90000;
+    /**
+     * How long the non-authoritative player waits past a deadline before committing the timeout itself.
+     */
+    public static final long TIMEOUT_GRACE_PERIOD = 3000;
+    /**
+     * The winner UID stored for a tie.
+     */
+    public static final String DRAW = "draw";
+
+    private static final String STATUS_FINISHED = "finished";
+
+    private final String playerUid;
+    private final GameClock clock;
+    private final GameTransport transport;
+
+    private GameRoom room;
+    /**
+     * Whether a second card was selected and the match check has not run yet.
+     */
+    private boolean checkPending = false;
+    /**
+     * The turn deadline of the last timeout this engine sent, so it is not sent twice.
+     */
+    private long timedOutDeadline = 0;
+
+    /**
+     * @param playerUid The UID of the local player.
+     * @param clock     The source of the current time.
+     * @param transport Where the engine sends its moves.
+     */
+    public MemoryGameEngine(@NonNull String playerUid, @NonNull GameClock clock, @NonNull GameTransport transport) {
+        this.playerUid = playerUid;
+        this.clock = clock;
+        this.transport = transport;
+    }
+
+    /**
+     * Applies a move to a room in memory, the way the database applies it to the stored room.
+     *
+     * @param room The room to change.
+     * @param move The move to apply.
+     * @return false if the move requires a turn deadline the room no longer has, and was skipped.
+     */
+    public static boolean apply(@NonNull GameRoom room, @NonNull GameMove move) {
+        Long requiredTurnDeadline = move.getRequiredTurnDeadline();
+        if (requiredTurnDeadline != null && requiredTurnDeadline != room.getTurnDeadline()) return false;
+
+        List<Card> cards = room.getCards();
+        for (Map.Entry<Integer, GameMove.CardState> entry : move.getCards().entrySet()) {
+            if (cards == null || entry.getKey() >= cards.size()) continue;
+            Card card = cards.get(entry.getKey());
+            card.setRevealed(entry.getValue().isRevealed());
+            card.setMatched(entry.getValue().isMatched());
+        }
+        room.setPlayer1Score(room.getPlayer1Score() + move.getPlayer1ScoreDelta());
+        room.setPlayer2Score(room.getPlayer2Score() + move.getPlayer2ScoreDelta());
+        if (move.isFirstSelectedCardIndexSet()) room.setFirstSelectedCardIndex(move.getFirstSelectedCardIndex());
+        if (move.getProcessingMatch() != null) room.setProcessingMatch(move.getProcessingMatch());
+        if (move.getCurrentTurnUid() != null) room.setCurrentTurnUid(move.getCurrentTurnUid());
+        if (move.getTurnDeadline() != null) room.setTurnDeadline(move.getTurnDeadline());
+        return true;
+    }
+
+    /**
+     * Determines the winner of a room: a winner set earlier (e.g. by forfeit) is kept, otherwise
+     * the player with the higher score wins.
+     *
+     * @param room The room to judge.
+     * @return The UID of the winner, or {@link #DRAW}.
+     */
+    @NonNull
+    public static String calculateWinner(@NonNull GameRoom room) {
+        if (room.getWinnerUid() != null && !room.getWinnerUid().equals(DRAW))
+            return room.getWinnerUid();
+
+        int p1 = room.getPlayer1Score();
+        int p2 = room.getPlayer2Score();
+        if (p1 == p2) return DRAW;
+        return p1 > p2 ? room.getPlayer1Uid() : room.getPlayer2Uid();
+    }
+
+    /**
+     * Sets the room the engine plays in.
+     *
+     * @param room The shared room state. The engine reads it but never changes it.
+     */
+    public void setRoom(@NonNull GameRoom room) {
+        this.room = room;
+        checkPending = false;
+        timedOutDeadline = 0;
+    }
+
+    @Nullable
+    public GameRoom getRoom() {
+        return room;
+    }
+
+    /**
+     * @return The UID of the other player in the room.
+     */
+    @Nullable
+    public String getOpponentUid() {
+        if (room == null) return null;
+        return otherPlayer(playerUid);
+    }
+
+    private String otherPlayer(String uid) {
+        return uid.equals(room.getPlayer1Uid()) ? room.getPlayer2Uid() : room.getPlayer1Uid();
+    }
+
+    /**
+     * @return true if it is the local player's turn and no match check is running.
+     */
+    public boolean isMyTurn() {
+        return room != null && playerUid.equals(room.getCurrentTurnUid()) && !room.isProcessingMatch();
+    }
+
+    /**
+     * @return true while a second card was selected and {@link #checkMatch} has not run yet.
+     */
+    public boolean isCheckPending() {
+        return checkPending;
+    }
+
+    /**
+     * Selects a card for the local player.
+     *
+     * @param index The position of the card on the board.
+     * @return What the selection did.
+     */
+    @NonNull
+    public Selection selectCard(int index) {
+        if (checkPending || !isMyTurn() || room.getCards() == null) return Selection.IGNORED;
+        if (index < 0 || index >= room.getCards().size()) return Selection.IGNORED;
+        Card card = room.getCards().get(index);
+        if (card == null || card.getIsMatched() || card.getIsRevealed()) return Selection.IGNORED;
+
+        Integer firstIndex = room.getFirstSelectedCardIndex();
+        if (firstIndex == null) {
+            send(new GameMove()
+                    .setCard(index, true, false)
+                    .setFirstSelectedCardIndex(index));
+            return Selection.FIRST_CARD;
+        }
+        if (firstIndex == index) return Selection.IGNORED;
+
+        checkPending = true;
+        send(new GameMove()
+                .setCard(index, true, false)
+                .setProcessingMatch(true));
+        return Selection.SECOND_CARD;
+    }
+
+    /**
+     * Compares the two selected cards. A match is written at once, with a point for the local
+     * player; after a mismatch the caller shows the cards and then calls {@link #endTurn}.
+     *
+     * @param first  The position of the first selected card.
+     * @param second The position of the second selected card.
+     * @return true if the cards match.
+     */
+    public boolean checkMatch(int first, int second) {
+        if (room == null || room.getCards() == null) {
+            checkPending = false;
+            return false;
+        }
+        List<Card> cards = room.getCards();
+        Card c1 = cards.get(first);
+        Card c2 = cards.get(second);
+        if (c1 == null || c2 == null || !c1.getId().equals(c2.getId())) return false;
+
+        checkPending = false;
+        send(new GameMove()
+                .setCard(first, true, true)
+                .setCard(second, true, true)
+                .addPoint(room, playerUid)
+                .setFirstSelectedCardIndex(null)
+                .setProcessingMatch(false)
+                .setTurnDeadline(clock.now() + TURN_TIME_LIMIT));
+        return true;
+    }
+
+    /**
+     * Ends the turn after a mismatch: both cards are flipped back and the turn passes.
+     *
+     * @param first  The position of the first selected card.
+     * @param second The position of the second selected card.
+     */
+    public void endTurn(int first, int second) {
+        checkPending = false;
+        if (room == null) return;
+        send(new GameMove()
+                .setCard(first, false, false)
+                .setCard(second, false, false)
+                .setFirstSelectedCardIndex(null)
+                .setProcessingMatch(false)
+                .setCurrentTurnUid(getOpponentUid())
+                .setTurnDeadline(clock.now() + TURN_TIME_LIMIT));
+    }
+
+    /**
+     * @return The time left in the current turn in milliseconds, never negative.
+     */
+    public long getTurnTimeLeft() {
+        if (room == null || room.getTurnDeadline() == 0) return TURN_TIME_LIMIT;
+        return Math.max(0, room.getTurnDeadline() - clock.now());
+    }
+
+    /**
+     * @return The time left in the whole game in milliseconds, never negative.
+     */
+    public long getGameTimeLeft() {
+        if (room == null || room.getGameDeadline() == 0) return TOTAL_GAME_TIME_LIMIT;
+        return Math.max(0, room.getGameDeadline() - clock.now());
+    }
+
+    /**
+     * @return The time until this client should call {@link #onTurnTimeout}, never negative.
+     */
+    public long getTurnTimeoutDelay() {
+        if (room == null || room.getTurnDeadline() == 0 || room.getCurrentTurnUid() == null) return TURN_TIME_LIMIT;
+        return Math.max(0, room.getTurnDeadline() + timeoutGrace(room.getCurrentTurnUid()) - clock.now());
+    }
+
+    /**
+     * @return The time until this client should finish the game, never negative.
+     */
+    public long getGameTimeoutDelay() {
+        if (room == null || room.getGameDeadline() == 0) return TOTAL_GAME_TIME_LIMIT;
+        return Math.max(0, room.getGameDeadline() + timeoutGrace(room.getPlayer1Uid()) - clock.now());
+    }
+
+    /**
+     * @return true if the game time ran out and this client should finish the game.
+     */
+    public boolean isGameTimeoutDue() {
+        if (room == null || room.getGameDeadline() == 0 || STATUS_FINISHED.equals(room.getStatus())) return false;
+        return getGameTimeoutDelay() == 0;
+    }
+
+    /**
+     * Passes the turn if its time ran out and this client should commit the timeout, flipping
+     * back the selected cards. The move only applies while the room still has the same turn
+     * deadline, so a turn is timed out once even if both players send it.
+     *
+     * @return true if the timeout was sent.
+     */
+    public boolean onTurnTimeout() {
+        if (room == null || room.getCurrentTurnUid() == null || room.getCards() == null) return false;
+        long deadline = room.getTurnDeadline();
+        if (deadline == 0 || deadline == timedOutDeadline || getTurnTimeoutDelay() > 0) return false;
+        // The player's own match check ends the turn by itself
+        if (checkPending && playerUid.equals(room.getCurrentTurnUid())) return false;
+
+        GameMove move = new GameMove()
+                .setFirstSelectedCardIndex(null)
+                .setProcessingMatch(false)
+                .setCurrentTurnUid(otherPlayer(room.getCurrentTurnUid()))
+                .setTurnDeadline(clock.now() + TURN_TIME_LIMIT)
+                .requireTurnDeadline(deadline);
+        List<Card> cards = room.getCards();
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = cards.get(i);
+            if (card != null && card.getIsRevealed() && !card.getIsMatched()) move.setCard(i, false, false);
+        }
+        timedOutDeadline = deadline;
+        send(move);
+        return true;
+    }
+
+    /**
+     * Places a move on the room's board and hands it to the transport.
+     */
+    private void send(@NonNull GameMove move) {
+        if (room.getCards() != null) move.onBoard(room.getCards());
+        transport.send(move);
+    }
+
+    /**
+     * @return No delay for the authoritative player, the grace period for the other one.
+     */
+    private long timeoutGrace(@Nullable String authoritativeUid) {
+        return playerUid.equals(authoritativeUid) ? 0 : TIMEOUT_GRACE_PERIOD;
+    }
+
+    /**
+     * Checks whether all pairs were found and the scores account for all of them, i.e. the game
+     * should be finished.
+     *
+     * @return true if the board is complete and the room is not finished yet.
+     */
+    public boolean isBoardComplete() {
+        if (room == null || room.getCards() == null || room.getCards().isEmpty()) return false;
+        if (STATUS_FINISHED.equals(room.getStatus())) return false;
+
+        for (Card card : room.getCards()) {
+            if (!card.getIsMatched()) return false;
+        }
+        int totalScore = room.getPlayer1Score() + room.getPlayer2Score();
+        return totalScore == room.getCards().size() / 2;
+    }
+
+    /**
+     * The outcome of {@link #selectCard}.
+     */
+    public enum Selection {
+        /**
+         * The card cannot be selected now (not the player's turn, already open, or a check is running).
+         */
+        IGNORED,
+        /**
+         * The card was flipped as the first card of the turn.
+         */
+        FIRST_CARD,
+        /**
+         * The card was flipped as the second card; {@link #checkMatch} should follow.
+         */
+        SECOND_CARD
+    }
+}
@@ -43,7 +43,7 @@ public class AuthServiceImpl implements IAuthService {
 
     /**
      * Authenticates a user using email and password.
-     * On success, the user object is saved to local preferences.
+     * On success, the user object is saved to local preferences and their data is kept synced.
      *
      * @param email    The user's email address.
      * @param password The user's password.
@@ -60,6 +60,7 @@ public class AuthServiceImpl implements IAuthService {
                 }
 
                 sharedPreferencesUtil.saveUser(user);
+                userService.setUserSynced(user.getId(), true);
                 callback.onSuccess(user);
             }
 
@@ -87,6 +88,7 @@ public class AuthServiceImpl implements IAuthService {
             @Override
             public void onCompleted(User user) {
                 sharedPreferencesUtil.saveUser(user);
+                userService.setUserSynced(user.getId(), true);
                 callback.onSuccess(user);
             }
 
@@ -159,6 +161,18 @@ public class AuthServiceImpl implements IAuthService {
         }
     }
 
+    /**
+     * Releases the synced nodes of the logged-in user and clears the local session.
+     */
+    @Override
+    public void logout() {
+        User user = sharedPreferencesUtil.getUser();
+        if (user != null) {
+            userService.setUserSynced(user.getId(), false);
+        }
+        sharedPreferencesUtil.signOutUser();
+    }
+
     /**
      * Internal helper to generate a UID and create a new user record in the database.
      */
@@ -183,13 +197,14 @@ public class AuthServiceImpl implements IAuthService {
      * Internal helper to commit profile updates to the database.
      */
     private void applyUserUpdate(User user, String firstName, String lastName, String birthDate, String email, String password, UpdateUserCallback callback) {
+        User original = new User(user);
         user.setFirstName(firstName);
         user.setLastName(lastName);
         user.setBirthDate(birthDate);
         user.setEmail(email);
         user.setPassword(password);
 
-        userService.updateUser(user, new DatabaseCallback<>() {
+        userService.updateUser(original, user, new DatabaseCallback<>() {
             @Override
             public void onCompleted(Void object) {
                 callback.onSuccess(user);
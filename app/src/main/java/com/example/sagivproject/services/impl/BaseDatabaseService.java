@@ -7,6 +7,9 @@ import androidx.annotation.Nullable;
 
 import com.example.sagivproject.models.Idable;
 import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.ReadMode;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseException;
@@ -14,11 +17,14 @@ import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.MutableData;
 import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.function.UnaryOperator;
 
 /**
@@ -116,6 +122,8 @@ public abstract class BaseDatabaseService<T extends Idable> {
 
     /**
      * Updates an entity using a transaction to ensure atomicity.
+     * Meant for read-modify-write changes such as counters; plain field edits should use
+     * {@link #patchData} so only the changed fields are sent.
      *
      * @param id       The ID of the entity to update.
      * @param function The function to apply to the current value of the entity.
@@ -156,6 +164,80 @@ public abstract class BaseDatabaseService<T extends Idable> {
         });
     }
 
+    /**
+     * Atomically writes several paths in a single multi-path update.
+     * <p>
+     * The keys of the map are full paths relative to the database root. A {@code null} value
+     * deletes the node at that path.
+     * </p>
+     *
+     * @param updates  The map of full paths to their new values.
+     * @param callback The callback to be invoked upon completion.
+     */
+    protected void updateChildren(@NotNull final Map<String, Object> updates, final @Nullable DatabaseCallback<Void> callback) {
+        databaseReference.updateChildren(updates, (error, ref) -> {
+            if (error != null) {
+                Log.e(TAG, "Multi-path update failed for " + updates.keySet(), error.toException());
+            }
+            if (callback == null) return;
+            if (error != null) {
+                callback.onFailed(error.toException());
+            } else {
+                callback.onCompleted(null);
+            }
+        });
+    }
+
+    /**
+     * Writes only the fields that differ between two versions of an entity.
+     * <p>
+     * The objects are compared with {@link FieldDiff} and the changed leaves are sent in a single
+     * multi-path update. If nothing changed, the callback completes without touching the database.
+     * </p>
+     *
+     * @param fullPath The full path the entity is stored at.
+     * @param original The version the caller started from.
+     * @param updated  The version to store.
+     * @param callback The callback to be invoked upon completion.
+     */
+    protected void patchData(@NotNull final String fullPath, @NotNull final T original, @NotNull final T updated, final @Nullable DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = FieldDiff.diff(fullPath, original, updated);
+        if (updates.isEmpty()) {
+            if (callback != null) callback.onCompleted(null);
+            return;
+        }
+        updateChildren(updates, callback);
+    }
+
+    /**
+     * Reads the stored entity once and writes only the fields that differ from {@code updated}.
+     * <p>
+     * Unlike {@link #update}, no transaction is held, so concurrent edits of other fields are
+     * preserved. If the entity no longer exists, nothing is written.
+     * </p>
+     *
+     * @param fullPath The full path the entity is stored at.
+     * @param updated  The version to store.
+     * @param callback The callback to be invoked upon completion.
+     */
+    protected void patchData(@NotNull final String fullPath, @NotNull final T updated, final @Nullable DatabaseCallback<Void> callback) {
+        getData(fullPath, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(T current) {
+                if (current == null) {
+                    if (callback != null) callback.onCompleted(null);
+                    return;
+                }
+                patchData(fullPath, current, updated, callback);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (callback != null) callback.onFailed(e);
+            }
+        });
+    }
+
     /**
      * Deletes data from a specific path in the database.
      *
@@ -234,6 +316,41 @@ public abstract class BaseDatabaseService<T extends Idable> {
         });
     }
 
+    /**
+     * Reads several paths in parallel and delivers their snapshots in the same order.
+     * <p>
+     * With {@link ReadMode#CACHED_THEN_FRESH}, the snapshots held in the local disk cache are
+     * delivered first and the server snapshots follow once all of them arrived, unless they hold
+     * the same values. A failed server read is only reported if nothing was delivered from the cache.
+     * </p>
+     *
+     * @param fullPaths The full paths to read.
+     * @param mode      How the read is served.
+     * @param callback  The callback to be invoked with the snapshots; may complete twice.
+     */
+    protected void readSnapshots(@NotNull final List<String> fullPaths, @NotNull final ReadMode mode, @NotNull final DatabaseCallback<List<DataSnapshot>> callback) {
+        if (mode == ReadMode.CACHED_THEN_FRESH) {
+            new CachedThenFreshRead(fullPaths, callback).start();
+            return;
+        }
+        readFresh(fullPaths).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Error reading " + fullPaths, task.getException());
+                callback.onFailed(task.getException());
+                return;
+            }
+            callback.onCompleted(task.getResult());
+        });
+    }
+
+    private Task<List<DataSnapshot>> readFresh(List<String> fullPaths) {
+        List<Task<DataSnapshot>> reads = new ArrayList<>();
+        for (String fullPath : fullPaths) {
+            reads.add(readData(fullPath).get());
+        }
+        return Tasks.whenAllSuccess(reads);
+    }
+
     /**
      * Executes a transaction on a specific data path.
      *
@@ -273,4 +390,86 @@ public abstract class BaseDatabaseService<T extends Idable> {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * A single stale-while-revalidate read over several paths.
+     * <p>
+     * Single-value listeners are answered from the disk cache without waiting for the network,
+     * while {@code get()} goes to the server whenever it is reachable. Whichever result is
+     * complete first is delivered; the cache listeners are detached once the server answered.
+     * </p>
+     */
+    private final class CachedThenFreshRead {
+        private final List<String> fullPaths;
+        private final DatabaseCallback<List<DataSnapshot>> callback;
+        private final ValueEventListener[] cacheListeners;
+        private final DataSnapshot[] cached;
+        private int cachedCount;
+        private boolean freshArrived;
+        private List<Object> deliveredValues;
+
+        private CachedThenFreshRead(List<String> fullPaths, DatabaseCallback<List<DataSnapshot>> callback) {
+            this.fullPaths = fullPaths;
+            this.callback = callback;
+            this.cacheListeners = new ValueEventListener[fullPaths.size()];
+            this.cached = new DataSnapshot[fullPaths.size()];
+        }
+
+        private void start() {
+            for (int i = 0; i < fullPaths.size(); i++) {
+                final int index = i;
+                cacheListeners[i] = new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        onCached(index, snapshot);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Log.w(TAG, "Cached read cancelled at " + fullPaths.get(index), error.toException());
+                    }
+                };
+                readData(fullPaths.get(i)).addListenerForSingleValueEvent(cacheListeners[i]);
+            }
+            readFresh(fullPaths).addOnCompleteListener(this::onFresh);
+        }
+
+        private void onCached(int index, DataSnapshot snapshot) {
+            if (freshArrived) return;
+            cached[index] = snapshot;
+            if (++cachedCount == cached.length) {
+                deliver(Arrays.asList(cached));
+            }
+        }
+
+        private void onFresh(Task<List<DataSnapshot>> task) {
+            freshArrived = true;
+            for (int i = 0; i < cacheListeners.length; i++) {
+                readData(fullPaths.get(i)).removeEventListener(cacheListeners[i]);
+            }
+
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Error revalidating " + fullPaths, task.getException());
+                if (deliveredValues == null) callback.onFailed(task.getException());
+                return;
+            }
+            List<DataSnapshot> fresh = task.getResult();
+            if (deliveredValues == null || !deliveredValues.equals(valuesOf(fresh))) {
+                deliver(fresh);
+            }
+        }
+
+        private void deliver(List<DataSnapshot> snapshots) {
+            deliveredValues = valuesOf(snapshots);
+            callback.onCompleted(snapshots);
+        }
+
+        private List<Object> valuesOf(List<DataSnapshot> snapshots) {
+            List<Object> values = new ArrayList<>();
+            for (DataSnapshot snapshot : snapshots) {
+                values.add(snapshot.getValue());
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.sagivproject.services.impl;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
+
+/**
+ * An {@link IBlobStore} that fronts a remote store with an on-disk cache.
+ * <p>
+ * Uploads are written to both stores. Reads are served from the cache and only go to the
+ * remote store on a miss, after which the downloaded blob is cached. Renditions are cached the
+ * same way. As blobs are immutable, a cached copy never has to be revalidated.
+ * </p>
+ */
+public class CachedBlobStore implements IBlobStore {
+    private static final String TAG = "CachedBlobStore";
+
+    private final IBlobStore cache;
+    private final IBlobStore remote;
+
+    /**
+     * Constructs a new CachedBlobStore.
+     *
+     * @param cache  The local store used as the cache.
+     * @param remote The remote store holding the shared copy of every blob.
+     */
+    public CachedBlobStore(@NonNull IBlobStore cache, @NonNull IBlobStore remote) {
+        this.cache = cache;
+        this.remote = remote;
+    }
+
+    /**
+     * Stores the blob remotely and, once uploaded, in the local cache.
+     *
+     * @param data     The bytes to store.
+     * @param callback The callback invoked with the content hash once the remote upload completed.
+     */
+    @Override
+    public void put(@NonNull byte[] data, @NonNull DatabaseCallback<String> callback) {
+        remote.put(data, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(String hash) {
+                cache.put(data, new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(String cachedHash) {
+                        callback.onCompleted(hash);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        Log.w(TAG, "Failed to cache uploaded blob " + hash, e);
+                        callback.onCompleted(hash);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the blob from the cache, downloading and caching it on a miss.
+     *
+     * @param hash     The content hash of the blob.
+     * @param callback The callback invoked with the bytes.
+     */
+    @Override
+    public void get(@NonNull String hash, @NonNull DatabaseCallback<byte[]> callback) {
+        cache.get(hash, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(byte[] data) {
+                callback.onCompleted(data);
+            }
+
+            @Override
+            public void onFailed(Exception cacheMiss) {
+                remote.get(hash, new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(byte[] data) {
+                        cache.put(data, new DatabaseCallback<>() {
+                            @Override
+                            public void onCompleted(String cachedHash) {
+                            }
+
+                            @Override
+                            public void onFailed(Exception e) {
+                                Log.w(TAG, "Failed to cache downloaded blob " + hash, e);
+                            }
+                        });
+                        callback.onCompleted(data);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        callback.onFailed(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stores the rendition remotely and, once uploaded, in the local cache.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param data     The bytes of the rendition.
+     * @param callback The callback invoked once the remote upload completed.
+     */
+    @Override
+    public void putVariant(@NonNull String hash, @NonNull String variant, @NonNull byte[] data, @NonNull DatabaseCallback<Void> callback) {
+        remote.putVariant(hash, variant, data, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void object) {
+                cacheVariant(hash, variant, data);
+                callback.onCompleted(null);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the rendition from the cache, downloading and caching it on a miss.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param callback The callback invoked with the bytes.
+     */
+    @Override
+    public void getVariant(@NonNull String hash, @NonNull String variant, @NonNull DatabaseCallback<byte[]> callback) {
+        cache.getVariant(hash, variant, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(byte[] data) {
+                callback.onCompleted(data);
+            }
+
+            @Override
+            public void onFailed(Exception cacheMiss) {
+                remote.getVariant(hash, variant, new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(byte[] data) {
+                        cacheVariant(hash, variant, data);
+                        callback.onCompleted(data);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        callback.onFailed(e);
+                    }
+                });
+            }
+        });
+    }
+
+    private void cacheVariant(String hash, String variant, byte[] data) {
+        cache.putVariant(hash, variant, data, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void object) {
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                Log.w(TAG, "Failed to cache variant " + variant + " of blob " + hash, e);
+            }
+        });
+    }
+}
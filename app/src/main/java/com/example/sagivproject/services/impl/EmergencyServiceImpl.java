@@ -21,14 +21,13 @@ import javax.inject.Inject;
 /**
  * Implementation of the {@link IEmergencyService} interface.
  * <p>
- * This class handles the persistence of emergency contacts within the user's database entry
+ * This class handles the persistence of emergency contacts in the user's {@code user_emergency_contacts} node
  * and provides the logic for sending automated emergency SMS alerts. It ensures that
  * phone numbers are unique within a user's contact list.
  * </p>
  */
 public class EmergencyServiceImpl extends BaseDatabaseService<EmergencyContact> implements IEmergencyService {
-    private static final String USERS_PATH = "users";
-    private static final String CONTACTS_PATH = "emergencyContacts";
+    private static final String CONTACTS_PATH = "user_emergency_contacts";
 
     /**
      * Constructs a new EmergencyServiceImpl.
@@ -98,7 +97,7 @@ public class EmergencyServiceImpl extends BaseDatabaseService<EmergencyContact>
     }
 
     /**
-     * Updates an existing contact record using a database transaction.
+     * Updates an existing contact record, writing only the fields that changed.
      *
      * @param uid      User ID.
      * @param contact  Updated contact object.
@@ -106,20 +105,7 @@ public class EmergencyServiceImpl extends BaseDatabaseService<EmergencyContact>
      */
     @Override
     public void updateContact(@NonNull String uid, @NonNull EmergencyContact contact, @Nullable DatabaseCallback<Void> callback) {
-        runTransaction(getContactItemPath(uid, contact.getId()), oldContact -> {
-            if (oldContact == null) return null;
-            return contact;
-        }, new DatabaseCallback<>() {
-            @Override
-            public void onCompleted(EmergencyContact result) {
-                if (callback != null) callback.onCompleted(null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-                if (callback != null) callback.onFailed(e);
-            }
-        });
+        patchData(getContactItemPath(uid, contact.getId()), contact, callback);
     }
 
     /**
@@ -166,7 +152,7 @@ public class EmergencyServiceImpl extends BaseDatabaseService<EmergencyContact>
      * @return The database path string for the contacts' collection.
      */
     private String getContactsPath(String uid) {
-        return USERS_PATH + "/" + uid + "/" + CONTACTS_PATH;
+        return CONTACTS_PATH + "/" + uid;
     }
 
     /**
@@ -0,0 +1,223 @@
+package com.example.sagivproject.services.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.Exclude;
+import com.google.firebase.database.PropertyName;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Computes field-level differences between two versions of a database model.
+ * <p>
+ * Both objects are flattened into the same tree Firebase would store (public getters and fields,
+ * honoring {@link Exclude} and {@link PropertyName}, enums as their names), and the trees are
+ * compared leaf by leaf. The result is a multi-path update map containing only the changed
+ * leaves, with {@code null} for removed ones, suitable for
+ * {@link BaseDatabaseService#updateChildren}.
+ * </p>
+ * <p>
+ * Lists are treated as leaves and rewritten as a whole when any element changes, since Firebase
+ * stores them under positional keys that would otherwise leave stale trailing entries.
+ * </p>
+ */
+public final class FieldDiff {
+    /**
+     * Cache of the serializable properties per model class, resolved once via reflection.
+     */
+    private static final Map<Class<?>, Map<String, Accessor>> ACCESSORS = new HashMap<>();
+
+    private FieldDiff() {
+    }
+
+    /**
+     * Builds the multi-path update that turns {@code oldValue} into {@code newValue}.
+     *
+     * @param basePath The database path both objects are stored at.
+     * @param oldValue The currently stored object, or null if nothing is stored.
+     * @param newValue The object to store, or null to delete it.
+     * @return A map of changed paths (prefixed with {@code basePath}) to their new values; empty if nothing changed.
+     */
+    @NonNull
+    public static Map<String, Object> diff(@NonNull String basePath, @Nullable Object oldValue, @Nullable Object newValue) {
+        Map<String, Object> updates = new LinkedHashMap<>();
+        diffTrees(basePath, toTree(oldValue), toTree(newValue), updates);
+        return updates;
+    }
+
+    /**
+     * Converts an object into the plain tree of maps, lists and primitives Firebase would store.
+     *
+     * @param value The object to convert.
+     * @return The converted tree, or null for null and empty objects.
+     */
+    @Nullable
+    static Object toTree(@Nullable Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean) return value;
+        if (value instanceof Number) return normalizeNumber((Number) value);
+        if (value instanceof Character) return value.toString();
+        if (value instanceof Enum) return ((Enum<?>) value).name();
+        if (value instanceof Collection) {
+            Map<String, Object> list = new LinkedHashMap<>();
+            int index = 0;
+            for (Object item : (Collection<?>) value) {
+                Object child = toTree(item);
+                if (child != null) list.put(String.valueOf(index), child);
+                index++;
+            }
+            return list.isEmpty() ? null : new ListLeaf(list);
+        }
+        if (value instanceof Map) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object child = toTree(entry.getValue());
+                if (child != null) map.put(String.valueOf(entry.getKey()), child);
+            }
+            return map.isEmpty() ? null : map;
+        }
+
+        Map<String, Object> bean = new LinkedHashMap<>();
+        for (Map.Entry<String, Accessor> property : getAccessors(value.getClass()).entrySet()) {
+            Object child = toTree(property.getValue().read(value));
+            if (child != null) bean.put(property.getKey(), child);
+        }
+        return bean.isEmpty() ? null : bean;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void diffTrees(String path, Object oldTree, Object newTree, Map<String, Object> updates) {
+        if (Objects.equals(oldTree, newTree)) return;
+
+        if (oldTree instanceof Map && newTree instanceof Map) {
+            Map<String, Object> oldMap = (Map<String, Object>) oldTree;
+            Map<String, Object> newMap = (Map<String, Object>) newTree;
+            Set<String> keys = new LinkedHashSet<>(oldMap.keySet());
+            keys.addAll(newMap.keySet());
+            for (String key : keys) {
+                diffTrees(path + "/" + key, oldMap.get(key), newMap.get(key), updates);
+            }
+            return;
+        }
+
+        updates.put(path, toStoredValue(newTree));
+    }
+
+    /**
+     * Unwraps list leaves back into plain maps so the update map only holds Firebase-native types.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object toStoredValue(Object tree) {
+        if (tree instanceof ListLeaf) return new LinkedHashMap<>(((ListLeaf) tree).items);
+        if (!(tree instanceof Map)) return tree;
+        Map<String, Object> stored = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) tree).entrySet()) {
+            stored.put(entry.getKey(), toStoredValue(entry.getValue()));
+        }
+        return stored;
+    }
+
+    /**
+     * Stores every integral number as a Long and every decimal as a Double, as Firebase does.
+     */
+    private static Object normalizeNumber(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            double d = number.doubleValue();
+            if (d == Math.rint(d) && !Double.isInfinite(d)) return (long) d;
+            return d;
+        }
+        return number.longValue();
+    }
+
+    private static synchronized Map<String, Accessor> getAccessors(Class<?> clazz) {
+        Map<String, Accessor> accessors = ACCESSORS.get(clazz);
+        if (accessors != null) return accessors;
+
+        accessors = new LinkedHashMap<>();
+        for (Method method : clazz.getMethods()) {
+            if (!isGetter(method)) continue;
+            String name = method.isAnnotationPresent(PropertyName.class)
+                    ? Objects.requireNonNull(method.getAnnotation(PropertyName.class)).value()
+                    : propertyName(method.getName());
+            accessors.put(name, method::invoke);
+        }
+        for (Field field : clazz.getFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isAnnotationPresent(Exclude.class)) {
+                continue;
+            }
+            String name = field.isAnnotationPresent(PropertyName.class)
+                    ? Objects.requireNonNull(field.getAnnotation(PropertyName.class)).value()
+                    : field.getName();
+            accessors.putIfAbsent(name, field::get);
+        }
+        ACCESSORS.put(clazz, accessors);
+        return accessors;
+    }
+
+    private static boolean isGetter(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0) return false;
+        if (method.getDeclaringClass() == Object.class || method.isAnnotationPresent(Exclude.class)) return false;
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3) return method.getReturnType() != void.class;
+        return name.startsWith("is") && name.length() > 2
+                && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class);
+    }
+
+    /**
+     * Strips the accessor prefix and lower-cases the leading capitals, matching Firebase's naming.
+     */
+    private static String propertyName(String methodName) {
+        char[] chars = methodName.substring(methodName.startsWith("is") ? 2 : 3).toCharArray();
+        for (int i = 0; i < chars.length && Character.isUpperCase(chars[i]); i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads a single property of a model instance.
+     */
+    private interface Accessor {
+        Object get(Object target) throws IllegalAccessException, InvocationTargetException;
+
+        default Object read(Object target) {
+            try {
+                return get(target);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read property of " + target.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Marks a serialized list so it is compared and written as a single value.
+     */
+    private static final class ListLeaf {
+        private final Map<String, Object> items;
+
+        private ListLeaf(Map<String, Object> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ListLeaf && items.equals(((ListLeaf) o).items);
+        }
+
+        @Override
+        public int hashCode() {
+            return items.hashCode();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.sagivproject.services.impl;
+
+import androidx.annotation.NonNull;
+
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
+import com.example.sagivproject.utils.ContentHash;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+/**
+ * A remote {@link IBlobStore} backed by Firebase Cloud Storage.
+ * <p>
+ * Blobs are stored as {@code blobs/{hash}} objects and their renditions as
+ * {@code blobs/{hash}_{variant}}. Since the name is derived from the content, an upload is
+ * skipped when the object already exists.
+ * </p>
+ */
+public class FirebaseStorageBlobStore implements IBlobStore {
+    private static final String BLOBS_PATH = "blobs";
+    private static final String CONTENT_TYPE = "image/jpeg";
+
+    /**
+     * Upper bound for a single download, well above the largest image the app produces.
+     */
+    private static final long MAX_DOWNLOAD_BYTES = 10L * 1024 * 1024;
+
+    private final StorageReference blobsReference;
+
+    /**
+     * Constructs a new FirebaseStorageBlobStore.
+     *
+     * @param firebaseStorage The {@link FirebaseStorage} instance.
+     */
+    public FirebaseStorageBlobStore(@NonNull FirebaseStorage firebaseStorage) {
+        this.blobsReference = firebaseStorage.getReference().child(BLOBS_PATH);
+    }
+
+    /**
+     * Uploads the blob unless an object with the same hash already exists.
+     *
+     * @param data     The bytes to store.
+     * @param callback The callback invoked with the content hash of the blob.
+     */
+    @Override
+    public void put(@NonNull byte[] data, @NonNull DatabaseCallback<String> callback) {
+        String hash = ContentHash.of(data);
+        upload(blobsReference.child(hash), data, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void object) {
+                callback.onCompleted(hash);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Downloads the blob.
+     *
+     * @param hash     The content hash of the blob.
+     * @param callback The callback invoked with the bytes.
+     */
+    @Override
+    public void get(@NonNull String hash, @NonNull DatabaseCallback<byte[]> callback) {
+        download(blobsReference.child(hash), callback);
+    }
+
+    /**
+     * Uploads the rendition unless it already exists.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param data     The bytes of the rendition.
+     * @param callback The callback invoked once the rendition is stored.
+     */
+    @Override
+    public void putVariant(@NonNull String hash, @NonNull String variant, @NonNull byte[] data, @NonNull DatabaseCallback<Void> callback) {
+        upload(blobsReference.child(IBlobStore.variantName(hash, variant)), data, callback);
+    }
+
+    /**
+     * Downloads the rendition.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param callback The callback invoked with the bytes.
+     */
+    @Override
+    public void getVariant(@NonNull String hash, @NonNull String variant, @NonNull DatabaseCallback<byte[]> callback) {
+        download(blobsReference.child(IBlobStore.variantName(hash, variant)), callback);
+    }
+
+    private void upload(StorageReference ref, byte[] data, DatabaseCallback<Void> callback) {
+        ref.getMetadata()
+                .addOnSuccessListener(metadata -> callback.onCompleted(null))
+                .addOnFailureListener(e -> {
+                    if (!(e instanceof StorageException) || ((StorageException) e).getErrorCode() != StorageException.ERROR_OBJECT_NOT_FOUND) {
+                        callback.onFailed(e);
+                        return;
+                    }
+                    StorageMetadata metadata = new StorageMetadata.Builder().setContentType(CONTENT_TYPE).build();
+                    ref.putBytes(data, metadata)
+                            .addOnSuccessListener(snapshot -> callback.onCompleted(null))
+                            .addOnFailureListener(callback::onFailed);
+                });
+    }
+
+    private void download(StorageReference ref, DatabaseCallback<byte[]> callback) {
+        ref.getBytes(MAX_DOWNLOAD_BYTES)
+                .addOnSuccessListener(callback::onCompleted)
+                .addOnFailureListener(callback::onFailed);
+    }
+}
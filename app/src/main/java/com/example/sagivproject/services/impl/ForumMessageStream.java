@@ -0,0 +1,198 @@
+package com.example.sagivproject.services.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.ForumMessage;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IForumService;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseException;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A stream of the changes to the messages of one forum category.
+ * <p>
+ * The latest messages are read once as a window. After that a {@link ChildEventListener} follows
+ * every message from the oldest one in the window, so each new, edited or deleted message is
+ * reported on its own instead of the whole window being delivered again. The listener has no
+ * limit, so a message is only reported as removed when it was really deleted (a limited query
+ * would also remove the oldest message whenever a new one pushes it out of the window). The
+ * initial child events replaying the window are dropped.
+ * </p>
+ */
+class ForumMessageStream {
+    private static final String FIELD_TIMESTAMP = "timestamp";
+
+    private final DatabaseReference messagesReference;
+    private final int windowSize;
+    private final IForumService.IForumMessageListener listener;
+
+    /**
+     * Resolves the sender details of messages before they are reported.
+     */
+    private final BiConsumer<List<ForumMessage>, DatabaseCallback<List<ForumMessage>>> senderResolver;
+
+    /**
+     * The last reported version of every message, to drop events that change nothing.
+     */
+    private final Map<String, ForumMessage> known = new HashMap<>();
+
+    /**
+     * Messages whose sender is being resolved. A message removed meanwhile is dropped from it,
+     * so it is not reported after its removal.
+     */
+    private final Set<String> resolving = new HashSet<>();
+
+    private boolean stopped = false;
+    private Query query;
+    private ChildEventListener messageListener;
+
+    /**
+     * @param messagesReference The messages node of the category.
+     * @param windowSize        How many of the latest messages are read first.
+     * @param senderResolver    Resolves the sender details of messages before they are reported.
+     * @param listener          The listener to report the changes to.
+     */
+    ForumMessageStream(@NonNull DatabaseReference messagesReference, int windowSize,
+                       @NonNull BiConsumer<List<ForumMessage>, DatabaseCallback<List<ForumMessage>>> senderResolver,
+                       @NonNull IForumService.IForumMessageListener listener) {
+        this.messagesReference = messagesReference;
+        this.windowSize = windowSize;
+        this.senderResolver = senderResolver;
+        this.listener = listener;
+    }
+
+    /**
+     * Reads the latest window and starts following the changes from its oldest message.
+     */
+    void start() {
+        messagesReference.orderByChild(FIELD_TIMESTAMP).limitToLast(windowSize).get().addOnCompleteListener(task -> {
+            if (stopped) return;
+            if (!task.isSuccessful()) {
+                listener.onFailed(task.getException());
+                return;
+            }
+            List<ForumMessage> window = new ArrayList<>();
+            try {
+                for (DataSnapshot child : task.getResult().getChildren()) {
+                    ForumMessage message = child.getValue(ForumMessage.class);
+                    if (message != null) window.add(message);
+                }
+            } catch (DatabaseException e) {
+                listener.onFailed(e);
+                return;
+            }
+            for (ForumMessage message : window) known.put(message.getId(), message);
+
+            // Children arrive ordered by timestamp, then key, so the first one starts the followed
+            // range; the key keeps older messages with the same timestamp out of it
+            query = window.isEmpty()
+                    ? messagesReference.orderByChild(FIELD_TIMESTAMP)
+                    : messagesReference.orderByChild(FIELD_TIMESTAMP).startAt(window.get(0).getTimestamp(), window.get(0).getId());
+            resolve(window, listener::onMessagesLoaded);
+            if (stopped) return;
+
+            messageListener = new MessageListener();
+            query.addChildEventListener(messageListener);
+        });
+    }
+
+    /**
+     * Detaches the listener. No events are reported after this call.
+     */
+    void stop() {
+        stopped = true;
+        if (query != null && messageListener != null) query.removeEventListener(messageListener);
+    }
+
+    private void onMessage(@NonNull DataSnapshot snapshot) {
+        ForumMessage message = snapshot.getValue(ForumMessage.class);
+        if (message == null || message.getId() == null) return;
+        ForumMessage previous = known.put(message.getId(), message);
+        if (message.equals(previous)) return;
+
+        resolving.add(message.getId());
+        resolve(Collections.singletonList(message), resolved -> {
+            if (!resolving.remove(message.getId())) return;
+            if (previous == null) listener.onMessageAdded(message);
+            else listener.onMessageChanged(message);
+        });
+    }
+
+    private void onMessageRemoved(@NonNull DataSnapshot snapshot) {
+        String messageId = snapshot.getKey();
+        if (known.remove(messageId) == null) return;
+        resolving.remove(messageId);
+        listener.onMessageRemoved(messageId);
+    }
+
+    /**
+     * Reports messages once their senders are resolved, unless the stream was stopped meanwhile.
+     */
+    private void resolve(@NonNull List<ForumMessage> messages, @NonNull Reporter reporter) {
+        senderResolver.accept(messages, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<ForumMessage> resolved) {
+                if (!stopped) reporter.report(resolved);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (!stopped) reporter.report(messages);
+            }
+        });
+    }
+
+    private interface Reporter {
+        void report(@NonNull List<ForumMessage> messages);
+    }
+
+    private class MessageListener implements ChildEventListener {
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            dispatch(snapshot, false);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            dispatch(snapshot, false);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            dispatch(snapshot, true);
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            if (!stopped) listener.onFailed(error.toException());
+        }
+
+        private void dispatch(@NonNull DataSnapshot snapshot, boolean removed) {
+            if (stopped) return;
+            try {
+                if (removed) onMessageRemoved(snapshot);
+                else onMessage(snapshot);
+            } catch (DatabaseException e) {
+                listener.onFailed(e);
+            }
+        }
+    }
+}
@@ -2,29 +2,32 @@ package com.example.sagivproject.services.impl;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
 
 import com.example.sagivproject.models.ForumCategory;
 import com.example.sagivproject.models.ForumMessage;
+import com.example.sagivproject.models.ForumReadMarker;
 import com.example.sagivproject.models.User;
+import com.example.sagivproject.models.UserSummary;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IForumService;
-import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.IUserDirectory;
+import com.example.sagivproject.services.ReadMode;
 import com.example.sagivproject.utils.CalendarUtil;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.ServerValue;
-import com.google.firebase.database.Transaction;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -35,48 +38,72 @@ import javax.inject.Inject;
  * This class manages the persistence and retrieval of forum messages within categories
  * in the Firebase Realtime Database. It ensures data minimization by storing only
  * persistent message data (ID, text, timestamp, userId), while sender details (name, email, role)
- * are dynamically injected during retrieval.
+ * are resolved through the shared {@link IUserDirectory} before messages are delivered.
+ * </p>
+ * <p>
+ * Each category also has an entry in {@code forum_category_index/{id}} with its name, message
+ * count and last activity. The entry is written in the same multi-path update as every message
+ * that is sent or deleted, so the category list is read from the index alone and never
+ * downloads the messages stored under {@code forum_categories/{id}/messages}.
+ * </p>
+ * <p>
+ * Unread messages are counted the same way: the index entry also holds a post count that only
+ * grows, and each user has a marker per category in {@code forum_read_markers/{uid}/{id}} with the
+ * post count they last read. Sending a message advances the sender's marker in the same write,
+ * so their own messages are never unread.
  * </p>
  */
 public class ForumServiceImpl extends BaseDatabaseService<ForumMessage> implements IForumService {
     private static final String FORUM_PATH = "forum_categories";
+    private static final String INDEX_PATH = "forum_category_index";
+    private static final String READ_MARKERS_PATH = "forum_read_markers";
 
     /**
-     * Service used to resolve sender details for forum messages.
+     * How many of the latest messages are read when a category is opened.
      */
-    private final IUserService userService;
+    private static final int MESSAGE_WINDOW = 50;
 
-    private final CalendarUtil calendarUtil;
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_MESSAGE_COUNT = "messageCount";
+    private static final String FIELD_LAST_ACTIVITY = "lastActivity";
+    private static final String FIELD_POST_COUNT = "postCount";
+    private static final String FIELD_READ_COUNT = "readCount";
+    private static final String FIELD_LAST_READ = "lastRead";
+    private static final String FIELD_TIMESTAMP = "timestamp";
 
     /**
-     * Local cache for user profile data to minimize database hits during message synchronization.
+     * Directory used to resolve sender details for forum messages.
      */
-    private final Map<String, User> userCache = new HashMap<>();
+    private final IUserDirectory userDirectory;
+
+    private final CalendarUtil calendarUtil;
 
     /**
-     * Active database listeners for real-time forum monitoring, indexed by category ID.
+     * Active message streams for real-time forum monitoring, indexed by category ID.
      */
-    private final Map<String, ValueEventListener> listeners = new HashMap<>();
+    private final Map<String, ForumMessageStream> streams = new HashMap<>();
 
     /**
      * Constructs a new ForumServiceImpl.
      *
      * @param firebaseDatabase The {@link FirebaseDatabase} instance.
-     * @param userService      The service used to fetch sender details.
+     * @param userDirectory    The directory used to resolve sender details.
      * @param calendarUtil     The utility for date and time operations.
      */
     @Inject
-    public ForumServiceImpl(FirebaseDatabase firebaseDatabase, IUserService userService, CalendarUtil calendarUtil) {
+    public ForumServiceImpl(FirebaseDatabase firebaseDatabase, IUserDirectory userDirectory, CalendarUtil calendarUtil) {
         super(firebaseDatabase, FORUM_PATH, ForumMessage.class);
-        this.userService = userService;
+        this.userDirectory = userDirectory;
         this.calendarUtil = calendarUtil;
     }
 
     /**
      * Sends a new message to a specific forum category.
      * <p>
-     * Uses {@link ServerValue#TIMESTAMP} for server-side time synchronization to ensure
-     * messages are ordered correctly across all devices regardless of their local clock.
+     * The message, the category's message and post counters (each a {@link ServerValue#increment}),
+     * its last activity and the sender's read marker are written in a single multi-path update,
+     * once the category was found to still exist.
      * </p>
      *
      * @param user       The {@link User} sending the message.
@@ -96,44 +123,88 @@ public class ForumServiceImpl extends BaseDatabaseService<ForumMessage> implemen
         }
 
         ForumMessage forumMessage = new ForumMessage(messageId, text, calendarUtil.getCurrentTimestamp(), user.getId());
-        writeData(path + "/" + messageId, forumMessage, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(path + "/" + messageId, forumMessage);
+        updates.put(getIndexPath(categoryId) + "/" + FIELD_MESSAGE_COUNT, ServerValue.increment(1));
+        updates.put(getIndexPath(categoryId) + "/" + FIELD_LAST_ACTIVITY, forumMessage.getTimestamp());
+        updates.put(getIndexPath(categoryId) + "/" + FIELD_POST_COUNT, ServerValue.increment(1));
+        updates.put(getMarkerPath(user.getId(), categoryId) + "/" + FIELD_READ_COUNT, ServerValue.increment(1));
+        updates.put(getMarkerPath(user.getId(), categoryId) + "/" + FIELD_LAST_READ, forumMessage.getTimestamp());
+        updateIfCategoryExists(categoryId, updates, callback);
     }
 
     /**
-     * Listens for real-time updates using a {@link ValueEventListener} on a limited query.
+     * Marks every message currently in a category as read by a user.
      * <p>
-     * This ensures the latest 50 messages are always synchronized as a single batch,
-     * which improves UI stability and automatically handles deletions and updates.
+     * Only the category's post count is read, and the marker is set to it.
+     * </p>
+     *
+     * @param userId     The UID of the reader.
+     * @param categoryId The ID of the category.
+     * @param callback   An optional callback invoked upon completion.
+     */
+    @Override
+    public void markCategoryRead(@NonNull String userId, String categoryId, @Nullable DatabaseCallback<Void> callback) {
+        readData(getIndexPath(categoryId) + "/" + FIELD_POST_COUNT).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (callback != null) callback.onFailed(task.getException());
+                return;
+            }
+            Long postCount = task.getResult().getValue(Long.class);
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(getMarkerPath(userId, categoryId) + "/" + FIELD_READ_COUNT, postCount != null ? postCount : 0L);
+            updates.put(getMarkerPath(userId, categoryId) + "/" + FIELD_LAST_READ, calendarUtil.getCurrentTimestamp());
+            updateChildren(updates, callback);
+        });
+    }
+
+    /**
+     * Follows the read markers of a user with real-time updates for as long as the owner is
+     * started. The markers of all categories are one small node, read in a single listener.
+     *
+     * @param owner    The lifecycle that scopes the listener.
+     * @param userId   The UID of the reader.
+     * @param callback A callback invoked with the markers by category ID whenever they change.
+     */
+    @Override
+    public void getReadMarkers(@NonNull LifecycleOwner owner, @NonNull String userId,
+                               DatabaseCallback<Map<String, ForumReadMarker>> callback) {
+        listenWhileStarted(owner, readData(READ_MARKERS_PATH + "/" + userId), new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, ForumReadMarker> markers = new HashMap<>();
+                for (DataSnapshot child : snapshot.getChildren()) {
+                    ForumReadMarker marker = child.getValue(ForumReadMarker.class);
+                    if (marker != null) markers.put(child.getKey(), marker);
+                }
+                if (callback != null) callback.onCompleted(markers);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                if (callback != null) callback.onFailed(error.toException());
+            }
+        });
+    }
+
+    /**
+     * Follows a category through a {@link ForumMessageStream}.
+     * <p>
+     * The latest {@value #MESSAGE_WINDOW} messages are read once; after that every added,
+     * changed or removed message is reported on its own, with its sender details resolved.
      * </p>
      *
      * @param categoryId The ID of the forum category to monitor.
-     * @param callback   The callback invoked with the updated list of messages.
+     * @param listener   The listener to report the messages and their changes to.
      */
     @Override
-    public void listenToMessages(String categoryId, DatabaseCallback<List<ForumMessage>> callback) {
+    public void listenToMessages(String categoryId, IForumMessageListener listener) {
         stopListeningToMessages(categoryId);
 
-        ValueEventListener listener = readData(getCategoryPath(categoryId))
-                .orderByChild("timestamp")
-                .limitToLast(50)
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        List<ForumMessage> messages = new ArrayList<>();
-                        for (DataSnapshot child : snapshot.getChildren()) {
-                            ForumMessage msg = child.getValue(ForumMessage.class);
-                            if (msg != null) messages.add(msg);
-                        }
-                        messages.sort(Comparator.comparing(ForumMessage::getTimestamp));
-                        processMessages(messages, callback);
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        if (callback != null) callback.onFailed(error.toException());
-                    }
-                });
-        listeners.put(categoryId, listener);
+        ForumMessageStream stream = new ForumMessageStream(readData(getCategoryPath(categoryId)), MESSAGE_WINDOW,
+                this::processMessages, listener);
+        streams.put(categoryId, stream);
+        stream.start();
     }
 
     /**
@@ -143,55 +214,80 @@ public class ForumServiceImpl extends BaseDatabaseService<ForumMessage> implemen
      */
     @Override
     public void stopListeningToMessages(String categoryId) {
-        ValueEventListener listener = listeners.remove(categoryId);
-        if (listener != null) {
-            readData(getCategoryPath(categoryId)).removeEventListener(listener);
-        }
+        ForumMessageStream stream = streams.remove(categoryId);
+        if (stream != null) stream.stop();
     }
 
     /**
-     * Loads older messages for pagination.
+     * Loads the page of messages just before a cursor, for pagination.
+     * <p>
+     * Messages are ordered by timestamp and, within a timestamp, by key; the cursor's timestamp
+     * and ID continue that order exactly.
+     * </p>
      *
-     * @param categoryId      The ID of the category.
-     * @param oldestTimestamp The timestamp of the oldest message currently loaded.
-     * @param limit           Maximum number of messages to fetch.
-     * @param callback        The callback with the list of older messages.
+     * @param categoryId The ID of the category.
+     * @param before     The oldest message currently loaded, or null to load the latest page.
+     * @param limit      Maximum number of messages to fetch.
+     * @param callback   The callback with the messages, oldest first.
      */
     @Override
-    public void loadOlderMessages(String categoryId, String oldestTimestamp, int limit, DatabaseCallback<List<ForumMessage>> callback) {
-        readData(getCategoryPath(categoryId))
-                .orderByChild("timestamp")
-                .endBefore(oldestTimestamp)
-                .limitToLast(limit)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (!task.isSuccessful()) {
-                        if (callback != null) callback.onFailed(task.getException());
-                        return;
-                    }
-                    DataSnapshot snapshot = task.getResult();
-                    List<ForumMessage> messages = new ArrayList<>();
-                    if (snapshot != null && snapshot.exists()) {
-                        for (DataSnapshot child : snapshot.getChildren()) {
-                            ForumMessage msg = child.getValue(ForumMessage.class);
-                            if (msg != null) messages.add(msg);
-                        }
-                    }
-                    messages.sort(Comparator.comparing(ForumMessage::getTimestamp));
-                    processMessages(messages, callback);
-                });
+    public void loadOlderMessages(String categoryId, @Nullable ForumMessage before, int limit, DatabaseCallback<List<ForumMessage>> callback) {
+        Query query = readData(getCategoryPath(categoryId)).orderByChild(FIELD_TIMESTAMP);
+        if (before != null) query = query.endBefore(before.getTimestamp(), before.getId());
+        readPage(query.limitToLast(limit), callback);
+    }
+
+    /**
+     * Loads the page of messages just after a cursor, for paging back toward the latest messages.
+     *
+     * @param categoryId The ID of the category.
+     * @param after      The newest message currently loaded.
+     * @param limit      Maximum number of messages to fetch.
+     * @param callback   The callback with the messages, oldest first.
+     */
+    @Override
+    public void loadNewerMessages(String categoryId, @NonNull ForumMessage after, int limit, DatabaseCallback<List<ForumMessage>> callback) {
+        readPage(readData(getCategoryPath(categoryId))
+                .orderByChild(FIELD_TIMESTAMP)
+                .startAfter(after.getTimestamp(), after.getId())
+                .limitToFirst(limit), callback);
+    }
+
+    /**
+     * Reads a page of messages and resolves their senders before delivering it.
+     *
+     * @param query    The page query.
+     * @param callback The callback with the messages, oldest first.
+     */
+    private void readPage(Query query, DatabaseCallback<List<ForumMessage>> callback) {
+        query.get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (callback != null) callback.onFailed(task.getException());
+                return;
+            }
+            DataSnapshot snapshot = task.getResult();
+            List<ForumMessage> messages = new ArrayList<>();
+            if (snapshot != null && snapshot.exists()) {
+                // Children arrive in query order: by timestamp, then by key
+                for (DataSnapshot child : snapshot.getChildren()) {
+                    ForumMessage msg = child.getValue(ForumMessage.class);
+                    if (msg != null) messages.add(msg);
+                }
+            }
+            processMessages(messages, callback);
+        });
     }
 
     /**
-     * Injects sender details (name, email, role) into a list of messages.
+     * Resolves the senders of a list of messages before it is delivered.
      * <p>
-     * To optimize performance and reduce database hits, this method uses an internal
-     * cache to store user data. It uses an {@link AtomicInteger} to track the progress
-     * of asynchronous user lookups.
+     * All senders are requested from the {@link IUserDirectory} in one batch; senders that are
+     * cached are not read again and concurrent requests for the same sender share one read. The
+     * messages are delivered even if some senders could not be resolved.
      * </p>
      *
-     * @param messages The list of {@link ForumMessage} objects to populate.
-     * @param callback The callback to invoke once all messages are processed.
+     * @param messages The list of {@link ForumMessage} objects whose senders to resolve.
+     * @param callback The callback to invoke once all senders are resolved.
      */
     private void processMessages(List<ForumMessage> messages, DatabaseCallback<List<ForumMessage>> callback) {
         if (messages.isEmpty()) {
@@ -199,53 +295,26 @@ public class ForumServiceImpl extends BaseDatabaseService<ForumMessage> implemen
             return;
         }
 
-        Set<String> uniqueUserIdsToFetch = messages.stream()
+        Set<String> senderIds = messages.stream()
                 .map(ForumMessage::getUserId)
-                .filter(id -> !userCache.containsKey(id))
                 .collect(Collectors.toSet());
 
-        if (uniqueUserIdsToFetch.isEmpty()) {
-            if (callback != null) callback.onCompleted(messages);
-            return;
-        }
-
-        AtomicInteger remaining = new AtomicInteger(uniqueUserIdsToFetch.size());
-        for (String userId : uniqueUserIdsToFetch) {
-            userService.getUser(userId, new DatabaseCallback<>() {
-                @Override
-                public void onCompleted(User user) {
-                    if (user != null) {
-                        userCache.put(userId, user);
-                    }
-                    checkCompletion();
-                }
-
-                @Override
-                public void onFailed(Exception e) {
-                    checkCompletion();
-                }
-
-                private void checkCompletion() {
-                    if (remaining.decrementAndGet() == 0 && callback != null) {
-                        callback.onCompleted(messages);
-                    }
-                }
-            });
-        }
-    }
-
-    @Override
-    public Map<String, User> getUserCache() {
-        return userCache;
-    }
+        userDirectory.getUsers(senderIds, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Map<String, UserSummary> senders) {
+                if (callback != null) callback.onCompleted(messages);
+            }
 
-    @Override
-    public void clearUserCache() {
-        userCache.clear();
+            @Override
+            public void onFailed(Exception e) {
+                if (callback != null) callback.onCompleted(messages);
+            }
+        });
     }
 
     /**
-     * Deletes a specific message from a forum category.
+     * Deletes a specific message from a forum category and decrements the category's message
+     * counter in the same multi-path update, unless the whole category was deleted already.
      *
      * @param messageId  The unique identifier of the message to delete.
      * @param categoryId The ID of the category containing the message.
@@ -253,7 +322,31 @@ public class ForumServiceImpl extends BaseDatabaseService<ForumMessage> implemen
      */
     @Override
     public void deleteMessage(@NonNull String messageId, String categoryId, @Nullable DatabaseCallback<Void> callback) {
-        deleteData(getCategoryPath(categoryId) + "/" + messageId, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(getCategoryPath(categoryId) + "/" + messageId, null);
+        updates.put(getIndexPath(categoryId) + "/" + FIELD_MESSAGE_COUNT, ServerValue.increment(-1));
+        updateIfCategoryExists(categoryId, updates, callback);
+    }
+
+    /**
+     * Writes a multi-path update only if the category still has a name, so that a message sent or
+     * deleted in a category deleted in the meantime does not leave an index entry with counters
+     * and no name. Such an entry can still appear if the category is deleted between the check
+     * and the write, or if the check cannot be made offline and the write is queued anyway;
+     * {@link #rebuildIndex} removes it.
+     *
+     * @param categoryId The ID of the category the update belongs to.
+     * @param updates    The multi-path update.
+     * @param callback   An optional callback invoked upon completion, or failed if the category is gone.
+     */
+    private void updateIfCategoryExists(String categoryId, Map<String, Object> updates, @Nullable DatabaseCallback<Void> callback) {
+        readData(FORUM_PATH + "/" + categoryId + "/" + FIELD_NAME).get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && !task.getResult().exists()) {
+                if (callback != null) callback.onFailed(new Exception("The category was deleted."));
+                return;
+            }
+            updateChildren(updates, callback);
+        });
     }
 
     /**
@@ -267,21 +360,75 @@ public class ForumServiceImpl extends BaseDatabaseService<ForumMessage> implemen
     }
 
     /**
-     * Retrieves all forum categories with real-time updates.
+     * Generates the database path for a category's index entry.
+     *
+     * @param categoryId The unique ID of the forum category.
+     * @return The string representing the database path.
+     */
+    private String getIndexPath(String categoryId) {
+        return INDEX_PATH + "/" + categoryId;
+    }
+
+    /**
+     * Generates the database path for a user's read marker in a category.
+     *
+     * @param userId     The UID of the reader.
+     * @param categoryId The unique ID of the forum category.
+     * @return The string representing the database path.
+     */
+    private String getMarkerPath(String userId, String categoryId) {
+        return READ_MARKERS_PATH + "/" + userId + "/" + categoryId;
+    }
+
+    /**
+     * Follows the category index with real-time updates for as long as the owner is started.
+     * <p>
+     * The listener is attached when the owner starts, removed when it stops and released when it
+     * is destroyed, so a category list in the background does not receive every new post. If the
+     * index is empty or has entries without a name, the missing entries are rebuilt from the
+     * categories once, for data that predates the index, and entries of deleted categories are removed.
+     * </p>
      *
+     * @param owner    The lifecycle that scopes the listener.
      * @param callback A callback invoked with the list of categories whenever the data changes.
      */
     @Override
-    public void getCategories(DatabaseCallback<List<ForumCategory>> callback) {
-        readData(FORUM_PATH).addValueEventListener(new ValueEventListener() {
+    public void getCategories(@NonNull LifecycleOwner owner, DatabaseCallback<List<ForumCategory>> callback) {
+        DatabaseReference indexReference = readData(INDEX_PATH);
+        ValueEventListener listener = new ValueEventListener() {
+            private boolean rebuildAttempted = false;
+
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 List<ForumCategory> categories = new ArrayList<>();
+                boolean incomplete = !snapshot.exists();
                 for (DataSnapshot child : snapshot.getChildren()) {
                     ForumCategory category = child.getValue(ForumCategory.class);
-                    if (category != null) {
-                        categories.add(category);
+                    if (category == null) continue;
+                    // A post to a category that predates the index leaves an entry with only counters.
+                    if (category.getName() == null) {
+                        incomplete = true;
+                        continue;
                     }
+                    category.setId(child.getKey());
+                    categories.add(category);
+                }
+
+                if (incomplete && !rebuildAttempted) {
+                    rebuildAttempted = true;
+                    rebuildIndex(new DatabaseCallback<>() {
+                        @Override
+                        public void onCompleted(Integer count) {
+                            // A written index is delivered by this listener; an empty one is not.
+                            if (count == 0 && callback != null) callback.onCompleted(categories);
+                        }
+
+                        @Override
+                        public void onFailed(Exception e) {
+                            if (callback != null) callback.onFailed(e);
+                        }
+                    });
+                    return;
                 }
                 if (callback != null) callback.onCompleted(categories);
             }
@@ -290,53 +437,190 @@ public class ForumServiceImpl extends BaseDatabaseService<ForumMessage> implemen
             public void onCancelled(@NonNull DatabaseError error) {
                 if (callback != null) callback.onFailed(error.toException());
             }
+        };
+
+        listenWhileStarted(owner, indexReference, listener);
+    }
+
+    /**
+     * Attaches a listener while the owner is started and releases it when the owner is destroyed,
+     * so a screen in the background does not receive every change.
+     *
+     * @param owner     The lifecycle that scopes the listener.
+     * @param reference The node to listen to.
+     * @param listener  The listener.
+     */
+    private void listenWhileStarted(@NonNull LifecycleOwner owner, DatabaseReference reference, ValueEventListener listener) {
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onStart(@NonNull LifecycleOwner lifecycleOwner) {
+                reference.addValueEventListener(listener);
+            }
+
+            @Override
+            public void onStop(@NonNull LifecycleOwner lifecycleOwner) {
+                reference.removeEventListener(listener);
+            }
+
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner lifecycleOwner) {
+                lifecycleOwner.getLifecycle().removeObserver(this);
+            }
         });
     }
 
     /**
-     * Adds a new forum category to the database.
+     * Adds a new forum category and its index entry in a single multi-path update.
      */
     @Override
     public void addCategory(String name, DatabaseCallback<Void> callback) {
         String categoryId = generateId();
         ForumCategory category = new ForumCategory(categoryId, name);
-        writeData(FORUM_PATH + "/" + categoryId, category, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(FORUM_PATH + "/" + categoryId + "/" + FIELD_ID, categoryId);
+        updates.put(FORUM_PATH + "/" + categoryId + "/" + FIELD_NAME, name);
+        updates.put(getIndexPath(categoryId), category);
+        updateChildren(updates, callback);
     }
 
     /**
-     * Deletes a forum category and all of its associated messages.
+     * Deletes a forum category, all of its associated messages and its index entry.
+     * <p>
+     * Users' read markers for the category are left in place; they are small and match no
+     * category anymore, so they are ignored.
+     * </p>
      */
     @Override
     public void deleteCategory(String categoryId, DatabaseCallback<Void> callback) {
-        deleteData(FORUM_PATH + "/" + categoryId, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(FORUM_PATH + "/" + categoryId, null);
+        updates.put(getIndexPath(categoryId), null);
+        updateChildren(updates, callback);
     }
 
     /**
-     * Updates the display name of an existing forum category.
+     * Updates the display name of an existing forum category and its index entry.
+     * <p>
+     * Only the two name fields are written, so the category's messages are not read.
+     * </p>
      */
     @Override
     public void updateCategoryName(String categoryId, String newName, DatabaseCallback<Void> callback) {
-        readData(FORUM_PATH + "/" + categoryId).runTransaction(new Transaction.Handler() {
-            @NonNull
-            @Override
-            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
-                ForumCategory category = currentData.getValue(ForumCategory.class);
-                if (category != null) {
-                    category.setName(newName);
-                    currentData.setValue(category);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(FORUM_PATH + "/" + categoryId + "/" + FIELD_NAME, newName);
+        updates.put(getIndexPath(categoryId) + "/" + FIELD_NAME, newName);
+        updateChildren(updates, callback);
+    }
+
+    /**
+     * Writes the index entries that are missing or incomplete, from the categories and their messages.
+     * <p>
+     * Only the records of categories whose entry has no name are read, or every record if nothing
+     * is indexed yet, which is only the case for data that predates the index. Complete entries
+     * are left untouched, and a rebuilt entry never lowers the post count it already had, so
+     * users' read markers do not show old messages as unread. An entry whose category record has
+     * no name belongs to a deleted category that was posted to afterwards; it is deleted, together
+     * with any messages written to the deleted category.
+     * </p>
+     *
+     * @param callback Invoked with the number of index entries written or deleted.
+     */
+    private void rebuildIndex(DatabaseCallback<Integer> callback) {
+        readData(INDEX_PATH).get().addOnCompleteListener(indexTask -> {
+            if (!indexTask.isSuccessful()) {
+                callback.onFailed(indexTask.getException());
+                return;
+            }
+            DataSnapshot index = indexTask.getResult();
+            if (!index.exists()) {
+                readData(FORUM_PATH).get().addOnCompleteListener(task -> {
+                    if (!task.isSuccessful()) {
+                        callback.onFailed(task.getException());
+                        return;
+                    }
+                    writeIndexEntries(index, task.getResult().getChildren(), callback);
+                });
+                return;
+            }
+
+            List<String> paths = new ArrayList<>();
+            for (DataSnapshot entry : index.getChildren()) {
+                if (!entry.hasChild(FIELD_NAME)) paths.add(FORUM_PATH + "/" + entry.getKey());
+            }
+            if (paths.isEmpty()) {
+                callback.onCompleted(0);
+                return;
+            }
+            readSnapshots(paths, ReadMode.FRESH, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(List<DataSnapshot> records) {
+                    writeIndexEntries(index, records, callback);
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    callback.onFailed(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Rebuilds the index entries of the given category records that have none or one without a
+     * name, and deletes the entries and records of categories without a name.
+     *
+     * @param index    The current index.
+     * @param records  The category records to rebuild the entries of.
+     * @param callback Invoked with the number of index entries written or deleted.
+     */
+    private void writeIndexEntries(DataSnapshot index, Iterable<DataSnapshot> records, DatabaseCallback<Integer> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        int entries = 0;
+        for (DataSnapshot record : records) {
+            String categoryId = record.getKey();
+            if (categoryId == null) continue;
+            DataSnapshot entry = index.child(categoryId);
+            if (entry.hasChild(FIELD_NAME)) continue;
+
+            String name = record.child(FIELD_NAME).getValue(String.class);
+            if (name == null) {
+                if (record.exists()) updates.put(FORUM_PATH + "/" + categoryId, null);
+                if (entry.exists()) {
+                    updates.put(getIndexPath(categoryId), null);
+                    entries++;
                 }
-                return Transaction.success(currentData);
+                continue;
             }
 
-            @Override
-            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot currentData) {
-                if (callback == null) return;
-                if (error != null) {
-                    callback.onFailed(error.toException());
-                } else {
-                    callback.onCompleted(null);
+            ForumCategory category = new ForumCategory(categoryId, name);
+            DataSnapshot messages = record.child("messages");
+            Long postCount = entry.child(FIELD_POST_COUNT).getValue(Long.class);
+            category.setMessageCount(messages.getChildrenCount());
+            category.setPostCount(Math.max(messages.getChildrenCount(), postCount != null ? postCount : 0L));
+            for (DataSnapshot message : messages.getChildren()) {
+                String timestamp = message.child(FIELD_TIMESTAMP).getValue(String.class);
+                if (timestamp != null && (category.getLastActivity() == null || timestamp.compareTo(category.getLastActivity()) > 0)) {
+                    category.setLastActivity(timestamp);
                 }
             }
+            updates.put(getIndexPath(categoryId), category);
+            entries++;
+        }
+        if (updates.isEmpty()) {
+            callback.onCompleted(0);
+            return;
+        }
+        int written = entries;
+        updateChildren(updates, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void object) {
+                callback.onCompleted(written);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
         });
     }
-}
\ No newline at end of file
+}
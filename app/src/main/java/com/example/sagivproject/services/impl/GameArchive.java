@@ -0,0 +1,80 @@
+package com.example.sagivproject.services.impl;
+
+import androidx.annotation.NonNull;
+
+import com.example.sagivproject.models.GameResult;
+import com.example.sagivproject.models.GameRoom;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the writes that move finished game rooms out of the live {@code rooms} node.
+ * <p>
+ * A finished room is compacted into a {@link GameResult} under {@code game_history/yyyy-MM} and
+ * deleted from {@code rooms} in one multi-path update, so it never exists in both places. The
+ * result is written field by field, which lets the finish time be a server value. Once archiving
+ * succeeds the room is gone; repeating it for the same room and month overwrites the same entry,
+ * with only its finish time moved to the later write.
+ * </p>
+ */
+public final class GameArchive {
+    static final String ROOMS_PATH = "rooms";
+    static final String HISTORY_PATH = "game_history";
+
+    /**
+     * How long after its game deadline a finished room is archived, even if no player recorded
+     * its statistics. Until then a player may still be finishing the game.
+     */
+    static final long ABANDONED_GRACE = 60_000;
+
+    private static final String STATUS_FINISHED = "finished";
+
+    private GameArchive() {
+    }
+
+    /**
+     * Checks whether a room left in {@code rooms} may be archived by any client.
+     *
+     * @param room The room as stored.
+     * @param now  The current server time, in milliseconds.
+     * @return true if the game is finished and either its statistics were recorded or its
+     * deadline passed long enough ago that no player is still finishing it.
+     */
+    public static boolean isReadyToArchive(@NonNull GameRoom room, long now) {
+        if (!STATUS_FINISHED.equals(room.getStatus())) return false;
+        return room.isStatsUpdated() || now > room.getGameDeadline() + ABANDONED_GRACE;
+    }
+
+    /**
+     * Builds the multi-path update that archives a finished room.
+     * <p>
+     * A node without players is only deleted: it is the leftover of a forfeit written on
+     * disconnect after the room was already archived.
+     * </p>
+     *
+     * @param room       The finished room, with its ID set.
+     * @param monthKey   The month partition of the history, in "yyyy-MM" format.
+     * @param finishedAt The finish time to store, usually {@code ServerValue.TIMESTAMP}.
+     * @return The paths to write and their new values, relative to the database root.
+     */
+    @NonNull
+    public static Map<String, Object> createUpdates(@NonNull GameRoom room, @NonNull String monthKey, @NonNull Object finishedAt) {
+        Map<String, Object> updates = new LinkedHashMap<>();
+        updates.put(ROOMS_PATH + "/" + room.getId(), null);
+        if (room.getPlayer1Uid() == null) return updates;
+
+        GameResult result = GameResult.fromRoom(room, 0);
+        String resultPath = HISTORY_PATH + "/" + monthKey + "/" + room.getId() + "/";
+        updates.put(resultPath + "id", result.getId());
+        updates.put(resultPath + "status", result.getStatus());
+        updates.put(resultPath + "player1Uid", result.getPlayer1Uid());
+        updates.put(resultPath + "player2Uid", result.getPlayer2Uid());
+        updates.put(resultPath + "player1Score", result.getPlayer1Score());
+        updates.put(resultPath + "player2Score", result.getPlayer2Score());
+        updates.put(resultPath + "winnerUid", result.getWinnerUid());
+        updates.put(resultPath + "startedAt", result.getStartedAt());
+        updates.put(resultPath + "finishedAt", finishedAt);
+        return updates;
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.sagivproject.services.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.CompactBoard;
+import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.services.IMemoryGameService;
+import com.example.sagivproject.utils.BoardCodec;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseException;
+import com.google.firebase.database.DatabaseReference;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A fine-grained stream of changes to a single game room.
+ * <p>
+ * The room is read once; after that a {@link ChildEventListener} on the room follows its
+ * fields. Each change is applied to the loaded {@link GameRoom} and reported as a typed event, so
+ * a card flip reads one bitmask instead of the whole room; the bits that changed are reported as
+ * single cards. Events that do not change the known state (such as the initial child events
+ * replaying the loaded values) are dropped.
+ * </p>
+ */
+class GameRoomStream {
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_BOARD = "board";
+    private static final String FIELD_REVEALED_MASK = "revealedMask";
+    private static final String FIELD_MATCHED_MASK = "matchedMask";
+    private static final String FIELD_LEGACY_CARDS = "cards";
+    private static final String FIELD_CURRENT_TURN_UID = "currentTurnUid";
+    private static final String FIELD_PLAYER1_SCORE = "player1Score";
+    private static final String FIELD_PLAYER2_SCORE = "player2Score";
+    private static final String FIELD_FIRST_SELECTED_CARD_INDEX = "firstSelectedCardIndex";
+    private static final String FIELD_PROCESSING_MATCH = "processingMatch";
+    private static final String FIELD_WINNER_UID = "winnerUid";
+    private static final String FIELD_STATS_UPDATED = "statsUpdated";
+    private static final String FIELD_TURN_DEADLINE = "turnDeadline";
+    private static final String FIELD_GAME_DEADLINE = "gameDeadline";
+
+    private final DatabaseReference roomReference;
+    private final IMemoryGameService.IGameEventListener listener;
+
+    /**
+     * The room state built from the initial read and the events since.
+     */
+    private GameRoom room;
+    private boolean stopped = false;
+    private ChildEventListener fieldListener;
+
+    /**
+     * @param roomReference The reference of the room to follow.
+     * @param listener      The listener to report the changes to.
+     */
+    GameRoomStream(@NonNull DatabaseReference roomReference, @NonNull IMemoryGameService.IGameEventListener listener) {
+        this.roomReference = roomReference;
+        this.listener = listener;
+    }
+
+    /**
+     * Reads the room and starts following its changes.
+     */
+    void start() {
+        roomReference.get().addOnCompleteListener(task -> {
+            if (stopped) return;
+            if (!task.isSuccessful()) {
+                listener.onFailed(task.getException());
+                return;
+            }
+            try {
+                room = task.getResult().getValue(GameRoom.class);
+            } catch (DatabaseException e) {
+                listener.onFailed(e);
+                return;
+            }
+            if (room == null) {
+                listener.onRoomRemoved();
+                return;
+            }
+            listener.onRoomLoaded(room);
+            if (stopped) return;
+
+            fieldListener = new StreamListener() {
+                @Override
+                void onChild(@NonNull DataSnapshot snapshot) {
+                    onFieldChanged(snapshot);
+                }
+
+                @Override
+                public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                    onFieldRemoved(snapshot.getKey());
+                }
+            };
+            roomReference.addChildEventListener(fieldListener);
+        });
+    }
+
+    /**
+     * Detaches the listeners. No events are reported after this call.
+     */
+    void stop() {
+        stopped = true;
+        if (fieldListener != null) roomReference.removeEventListener(fieldListener);
+    }
+
+    private void onFieldChanged(@NonNull DataSnapshot snapshot) {
+        String key = Objects.requireNonNull(snapshot.getKey());
+        switch (key) {
+            case FIELD_BOARD:
+                // The layout never changes once dealt; later changes arrive as masks
+                if (isBoardEmpty()) {
+                    CompactBoard board = snapshot.getValue(CompactBoard.class);
+                    if (board == null) return;
+                    room.setBoard(board);
+                    if (!isBoardEmpty()) listener.onBoardChanged(room.getCards());
+                }
+                break;
+            case FIELD_LEGACY_CARDS:
+                if (isBoardEmpty()) {
+                    room.setLegacyCards(snapshot.getValue());
+                    if (!isBoardEmpty()) listener.onBoardChanged(room.getCards());
+                }
+                break;
+            case FIELD_REVEALED_MASK:
+            case FIELD_MATCHED_MASK:
+                onMaskChanged(FIELD_REVEALED_MASK.equals(key), longValue(snapshot));
+                break;
+            case FIELD_CURRENT_TURN_UID:
+                String currentTurnUid = snapshot.getValue(String.class);
+                if (Objects.equals(currentTurnUid, room.getCurrentTurnUid())) return;
+                room.setCurrentTurnUid(currentTurnUid);
+                listener.onTurnChanged(currentTurnUid);
+                break;
+            case FIELD_TURN_DEADLINE:
+                long turnDeadline = longValue(snapshot);
+                if (turnDeadline == room.getTurnDeadline()) return;
+                room.setTurnDeadline(turnDeadline);
+                listener.onTurnChanged(room.getCurrentTurnUid());
+                break;
+            case FIELD_GAME_DEADLINE:
+                room.setGameDeadline(longValue(snapshot));
+                break;
+            case FIELD_PLAYER1_SCORE:
+            case FIELD_PLAYER2_SCORE:
+                int score = intValue(snapshot);
+                boolean player1 = FIELD_PLAYER1_SCORE.equals(key);
+                if (score == (player1 ? room.getPlayer1Score() : room.getPlayer2Score())) return;
+                if (player1) room.setPlayer1Score(score);
+                else room.setPlayer2Score(score);
+                listener.onScoreChanged(room.getPlayer1Score(), room.getPlayer2Score());
+                break;
+            case FIELD_STATUS:
+                String status = snapshot.getValue(String.class);
+                if (Objects.equals(status, room.getStatus())) return;
+                room.setStatus(status);
+                listener.onStatusChanged(room);
+                break;
+            case FIELD_WINNER_UID:
+                String winnerUid = snapshot.getValue(String.class);
+                if (Objects.equals(winnerUid, room.getWinnerUid())) return;
+                room.setWinnerUid(winnerUid);
+                listener.onStatusChanged(room);
+                break;
+            case FIELD_STATS_UPDATED:
+                boolean statsUpdated = Boolean.TRUE.equals(snapshot.getValue(Boolean.class));
+                if (statsUpdated == room.isStatsUpdated()) return;
+                room.setStatsUpdated(statsUpdated);
+                listener.onStatusChanged(room);
+                break;
+            case FIELD_FIRST_SELECTED_CARD_INDEX:
+                room.setFirstSelectedCardIndex(snapshot.getValue(Integer.class));
+                break;
+            case FIELD_PROCESSING_MATCH:
+                room.setProcessingMatch(Boolean.TRUE.equals(snapshot.getValue(Boolean.class)));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onFieldRemoved(@Nullable String key) {
+        if (key == null) return;
+        switch (key) {
+            case FIELD_STATUS:
+                // Every room has a status, so it only disappears when the room is archived
+                listener.onRoomRemoved();
+                break;
+            case FIELD_FIRST_SELECTED_CARD_INDEX:
+                room.setFirstSelectedCardIndex(null);
+                break;
+            case FIELD_WINNER_UID:
+                room.setWinnerUid(null);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Applies a revealed or matched mask and reports every card whose bit changed. Before the
+     * board is read, the mask is kept by the room for the board.
+     */
+    private void onMaskChanged(boolean revealed, long mask) {
+        if (isBoardEmpty()) {
+            if (revealed) room.setRevealedMask(mask);
+            else room.setMatchedMask(mask);
+            return;
+        }
+        List<Card> cards = room.getCards();
+        for (int i = 0; i < cards.size(); i++) {
+            Card current = cards.get(i);
+            boolean isSet = BoardCodec.isSet(mask, i);
+            if (isSet == (revealed ? current.getIsRevealed() : current.getIsMatched())) continue;
+
+            Card card = new Card(current.getId(), null);
+            card.setRevealed(revealed ? isSet : current.getIsRevealed());
+            card.setMatched(revealed ? current.getIsMatched() : isSet);
+            cards.set(i, card);
+            listener.onCardChanged(i, card);
+        }
+    }
+
+    private boolean isBoardEmpty() {
+        return room.getCards() == null || room.getCards().isEmpty();
+    }
+
+    private static int intValue(@NonNull DataSnapshot snapshot) {
+        return (int) longValue(snapshot);
+    }
+
+    private static long longValue(@NonNull DataSnapshot snapshot) {
+        Long value = snapshot.getValue(Long.class);
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Routes added and changed children to one handler and reports deserialization errors.
+     */
+    private abstract class StreamListener implements ChildEventListener {
+        abstract void onChild(@NonNull DataSnapshot snapshot);
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            dispatch(snapshot);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            dispatch(snapshot);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            if (!stopped) listener.onFailed(error.toException());
+        }
+
+        private void dispatch(@NonNull DataSnapshot snapshot) {
+            if (stopped) return;
+            try {
+                onChild(snapshot);
+            } catch (DatabaseException e) {
+                listener.onFailed(e);
+            }
+        }
+    }
+}
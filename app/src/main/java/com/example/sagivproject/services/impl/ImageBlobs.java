@@ -0,0 +1,125 @@
+package com.example.sagivproject.services.impl;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
+import com.example.sagivproject.utils.ImageUtil;
+import com.example.sagivproject.utils.ImageVariant;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Stores images in an {@link IBlobStore} on behalf of the services whose records reference them
+ * by content hash ({@link ImageServiceImpl} and {@link UserServiceImpl}).
+ * <p>
+ * It uploads the variants of new images and moves images still stored inline as Base64 into the
+ * blob store, switching the database to their hash only once the upload succeeded.
+ * </p>
+ */
+final class ImageBlobs {
+    private static final String TAG = "ImageBlobs";
+
+    private final IBlobStore blobStore;
+    private final DatabaseReference databaseReference;
+
+    /**
+     * Constructs a new ImageBlobs.
+     *
+     * @param blobStore         The store to upload to.
+     * @param databaseReference The database root the migration updates are applied to.
+     */
+    ImageBlobs(@NonNull IBlobStore blobStore, @NonNull DatabaseReference databaseReference) {
+        this.blobStore = blobStore;
+        this.databaseReference = databaseReference;
+    }
+
+    /**
+     * Uploads every variant of an image: the {@link ImageVariant#FULL} variant as the primary
+     * blob, then the smaller ones side by side with it.
+     *
+     * @param variants The compressed variants, as created by {@link ImageUtil#createVariants}.
+     * @param callback The callback invoked with the content hash of the image once all variants are stored.
+     */
+    void putVariants(@NonNull final Map<ImageVariant, byte[]> variants, @NonNull final DatabaseCallback<String> callback) {
+        byte[] full = Objects.requireNonNull(variants.get(ImageVariant.FULL));
+        blobStore.put(full, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(String hash) {
+                List<Task<Void>> uploads = new ArrayList<>();
+                for (Map.Entry<ImageVariant, byte[]> variant : variants.entrySet()) {
+                    String suffix = variant.getKey().getSuffix();
+                    if (suffix == null) continue;
+                    TaskCompletionSource<Void> upload = new TaskCompletionSource<>();
+                    blobStore.putVariant(hash, suffix, variant.getValue(), new DatabaseCallback<>() {
+                        @Override
+                        public void onCompleted(Void object) {
+                            upload.setResult(null);
+                        }
+
+                        @Override
+                        public void onFailed(Exception e) {
+                            upload.setException(e);
+                        }
+                    });
+                    uploads.add(upload.getTask());
+                }
+                Tasks.whenAll(uploads).addOnCompleteListener(task -> {
+                    if (task.isSuccessful()) callback.onCompleted(hash);
+                    else callback.onFailed(task.getException());
+                });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Moves an inline Base64 value into the blob store.
+     * The value is uploaded first, then the updates built from its content hash are applied in
+     * one multi-path write, so a failed upload leaves the inline value in place.
+     *
+     * @param base64         The inline Base64 content.
+     * @param updatesForHash Builds the multi-path update that replaces the inline value.
+     * @return A task completing once the database points at the blob.
+     */
+    Task<Void> migrateInline(@NonNull final String base64, @NonNull final Function<String, Map<String, Object>> updatesForHash) {
+        TaskCompletionSource<Void> result = new TaskCompletionSource<>();
+        byte[] data;
+        try {
+            data = ImageUtil.decodeBase64(base64);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Skipping invalid inline blob", e);
+            result.setException(e);
+            return result.getTask();
+        }
+        blobStore.put(data, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(String hash) {
+                databaseReference.updateChildren(updatesForHash.apply(hash)).addOnCompleteListener(task -> {
+                    if (task.isSuccessful()) result.setResult(null);
+                    else result.setException(task.getException());
+                });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                result.setException(e);
+            }
+        });
+        return result.getTask();
+    }
+}
@@ -2,15 +2,26 @@ package com.example.sagivproject.services.impl;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import com.example.sagivproject.models.ImageData;
 import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
 import com.example.sagivproject.services.IImageService;
+import com.example.sagivproject.utils.ImageVariant;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
 
 import javax.inject.Inject;
 
@@ -19,8 +30,19 @@ import javax.inject.Inject;
  * <p>
  * This class provides methods for managing the memory game's image assets in the Firebase
  * Realtime Database. It supports retrieving all images, adding new ones, deleting, and
- * batch updating the entire collection, which is particularly useful for reordering IDs
- * sequentially (e.g., card1, card2, etc.).
+ * applying change sets that only touch the affected records, which keeps IDs sequential
+ * (e.g., card1, card2, etc.) without rewriting the whole catalog.
+ * </p>
+ * <p>
+ * Image content is uploaded to the {@link IBlobStore}; records only hold its content hash.
+ * </p>
+ * <p>
+ * Every record has a small entry in {@code images_index/{id}} holding its hash and a random
+ * sort key, written in the same update as the record. Random picks query the index ordered by
+ * that key from a random pivot, so only the picked entries are downloaded, and the picked entries
+ * get new keys afterwards. The number of records is kept in {@code images_count} by the same
+ * updates, which tells a small catalog apart from an incomplete index. The index should be
+ * declared with {@code ".indexOn": ["rand"]} in the database rules.
  * </p>
  */
 public class ImageServiceImpl extends BaseDatabaseService<ImageData> implements IImageService {
@@ -28,16 +50,26 @@ public class ImageServiceImpl extends BaseDatabaseService<ImageData> implements
      * The database path where game images are stored.
      */
     private static final String IMAGES_PATH = "images";
+    private static final String INDEX_PATH = "images_index";
+    private static final String CATALOG_COUNT_PATH = "images_count";
+    private static final String FIELD_HASH = "hash";
+    private static final String FIELD_BASE64 = "base64";
+    private static final String FIELD_RAND = "rand";
+
+    private final ImageBlobs imageBlobs;
+    private final Random random = new Random();
 
     /**
      * Constructs a new ImageServiceImpl.
      * Initializes the base service with the images' path.
      *
      * @param firebaseDatabase The {@link FirebaseDatabase} instance.
+     * @param blobStore        The store holding the image content.
      */
     @Inject
-    public ImageServiceImpl(FirebaseDatabase firebaseDatabase) {
+    public ImageServiceImpl(FirebaseDatabase firebaseDatabase, IBlobStore blobStore) {
         super(firebaseDatabase, IMAGES_PATH, ImageData.class);
+        this.imageBlobs = new ImageBlobs(blobStore, databaseReference);
     }
 
     /**
@@ -51,34 +83,181 @@ public class ImageServiceImpl extends BaseDatabaseService<ImageData> implements
     }
 
     /**
-     * Creates a new image entry in the database.
+     * Creates a new image entry and its index entry in a single multi-path update, counting it
+     * in the catalog.
      *
      * @param image    The {@link ImageData} object to create.
      * @param callback An optional callback to be invoked upon completion.
      */
     @Override
     public void createImage(@NonNull ImageData image, @Nullable DatabaseCallback<Void> callback) {
-        super.create(image, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(IMAGES_PATH + "/" + image.getId(), image);
+        updates.put(INDEX_PATH + "/" + image.getId(), createIndexEntry(image));
+        updates.put(CATALOG_COUNT_PATH, ServerValue.increment(1));
+        updateChildren(updates, callback);
     }
 
     /**
-     * Replaces the entire image collection in the database with a provided list.
+     * Picks random image IDs from the index.
      * <p>
-     * This method converts the list into a map for an atomic overwrite operation,
-     * ensuring that reordered IDs are correctly applied across the entire set.
+     * Entries are read ordered by their random key, starting at a random pivot and wrapping
+     * around to the start of the index if needed. The picked entries then get new random keys,
+     * so images that follow each other in the index are not picked together again and again.
+     * If the index holds fewer entries than requested, it is only rebuilt when the catalog count
+     * says images are missing from it, as when it predates the index.
      * </p>
      *
-     * @param list     The new, complete list of images to be saved.
-     * @param callback A callback invoked when the batch update is finished.
+     * @param count    The number of IDs to pick.
+     * @param callback The callback invoked with the picked IDs; fewer than requested if the catalog is smaller.
+     */
+    @Override
+    public void pickRandomImageIds(int count, @NonNull DatabaseCallback<List<String>> callback) {
+        double pivot = random.nextDouble();
+        Task<DataSnapshot> fromPivot = readData(INDEX_PATH).orderByChild(FIELD_RAND).startAt(pivot).limitToFirst(count).get();
+        Task<DataSnapshot> beforePivot = readData(INDEX_PATH).orderByChild(FIELD_RAND).endBefore(pivot).limitToFirst(count).get();
+        Tasks.whenAllSuccess(fromPivot, beforePivot).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onFailed(task.getException());
+                return;
+            }
+            List<String> ids = new ArrayList<>();
+            for (DataSnapshot entry : fromPivot.getResult().getChildren()) ids.add(entry.getKey());
+            for (DataSnapshot entry : beforePivot.getResult().getChildren()) {
+                if (ids.size() == count) break;
+                ids.add(entry.getKey());
+            }
+            if (ids.size() == count) {
+                deliverPicks(ids, count, callback);
+                return;
+            }
+
+            // Both queries together returned the whole index
+            readData(CATALOG_COUNT_PATH).get().addOnCompleteListener(countTask -> {
+                Long catalogCount = countTask.isSuccessful() ? countTask.getResult().getValue(Long.class) : null;
+                if (catalogCount != null && catalogCount <= ids.size()) {
+                    deliverPicks(ids, count, callback);
+                    return;
+                }
+                rebuildIndex(new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(List<String> allIds) {
+                        deliverPicks(allIds, count, callback);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        callback.onFailed(e);
+                    }
+                });
+            });
+        });
+    }
+
+    /**
+     * Shuffles the candidates, delivers up to {@code count} of them and gives the delivered
+     * entries new random keys.
+     */
+    private void deliverPicks(List<String> candidates, int count, DatabaseCallback<List<String>> callback) {
+        Collections.shuffle(candidates, random);
+        List<String> picked = new ArrayList<>(candidates.subList(0, Math.min(count, candidates.size())));
+        Map<String, Object> updates = new HashMap<>();
+        for (String imageId : picked) {
+            updates.put(INDEX_PATH + "/" + imageId + "/" + FIELD_RAND, random.nextDouble());
+        }
+        if (!updates.isEmpty()) updateChildren(updates, null);
+        callback.onCompleted(picked);
+    }
+
+    /**
+     * Resolves images by ID in parallel.
+     * The hash is read from the small index entry; only images that were not moved to the blob
+     * store yet fall back to reading their full record.
+     *
+     * @param imageIds The IDs of the images.
+     * @param callback The callback invoked with the images found, in the requested order.
      */
     @Override
-    public void updateAllImages(List<ImageData> list, DatabaseCallback<Void> callback) {
-        Map<String, Object> map = new HashMap<>();
-        for (ImageData img : list) {
-            map.put(img.getId(), img);
+    public void getImages(@NonNull List<String> imageIds, @NonNull DatabaseCallback<List<ImageData>> callback) {
+        List<Task<ImageData>> reads = new ArrayList<>();
+        for (String imageId : imageIds) {
+            reads.add(readData(INDEX_PATH + "/" + imageId).get().continueWithTask(task -> {
+                String hash = task.getResult().child(FIELD_HASH).getValue(String.class);
+                if (hash != null) {
+                    ImageData image = new ImageData(imageId, null);
+                    image.setHash(hash);
+                    return Tasks.forResult(image);
+                }
+                return readData(IMAGES_PATH + "/" + imageId).get().continueWith(record -> {
+                    ImageData image = record.getResult().getValue(ImageData.class);
+                    if (image != null) image.setId(imageId);
+                    return image;
+                });
+            }));
         }
+        Tasks.whenAllSuccess(reads).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onFailed(task.getException());
+                return;
+            }
+            List<ImageData> images = new ArrayList<>();
+            for (Object image : task.getResult()) {
+                if (image != null) images.add((ImageData) image);
+            }
+            callback.onCompleted(images);
+        });
+    }
 
-        writeData(IMAGES_PATH, map, callback);
+    /**
+     * Uploads the image variants to the blob store, then creates a record referencing their hash.
+     *
+     * @param imageId  The identifier of the new image.
+     * @param variants The compressed variants of the image.
+     * @param callback The callback invoked with the created record.
+     */
+    @Override
+    public void uploadImage(@NonNull String imageId, @NonNull Map<ImageVariant, byte[]> variants, @NonNull DatabaseCallback<ImageData> callback) {
+        imageBlobs.putVariants(variants, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(String hash) {
+                ImageData image = new ImageData(imageId, null);
+                image.setHash(hash);
+                createImage(image, new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Void object) {
+                        callback.onCompleted(image);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        callback.onFailed(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Applies a change set in one {@code updateChildren} call that only touches the affected keys.
+     *
+     * @param added    The images to create.
+     * @param removed  The IDs of the images to delete.
+     * @param renamed  The images to move, keyed by their current ID and carrying their new ID.
+     * @param callback An optional callback invoked when the update is finished.
+     */
+    @Override
+    public void applyImageChanges(@NonNull List<ImageData> added, @NonNull List<String> removed, @NonNull Map<String, ImageData> renamed, @Nullable DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = createChangeUpdates(added, removed, renamed);
+        if (updates.isEmpty()) {
+            if (callback != null) callback.onCompleted(null);
+            return;
+        }
+        updateChildren(updates, callback);
     }
 
     /**
@@ -89,6 +268,139 @@ public class ImageServiceImpl extends BaseDatabaseService<ImageData> implements
      */
     @Override
     public void deleteImage(@NonNull String imageId, @Nullable DatabaseCallback<Void> callback) {
-        super.delete(imageId, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(IMAGES_PATH + "/" + imageId, null);
+        updates.put(INDEX_PATH + "/" + imageId, null);
+        updates.put(CATALOG_COUNT_PATH, ServerValue.increment(-1));
+        updateChildren(updates, callback);
+    }
+
+    /**
+     * Uploads every record that still holds inline Base64 content and switches it to the
+     * content hash, removing the inline copy in the same update.
+     *
+     * @param callback Optional callback invoked with the number of migrated images.
+     */
+    @Override
+    public void migrateImagesToBlobStore(@Nullable DatabaseCallback<Integer> callback) {
+        readData(IMAGES_PATH).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (callback != null) callback.onFailed(task.getException());
+                return;
+            }
+            List<Task<Void>> migrations = new ArrayList<>();
+            for (DataSnapshot image : task.getResult().getChildren()) {
+                String imageId = image.getKey();
+                String base64 = image.child(FIELD_BASE64).getValue(String.class);
+                if (imageId == null || base64 == null || image.hasChild(FIELD_HASH)) continue;
+
+                migrations.add(imageBlobs.migrateInline(base64, hash -> {
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put(IMAGES_PATH + "/" + imageId + "/" + FIELD_HASH, hash);
+                    updates.put(IMAGES_PATH + "/" + imageId + "/" + FIELD_BASE64, null);
+                    updates.put(INDEX_PATH + "/" + imageId + "/" + FIELD_HASH, hash);
+                    return updates;
+                }));
+            }
+
+            Tasks.whenAll(migrations).addOnCompleteListener(writeTask -> {
+                if (callback == null) return;
+                if (writeTask.isSuccessful()) callback.onCompleted(migrations.size());
+                else callback.onFailed(writeTask.getException());
+            });
+        });
+    }
+
+    /**
+     * Builds the multi-path update of a change set.
+     * Deletions are added first so a record written to a freed ID in the same set replaces them.
+     *
+     * @return The update, keyed by full database path.
+     */
+    @VisibleForTesting
+    Map<String, Object> createChangeUpdates(List<ImageData> added, List<String> removed, Map<String, ImageData> renamed) {
+        Map<String, Object> updates = new HashMap<>();
+        for (String imageId : removed) {
+            updates.put(IMAGES_PATH + "/" + imageId, null);
+            updates.put(INDEX_PATH + "/" + imageId, null);
+        }
+        for (Map.Entry<String, ImageData> rename : renamed.entrySet()) {
+            if (rename.getKey().equals(rename.getValue().getId())) continue;
+            updates.put(IMAGES_PATH + "/" + rename.getKey(), null);
+            updates.put(INDEX_PATH + "/" + rename.getKey(), null);
+        }
+        List<ImageData> written = new ArrayList<>(added);
+        for (Map.Entry<String, ImageData> rename : renamed.entrySet()) {
+            if (!rename.getKey().equals(rename.getValue().getId())) written.add(rename.getValue());
+        }
+        for (ImageData image : written) {
+            updates.put(IMAGES_PATH + "/" + image.getId(), image);
+            updates.put(INDEX_PATH + "/" + image.getId(), createIndexEntry(image));
+        }
+        if (added.size() != removed.size()) {
+            updates.put(CATALOG_COUNT_PATH, ServerValue.increment(added.size() - removed.size()));
+        }
+        return updates;
+    }
+
+    /**
+     * Completes the index from the image records and stores the catalog count.
+     * Only entries that are missing, lack a random key or hold an outdated hash are written, and
+     * entries of deleted records are removed, in one multi-path update; existing random keys are kept.
+     *
+     * @param callback Invoked with the IDs of all images.
+     */
+    private void rebuildIndex(DatabaseCallback<List<String>> callback) {
+        Task<DataSnapshot> recordsRead = readData(IMAGES_PATH).get();
+        Task<DataSnapshot> indexRead = readData(INDEX_PATH).get();
+        Tasks.whenAllSuccess(recordsRead, indexRead).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onFailed(task.getException());
+                return;
+            }
+            DataSnapshot records = recordsRead.getResult();
+            DataSnapshot index = indexRead.getResult();
+            List<String> ids = new ArrayList<>();
+            Map<String, Object> updates = new HashMap<>();
+            for (DataSnapshot record : records.getChildren()) {
+                String imageId = record.getKey();
+                ImageData image = record.getValue(ImageData.class);
+                if (image == null || imageId == null) continue;
+                ids.add(imageId);
+                DataSnapshot entry = index.child(imageId);
+                if (!entry.hasChild(FIELD_RAND)) {
+                    updates.put(INDEX_PATH + "/" + imageId, createIndexEntry(image));
+                } else if (!Objects.equals(entry.child(FIELD_HASH).getValue(String.class), image.getHash())) {
+                    updates.put(INDEX_PATH + "/" + imageId + "/" + FIELD_HASH, image.getHash());
+                }
+            }
+            for (DataSnapshot entry : index.getChildren()) {
+                if (!records.hasChild(Objects.requireNonNull(entry.getKey()))) {
+                    updates.put(INDEX_PATH + "/" + entry.getKey(), null);
+                }
+            }
+            updates.put(CATALOG_COUNT_PATH, ids.size());
+            updateChildren(updates, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(Void object) {
+                    callback.onCompleted(ids);
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    callback.onFailed(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Builds the index entry of an image: its hash and a fresh random sort key.
+     */
+    private Map<String, Object> createIndexEntry(ImageData image) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(FIELD_HASH, image.getHash());
+        entry.put(FIELD_RAND, random.nextDouble());
+        return entry;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package com.example.sagivproject.services.impl;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
+import com.example.sagivproject.utils.ContentHash;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An {@link IBlobStore} keeping every blob as a file named after its content hash.
+ * <p>
+ * File access runs on a single background thread. Used on its own for device-local blobs and
+ * as the on-disk cache in front of a remote store (see {@link CachedBlobStore}).
+ * </p>
+ * <p>
+ * A store with a byte budget evicts the least recently used files once the directory grows past
+ * it, until it is down to {@value #TRIM_PERCENT}% of the budget. Every read and write moves the
+ * file's last-modified time to now, which is the order files are evicted in.
+ * </p>
+ */
+public class LocalFileBlobStore implements IBlobStore {
+    private static final String TAG = "LocalFileBlobStore";
+
+    /**
+     * Share of the budget a trim shrinks the directory to, so that not every write triggers one.
+     */
+    private static final int TRIM_PERCENT = 75;
+
+    private final File directory;
+    private final long maxBytes;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Total size of the files in the directory, counted on the first write. Only touched on the I/O thread.
+     */
+    private long totalBytes = -1;
+
+    /**
+     * Constructs a new LocalFileBlobStore without a byte budget.
+     *
+     * @param directory The directory the blobs are written to; created if missing.
+     */
+    public LocalFileBlobStore(@NonNull File directory) {
+        this(directory, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new LocalFileBlobStore that evicts the least recently used blobs.
+     * Only use a budget when every blob can be fetched again from elsewhere.
+     *
+     * @param directory The directory the blobs are written to; created if missing.
+     * @param maxBytes  The size the directory may grow to before blobs are evicted.
+     */
+    public LocalFileBlobStore(@NonNull File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Writes the blob to {@code {directory}/{hash}} if no such file exists yet.
+     *
+     * @param data     The bytes to store.
+     * @param callback The callback invoked with the content hash of the blob.
+     */
+    @Override
+    public void put(@NonNull byte[] data, @NonNull DatabaseCallback<String> callback) {
+        ioExecutor.execute(() -> {
+            String hash = ContentHash.of(data);
+            try {
+                write(hash, data);
+                mainHandler.post(() -> callback.onCompleted(hash));
+            } catch (IOException e) {
+                mainHandler.post(() -> callback.onFailed(e));
+            }
+        });
+    }
+
+    /**
+     * Reads the blob from {@code {directory}/{hash}}.
+     *
+     * @param hash     The content hash of the blob.
+     * @param callback The callback invoked with the bytes, or failed with a {@link FileNotFoundException}.
+     */
+    @Override
+    public void get(@NonNull String hash, @NonNull DatabaseCallback<byte[]> callback) {
+        ioExecutor.execute(() -> read(hash, callback));
+    }
+
+    /**
+     * Writes the rendition to {@code {directory}/{hash}_{variant}} if no such file exists yet.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param data     The bytes of the rendition.
+     * @param callback The callback invoked once the file is written.
+     */
+    @Override
+    public void putVariant(@NonNull String hash, @NonNull String variant, @NonNull byte[] data, @NonNull DatabaseCallback<Void> callback) {
+        ioExecutor.execute(() -> {
+            try {
+                write(IBlobStore.variantName(hash, variant), data);
+                mainHandler.post(() -> callback.onCompleted(null));
+            } catch (IOException e) {
+                mainHandler.post(() -> callback.onFailed(e));
+            }
+        });
+    }
+
+    /**
+     * Reads the rendition from {@code {directory}/{hash}_{variant}}.
+     *
+     * @param hash     The content hash of the original blob.
+     * @param variant  The name of the rendition.
+     * @param callback The callback invoked with the bytes, or failed with a {@link FileNotFoundException}.
+     */
+    @Override
+    public void getVariant(@NonNull String hash, @NonNull String variant, @NonNull DatabaseCallback<byte[]> callback) {
+        ioExecutor.execute(() -> read(IBlobStore.variantName(hash, variant), callback));
+    }
+
+    /**
+     * Deletes the blobs of another directory, such as one used by an older version, and the
+     * directory itself, on the I/O thread.
+     *
+     * @param other The directory to delete.
+     */
+    public void deleteDirectory(@NonNull File other) {
+        ioExecutor.execute(() -> {
+            File[] files = other.listFiles();
+            if (files == null) return;
+            for (File file : files) file.delete();
+            other.delete();
+        });
+    }
+
+    /**
+     * Writes a file under a temporary name and renames it, so readers never see partial content.
+     * Existing files are kept, since their content is determined by their name.
+     */
+    private void write(String name, byte[] data) throws IOException {
+        File file = new File(directory, name);
+        if (file.exists()) {
+            if (maxBytes != Long.MAX_VALUE) file.setLastModified(System.currentTimeMillis());
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File temp = new File(directory, name + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+        if (maxBytes == Long.MAX_VALUE) return;
+        if (totalBytes < 0) {
+            totalBytes = 0;
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File existing : files) totalBytes += existing.length();
+            }
+        } else {
+            totalBytes += data.length;
+        }
+        if (totalBytes > maxBytes) trim();
+    }
+
+    /**
+     * Deletes the least recently used files until the directory is down to {@value #TRIM_PERCENT}% of the budget.
+     */
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        long[] lastUsed = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        totalBytes = 0;
+        for (int i = 0; i < files.length; i++) {
+            lastUsed[i] = files[i].lastModified();
+            order[i] = i;
+            totalBytes += files[i].length();
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastUsed[i]));
+
+        long target = maxBytes / 100 * TRIM_PERCENT;
+        int evicted = 0;
+        for (int i = 0; i < order.length && totalBytes > target; i++) {
+            File file = files[order[i]];
+            long length = file.length();
+            if (file.delete()) {
+                totalBytes -= length;
+                evicted++;
+            }
+        }
+        Log.d(TAG, "Evicted " + evicted + " blobs, " + totalBytes + " bytes left");
+    }
+
+    private void read(String name, DatabaseCallback<byte[]> callback) {
+        File file = new File(directory, name);
+        try {
+            byte[] data = Files.readAllBytes(file.toPath());
+            if (maxBytes != Long.MAX_VALUE) file.setLastModified(System.currentTimeMillis());
+            mainHandler.post(() -> callback.onCompleted(data));
+        } catch (IOException e) {
+            Exception error = file.exists() ? e : new FileNotFoundException(name);
+            mainHandler.post(() -> callback.onFailed(error));
+        }
+    }
+}
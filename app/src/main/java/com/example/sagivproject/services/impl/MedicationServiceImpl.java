@@ -3,18 +3,22 @@ package com.example.sagivproject.services.impl;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.example.sagivproject.models.DailyStats;
 import com.example.sagivproject.models.Medication;
 import com.example.sagivproject.models.MedicationUsage;
+import com.example.sagivproject.models.MedicationUsagePage;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IMedicationService;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.MutableData;
-import com.google.firebase.database.Transaction;
+import com.google.firebase.database.Query;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -24,15 +28,17 @@ import javax.inject.Inject;
  * Implementation of the {@link IMedicationService} interface.
  * <p>
  * This class handles all database interactions related to medication management,
- * including CRUD operations for medications and logging of medication intake events.
- * It uses Firebase transactions to ensure that daily statistics (taken vs missed counts)
- * are updated atomically alongside the usage logs.
+ * including CRUD operations for medications and management of medication intake events.
+ * Usage logs are keyed children under {@code user_medication_usage/{uid}/{date}}, and every change
+ * to them updates the day's taken/missed counters in the same multi-path update.
  * </p>
  */
 public class MedicationServiceImpl extends BaseDatabaseService<Medication> implements IMedicationService {
-    private static final String USERS_PATH = "users";
-    private static final String MEDICATIONS_PATH = "medications";
-    private static final String FIELD_DAILY_STATS = "dailyStats";
+    private static final String MEDICATIONS_PATH = "user_medications";
+    private static final String STATS_PATH = "user_stats";
+    private static final String USAGE_PATH = "user_medication_usage";
+    private static final String FIELD_MEDICATIONS_TAKEN = "medicationsTaken";
+    private static final String FIELD_MEDICATIONS_MISSED = "medicationsMissed";
 
     /**
      * Constructs a new MedicationServiceImpl.
@@ -50,11 +56,6 @@ public class MedicationServiceImpl extends BaseDatabaseService<Medication> imple
         return super.generateId();
     }
 
-    @Override
-    public String generateUsageId() {
-        return super.generateId();
-    }
-
     @Override
     public void createNewMedication(@NonNull String uid, @NonNull Medication medication, @Nullable DatabaseCallback<Void> callback) {
         writeData(getMedicationItemPath(uid, medication.getId()), medication, callback);
@@ -71,7 +72,7 @@ public class MedicationServiceImpl extends BaseDatabaseService<Medication> imple
     }
 
     /**
-     * Updates an existing medication record using a database transaction.
+     * Updates an existing medication record, writing only the fields that changed.
      *
      * @param uid        User identifier.
      * @param medication Updated medication object.
@@ -79,117 +80,134 @@ public class MedicationServiceImpl extends BaseDatabaseService<Medication> imple
      */
     @Override
     public void updateMedication(String uid, Medication medication, @Nullable DatabaseCallback<Void> callback) {
-        runTransaction(getMedicationItemPath(uid, medication.getId()), oldMedication -> {
-            if (oldMedication == null) return null;
-            return medication;
-        }, new DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Medication result) {
-                if (callback != null) callback.onCompleted(null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-                if (callback != null) callback.onFailed(e);
-            }
-        });
+        patchData(getMedicationItemPath(uid, medication.getId()), medication, callback);
     }
 
     /**
-     * Fetches all usage logs across all dates for a specific user.
+     * Fetches a page of usage logs using a key-ordered range query over the date nodes.
+     * Only the requested days are downloaded; the oldest day of a full page becomes the next cursor.
      *
      * @param uid      User identifier.
-     * @param callback Callback invoked with the full list of logs.
+     * @param fromDate Oldest date to include, or null.
+     * @param toDate   Newest date to include, or null.
+     * @param pageSize Maximum number of days in the page.
+     * @param cursor   Exclusive upper bound from the previous page, or null.
+     * @param callback Callback invoked with the page.
      */
     @Override
-    public void getMedicationUsageLogs(@NonNull String uid, @NonNull DatabaseCallback<List<MedicationUsage>> callback) {
-        databaseReference.child(USERS_PATH).child(uid).child(FIELD_DAILY_STATS).get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                List<MedicationUsage> allLogs = StreamSupport.stream(task.getResult().getChildren().spliterator(), false)
-                        .flatMap(daySnapshot -> {
-                            DailyStats stats = daySnapshot.getValue(DailyStats.class);
-                            if (stats == null) return java.util.stream.Stream.empty();
-                            return stats.getMedicationUsageLogs().stream();
-                        })
-                        .collect(Collectors.toList());
-                callback.onCompleted(allLogs);
-            } else {
+    public void getMedicationUsageLogs(@NonNull String uid, @Nullable String fromDate, @Nullable String toDate, int pageSize, @Nullable String cursor, @NonNull DatabaseCallback<MedicationUsagePage> callback) {
+        Query query = readData(getUsagePath(uid)).orderByKey();
+        if (fromDate != null) query = query.startAt(fromDate);
+        if (cursor != null) query = query.endBefore(cursor);
+        else if (toDate != null) query = query.endAt(toDate);
+
+        query.limitToLast(pageSize).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
                 callback.onFailed(task.getException());
+                return;
+            }
+            List<DataSnapshot> days = new ArrayList<>();
+            for (DataSnapshot daySnapshot : task.getResult().getChildren()) {
+                days.add(daySnapshot);
             }
+            // The query returns the days in ascending order
+            Collections.reverse(days);
+
+            Map<String, List<MedicationUsage>> logsByDate = new LinkedHashMap<>();
+            for (DataSnapshot daySnapshot : days) {
+                List<MedicationUsage> logs = StreamSupport.stream(daySnapshot.getChildren().spliterator(), false)
+                        .map(usageSnapshot -> usageSnapshot.getValue(MedicationUsage.class))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+                logsByDate.put(daySnapshot.getKey(), logs);
+            }
+            String nextCursor = days.size() == pageSize ? days.get(days.size() - 1).getKey() : null;
+            callback.onCompleted(new MedicationUsagePage(logsByDate, nextCursor));
         });
     }
 
     /**
      * Resets the usage logs and compliance counters for all dates in a user's history.
+     * The logged dates are read once, then all logs and their counters are cleared in one multi-path update.
      *
      * @param uid      User identifier.
      * @param callback Result callback.
      */
     @Override
     public void clearMedicationUsageLogs(@NonNull String uid, @Nullable DatabaseCallback<Void> callback) {
-        databaseReference.child(USERS_PATH).child(uid).child(FIELD_DAILY_STATS).runTransaction(new Transaction.Handler() {
-            @NonNull
-            @Override
-            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
-                for (MutableData dayData : currentData.getChildren()) {
-                    DailyStats stats = dayData.getValue(DailyStats.class);
-                    if (stats != null) {
-                        stats.getMedicationUsageLogs().clear();
-                        dayData.setValue(stats);
-                    }
-                }
-                return Transaction.success(currentData);
+        readData(getUsagePath(uid)).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (callback != null) callback.onFailed(task.getException());
+                return;
             }
-
-            @Override
-            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot currentData) {
-                if (callback != null) {
-                    if (error != null) callback.onFailed(error.toException());
-                    else callback.onCompleted(null);
-                }
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(getUsagePath(uid), null);
+            for (DataSnapshot daySnapshot : task.getResult().getChildren()) {
+                putClearedCounters(updates, uid, Objects.requireNonNull(daySnapshot.getKey()));
             }
+            updateChildren(updates, callback);
         });
     }
 
+    /**
+     * Removes the usage logs of a single date and resets that day's counters without reading them.
+     *
+     * @param uid      User identifier.
+     * @param date     The date to clear (yyyy-MM-dd).
+     * @param callback Result callback.
+     */
     @Override
     public void clearMedicationUsageLogsForDate(@NonNull String uid, @NonNull String date, @Nullable DatabaseCallback<Void> callback) {
-        databaseReference.child(USERS_PATH).child(uid).child(FIELD_DAILY_STATS).child(date).child("medicationUsageLogs").setValue(null, (error, ref) -> {
-            if (callback != null) {
-                if (error != null) callback.onFailed(error.toException());
-                else callback.onCompleted(null);
-            }
-        });
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(getUsagePath(uid) + "/" + date, null);
+        putClearedCounters(updates, uid, date);
+        updateChildren(updates, callback);
     }
 
+    /**
+     * Removes a single usage log and decrements the matching day counter.
+     * The log is removed in a transaction that yields its status, so a log deleted twice is only
+     * subtracted once.
+     *
+     * @param uid      User identifier.
+     * @param date     The date of the log (yyyy-MM-dd).
+     * @param usageId  The ID of the usage log to delete.
+     * @param callback Result callback.
+     */
     @Override
     public void deleteMedicationUsageLog(@NonNull String uid, @NonNull String date, @NonNull String usageId, @Nullable DatabaseCallback<Void> callback) {
-        databaseReference.child(USERS_PATH).child(uid).child(FIELD_DAILY_STATS).child(date).runTransaction(new Transaction.Handler() {
-            @NonNull
-            @Override
-            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
-                DailyStats stats = currentData.getValue(DailyStats.class);
-                if (stats != null && stats.getMedicationUsageLogs() != null) {
-                    stats.getMedicationUsageLogs().removeIf(log -> log.getId().equals(usageId));
-                    currentData.setValue(stats);
-                }
-                return Transaction.success(currentData);
-            }
+        String usagePath = getUsagePath(uid) + "/" + date + "/" + usageId;
+        StatsServiceImpl.replaceUsageLog(databaseReference, usagePath, getStatsPath(uid, date), null, callback);
+    }
 
-            @Override
-            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot currentData) {
-                if (callback != null) {
-                    if (error != null) callback.onFailed(error.toException());
-                    else callback.onCompleted(null);
-                }
-            }
-        });
+    /**
+     * Adds the reset of a day's taken/missed counters to a multi-path update.
+     */
+    private void putClearedCounters(Map<String, Object> updates, String uid, String date) {
+        String statsPath = getStatsPath(uid, date);
+        updates.put(statsPath + "/" + FIELD_MEDICATIONS_TAKEN, 0);
+        updates.put(statsPath + "/" + FIELD_MEDICATIONS_MISSED, 0);
+    }
+
+    /**
+     * Constructs path to a user's medication usage logs, grouped by date.
+     */
+    private String getUsagePath(String uid) {
+        return USAGE_PATH + "/" + uid;
+    }
+
+    /**
+     * Constructs path to a user's statistics for a date.
+     */
+    private String getStatsPath(String uid, String date) {
+        return STATS_PATH + "/" + uid + "/" + date;
     }
 
     /**
      * Constructs path to user's medications.
      */
     private String getMedicationPath(String uid) {
-        return USERS_PATH + "/" + uid + "/" + MEDICATIONS_PATH;
+        return MEDICATIONS_PATH + "/" + uid;
     }
 
     /**
@@ -2,21 +2,31 @@ package com.example.sagivproject.services.impl;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.GameMove;
+import com.example.sagivproject.models.GameResult;
 import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.models.MatchmakingTicket;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IMemoryGameService;
+import com.example.sagivproject.services.game.GameClock;
+import com.example.sagivproject.services.game.MemoryGameEngine;
+import com.example.sagivproject.utils.BoardCodec;
+import com.example.sagivproject.utils.CalendarUtil;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseException;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
 import com.google.firebase.database.Transaction;
 import com.google.firebase.database.ValueEventListener;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,43 +42,78 @@ import javax.inject.Inject;
  * This class manages the complex real-time state synchronization for the 1-on-1 online memory game.
  * It handles:
  * <ul>
- * <li>Atomic matchmaking (finding or creating rooms).</li>
+ * <li>Sharded matchmaking queue (claiming a waiting player or enqueueing a ticket).</li>
  * <li>Board initialization and card shuffling synchronization.</li>
- * <li>Turn-based logic and score tracking.</li>
+ * <li>Turn-based logic and score tracking, with each move written as one atomic multi-path update.</li>
+ * <li>Turn and game deadlines in server time, with each turn timeout committed once.</li>
  * <li>Automatic forfeit handling using Firebase's {@code onDisconnect}.</li>
  * <li>Daily cognitive performance statistics updates.</li>
+ * <li>Archiving finished rooms into the monthly {@code game_history} node.</li>
  * </ul>
  * </p>
  */
 public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> implements IMemoryGameService {
     private static final String ROOMS_PATH = "rooms";
+    private static final String MATCHMAKING_PATH = "matchmaking/waiting";
+
+    /**
+     * Number of queue shards. Each shard is claimed by its own short transaction,
+     * so concurrent searchers rarely contend on the same node.
+     */
+    private static final int MATCHMAKING_SHARD_COUNT = 4;
+
+    /**
+     * How long (in server milliseconds) a claimed ticket is held for its claimer. After that,
+     * the waiting player may remove the ticket and search again.
+     */
+    @VisibleForTesting
+    static final long CLAIM_TIMEOUT = 10_000;
+
+    /**
+     * How long after claiming a ticket the claimer may still create the room. Kept well below
+     * {@link #CLAIM_TIMEOUT} so the room is never created after the claim expired.
+     */
+    private static final long CLAIM_COMMIT_WINDOW = CLAIM_TIMEOUT / 2;
 
     private static final String FIELD_STATUS = "status";
-    private static final String FIELD_CARDS = "cards";
+    private static final String FIELD_BOARD = "board";
+    private static final String FIELD_REVEALED_MASK = "revealedMask";
+    private static final String FIELD_MATCHED_MASK = "matchedMask";
     private static final String FIELD_CURRENT_TURN_UID = "currentTurnUid";
-    private static final String FIELD_IS_REVEALED = "isRevealed";
-    private static final String FIELD_IS_MATCHED = "isMatched";
     private static final String FIELD_PROCESSING_MATCH = "processingMatch";
+    private static final String FIELD_FIRST_SELECTED_CARD_INDEX = "firstSelectedCardIndex";
+    private static final String FIELD_PLAYER1_SCORE = "player1Score";
+    private static final String FIELD_PLAYER2_SCORE = "player2Score";
     private static final String FIELD_WINNER_UID = "winnerUid";
+    private static final String FIELD_TURN_DEADLINE = "turnDeadline";
+    private static final String FIELD_GAME_DEADLINE = "gameDeadline";
 
     private static final String STATUS_WAITING = "waiting";
     private static final String STATUS_PLAYING = "playing";
     private static final String STATUS_FINISHED = "finished";
+    private static final String STATUS_CANCELLED = "cancelled";
 
     /**
      * Root database reference for game rooms.
      */
     private final DatabaseReference roomsReference;
 
+    private final CalendarUtil calendarUtil;
+
+    /**
+     * Estimated server time, used to set the game deadlines.
+     */
+    private final GameClock serverClock;
+
     /**
      * Map of active status listeners for individual game rooms.
      */
     private final Map<String, ValueEventListener> roomStatusListeners = new ConcurrentHashMap<>();
 
     /**
-     * Listener for the currently active game session state.
+     * Stream of changes of the currently active game session.
      */
-    private ValueEventListener activeGameListener;
+    private GameRoomStream activeGameStream;
 
     /**
      * Global listener for monitoring all active rooms (Admin use).
@@ -79,19 +124,26 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
      * Constructs a new MemoryGameServiceImpl.
      *
      * @param firebaseDatabase The {@link FirebaseDatabase} instance.
+     * @param calendarUtil     The CalendarUtil instance injected by Hilt.
+     * @param serverClock      The server time source injected by Hilt.
      */
     @Inject
-    public MemoryGameServiceImpl(FirebaseDatabase firebaseDatabase) {
+    public MemoryGameServiceImpl(FirebaseDatabase firebaseDatabase, CalendarUtil calendarUtil, GameClock serverClock) {
         super(firebaseDatabase, ROOMS_PATH, GameRoom.class);
         this.roomsReference = readData(ROOMS_PATH);
+        this.calendarUtil = calendarUtil;
+        this.serverClock = serverClock;
     }
 
     /**
-     * Uses a Firebase transaction to atomically find a waiting room or create a new one.
-     * Optimizes room search by:
-     * 1. Preventing a user from joining their own room.
-     * 2. Cleaning up duplicate waiting rooms for the same user.
-     * 3. Favoring joining an existing waiting room to speed up matchmaking.
+     * Finds an opponent through the sharded matchmaking queue.
+     * <p>
+     * Instead of locking the whole {@code rooms} node, the search runs a short claim transaction
+     * on each small queue shard in turn. The first open foreign ticket found is claimed, and the
+     * room is then created once with both players. If no ticket is found, the user's own ticket is
+     * enqueued atomically in the last (home) shard that was checked, and a local waiting room is
+     * returned.
+     * </p>
      *
      * @param user     The user seeking a match.
      * @param callback Result callback.
@@ -102,84 +154,248 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
             callback.onFailed(new IllegalArgumentException("User cannot be null"));
             return;
         }
-        roomsReference.runTransaction(new Transaction.Handler() {
-            private String roomIdForUser = null;
+        String roomId = generateId();
+        if (roomId == null) {
+            callback.onFailed(new Exception("מזהה חדר לא נמצא."));
+            return;
+        }
+        searchShards(user, roomId, 0, callback);
+    }
+
+    /**
+     * Checks the user's waiting ticket and runs a fresh search with the same room ID if needed.
+     * <p>
+     * This resolves the rare case where two players enqueue in different shards at the same time
+     * and would otherwise wait for each other forever. An open ticket, or one whose claim expired
+     * without a room, is removed and the search runs again. A ticket with an active claim is left
+     * to its claimer. A missing ticket means the room was created, unless the ticket was dropped
+     * on a disconnect, in which case the user is enqueued again.
+     * </p>
+     *
+     * @param waitingRoom The local waiting room returned by {@link #findOrCreateRoom}.
+     * @param user        The user seeking a match.
+     * @param callback    Result callback.
+     */
+    @Override
+    public void retryMatchmaking(@NonNull GameRoom waitingRoom, @NonNull User user, @NonNull DatabaseCallback<GameRoom> callback) {
+        String roomId = waitingRoom.getId();
+        releaseTicket(roomId, false, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(TicketState state) {
+                switch (state) {
+                    case CLAIMED:
+                        callback.onCompleted(waitingRoom);
+                        break;
+                    case MISSING:
+                        readData(ROOMS_PATH + "/" + roomId).get().addOnCompleteListener(task -> {
+                            if (!task.isSuccessful()) callback.onFailed(task.getException());
+                            else if (task.getResult().exists()) callback.onCompleted(waitingRoom);
+                            else searchShards(user, roomId, 0, callback);
+                        });
+                        break;
+                    default:
+                        searchShards(user, roomId, 0, callback);
+                        break;
+                }
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Runs the claim transaction on a single queue shard and continues to the next one.
+     * The shards are visited starting right after the room's home shard, so the home shard is
+     * checked last and the ticket can be enqueued in the same transaction.
+     *
+     * @param user     The user seeking a match.
+     * @param roomId   The pre-allocated room ID used if the user has to wait.
+     * @param attempt  The number of shards already checked.
+     * @param callback Result callback.
+     */
+    private void searchShards(User user, String roomId, int attempt, DatabaseCallback<GameRoom> callback) {
+        int homeShard = getShardFor(roomId);
+        int shard = (homeShard + 1 + attempt) % MATCHMAKING_SHARD_COUNT;
+        boolean isHomeShard = shard == homeShard;
+
+        readData(getShardPath(shard)).runTransaction(new Transaction.Handler() {
+            private MatchmakingTicket claimedTicket = null;
 
             @NonNull
             @Override
             public Transaction.Result doTransaction(@NonNull MutableData currentData) {
-                String userId = user.getId();
-                MutableData myExistingWaitingRoom = null;
-                MutableData joinableRoom = null;
-
-                // Single pass to identify an available room and any existing room belonging to the user
-                for (MutableData roomData : currentData.getChildren()) {
-                    GameRoom room = roomData.getValue(GameRoom.class);
-                    if (room == null || !STATUS_WAITING.equals(room.getStatus())) continue;
-
-                    if (userId.equals(room.getPlayer1Uid())) {
-                        myExistingWaitingRoom = roomData;
-                    } else if (room.getPlayer2Uid() == null && joinableRoom == null) {
-                        joinableRoom = roomData;
+                claimedTicket = null;
+                long now = serverClock.now();
+                List<MutableData> ticketsToRemove = new ArrayList<>();
+
+                // Tickets are keyed by push IDs, so the first open foreign ticket is the oldest one
+                for (MutableData ticketData : currentData.getChildren()) {
+                    MatchmakingTicket ticket = ticketData.getValue(MatchmakingTicket.class);
+                    if (ticket == null || ticket.isClaimActive(now, CLAIM_TIMEOUT)) continue;
+
+                    if (user.getId().equals(ticket.getUid())) {
+                        // Clean up stale tickets left by this user in an earlier search
+                        ticketsToRemove.add(ticketData);
+                    } else if (claimedTicket == null) {
+                        ticket.setClaimedBy(user.getId());
+                        ticket.setClaimedAt(now);
+                        ticketData.setValue(ticket);
+                        claimedTicket = ticket;
                     }
                 }
 
-                // 1. Prioritize joining an existing room created by another player
-                if (joinableRoom != null) {
-                    // Clean up current user's old waiting room if it exists to keep database tidy
-                    if (myExistingWaitingRoom != null) {
-                        myExistingWaitingRoom.setValue(null);
-                    }
+                for (MutableData ticketData : ticketsToRemove) {
+                    ticketData.setValue(null);
+                }
 
-                    GameRoom roomToJoin = joinableRoom.getValue(GameRoom.class);
-                    if (roomToJoin != null) {
-                        roomToJoin.setPlayer2Uid(userId);
-                        roomToJoin.setStatus(STATUS_PLAYING);
-                        joinableRoom.setValue(roomToJoin);
-                        roomIdForUser = joinableRoom.getKey();
-                        return Transaction.success(currentData);
-                    }
+                if (claimedTicket == null && isHomeShard) {
+                    currentData.child(roomId).setValue(new MatchmakingTicket(roomId, user.getId(), System.currentTimeMillis()));
                 }
+                return Transaction.success(currentData);
+            }
 
-                // 2. If no other rooms are available, check if the user already has a waiting room
-                if (myExistingWaitingRoom != null) {
-                    roomIdForUser = myExistingWaitingRoom.getKey();
-                    return Transaction.success(currentData);
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                if (error != null) {
+                    callback.onFailed(error.toException());
+                } else if (!committed) {
+                    callback.onFailed(new Exception("שגיאה בתהליך מציאת חדר."));
+                } else if (claimedTicket != null) {
+                    pairPlayers(claimedTicket, user, roomId, callback);
+                } else if (!isHomeShard) {
+                    searchShards(user, roomId, attempt + 1, callback);
+                } else {
+                    // Drop the ticket if the app is killed while waiting
+                    readData(getTicketPath(roomId)).onDisconnect().removeValue();
+                    callback.onCompleted(new GameRoom(roomId, user));
                 }
+            }
+        });
+    }
+
+    /**
+     * Creates the game room for a claimed ticket, under the ID the waiting player is already
+     * listening to, and then removes the ticket.
+     * <p>
+     * The room is created in a transaction that only succeeds while the claim is still held, i.e.
+     * within {@link #CLAIM_COMMIT_WINDOW} of the claim and before the waiting player cancelled.
+     * The waiting player only treats a claim as expired after {@link #CLAIM_TIMEOUT}, so a claimer
+     * that was delayed or crashed never creates a room for a player who has moved on. If the room
+     * cannot be created, the search continues with the claimer's own room ID.
+     * </p>
+     *
+     * @param ticket   The claimed ticket of the waiting player.
+     * @param user     The user who claimed the ticket.
+     * @param ownId    The claimer's own pre-allocated room ID, used if the search continues.
+     * @param callback Result callback.
+     */
+    private void pairPlayers(MatchmakingTicket ticket, User user, String ownId, DatabaseCallback<GameRoom> callback) {
+        GameRoom room = new GameRoom(ticket.getId(), ticket.getUid(), user.getId());
+        readData(ROOMS_PATH + "/" + room.getId()).runTransaction(new Transaction.Handler() {
+            private boolean created = false;
+
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                created = false;
+                if (serverClock.now() - ticket.getClaimedAt() > CLAIM_COMMIT_WINDOW) {
+                    return Transaction.abort();
+                }
+                GameRoom current = currentData.getValue(GameRoom.class);
+                if (current == null) {
+                    currentData.setValue(room);
+                    created = true;
+                } else if (STATUS_CANCELLED.equals(current.getStatus())) {
+                    // The waiting player left while the claim was held; clear their marker
+                    currentData.setValue(null);
+                } else {
+                    return Transaction.abort();
+                }
+                return Transaction.success(currentData);
+            }
 
-                // 3. No suitable rooms found; create a new waiting room
-                String newRoomId = generateId();
-                if (newRoomId == null) return Transaction.abort();
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                if (error != null) {
+                    callback.onFailed(error.toException());
+                } else if (committed && created) {
+                    // A ticket left behind is cleaned up by the waiting player's retry
+                    deleteData(getTicketPath(room.getId()), null);
+                    callback.onCompleted(room);
+                } else {
+                    searchShards(user, ownId, 0, callback);
+                }
+            }
+        });
+    }
 
-                GameRoom newRoom = new GameRoom(newRoomId, user);
-                currentData.child(newRoomId).setValue(newRoom);
-                roomIdForUser = newRoomId;
+    /**
+     * Removes a waiting ticket from its queue shard, unless it has an active claim.
+     *
+     * @param roomId   The room ID the ticket was enqueued with.
+     * @param force    true to remove the ticket even if it has an active claim.
+     * @param callback Invoked with the state the ticket was in.
+     */
+    private void releaseTicket(String roomId, boolean force, DatabaseCallback<TicketState> callback) {
+        DatabaseReference ticketRef = readData(getTicketPath(roomId));
+        ticketRef.runTransaction(new Transaction.Handler() {
+            private TicketState state = TicketState.MISSING;
 
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                MatchmakingTicket ticket = currentData.getValue(MatchmakingTicket.class);
+                if (ticket == null) {
+                    state = TicketState.MISSING;
+                } else if (ticket.isClaimActive(serverClock.now(), CLAIM_TIMEOUT)) {
+                    state = TicketState.CLAIMED;
+                } else {
+                    state = (ticket.getClaimedBy() == null) ? TicketState.OPEN : TicketState.EXPIRED;
+                }
+                if (state != TicketState.CLAIMED || force) currentData.setValue(null);
                 return Transaction.success(currentData);
             }
 
             @Override
-            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
                 if (error != null) {
                     callback.onFailed(error.toException());
-                } else if (!committed) {
+                    return;
+                }
+                if (!committed) {
                     callback.onFailed(new Exception("שגיאה בתהליך מציאת חדר."));
-                } else {
-                    if (roomIdForUser == null) {
-                        callback.onFailed(new Exception("מזהה חדר לא נמצא."));
-                        return;
-                    }
-                    GameRoom finalRoom = snapshot.child(roomIdForUser).getValue(GameRoom.class);
-                    if (finalRoom != null) {
-                        callback.onCompleted(finalRoom);
-                    } else {
-                        callback.onFailed(new Exception("נתוני החדר לא נמצאו לאחר העדכון."));
-                    }
+                    return;
                 }
+                if (state != TicketState.MISSING) ticketRef.onDisconnect().cancel();
+                callback.onCompleted(state);
             }
         });
     }
 
+    /**
+     * Maps a room ID to its home queue shard.
+     */
+    private int getShardFor(String roomId) {
+        return Math.floorMod(roomId.hashCode(), MATCHMAKING_SHARD_COUNT);
+    }
+
+    /**
+     * Constructs path to a matchmaking queue shard.
+     */
+    private String getShardPath(int shard) {
+        return MATCHMAKING_PATH + "/" + shard;
+    }
+
+    /**
+     * Constructs path to the waiting ticket of a specific room.
+     */
+    private String getTicketPath(String roomId) {
+        return getShardPath(getShardFor(roomId)) + "/" + roomId;
+    }
+
     @Override
     public void getAllRoomsRealtime(@NonNull DatabaseCallback<List<GameRoom>> callback) {
         stopAllRoomsRealtime();
@@ -209,8 +425,35 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
         }
     }
 
+    /**
+     * Reads one month partition of the game history, newest games first.
+     *
+     * @param monthKey Month in {@link CalendarUtil#MONTH_KEY_FORMAT}.
+     * @param callback Result callback.
+     */
+    @Override
+    public void getGameHistory(@NonNull String monthKey, @NonNull DatabaseCallback<List<GameResult>> callback) {
+        readData(GameArchive.HISTORY_PATH + "/" + monthKey).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onFailed(task.getException());
+                return;
+            }
+            List<GameResult> results = StreamSupport.stream(task.getResult().getChildren().spliterator(), false)
+                    .map(child -> child.getValue(GameResult.class))
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingLong(GameResult::getFinishedAt).reversed())
+                    .collect(java.util.stream.Collectors.toList());
+            callback.onCompleted(results);
+        });
+    }
+
     /**
      * Attaches a listener to track room status transitions (e.g. from waiting to playing).
+     * <p>
+     * A waiting player listens before the room exists, since the room is only created once an
+     * opponent claims the matchmaking ticket. A missing room is therefore reported as deleted
+     * only after it has been seen at least once.
+     * </p>
      *
      * @param roomId   Room ID.
      * @param callback Status events handler.
@@ -218,12 +461,15 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
     @Override
     public void listenToRoomStatus(@NonNull String roomId, @NonNull IRoomStatusCallback callback) {
         ValueEventListener listener = new ValueEventListener() {
+            private boolean roomSeen = false;
+
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 if (!snapshot.exists()) {
-                    callback.onRoomDeleted();
+                    if (roomSeen) callback.onRoomDeleted();
                     return;
                 }
+                roomSeen = true;
                 GameRoom room = snapshot.getValue(GameRoom.class);
                 if (room == null) return;
                 if (STATUS_PLAYING.equals(room.getStatus())) callback.onRoomStarted(room);
@@ -245,12 +491,56 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
         if (listener != null) readData(ROOMS_PATH + "/" + roomId).removeEventListener(listener);
     }
 
+    /**
+     * Removes the room's matchmaking ticket, then tears the room down if the game has not started.
+     * <p>
+     * If the ticket had an active claim, the claimer may still be about to create the room. A
+     * cancelled marker is then left in its place, which makes the claimer's creation fail so it
+     * searches again. The claimer removes the marker, or the next {@link #archiveFinishedRooms}
+     * sweep does once the claim has expired.
+     * </p>
+     *
+     * @param roomId   Room ID.
+     * @param callback Optional result callback.
+     */
     @Override
     public void cancelRoom(@NonNull String roomId, @Nullable DatabaseCallback<Void> callback) {
+        releaseTicket(roomId, true, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(TicketState state) {
+                cancelUnstartedRoom(roomId, state == TicketState.CLAIMED, callback);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                cancelUnstartedRoom(roomId, true, callback);
+            }
+        });
+    }
+
+    /**
+     * Deletes a room node if no opponent has joined it yet, or if the board was never dealt.
+     *
+     * @param roomId      Room ID.
+     * @param claimActive true if a claimer may still create the room, so a marker is written.
+     * @param callback    Optional result callback.
+     */
+    private void cancelUnstartedRoom(@NonNull String roomId, boolean claimActive, @Nullable DatabaseCallback<Void> callback) {
         runTransaction(ROOMS_PATH + "/" + roomId, room -> {
-            if (room != null && STATUS_WAITING.equals(room.getStatus()) && room.getPlayer2Uid() == null) {
+            if (room == null) {
+                if (!claimActive) return null;
+                GameRoom marker = new GameRoom();
+                marker.setId(roomId);
+                marker.setStatus(STATUS_CANCELLED);
+                marker.setStartedAt(serverClock.now());
+                return marker;
+            }
+            if (STATUS_WAITING.equals(room.getStatus()) && room.getPlayer2Uid() == null) {
                 return null; // Deletes the room node
             }
+            if (STATUS_PLAYING.equals(room.getStatus()) && room.getBoard() == null) {
+                return null; // The opponent's screen leaves once the room is removed
+            }
             return room;
         }, (callback == null) ? null : new DatabaseCallback<>() {
             @Override
@@ -265,12 +555,27 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
         });
     }
 
+    /**
+     * Deals the board and starts the game. The board is stored in its compact form (see
+     * {@link BoardCodec}), and the turn and game deadlines in server time, so both players count
+     * down to the same moment.
+     *
+     * @param roomId       Room ID.
+     * @param cards        The shuffled cards.
+     * @param firstTurnUid The UID of the player who starts.
+     * @param callback     Optional result callback.
+     */
     @Override
     public void initGameBoard(String roomId, List<Card> cards, String firstTurnUid, DatabaseCallback<Void> callback) {
+        long now = serverClock.now();
         Map<String, Object> updates = new HashMap<>();
         updates.put(FIELD_CURRENT_TURN_UID, firstTurnUid);
         updates.put(FIELD_STATUS, STATUS_PLAYING);
-        updates.put(FIELD_CARDS, cards);
+        updates.put(FIELD_BOARD, BoardCodec.encode(cards));
+        updates.put(FIELD_REVEALED_MASK, 0L);
+        updates.put(FIELD_MATCHED_MASK, 0L);
+        updates.put(FIELD_TURN_DEADLINE, now + MemoryGameEngine.TURN_TIME_LIMIT);
+        updates.put(FIELD_GAME_DEADLINE, now + MemoryGameEngine.TOTAL_GAME_TIME_LIMIT);
 
         readData(ROOMS_PATH + "/" + roomId).updateChildren(updates, (error, ref) -> {
             if (callback != null) {
@@ -281,65 +586,56 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
     }
 
     /**
-     * Sets up a real-time listener for the active game room state.
+     * Follows the active game room through a {@link GameRoomStream}, which reads single cards
+     * and fields instead of the whole room on every change.
      *
      * @param roomId   Room ID.
-     * @param callback Handler for state updates.
+     * @param listener Handler for the typed room events.
      */
     @Override
-    public void listenToGame(String roomId, DatabaseCallback<GameRoom> callback) {
+    public void listenToGame(@NonNull String roomId, @NonNull IGameEventListener listener) {
         stopListeningToGame(roomId);
-        activeGameListener = new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (!snapshot.exists()) {
-                    callback.onCompleted(null);
-                    return;
-                }
-                try {
-                    GameRoom room = snapshot.getValue(GameRoom.class);
-                    callback.onCompleted(room);
-                } catch (DatabaseException e) {
-                    callback.onFailed(e);
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                callback.onFailed(error.toException());
-            }
-        };
-        readData(ROOMS_PATH + "/" + roomId).addValueEventListener(activeGameListener);
+        activeGameStream = new GameRoomStream(readData(ROOMS_PATH + "/" + roomId), listener);
+        activeGameStream.start();
     }
 
     @Override
     public void stopListeningToGame(String roomId) {
-        if (activeGameListener != null) {
-            readData(ROOMS_PATH + "/" + roomId).removeEventListener(activeGameListener);
-            activeGameListener = null;
+        if (activeGameStream != null) {
+            activeGameStream.stop();
+            activeGameStream = null;
         }
     }
 
+    /**
+     * Writes a whole move with one {@code updateChildren} on the room, so it is applied
+     * atomically and triggers a single event on each listener. A move that requires a turn
+     * deadline (a timeout) runs as a transaction on the room instead, and is dropped if the turn
+     * has already moved on.
+     *
+     * @param roomId   Room identifier.
+     * @param move     The move to apply.
+     * @param callback Optional result callback.
+     */
     @Override
-    public void updateRoomField(String roomId, String field, Object value) {
-        writeData(ROOMS_PATH + "/" + roomId + "/" + field, value, null);
+    public void applyMove(@NonNull String roomId, @NonNull GameMove move, @Nullable DatabaseCallback<Void> callback) {
+        if (move.isEmpty()) {
+            if (callback != null) callback.onCompleted(null);
+            return;
+        }
+        if (move.getRequiredTurnDeadline() != null) {
+            applyConditionalMove(roomId, move, callback);
+            return;
+        }
+        updateChildren(createMoveUpdates(roomId, move), callback);
     }
 
     /**
-     * Atomic transaction to increment a player's score.
-     *
-     * @param roomId    Room identifier.
-     * @param playerUid Player to reward.
-     * @param callback  Optional result callback.
+     * Applies a move in a transaction, only if the room still has the move's required turn deadline.
      */
-    @Override
-    public void incrementScore(String roomId, String playerUid, @Nullable DatabaseCallback<Void> callback) {
+    private void applyConditionalMove(@NonNull String roomId, @NonNull GameMove move, @Nullable DatabaseCallback<Void> callback) {
         runTransaction(ROOMS_PATH + "/" + roomId, room -> {
-            if (room == null) return null;
-            if (playerUid.equals(room.getPlayer1Uid()))
-                room.setPlayer1Score(room.getPlayer1Score() + 1);
-            else if (playerUid.equals(room.getPlayer2Uid()))
-                room.setPlayer2Score(room.getPlayer2Score() + 1);
+            if (room != null) MemoryGameEngine.apply(room, move);
             return room;
         }, (callback == null) ? null : new DatabaseCallback<>() {
             @Override
@@ -354,6 +650,47 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
         });
     }
 
+    /**
+     * Builds the multi-path update for a move, with paths relative to the database root.
+     * Card changes are written as the board's new revealed and matched masks.
+     *
+     * @param roomId Room identifier.
+     * @param move   The move to convert.
+     * @return The paths to write and their new values.
+     * @throws IllegalArgumentException if the move changes cards but was not placed on its board.
+     */
+    @VisibleForTesting
+    Map<String, Object> createMoveUpdates(@NonNull String roomId, @NonNull GameMove move) {
+        String roomPath = ROOMS_PATH + "/" + roomId + "/";
+        Map<String, Object> updates = new HashMap<>();
+        if (!move.getCards().isEmpty()) {
+            if (move.getRevealedMask() == null || move.getMatchedMask() == null) {
+                throw new IllegalArgumentException("A move that changes cards must be placed on its board first");
+            }
+            updates.put(roomPath + FIELD_REVEALED_MASK, move.getRevealedMask());
+            updates.put(roomPath + FIELD_MATCHED_MASK, move.getMatchedMask());
+        }
+        if (move.getPlayer1ScoreDelta() != 0) {
+            updates.put(roomPath + FIELD_PLAYER1_SCORE, ServerValue.increment(move.getPlayer1ScoreDelta()));
+        }
+        if (move.getPlayer2ScoreDelta() != 0) {
+            updates.put(roomPath + FIELD_PLAYER2_SCORE, ServerValue.increment(move.getPlayer2ScoreDelta()));
+        }
+        if (move.isFirstSelectedCardIndexSet()) {
+            updates.put(roomPath + FIELD_FIRST_SELECTED_CARD_INDEX, move.getFirstSelectedCardIndex());
+        }
+        if (move.getProcessingMatch() != null) {
+            updates.put(roomPath + FIELD_PROCESSING_MATCH, move.getProcessingMatch());
+        }
+        if (move.getCurrentTurnUid() != null) {
+            updates.put(roomPath + FIELD_CURRENT_TURN_UID, move.getCurrentTurnUid());
+        }
+        if (move.getTurnDeadline() != null) {
+            updates.put(roomPath + FIELD_TURN_DEADLINE, move.getTurnDeadline());
+        }
+        return updates;
+    }
+
     @Override
     public void finishGame(String roomId, String winnerUid, @Nullable DatabaseCallback<Boolean> callback) {
         readData(ROOMS_PATH + "/" + roomId).runTransaction(new Transaction.Handler() {
@@ -387,6 +724,10 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
 
             @Override
             public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                if (error == null && committed && transitioned && snapshot != null) {
+                    GameRoom room = snapshot.getValue(GameRoom.class);
+                    if (room != null) archiveRoom(room);
+                }
                 if (callback != null) {
                     if (error != null) callback.onFailed(error.toException());
                     else callback.onCompleted(committed && transitioned);
@@ -395,18 +736,85 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
         });
     }
 
-    @Override
-    public void updateCardStatus(String roomId, int index, boolean revealed, boolean matched) {
-        if (index < 0) return;
-        Map<String, Object> updates = new HashMap<>();
-        updates.put(FIELD_IS_REVEALED, revealed);
-        updates.put(FIELD_IS_MATCHED, matched);
-        readData(ROOMS_PATH + "/" + roomId + "/" + FIELD_CARDS + "/" + index).updateChildren(updates);
+    /**
+     * Moves a finished room out of the live {@code rooms} node (see {@link GameArchive}).
+     * If this write is lost, the room is archived by the next {@link #archiveFinishedRooms} sweep.
+     *
+     * @param room The finished room.
+     */
+    private void archiveRoom(GameRoom room) {
+        removeForfeitOnDisconnect(room.getId());
+        updateChildren(GameArchive.createUpdates(room, getCurrentMonthKey(), ServerValue.TIMESTAMP), null);
     }
 
+    /**
+     * Archives the finished rooms that are still in {@code rooms}, e.g. because the client that
+     * finished the game died before archiving it. Rooms whose game may still be finishing are
+     * left for a later sweep.
+     *
+     * @param callback Optional callback, invoked with the number of rooms archived.
+     */
     @Override
-    public void setProcessing(String roomId, boolean isProcessing) {
-        updateRoomField(roomId, FIELD_PROCESSING_MATCH, isProcessing);
+    public void archiveFinishedRooms(@Nullable DatabaseCallback<Integer> callback) {
+        removeExpiredCancelMarkers();
+        roomsReference.orderByChild(FIELD_STATUS).equalTo(STATUS_FINISHED).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (callback != null) callback.onFailed(task.getException());
+                return;
+            }
+            long now = serverClock.now();
+            String monthKey = getCurrentMonthKey();
+            Map<String, Object> updates = new HashMap<>();
+            int count = 0;
+            for (DataSnapshot child : task.getResult().getChildren()) {
+                GameRoom room = child.getValue(GameRoom.class);
+                if (room == null || !GameArchive.isReadyToArchive(room, now)) continue;
+                room.setId(child.getKey());
+                updates.putAll(GameArchive.createUpdates(room, monthKey, ServerValue.TIMESTAMP));
+                count++;
+            }
+            if (updates.isEmpty()) {
+                if (callback != null) callback.onCompleted(0);
+                return;
+            }
+            int archived = count;
+            updateChildren(updates, (callback == null) ? null : new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(Void result) {
+                    callback.onCompleted(archived);
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    callback.onFailed(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Deletes the cancelled markers left by {@link #cancelRoom} whose claimer never cleared them,
+     * once no claimer can still be creating the room.
+     */
+    private void removeExpiredCancelMarkers() {
+        roomsReference.orderByChild(FIELD_STATUS).equalTo(STATUS_CANCELLED).get().addOnSuccessListener(snapshot -> {
+            long now = serverClock.now();
+            Map<String, Object> updates = new HashMap<>();
+            for (DataSnapshot child : snapshot.getChildren()) {
+                GameRoom marker = child.getValue(GameRoom.class);
+                if (marker != null && now - marker.getStartedAt() > CLAIM_TIMEOUT) {
+                    updates.put(ROOMS_PATH + "/" + child.getKey(), null);
+                }
+            }
+            if (!updates.isEmpty()) updateChildren(updates, null);
+        });
+    }
+
+    /**
+     * @return The history month of a game finishing now, by the estimated server time.
+     */
+    private String getCurrentMonthKey() {
+        return calendarUtil.formatDate(serverClock.now(), CalendarUtil.MONTH_KEY_FORMAT);
     }
 
     /**
@@ -426,4 +834,26 @@ public class MemoryGameServiceImpl extends BaseDatabaseService<GameRoom> impleme
         roomRef.child(FIELD_STATUS).onDisconnect().cancel();
         roomRef.child(FIELD_WINNER_UID).onDisconnect().cancel();
     }
-}
\ No newline at end of file
+
+    /**
+     * The state a waiting ticket was found in when it was released.
+     */
+    private enum TicketState {
+        /**
+         * No ticket exists, so the room was created or the ticket was dropped.
+         */
+        MISSING,
+        /**
+         * The ticket was not claimed.
+         */
+        OPEN,
+        /**
+         * The ticket was claimed recently and the claimer may still create the room.
+         */
+        CLAIMED,
+        /**
+         * The ticket was claimed, but the claimer did not create the room in time.
+         */
+        EXPIRED
+    }
+}
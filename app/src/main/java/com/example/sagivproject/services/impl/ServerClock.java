@@ -0,0 +1,56 @@
+package com.example.sagivproject.services.impl;
+
+import androidx.annotation.NonNull;
+
+import com.example.sagivproject.services.game.GameClock;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * A {@link GameClock} that estimates the database server's time.
+ * <p>
+ * The device clock is corrected by {@code .info/serverTimeOffset}, which the Realtime Database
+ * measures when it connects. Both players of a game therefore agree on deadlines stored as
+ * server time, even when their device clocks are far apart.
+ * </p>
+ */
+@Singleton
+public class ServerClock implements GameClock {
+    private static final String SERVER_TIME_OFFSET_PATH = ".info/serverTimeOffset";
+
+    /**
+     * Server time minus device time, in milliseconds.
+     */
+    private volatile long offset = 0;
+
+    /**
+     * @param firebaseDatabase The database whose server time is estimated.
+     */
+    @Inject
+    public ServerClock(FirebaseDatabase firebaseDatabase) {
+        firebaseDatabase.getReference(SERVER_TIME_OFFSET_PATH).addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long value = snapshot.getValue(Long.class);
+                if (value != null) offset = value;
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+            }
+        });
+    }
+
+    /**
+     * @return The estimated server time in milliseconds since the epoch.
+     */
+    @Override
+    public long now() {
+        return System.currentTimeMillis() + offset;
+    }
+}
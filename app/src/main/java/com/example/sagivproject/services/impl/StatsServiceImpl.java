@@ -1,30 +1,77 @@
 package com.example.sagivproject.services.impl;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.sagivproject.models.DailyStats;
+import com.example.sagivproject.models.LeaderboardEntry;
 import com.example.sagivproject.models.MedicationUsage;
+import com.example.sagivproject.models.MedicationUsage.MedicationStatus;
 import com.example.sagivproject.services.DatabaseCallback;
 import com.example.sagivproject.services.IStatsService;
+import com.example.sagivproject.services.ReadMode;
 import com.example.sagivproject.utils.CalendarUtil;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
 /**
  * Implementation of the {@link IStatsService} interface.
  * <p>
- * This class handles updating daily statistics for the math game and memory game in the Firebase database.
+ * This class handles updating daily statistics for the math game and memory game in the Firebase database,
+ * and maintains the denormalized memory game leaderboard.
+ * Counters are written with {@link ServerValue#increment} so no read is needed, and math answers
+ * given in quick succession are coalesced into a single write.
  * It inherits from {@link BaseDatabaseService} to leverage common database operations and ensure
  * consistency across services.
  * </p>
  */
 public class StatsServiceImpl extends BaseDatabaseService<DailyStats> implements IStatsService {
-    private static final String USERS_PATH = "users";
-    private static final String FIELD_DAILY_STATS = "dailyStats";
+    private static final String STATS_PATH = "user_stats";
+    private static final String USAGE_PATH = "user_medication_usage";
+    private static final String LEADERBOARD_PATH = "leaderboard";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_MEMORY_WINS = "memoryWins";
+    private static final String FIELD_MEMORY_GAMES_PLAYED = "memoryGamesPlayed";
+    private static final String FIELD_TOTAL_WINS = "totalWins";
+    private static final String FIELD_GAMES_PLAYED = "gamesPlayed";
+    private static final String FIELD_MATH_CORRECT = "mathCorrect";
+    private static final String FIELD_MATH_WRONG = "mathWrong";
+    private static final String FIELD_MEDICATIONS_TAKEN = "medicationsTaken";
+    private static final String FIELD_MEDICATIONS_MISSED = "medicationsMissed";
+    private static final String FIELD_STATUS = "status";
+
+    /**
+     * How long math answers are collected before they are written together, in milliseconds.
+     */
+    private static final long MATH_BATCH_WINDOW_MS = 2000;
+
     private final CalendarUtil calendarUtil;
 
+    /**
+     * Pending math counter increments, keyed by the full path of the counter.
+     */
+    private final Map<String, Integer> pendingIncrements = new HashMap<>();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flushPendingStats;
+
     /**
      * Constructs a new StatsServiceImpl.
      *
@@ -33,7 +80,7 @@ public class StatsServiceImpl extends BaseDatabaseService<DailyStats> implements
      */
     @Inject
     public StatsServiceImpl(FirebaseDatabase firebaseDatabase, CalendarUtil calendarUtil) {
-        super(firebaseDatabase, USERS_PATH, DailyStats.class);
+        super(firebaseDatabase, STATS_PATH, DailyStats.class);
         this.calendarUtil = calendarUtil;
     }
 
@@ -45,31 +92,75 @@ public class StatsServiceImpl extends BaseDatabaseService<DailyStats> implements
      * @return The database path string.
      */
     private String getStatsPath(String uid, String date) {
-        return USERS_PATH + "/" + uid + "/" + FIELD_DAILY_STATS + "/" + date;
+        return STATS_PATH + "/" + uid + "/" + date;
     }
 
     /**
      * Updates the daily math game statistics for a specific user.
-     * If no statistics exist for today, a new entry is created.
+     * The answer is added to the pending batch, which is written after {@link #MATH_BATCH_WINDOW_MS}
+     * or on {@link #flushPendingStats()}, whichever comes first.
      *
      * @param uid     The user's unique identifier.
      * @param correct True if the answer was correct, false otherwise.
      */
     @Override
     public void updateDailyMathStats(@NonNull String uid, boolean correct) {
-        String today = calendarUtil.getCurrentDate();
-        runTransaction(getStatsPath(uid, today), stats -> {
-            DailyStats currentStats = (stats != null) ? stats : new DailyStats();
-            currentStats.setId(today);
-            if (correct) currentStats.addMathCorrect();
-            else currentStats.addMathWrong();
-            return currentStats;
-        }, null);
+        String counterPath = getStatsPath(uid, calendarUtil.getCurrentDate()) + "/" + (correct ? FIELD_MATH_CORRECT : FIELD_MATH_WRONG);
+        synchronized (pendingIncrements) {
+            boolean scheduled = !pendingIncrements.isEmpty();
+            pendingIncrements.merge(counterPath, 1, Integer::sum);
+            if (!scheduled) handler.postDelayed(flushRunnable, MATH_BATCH_WINDOW_MS);
+        }
+    }
+
+    /**
+     * Writes all pending counter increments in one multi-path update.
+     * Each touched day also gets its id set, so a new entry is created if none exists.
+     */
+    @Override
+    public void flushPendingStats() {
+        Map<String, Object> updates = new HashMap<>();
+        synchronized (pendingIncrements) {
+            handler.removeCallbacks(flushRunnable);
+            if (pendingIncrements.isEmpty()) return;
+            for (Map.Entry<String, Integer> pending : pendingIncrements.entrySet()) {
+                String counterPath = pending.getKey();
+                String statsPath = counterPath.substring(0, counterPath.lastIndexOf('/'));
+                updates.put(statsPath + "/" + FIELD_ID, statsPath.substring(statsPath.lastIndexOf('/') + 1));
+                updates.put(counterPath, ServerValue.increment(pending.getValue()));
+            }
+            pendingIncrements.clear();
+        }
+        updateChildren(updates, null);
+    }
+
+    /**
+     * Retrieves a user's statistics for a single day by reading only that day's node.
+     *
+     * @param uid      The user's unique identifier.
+     * @param date     The date string in "yyyy-MM-dd" format.
+     * @param mode     How the read is served.
+     * @param callback The callback invoked with the day's statistics, or null if there are none.
+     */
+    @Override
+    public void getDailyStats(@NonNull String uid, @NonNull String date, @NonNull ReadMode mode, @NonNull DatabaseCallback<DailyStats> callback) {
+        readSnapshots(Collections.singletonList(getStatsPath(uid, date)), mode, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<DataSnapshot> results) {
+                callback.onCompleted(results.get(0).getValue(DailyStats.class));
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
     }
 
     /**
      * Updates the daily memory game statistics for a specific user.
-     * Increments the games played count and win count if applicable.
+     * Increments the games played count and win count if applicable, and applies the same
+     * increments to the user's leaderboard entry in a single multi-path update.
      *
      * @param uid   The user's unique identifier.
      * @param isWin True if the user won the game, false otherwise.
@@ -77,19 +168,86 @@ public class StatsServiceImpl extends BaseDatabaseService<DailyStats> implements
     @Override
     public void updateDailyMemoryStats(@NonNull String uid, boolean isWin) {
         String today = calendarUtil.getCurrentDate();
-        runTransaction(getStatsPath(uid, today), stats -> {
-            DailyStats currentStats = (stats != null) ? stats : new DailyStats();
-            currentStats.setId(today);
-            currentStats.addMemoryGamePlayed();
-            if (isWin) {
-                currentStats.addMemoryWin();
+        String statsPath = getStatsPath(uid, today);
+        String leaderboardPath = LEADERBOARD_PATH + "/" + uid;
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(statsPath + "/" + FIELD_ID, today);
+        updates.put(statsPath + "/" + FIELD_MEMORY_GAMES_PLAYED, ServerValue.increment(1));
+        updates.put(leaderboardPath + "/" + FIELD_GAMES_PLAYED, ServerValue.increment(1));
+        if (isWin) {
+            updates.put(statsPath + "/" + FIELD_MEMORY_WINS, ServerValue.increment(1));
+            updates.put(leaderboardPath + "/" + FIELD_TOTAL_WINS, ServerValue.increment(1));
+        }
+        updateChildren(updates, null);
+    }
+
+    /**
+     * Retrieves the top players by total memory game wins using ordered, limited queries.
+     * Administrators and players without wins are left out of the result, and further pages are
+     * read in their place, so up to {@code limit} ranked players are returned.
+     *
+     * @param limit    Maximum number of players to return.
+     * @param callback Result callback, invoked with the entries sorted by wins (highest first).
+     */
+    @Override
+    public void getTopPlayers(int limit, @NonNull DatabaseCallback<List<LeaderboardEntry>> callback) {
+        readTopPlayers(limit, 0, null, new ArrayList<>(), callback);
+    }
+
+    /**
+     * Reads one page of the leaderboard below a cursor, highest wins first, and continues with
+     * the next page until enough ranked players were collected. Reading stops at the first entry
+     * without wins, since every entry after it has none either.
+     *
+     * @param limit      Maximum number of players to return.
+     * @param beforeWins The wins of the last entry read, used with {@code beforeId}.
+     * @param beforeId   The key of the last entry read, or null to start from the top.
+     * @param ranked     The ranked players collected so far.
+     * @param callback   Result callback.
+     */
+    private void readTopPlayers(int limit, int beforeWins, @Nullable String beforeId, List<LeaderboardEntry> ranked,
+                                @NonNull DatabaseCallback<List<LeaderboardEntry>> callback) {
+        Query query = readData(LEADERBOARD_PATH).orderByChild(FIELD_TOTAL_WINS);
+        if (beforeId != null) query = query.endBefore(beforeWins, beforeId);
+        query.limitToLast(limit).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onFailed(task.getException());
+                return;
+            }
+            // The query returns entries in ascending order of wins
+            List<DataSnapshot> page = new ArrayList<>();
+            for (DataSnapshot child : task.getResult().getChildren()) page.add(child);
+            Collections.reverse(page);
+
+            for (DataSnapshot child : page) {
+                LeaderboardEntry entry = child.getValue(LeaderboardEntry.class);
+                if (entry == null || entry.isAdmin()) continue;
+                if (entry.getTotalWins() < 1 || ranked.size() == limit) {
+                    callback.onCompleted(ranked);
+                    return;
+                }
+                entry.setId(child.getKey());
+                ranked.add(entry);
+            }
+            if (page.size() < limit || ranked.size() == limit) {
+                callback.onCompleted(ranked);
+                return;
             }
-            return currentStats;
-        }, null);
+            DataSnapshot last = page.get(page.size() - 1);
+            Integer lastWins = last.child(FIELD_TOTAL_WINS).getValue(Integer.class);
+            readTopPlayers(limit, (lastWins == null) ? 0 : lastWins, last.getKey(), ranked, callback);
+        });
     }
 
     /**
-     * Logs medication usage for a specific user and updates daily statistics for today.
+     * Logs medication usage for a specific user under today's date.
+     * <p>
+     * The log is stored as its own child keyed by medication and scheduled time, so logging the
+     * same dose again overwrites it. The log is written in a transaction that also yields the
+     * status it replaced, and the taken/missed counters are then changed by that difference, so
+     * concurrent or retried logs of the same dose are counted once.
+     * </p>
      *
      * @param uid      User identifier.
      * @param usage    Usage record details.
@@ -98,21 +256,85 @@ public class StatsServiceImpl extends BaseDatabaseService<DailyStats> implements
     @Override
     public void logMedicationUsage(@NonNull String uid, @NonNull MedicationUsage usage, @Nullable DatabaseCallback<Void> callback) {
         String today = calendarUtil.getCurrentDate();
-        runTransaction(getStatsPath(uid, today), stats -> {
-            DailyStats currentStats = (stats != null) ? stats : new DailyStats();
-            currentStats.setId(today);
-            currentStats.addMedicationUsageLog(usage);
-            return currentStats;
-        }, (callback == null) ? null : new DatabaseCallback<>() {
+        usage.setId(MedicationUsage.createId(usage.getMedicationId(), usage.getScheduledTime()));
+        String usagePath = USAGE_PATH + "/" + uid + "/" + today + "/" + usage.getId();
+        replaceUsageLog(databaseReference, usagePath, getStatsPath(uid, today), usage, callback);
+    }
+
+    /**
+     * Replaces or deletes a usage log and updates the day's taken/missed counters to match.
+     * <p>
+     * The log is replaced in a transaction on the log itself, which records the status it held
+     * when the write committed. The counters are then moved by exactly that change, so a log
+     * written twice (concurrently or by a retry) changes them only once.
+     * </p>
+     *
+     * @param root      The database root reference.
+     * @param usagePath The path of the usage log.
+     * @param statsPath The path of the day's statistics.
+     * @param usage     The new log, or null to delete it.
+     * @param callback  Result callback.
+     */
+    static void replaceUsageLog(DatabaseReference root, String usagePath, String statsPath, @Nullable MedicationUsage usage,
+                                @Nullable DatabaseCallback<Void> callback) {
+        root.child(usagePath).runTransaction(new Transaction.Handler() {
+            private MedicationStatus replaced;
+
+            @NonNull
             @Override
-            public void onCompleted(DailyStats result) {
-                callback.onCompleted(null);
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                replaced = currentData.child(FIELD_STATUS).getValue(MedicationStatus.class);
+                currentData.setValue(usage);
+                return Transaction.success(currentData);
             }
 
             @Override
-            public void onFailed(Exception e) {
-                callback.onFailed(e);
+            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                if (error != null || !committed) {
+                    if (callback != null) {
+                        callback.onFailed(error != null ? error.toException() : new Exception("Usage log was not written"));
+                    }
+                    return;
+                }
+                Map<String, Object> updates = new HashMap<>();
+                if (usage != null) updates.put(statsPath + "/" + FIELD_ID, statsPath.substring(statsPath.lastIndexOf('/') + 1));
+                putUsageCounterUpdates(updates, statsPath, replaced, (usage == null) ? null : usage.getStatus());
+                if (updates.isEmpty()) {
+                    if (callback != null) callback.onCompleted(null);
+                    return;
+                }
+                root.updateChildren(updates, (updateError, ref) -> {
+                    if (callback == null) return;
+                    if (updateError != null) callback.onFailed(updateError.toException());
+                    else callback.onCompleted(null);
+                });
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds the taken/missed counter increments for a usage log status change to a multi-path update.
+     *
+     * @param updates   The multi-path update to extend.
+     * @param statsPath The path of the day's statistics.
+     * @param removed   The status the log had before, or null if it did not exist.
+     * @param added     The status the log has now, or null if it was deleted.
+     */
+    private static void putUsageCounterUpdates(Map<String, Object> updates, String statsPath, @Nullable MedicationStatus removed, @Nullable MedicationStatus added) {
+        if (removed == added) return;
+        String removedCounter = getUsageCounterField(removed);
+        String addedCounter = getUsageCounterField(added);
+        if (removedCounter != null) updates.put(statsPath + "/" + removedCounter, ServerValue.increment(-1));
+        if (addedCounter != null) updates.put(statsPath + "/" + addedCounter, ServerValue.increment(1));
+    }
+
+    /**
+     * Maps a usage status to the day counter it is counted in; snoozed doses are not counted.
+     */
+    @Nullable
+    private static String getUsageCounterField(@Nullable MedicationStatus status) {
+        if (status == MedicationStatus.TAKEN) return FIELD_MEDICATIONS_TAKEN;
+        if (status == MedicationStatus.NOT_TAKEN) return FIELD_MEDICATIONS_MISSED;
+        return null;
+    }
+}
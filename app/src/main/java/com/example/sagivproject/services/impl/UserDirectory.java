@@ -0,0 +1,241 @@
+package com.example.sagivproject.services.impl;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.User;
+import com.example.sagivproject.models.UserSummary;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IUserDirectory;
+import com.example.sagivproject.services.ReadMode;
+import com.example.sagivproject.utils.LruTtlCache;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Implementation of the {@link IUserDirectory} interface.
+ * <p>
+ * A summary is read from the name, email and role fields of {@code user_profiles/{uid}} and the
+ * image hash in {@code user_image_hashes/{uid}}, in parallel, and kept in an {@link LruTtlCache} of up
+ * to {@value #MAX_USERS} users for {@value #TTL_MINUTES} minutes. While a user is being read,
+ * further requests for them wait for the same read instead of starting another one.
+ * </p>
+ */
+@Singleton
+public class UserDirectory extends BaseDatabaseService<UserSummary> implements IUserDirectory {
+    private static final String TAG = "UserDirectory";
+
+    private static final String PROFILES_PATH = "user_profiles";
+    private static final String IMAGE_HASHES_PATH = "user_image_hashes";
+
+    private static final String FIELD_FIRST_NAME = "firstName";
+    private static final String FIELD_LAST_NAME = "lastName";
+    private static final String FIELD_EMAIL = "email";
+    private static final String FIELD_ROLE = "role";
+
+    /**
+     * The largest number of users kept in memory.
+     */
+    private static final int MAX_USERS = 200;
+
+    /**
+     * How long a cached summary is served before it is read again.
+     */
+    private static final long TTL_MINUTES = 5;
+
+    private final LruTtlCache<String, UserSummary> cache =
+            new LruTtlCache<>(MAX_USERS, TimeUnit.MINUTES.toMillis(TTL_MINUTES), System::currentTimeMillis);
+
+    /**
+     * Callbacks waiting for a read in flight, by UID.
+     */
+    private final Map<String, List<DatabaseCallback<UserSummary>>> pending = new HashMap<>();
+
+    private long loadCount = 0;
+
+    /**
+     * @param firebaseDatabase The {@link FirebaseDatabase} instance.
+     */
+    @Inject
+    public UserDirectory(FirebaseDatabase firebaseDatabase) {
+        super(firebaseDatabase, PROFILES_PATH, UserSummary.class);
+    }
+
+    @Override
+    public void getUser(@NonNull String uid, @NonNull DatabaseCallback<UserSummary> callback) {
+        UserSummary cached = cache.get(uid);
+        if (cached != null) {
+            callback.onCompleted(cached);
+            return;
+        }
+
+        List<DatabaseCallback<UserSummary>> waiting;
+        synchronized (pending) {
+            waiting = pending.get(uid);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            pending.put(uid, waiting);
+            loadCount++;
+        }
+        load(uid);
+    }
+
+    @Override
+    public void getUsers(@NonNull Collection<String> uids, @NonNull DatabaseCallback<Map<String, UserSummary>> callback) {
+        Set<String> unique = new LinkedHashSet<>(uids);
+        unique.remove(null);
+        Map<String, UserSummary> result = new HashMap<>();
+        if (unique.isEmpty()) {
+            callback.onCompleted(result);
+            return;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(unique.size());
+        AtomicInteger failures = new AtomicInteger();
+        Exception[] lastError = new Exception[1];
+        for (String uid : unique) {
+            getUser(uid, new DatabaseCallback<>() {
+                @Override
+                public void onCompleted(UserSummary summary) {
+                    if (summary != null) {
+                        synchronized (result) {
+                            result.put(uid, summary);
+                        }
+                    }
+                    checkCompletion();
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    failures.incrementAndGet();
+                    lastError[0] = e;
+                    checkCompletion();
+                }
+
+                private void checkCompletion() {
+                    if (remaining.decrementAndGet() != 0) return;
+                    if (failures.get() == unique.size()) callback.onFailed(lastError[0]);
+                    else callback.onCompleted(result);
+                }
+            });
+        }
+    }
+
+    @Nullable
+    @Override
+    public UserSummary peek(@Nullable String uid) {
+        return uid == null ? null : cache.peek(uid);
+    }
+
+    @Override
+    public void invalidate(@NonNull String uid) {
+        cache.remove(uid);
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    public long getLoadCount() {
+        synchronized (pending) {
+            return loadCount;
+        }
+    }
+
+    /**
+     * Reads the summary fields of a user and completes every callback waiting for them.
+     *
+     * @param uid The UID of the user.
+     */
+    private void load(@NonNull String uid) {
+        String profilePath = PROFILES_PATH + "/" + uid + "/";
+        List<String> paths = Arrays.asList(
+                profilePath + FIELD_FIRST_NAME,
+                profilePath + FIELD_LAST_NAME,
+                profilePath + FIELD_EMAIL,
+                profilePath + FIELD_ROLE,
+                IMAGE_HASHES_PATH + "/" + uid);
+
+        readSnapshots(paths, ReadMode.FRESH, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<DataSnapshot> fields) {
+                UserSummary summary = readSummary(uid, fields);
+                if (summary != null) cache.put(uid, summary);
+                for (DatabaseCallback<UserSummary> callback : takePending(uid)) {
+                    callback.onCompleted(summary);
+                }
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                Log.e(TAG, "Failed to read the summary of " + uid, e);
+                for (DatabaseCallback<UserSummary> callback : takePending(uid)) {
+                    callback.onFailed(e);
+                }
+            }
+        });
+    }
+
+    private List<DatabaseCallback<UserSummary>> takePending(@NonNull String uid) {
+        synchronized (pending) {
+            List<DatabaseCallback<UserSummary>> waiting = pending.remove(uid);
+            return waiting != null ? waiting : new ArrayList<>();
+        }
+    }
+
+    /**
+     * Builds a summary from the fields read by {@link #load}.
+     *
+     * @return The summary, or null if the user has no profile.
+     */
+    @Nullable
+    private static UserSummary readSummary(@NonNull String uid, @NonNull List<DataSnapshot> fields) {
+        String firstName = fields.get(0).getValue(String.class);
+        String lastName = fields.get(1).getValue(String.class);
+        String email = fields.get(2).getValue(String.class);
+        if (firstName == null && lastName == null && email == null) return null;
+
+        User.UserRole role = User.UserRole.REGULAR;
+        String roleName = fields.get(3).getValue(String.class);
+        if (roleName != null) {
+            try {
+                role = User.UserRole.valueOf(roleName);
+            } catch (IllegalArgumentException ignored) {
+                // Unknown roles are shown as regular users
+            }
+        }
+        List<String> nameParts = new ArrayList<>();
+        if (firstName != null) nameParts.add(firstName);
+        if (lastName != null) nameParts.add(lastName);
+        // Images not moved to the blob store yet have no hash, so their inline content is never read
+        String avatarHash = fields.get(4).getValue(String.class);
+        return new UserSummary(uid, String.join(" ", nameParts), email, role, avatarHash);
+    }
+}
@@ -3,13 +3,27 @@ package com.example.sagivproject.services.impl;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.sagivproject.models.DailyStats;
+import com.example.sagivproject.models.EmergencyContact;
+import com.example.sagivproject.models.LeaderboardEntry;
+import com.example.sagivproject.models.Medication;
+import com.example.sagivproject.models.MedicationUsage;
 import com.example.sagivproject.models.User;
 import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
 import com.example.sagivproject.services.IUserService;
+import com.example.sagivproject.services.ReadMode;
+import com.example.sagivproject.utils.ContentHash;
+import com.example.sagivproject.utils.ImageVariant;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.FirebaseDatabase;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import javax.inject.Inject;
@@ -22,17 +36,52 @@ import javax.inject.Inject;
  * generic database logic while implementing specific business rules like authentication
  * by credentials and email uniqueness validation.
  * </p>
+ * <p>
+ * Users are stored in a normalized schema: identity fields in {@code user_profiles/{uid}},
+ * and the profile image, daily statistics, medication usage logs, medications and emergency
+ * contacts in sibling nodes keyed by the same UID. Reads only touch the nodes required by the {@link UserProjection}.
+ * </p>
+ * <p>
+ * The content hash of a profile image in the blob store is also kept in
+ * {@code user_image_hashes/{uid}}, so user summaries can read it without downloading an image
+ * that is still stored inline.
+ * </p>
  */
 public class UserServiceImpl extends BaseDatabaseService<User> implements IUserService {
+    private static final String PROFILES_PATH = "user_profiles";
+    private static final String IMAGES_PATH = "user_images";
+    private static final String IMAGE_HASHES_PATH = "user_image_hashes";
+    private static final String STATS_PATH = "user_stats";
+    private static final String MEDICATIONS_PATH = "user_medications";
+    private static final String CONTACTS_PATH = "user_emergency_contacts";
+    private static final String USAGE_PATH = "user_medication_usage";
+    private static final String LEADERBOARD_PATH = "leaderboard";
+    private static final String FORUM_READ_MARKERS_PATH = "forum_read_markers";
+    private static final String LEGACY_USERS_PATH = "users";
+
+    private static final String FIELD_EMAIL = "email";
+    private static final String FIELD_ROLE = "role";
+    private static final String FIELD_FULL_NAME = "fullName";
+    private static final String FIELD_ADMIN = "admin";
+    private static final String FIELD_PROFILE_IMAGE = "profileImage";
+    private static final String FIELD_DAILY_STATS = "dailyStats";
+    private static final String FIELD_MEDICATION_USAGE_LOGS = "medicationUsageLogs";
+    private static final String FIELD_MEDICATIONS = "medications";
+    private static final String FIELD_EMERGENCY_CONTACTS = "emergencyContacts";
+
+    private final ImageBlobs imageBlobs;
+
     /**
      * Constructs a new UserServiceImpl.
-     * Initializes the base database service with the "users" root path.
+     * Initializes the base database service with the "user_profiles" root path.
      *
      * @param firebaseDatabase The {@link FirebaseDatabase} instance.
+     * @param blobStore        The store holding the profile images.
      */
     @Inject
-    public UserServiceImpl(FirebaseDatabase firebaseDatabase) {
-        super(firebaseDatabase, "users", User.class);
+    public UserServiceImpl(FirebaseDatabase firebaseDatabase, IBlobStore blobStore) {
+        super(firebaseDatabase, PROFILES_PATH, User.class);
+        this.imageBlobs = new ImageBlobs(blobStore, databaseReference);
     }
 
     /**
@@ -47,51 +96,147 @@ public class UserServiceImpl extends BaseDatabaseService<User> implements IUserS
 
     /**
      * Creates a new user entry in the database.
+     * The profile, the profile image and the leaderboard entry are written in one multi-path update.
      *
      * @param user     The {@link User} object to persist.
      * @param callback Optional callback for operation results.
      */
     @Override
     public void createNewUser(@NonNull User user, @Nullable DatabaseCallback<Void> callback) {
-        super.create(user, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(PROFILES_PATH + "/" + user.getId(), user);
+        putProfileImage(updates, user.getId(), user.getProfileImage());
+        putLeaderboardProfile(updates, user);
+        updateChildren(updates, callback);
     }
 
     /**
      * Retrieves a single user record by its unique ID.
+     * The profile and the nodes required by the projection are read in parallel.
+     *
+     * @param uid        The unique identifier of the user.
+     * @param projection The parts of the user to load.
+     * @param callback   The callback invoked with the retrieved user object.
+     */
+    @Override
+    public void getUser(@NonNull String uid, @NonNull UserProjection projection, @NonNull DatabaseCallback<User> callback) {
+        getUser(uid, projection, ReadMode.FRESH, callback);
+    }
+
+    /**
+     * Retrieves a single user record by its unique ID, optionally serving the cached copy first.
+     * The profile and the nodes required by the projection are read in parallel.
+     *
+     * @param uid        The unique identifier of the user.
+     * @param projection The parts of the user to load.
+     * @param mode       How the read is served.
+     * @param callback   The callback invoked with the retrieved user object; twice for a revalidated read.
+     */
+    @Override
+    public void getUser(@NonNull String uid, @NonNull UserProjection projection, @NonNull ReadMode mode, @NonNull DatabaseCallback<User> callback) {
+        List<String> partPaths = getPartPaths(projection);
+        List<String> paths = new ArrayList<>();
+        paths.add(PROFILES_PATH + "/" + uid);
+        for (String partPath : partPaths) {
+            paths.add(partPath + "/" + uid);
+        }
+
+        readSnapshots(paths, mode, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<DataSnapshot> results) {
+                User user = results.get(0).getValue(User.class);
+                if (user != null) {
+                    for (int i = 0; i < partPaths.size(); i++) {
+                        applyPart(user, partPaths.get(i), results.get(i + 1));
+                    }
+                }
+                callback.onCompleted(user);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Keeps every node of a user synced with the local cache, so their reads are served
+     * from disk even right after a cold start.
      *
-     * @param uid      The unique identifier of the user.
-     * @param callback The callback invoked with the retrieved user object.
+     * @param uid    The unique identifier of the user.
+     * @param synced true to start syncing, false to stop (e.g. on logout).
      */
     @Override
-    public void getUser(@NonNull String uid, @NonNull DatabaseCallback<User> callback) {
-        super.get(uid, callback);
+    public void setUserSynced(@NonNull String uid, boolean synced) {
+        readData(PROFILES_PATH + "/" + uid).keepSynced(synced);
+        for (String partPath : getPartPaths(UserProjection.FULL)) {
+            readData(partPath + "/" + uid).keepSynced(synced);
+        }
     }
 
     /**
      * Retrieves all user records currently stored in the system.
+     * Each node required by the projection is read once for all users.
      *
-     * @param callback The callback invoked with the full list of users.
+     * @param projection The parts of each user to load.
+     * @param callback   The callback invoked with the full list of users.
      */
     @Override
-    public void getUserList(@NonNull DatabaseCallback<List<User>> callback) {
-        super.getAll(callback);
+    public void getUserList(@NonNull UserProjection projection, @NonNull DatabaseCallback<List<User>> callback) {
+        List<String> partPaths = getPartPaths(projection);
+        List<Task<DataSnapshot>> reads = new ArrayList<>();
+        reads.add(readData(PROFILES_PATH).get());
+        for (String partPath : partPaths) {
+            reads.add(readData(partPath).get());
+        }
+
+        Tasks.<DataSnapshot>whenAllSuccess(reads).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onFailed(task.getException());
+                return;
+            }
+            List<DataSnapshot> results = task.getResult();
+            List<User> users = new ArrayList<>();
+            for (DataSnapshot profile : results.get(0).getChildren()) {
+                User user = profile.getValue(User.class);
+                if (user == null) continue;
+                for (int i = 0; i < partPaths.size(); i++) {
+                    applyPart(user, partPaths.get(i), results.get(i + 1).child(Objects.requireNonNull(profile.getKey())));
+                }
+                users.add(user);
+            }
+            callback.onCompleted(users);
+        });
     }
 
     /**
-     * Deletes a specific user record from the database.
+     * Deletes a specific user record, all of its sibling nodes, its leaderboard entry and its
+     * forum read markers.
      *
      * @param uid      The ID of the user to remove.
      * @param callback Optional callback invoked upon completion.
      */
     @Override
     public void deleteUser(@NonNull String uid, @Nullable DatabaseCallback<Void> callback) {
-        super.delete(uid, callback);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(PROFILES_PATH + "/" + uid, null);
+        updates.put(IMAGES_PATH + "/" + uid, null);
+        updates.put(IMAGE_HASHES_PATH + "/" + uid, null);
+        updates.put(STATS_PATH + "/" + uid, null);
+        updates.put(MEDICATIONS_PATH + "/" + uid, null);
+        updates.put(CONTACTS_PATH + "/" + uid, null);
+        updates.put(USAGE_PATH + "/" + uid, null);
+        updates.put(LEADERBOARD_PATH + "/" + uid, null);
+        updates.put(FORUM_READ_MARKERS_PATH + "/" + uid, null);
+        updateChildren(updates, callback);
     }
 
     /**
      * Searches for a user whose email and password match the provided credentials.
      * <p>
-     * This implementation fetches all users and performs a client-side filter.
+     * The profiles are queried by email; the matching user is then loaded with the
+     * {@link UserProjection#FULL} projection for the local session.
      * </p>
      *
      * @param email    Email to match.
@@ -100,7 +245,7 @@ public class UserServiceImpl extends BaseDatabaseService<User> implements IUserS
      */
     @Override
     public void getUserByEmailAndPassword(@NonNull String email, @NonNull String password, @NonNull DatabaseCallback<User> callback) {
-        readData("users").orderByChild("email").equalTo(email).get().addOnCompleteListener(task -> {
+        readData(PROFILES_PATH).orderByChild(FIELD_EMAIL).equalTo(email).get().addOnCompleteListener(task -> {
             if (!task.isSuccessful()) {
                 callback.onFailed(task.getException());
                 return;
@@ -113,7 +258,11 @@ public class UserServiceImpl extends BaseDatabaseService<User> implements IUserS
                     break;
                 }
             }
-            callback.onCompleted(found);
+            if (found == null) {
+                callback.onCompleted(null);
+                return;
+            }
+            getUser(found.getId(), UserProjection.FULL, callback);
         });
     }
 
@@ -128,7 +277,7 @@ public class UserServiceImpl extends BaseDatabaseService<User> implements IUserS
      */
     @Override
     public void checkIfEmailExists(@NonNull String email, @NonNull DatabaseCallback<Boolean> callback) {
-        readData("users").orderByChild("email").equalTo(email).get().addOnCompleteListener(task -> {
+        readData(PROFILES_PATH).orderByChild(FIELD_EMAIL).equalTo(email).get().addOnCompleteListener(task -> {
             if (task.isSuccessful()) {
                 callback.onCompleted(task.getResult().exists());
             } else {
@@ -138,28 +287,75 @@ public class UserServiceImpl extends BaseDatabaseService<User> implements IUserS
     }
 
     /**
-     * Overwrites an existing user record with updated data.
+     * Writes the identity fields that changed between two versions of a user record.
+     * The leaderboard entry is updated in the same multi-path update when the name or role changed.
      *
-     * @param user     The user object containing new data.
+     * @param original The user as it was before the edit.
+     * @param updated  The user object containing new data.
      * @param callback Optional callback for result notification.
      */
     @Override
-    public void updateUser(@NonNull User user, @Nullable DatabaseCallback<Void> callback) {
-        super.update(user.getId(), oldUser -> user, (callback == null) ? null : new DatabaseCallback<>() {
+    public void updateUser(@NonNull User original, @NonNull User updated, @Nullable DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = FieldDiff.diff(PROFILES_PATH + "/" + updated.getId(), original, updated);
+        if (updates.isEmpty()) {
+            if (callback != null) callback.onCompleted(null);
+            return;
+        }
+        if (!Objects.equals(original.getFullName(), updated.getFullName()) || original.isAdmin() != updated.isAdmin()) {
+            putLeaderboardProfile(updates, updated);
+        }
+        updateChildren(updates, callback);
+    }
+
+    /**
+     * Writes or removes the user's profile image and its hash entry in one multi-path update.
+     *
+     * @param uid          User identifier.
+     * @param profileImage Content hash of the image, or null to remove it.
+     * @param callback     Optional callback.
+     */
+    @Override
+    public void updateProfileImage(@NonNull String uid, @Nullable String profileImage, @Nullable DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        putProfileImage(updates, uid, profileImage);
+        updateChildren(updates, callback);
+    }
+
+    /**
+     * Uploads the image variants to the blob store, then writes their hash to the user's image node.
+     *
+     * @param uid      User identifier.
+     * @param variants The compressed variants of the image.
+     * @param callback Optional callback invoked with the content hash.
+     */
+    @Override
+    public void uploadProfileImage(@NonNull String uid, @NonNull Map<ImageVariant, byte[]> variants, @Nullable DatabaseCallback<String> callback) {
+        imageBlobs.putVariants(variants, new DatabaseCallback<>() {
             @Override
-            public void onCompleted(User updatedUser) {
-                callback.onCompleted(null);
+            public void onCompleted(String hash) {
+                updateProfileImage(uid, hash, new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Void object) {
+                        if (callback != null) callback.onCompleted(hash);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        if (callback != null) callback.onFailed(e);
+                    }
+                });
             }
 
             @Override
             public void onFailed(Exception e) {
-                callback.onFailed(e);
+                if (callback != null) callback.onFailed(e);
             }
         });
     }
 
     /**
-     * Modifies the administrative role of a specific user using an atomic transaction.
+     * Modifies the administrative role of a specific user.
+     * Only the role field and the leaderboard admin flag are written, in one multi-path update.
      *
      * @param uid      User identifier.
      * @param role     The new {@link User.UserRole} to assign.
@@ -167,19 +363,217 @@ public class UserServiceImpl extends BaseDatabaseService<User> implements IUserS
      */
     @Override
     public void updateUserRole(@NonNull String uid, @NonNull User.UserRole role, @Nullable DatabaseCallback<Void> callback) {
-        super.update(uid, user -> {
-            user.setRole(role);
-            return user;
-        }, (callback == null) ? null : new DatabaseCallback<>() {
-            @Override
-            public void onCompleted(User user) {
-                callback.onCompleted(null);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(PROFILES_PATH + "/" + uid + "/" + FIELD_ROLE, role.name());
+        updates.put(LEADERBOARD_PATH + "/" + uid + "/" + FIELD_ADMIN, role == User.UserRole.ADMIN);
+        updateChildren(updates, callback);
+    }
+
+    /**
+     * Splits every legacy {@code users/{uid}} record into the normalized nodes.
+     * <p>
+     * Each user is moved in its own multi-path update, which also removes the legacy record and
+     * rebuilds the user's leaderboard entry from the migrated daily statistics.
+     * </p>
+     *
+     * @param callback Optional callback invoked with the number of migrated users.
+     */
+    @Override
+    public void migrateLegacyUsers(@Nullable DatabaseCallback<Integer> callback) {
+        readData(LEGACY_USERS_PATH).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (callback != null) callback.onFailed(task.getException());
+                return;
             }
+            List<Task<Void>> writes = new ArrayList<>();
+            for (DataSnapshot legacy : task.getResult().getChildren()) {
+                User user = legacy.getValue(User.class);
+                String uid = legacy.getKey();
+                if (user == null || uid == null) continue;
+                user.setId(uid);
 
-            @Override
-            public void onFailed(Exception e) {
-                callback.onFailed(e);
+                DataSnapshot stats = legacy.child(FIELD_DAILY_STATS);
+                Map<String, Object> updates = new HashMap<>();
+                updates.put(PROFILES_PATH + "/" + uid, user);
+                putProfileImage(updates, uid, legacy.child(FIELD_PROFILE_IMAGE).getValue(String.class));
+                putMigratedStats(updates, uid, stats);
+                updates.put(MEDICATIONS_PATH + "/" + uid, legacy.child(FIELD_MEDICATIONS).getValue());
+                updates.put(CONTACTS_PATH + "/" + uid, legacy.child(FIELD_EMERGENCY_CONTACTS).getValue());
+                updates.put(LEADERBOARD_PATH + "/" + uid, buildLeaderboardEntry(user, stats));
+                updates.put(LEGACY_USERS_PATH + "/" + uid, null);
+                writes.add(databaseReference.updateChildren(updates));
+            }
+
+            Tasks.whenAll(writes).addOnCompleteListener(writeTask -> {
+                if (callback == null) return;
+                if (writeTask.isSuccessful()) callback.onCompleted(writes.size());
+                else callback.onFailed(writeTask.getException());
+            });
+        });
+    }
+
+    /**
+     * Uploads every profile image still stored inline and replaces its node with the content hash.
+     * Images already in the blob store get their missing hash entries in one multi-path update.
+     *
+     * @param callback Optional callback invoked with the number of migrated images.
+     */
+    @Override
+    public void migrateProfileImagesToBlobStore(@Nullable DatabaseCallback<Integer> callback) {
+        readData(IMAGES_PATH).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (callback != null) callback.onFailed(task.getException());
+                return;
             }
+            List<Task<Void>> migrations = new ArrayList<>();
+            Map<String, Object> hashEntries = new HashMap<>();
+            for (DataSnapshot image : task.getResult().getChildren()) {
+                String uid = image.getKey();
+                String value = image.getValue(String.class);
+                if (uid == null || value == null) continue;
+                if (ContentHash.isHash(value)) {
+                    hashEntries.put(IMAGE_HASHES_PATH + "/" + uid, value);
+                    continue;
+                }
+
+                migrations.add(imageBlobs.migrateInline(value, hash -> {
+                    Map<String, Object> updates = new HashMap<>();
+                    putProfileImage(updates, uid, hash);
+                    return updates;
+                }));
+            }
+
+            List<Task<Void>> writes = new ArrayList<>(migrations);
+            if (!hashEntries.isEmpty()) writes.add(databaseReference.updateChildren(hashEntries));
+            Tasks.whenAll(writes).addOnCompleteListener(writeTask -> {
+                if (callback == null) return;
+                if (writeTask.isSuccessful()) callback.onCompleted(migrations.size());
+                else callback.onFailed(writeTask.getException());
+            });
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Lists the sibling nodes that have to be read for a projection, in addition to the profile.
+     *
+     * @param projection The requested projection.
+     * @return Root paths of the nodes to read.
+     */
+    private List<String> getPartPaths(UserProjection projection) {
+        List<String> paths = new ArrayList<>();
+        if (projection != UserProjection.SUMMARY) {
+            paths.add(IMAGES_PATH);
+        }
+        if (projection == UserProjection.FULL) {
+            // Usage logs are attached to the daily stats, so they must come after them
+            paths.add(STATS_PATH);
+            paths.add(USAGE_PATH);
+            paths.add(MEDICATIONS_PATH);
+            paths.add(CONTACTS_PATH);
+        }
+        return paths;
+    }
+
+    /**
+     * Fills one part of a user from its sibling node.
+     *
+     * @param user     The user to fill.
+     * @param partPath The root path of the node the snapshot was read from.
+     * @param node     The user's snapshot of that node.
+     */
+    private void applyPart(User user, String partPath, DataSnapshot node) {
+        switch (partPath) {
+            case IMAGES_PATH:
+                user.setProfileImage(node.getValue(String.class));
+                break;
+            case STATS_PATH:
+                user.setDailyStats(readMap(node, DailyStats.class));
+                break;
+            case MEDICATIONS_PATH:
+                user.setMedications(readMap(node, Medication.class));
+                break;
+            case CONTACTS_PATH:
+                user.setEmergencyContacts(readMap(node, EmergencyContact.class));
+                break;
+            case USAGE_PATH:
+                for (DataSnapshot day : node.getChildren()) {
+                    user.getDailyStatsForDate(day.getKey()).setMedicationUsage(readMap(day, MedicationUsage.class));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Deserializes the children of a node into a map keyed by the child keys.
+     */
+    private <V> HashMap<String, V> readMap(DataSnapshot node, Class<V> clazz) {
+        HashMap<String, V> map = new HashMap<>();
+        for (DataSnapshot child : node.getChildren()) {
+            V value = child.getValue(clazz);
+            if (value != null) map.put(child.getKey(), value);
+        }
+        return map;
+    }
+
+    /**
+     * Adds the profile image and its hash entry to a multi-path update. An image still stored
+     * inline has no hash entry.
+     */
+    private void putProfileImage(Map<String, Object> updates, String uid, String profileImage) {
+        updates.put(IMAGES_PATH + "/" + uid, profileImage);
+        updates.put(IMAGE_HASHES_PATH + "/" + uid, ContentHash.isHash(profileImage) ? profileImage : null);
+    }
+
+    /**
+     * Adds the profile fields shown on the leaderboard (name and admin flag) to a multi-path update.
+     * The win counters of the entry are left untouched.
+     */
+    private void putLeaderboardProfile(Map<String, Object> updates, User user) {
+        String entryPath = LEADERBOARD_PATH + "/" + user.getId();
+        updates.put(entryPath + "/" + FIELD_FULL_NAME, user.getFullName());
+        updates.put(entryPath + "/" + FIELD_ADMIN, user.isAdmin());
+    }
+
+    /**
+     * Moves the legacy daily statistics into the stats node, splitting the embedded usage log
+     * lists into the keyed usage node and deriving the taken/missed counters from them.
+     */
+    private void putMigratedStats(Map<String, Object> updates, String uid, DataSnapshot stats) {
+        Map<String, DailyStats> days = new HashMap<>();
+        Map<String, Map<String, MedicationUsage>> usage = new HashMap<>();
+        for (DataSnapshot daySnapshot : stats.getChildren()) {
+            DailyStats day = daySnapshot.getValue(DailyStats.class);
+            String date = daySnapshot.getKey();
+            if (day == null || date == null) continue;
+            day.setId(date);
+            for (DataSnapshot logSnapshot : daySnapshot.child(FIELD_MEDICATION_USAGE_LOGS).getChildren()) {
+                MedicationUsage log = logSnapshot.getValue(MedicationUsage.class);
+                if (log == null) continue;
+                log.setId(MedicationUsage.createId(log.getMedicationId(), log.getScheduledTime()));
+                day.addMedicationUsageLog(log);
+            }
+            days.put(date, day);
+            Map<String, MedicationUsage> dayUsage = new HashMap<>();
+            for (MedicationUsage log : day.getMedicationUsageLogs()) {
+                dayUsage.put(log.getId(), log);
+            }
+            if (!dayUsage.isEmpty()) usage.put(date, dayUsage);
+        }
+        updates.put(STATS_PATH + "/" + uid, days);
+        updates.put(USAGE_PATH + "/" + uid, usage);
+    }
+
+    /**
+     * Builds a complete leaderboard entry from a user's legacy daily statistics.
+     */
+    private LeaderboardEntry buildLeaderboardEntry(User user, DataSnapshot stats) {
+        LeaderboardEntry entry = new LeaderboardEntry();
+        entry.setFullName(user.getFullName());
+        entry.setAdmin(user.isAdmin());
+        for (DailyStats day : readMap(stats, DailyStats.class).values()) {
+            entry.setTotalWins(entry.getTotalWins() + day.getMemoryWins());
+            entry.setGamesPlayed(entry.getGamesPlayed() + day.getMemoryGamesPlayed());
+        }
+        return entry;
+    }
+}
@@ -92,7 +92,7 @@ public class NotificationReceiver extends BroadcastReceiver {
     private void handleBoot() {
         if (sharedPreferencesUtil.isUserNotLoggedIn()) return;
 
-        User user = sharedPreferencesUtil.getUser();
+        User user = sharedPreferencesUtil.getUserProfile();
         if (user == null || user.getId() == null) return;
 
         medicationService.getUserMedicationList(user.getId(), new DatabaseCallback<>() {
@@ -124,23 +124,20 @@ public class NotificationReceiver extends BroadcastReceiver {
         String hourStr = intent.getStringExtra("hour_str");
         int notificationId = intent.getIntExtra("notification_id", 0);
 
-        User user = sharedPreferencesUtil.getUser();
-        if (user == null || user.getMedications() == null || !user.getMedications().containsKey(medicationId)) {
+        Medication medication = sharedPreferencesUtil.getMedication(medicationId);
+        if (medication == null) {
             return;
         }
 
         String today = calendarUtil.getCurrentDate();
-        DailyStats stats = user.getDailyStats().get(today);
+        DailyStats stats = sharedPreferencesUtil.getDailyStats(today);
         if (stats != null && stats.getMedicationUsageLogs() != null) {
             for (MedicationUsage usage : stats.getMedicationUsageLogs()) {
                 if (usage.getMedicationId().equals(medicationId) &&
                         usage.getScheduledTime().equals(hourStr) &&
                         usage.getStatus() == MedicationStatus.TAKEN) {
                     // Already taken today for this scheduled time, just reschedule for tomorrow
-                    Medication medication = user.getMedications().get(medicationId);
-                    if (medication != null) {
-                        notificationService.scheduleSpecificTime(medication, hourStr, true);
-                    }
+                    notificationService.scheduleSpecificTime(medication, hourStr, true);
                     return;
                 }
             }
@@ -148,8 +145,7 @@ public class NotificationReceiver extends BroadcastReceiver {
 
         notificationService.showMedicationNotification(medicationId, medicationName, hourStr, notificationId);
 
-        Medication medication = user.getMedications().get(medicationId);
-        if (medication != null && hourStr != null) {
+        if (hourStr != null) {
             notificationService.scheduleSpecificTime(medication, hourStr, true);
         }
     }
@@ -167,19 +163,25 @@ public class NotificationReceiver extends BroadcastReceiver {
         int notificationId = intent.getIntExtra("notification_id", -1);
         String statusStr = intent.getStringExtra("status");
 
-        User user = sharedPreferencesUtil.getUser();
+        User user = sharedPreferencesUtil.getUserProfile();
         if (user != null && medicationId != null && statusStr != null) {
             MedicationStatus status = MedicationStatus.valueOf(statusStr);
             String timeNow = calendarUtil.formatDate(System.currentTimeMillis(), "HH:mm");
 
-            String usageId = medicationService.generateUsageId();
+            String usageId = MedicationUsage.createId(medicationId, hourStr);
             MedicationUsage usage = new MedicationUsage(usageId, medicationId, timeNow, hourStr, status);
 
             statsService.logMedicationUsage(user.getId(), usage, new DatabaseCallback<>() {
                 @Override
                 public void onCompleted(Void object) {
-                    user.getDailyStatsForDate(calendarUtil.getCurrentDate()).addMedicationUsageLog(usage);
-                    sharedPreferencesUtil.saveUser(user);
+                    String today = calendarUtil.getCurrentDate();
+                    DailyStats stats = sharedPreferencesUtil.getDailyStats(today);
+                    if (stats == null) {
+                        stats = new DailyStats();
+                        stats.setId(today);
+                    }
+                    stats.addMedicationUsageLog(usage);
+                    sharedPreferencesUtil.saveDailyStats(today, stats);
                 }
 
                 @Override
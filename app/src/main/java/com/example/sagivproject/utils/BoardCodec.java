@@ -0,0 +1,186 @@
+package com.example.sagivproject.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.CompactBoard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts a memory game board between the cards used in memory and its compact stored form.
+ * <p>
+ * A board is stored as a {@link CompactBoard} (a table of the distinct image IDs and one layout
+ * character per card) plus two bitmasks, where bit {@code i} holds whether card {@code i} is
+ * revealed or matched. A board therefore holds at most {@value #MAX_CARDS} cards. Boards stored
+ * by older versions as a list of card objects are read by {@link #readLegacy}.
+ * </p>
+ */
+public final class BoardCodec {
+    /**
+     * The largest board a bitmask can describe.
+     */
+    public static final int MAX_CARDS = Long.SIZE;
+
+    /**
+     * The layout characters; the character at index {@code i} names the image at index {@code i}.
+     */
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    private static final String LEGACY_ID = "id";
+    private static final String LEGACY_IS_REVEALED = "isRevealed";
+    private static final String LEGACY_IS_MATCHED = "isMatched";
+
+    private BoardCodec() {
+    }
+
+    /**
+     * Encodes the layout of a board. The card states are left to {@link #revealedMask} and
+     * {@link #matchedMask}.
+     *
+     * @param cards The cards of the board, in board order.
+     * @return The image table and layout of the board.
+     * @throws IllegalArgumentException if the board has more than {@value #MAX_CARDS} cards or a card has no ID.
+     */
+    @NonNull
+    public static CompactBoard encode(@NonNull List<Card> cards) {
+        if (cards.size() > MAX_CARDS) {
+            throw new IllegalArgumentException("A board holds at most " + MAX_CARDS + " cards, got " + cards.size());
+        }
+        List<String> images = new ArrayList<>();
+        Map<String, Integer> imageIndexes = new HashMap<>();
+        StringBuilder layout = new StringBuilder(cards.size());
+        for (Card card : cards) {
+            if (card == null || card.getId() == null) {
+                throw new IllegalArgumentException("Every card on the board needs an ID");
+            }
+            Integer index = imageIndexes.get(card.getId());
+            if (index == null) {
+                index = images.size();
+                images.add(card.getId());
+                imageIndexes.put(card.getId(), index);
+            }
+            layout.append(ALPHABET.charAt(index));
+        }
+        return new CompactBoard(images, layout.toString());
+    }
+
+    /**
+     * Decodes a stored board into cards.
+     *
+     * @param board        The image table and layout.
+     * @param revealedMask The revealed bit of each card.
+     * @param matchedMask  The matched bit of each card.
+     * @return The cards of the board, in board order.
+     * @throws IllegalArgumentException if the layout is longer than {@value #MAX_CARDS} or names a missing image.
+     */
+    @NonNull
+    public static List<Card> decode(@NonNull CompactBoard board, long revealedMask, long matchedMask) {
+        String layout = board.getLayout() != null ? board.getLayout() : "";
+        List<String> images = board.getImages();
+        if (layout.length() > MAX_CARDS) {
+            throw new IllegalArgumentException("A board holds at most " + MAX_CARDS + " cards, got " + layout.length());
+        }
+        List<Card> cards = new ArrayList<>(layout.length());
+        for (int i = 0; i < layout.length(); i++) {
+            int index = ALPHABET.indexOf(layout.charAt(i));
+            if (index < 0 || images == null || index >= images.size()) {
+                throw new IllegalArgumentException("Layout character '" + layout.charAt(i) + "' at " + i + " names no image");
+            }
+            Card card = new Card(images.get(index), null);
+            card.setRevealed(isSet(revealedMask, i));
+            card.setMatched(isSet(matchedMask, i));
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    /**
+     * @param cards The cards of the board.
+     * @return A mask with the bit of every revealed card set.
+     */
+    public static long revealedMask(@Nullable List<Card> cards) {
+        long mask = 0;
+        if (cards == null) return mask;
+        for (int i = 0; i < Math.min(cards.size(), MAX_CARDS); i++) {
+            if (cards.get(i) != null && cards.get(i).getIsRevealed()) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /**
+     * @param cards The cards of the board.
+     * @return A mask with the bit of every matched card set.
+     */
+    public static long matchedMask(@Nullable List<Card> cards) {
+        long mask = 0;
+        if (cards == null) return mask;
+        for (int i = 0; i < Math.min(cards.size(), MAX_CARDS); i++) {
+            if (cards.get(i) != null && cards.get(i).getIsMatched()) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Sets or clears one card's bit in a mask.
+     *
+     * @param mask  The mask to change.
+     * @param index The position of the card.
+     * @param set   Whether the bit should be set.
+     * @return The changed mask.
+     */
+    public static long withBit(long mask, int index, boolean set) {
+        return set ? mask | (1L << index) : mask & ~(1L << index);
+    }
+
+    /**
+     * @param mask  A card mask.
+     * @param index The position of the card.
+     * @return true if the card's bit is set.
+     */
+    public static boolean isSet(long mask, int index) {
+        return index >= 0 && index < MAX_CARDS && (mask & (1L << index)) != 0;
+    }
+
+    /**
+     * Reads a board stored by older versions as a list of card objects
+     * ({@code {id, isRevealed, isMatched}}), given as the raw value of the {@code cards} node.
+     * The database returns such a node as a list, or as a map keyed by position when it has gaps.
+     *
+     * @param value The raw value of the legacy {@code cards} node.
+     * @return The cards of the board, in board order, or an empty list if there is no board.
+     */
+    @NonNull
+    public static List<Card> readLegacy(@Nullable Object value) {
+        List<Card> cards = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                Card card = readLegacyCard(item);
+                if (card != null) cards.add(card);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            for (int i = 0; i < map.size(); i++) {
+                Card card = readLegacyCard(map.get(String.valueOf(i)));
+                if (card != null) cards.add(card);
+            }
+        }
+        return cards;
+    }
+
+    @Nullable
+    private static Card readLegacyCard(@Nullable Object item) {
+        if (!(item instanceof Map)) return null;
+        Map<?, ?> fields = (Map<?, ?>) item;
+        Object id = fields.get(LEGACY_ID);
+        if (!(id instanceof String)) return null;
+        Card card = new Card((String) id, null);
+        card.setRevealed(Boolean.TRUE.equals(fields.get(LEGACY_IS_REVEALED)));
+        card.setMatched(Boolean.TRUE.equals(fields.get(LEGACY_IS_MATCHED)));
+        return card;
+    }
+}
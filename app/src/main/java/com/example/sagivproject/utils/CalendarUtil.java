@@ -14,6 +14,8 @@ import java.time.Period;
 import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -280,6 +282,21 @@ public class CalendarUtil {
         }
     }
 
+    /**
+     * Gets the keys of the most recent months, starting with the current month.
+     *
+     * @param count Number of months to return.
+     * @return Month keys in MONTH_KEY_FORMAT, newest first.
+     */
+    public List<String> getRecentMonthKeys(int count) {
+        List<String> monthKeys = new ArrayList<>();
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i < count; i++) {
+            monthKeys.add(month.minusMonths(i).format(MONTH_KEY_FORMATTER));
+        }
+        return monthKeys;
+    }
+
     /**
      * Formats a month key (yyyy-MM) to display format (MM/yyyy).
      *
@@ -0,0 +1,52 @@
+package com.example.sagivproject.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes and recognizes the SHA-256 content hashes used to reference blobs.
+ */
+public final class ContentHash {
+    private static final int HEX_LENGTH = 64;
+
+    private ContentHash() {
+    }
+
+    /**
+     * Hashes a byte array.
+     *
+     * @param data The bytes to hash.
+     * @return The lowercase hex SHA-256 hash of the bytes.
+     */
+    @NonNull
+    public static String of(@NonNull byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(HEX_LENGTH);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Tells a content hash apart from an inline (Base64) image stored by older versions.
+     *
+     * @param value The stored image reference.
+     * @return true if the value is a content hash.
+     */
+    public static boolean isHash(@Nullable String value) {
+        if (value == null || value.length() != HEX_LENGTH) return false;
+        for (int i = 0; i < HEX_LENGTH; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+}
@@ -2,16 +2,38 @@ package com.example.sagivproject.utils;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.drawable.BitmapDrawable;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Base64;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.ViewGroup;
 import android.widget.ImageView;
 
+import androidx.annotation.NonNull;
+
 import com.example.sagivproject.R;
+import com.example.sagivproject.services.DatabaseCallback;
+import com.example.sagivproject.services.IBlobStore;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -19,71 +41,412 @@ import javax.inject.Singleton;
 /**
  * A utility class for handling image-related operations.
  * <p>
- * This class provides methods for converting images to and from Base64 encoded strings,
- * and for loading images into ImageViews. It is managed as a Singleton by Hilt.
+ * This class provides methods for compressing images for upload and for loading images into
+ * ImageViews. It is managed as a Singleton by Hilt.
+ * </p>
+ * <p>
+ * Uploaded images are stored in every {@link ImageVariant}, each within its own size budget,
+ * and views load the smallest variant that covers them. Images can be {@link #prefetch prefetched}
+ * into the cache before they are displayed.
+ * </p>
+ * <p>
+ * Images are referenced either by the content hash of a blob in the {@link IBlobStore} or, for
+ * data stored by older versions, by their inline Base64 content. Loading goes through a small
+ * pipeline: decoded bitmaps are kept in an {@link LruCache} sized by bytes, cache misses are
+ * fetched and decoded in the background and downsampled to the size of the requested variant,
+ * and a pending load is cancelled when the view is rebound or recycled.
  * </p>
  */
 @Singleton
 public class ImageUtil {
-    private static final String BASE64_PREFIX = "data:image/jpeg;base64,";
+    private static final String TAG = "ImageUtil";
+
+    /**
+     * JPEG quality a variant is first compressed with; lowered until the variant fits its budget.
+     */
+    private static final int START_QUALITY = 90;
+    private static final int MIN_QUALITY = 40;
+    private static final int QUALITY_STEP = 10;
+
+    /**
+     * Scale applied when a variant exceeds its budget even at the minimum quality.
+     */
+    private static final float DOWNSCALE_FACTOR = 0.8f;
+
+    /**
+     * Number of background threads decoding images.
+     */
+    private static final int DECODE_THREADS = 2;
+
+    /**
+     * Fraction of the app's heap given to decoded bitmaps.
+     */
+    private static final int CACHE_HEAP_FRACTION = 8;
 
     /**
-     * Default constructor for Hilt dependency injection.
+     * Number of inline images whose content hash is remembered.
+     */
+    private static final int INLINE_HASH_CACHE_SIZE = 256;
+
+    private final IBlobStore blobStore;
+    private final LruCache<String, Bitmap> bitmapCache;
+
+    /**
+     * Content hashes of the inline images hashed so far, keyed by {@link #inlineIdentity}.
+     */
+    private final LruCache<String, InlineHash> inlineHashes = new LruCache<>(INLINE_HASH_CACHE_SIZE);
+    private final ExecutorService decodeExecutor = Executors.newFixedThreadPool(DECODE_THREADS);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * The pending load of each view; a result is only delivered while it is still the view's request.
+     */
+    private final Map<ImageView, LoadRequest> pendingRequests = new WeakHashMap<>();
+
+    /**
+     * Constructs a new ImageUtil.
+     *
+     * @param blobStore The store holding the content of hash-referenced images.
      */
     @Inject
-    public ImageUtil() {
+    public ImageUtil(IBlobStore blobStore) {
+        this.blobStore = blobStore;
+        int cacheBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / CACHE_HEAP_FRACTION);
+        bitmapCache = new LruCache<>(cacheBytes) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
     }
 
     /**
-     * Converts the drawable from an ImageView into a Base64 encoded string.
+     * Compresses a bitmap into every {@link ImageVariant}, ready to be stored as blobs.
      * <p>
-     * This method extracts the bitmap from the ImageView's drawable, compresses it
-     * into a JPEG format, and then encodes the resulting byte array into a Base64 string.
+     * Each variant is scaled to fit its maximum dimension (images are never scaled up) and
+     * compressed with decreasing JPEG quality until it fits its byte budget; if it still does not
+     * fit at the minimum quality, it is scaled down further.
      * </p>
      *
-     * @param imageView The ImageView containing the image to convert.
-     * @return The Base64 encoded string with a data URI prefix, or null if the drawable is not present or not a bitmap.
+     * @param source The image to compress.
+     * @return The JPEG bytes of every variant.
      */
-    public @Nullable String convertTo64Base(@NotNull final ImageView imageView) {
-        if (imageView.getDrawable() == null || !(imageView.getDrawable() instanceof BitmapDrawable)) {
-            return null;
+    public static @NotNull Map<ImageVariant, byte[]> createVariants(@NotNull final Bitmap source) {
+        Bitmap bitmap = source.getConfig() == Bitmap.Config.HARDWARE ? source.copy(Bitmap.Config.ARGB_8888, false) : source;
+        Map<ImageVariant, byte[]> variants = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            variants.put(variant, compressVariant(bitmap, variant));
         }
-        Bitmap bitmap = ((BitmapDrawable) imageView.getDrawable()).getBitmap();
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 100, byteArrayOutputStream);
-        byte[] byteArray = byteArrayOutputStream.toByteArray();
-        return BASE64_PREFIX + Base64.encodeToString(byteArray, Base64.DEFAULT);
+        return variants;
     }
 
     /**
-     * Loads a Base64 encoded image into an ImageView.
+     * Produces an image and compresses it into every {@link ImageVariant} on a background thread,
+     * so neither decoding a picked image nor compressing it blocks the UI.
+     *
+     * @param source   Produces the image, for example by decoding a picked file; runs in the background.
+     * @param callback Invoked on the main thread with the variants, or with the error the source raised.
+     */
+    public void createVariantsAsync(@NotNull final Callable<Bitmap> source, @NotNull final DatabaseCallback<Map<ImageVariant, byte[]>> callback) {
+        decodeExecutor.execute(() -> {
+            try {
+                Map<ImageVariant, byte[]> variants = createVariants(Objects.requireNonNull(source.call(), "No image"));
+                mainHandler.post(() -> callback.onCompleted(variants));
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to create image variants", e);
+                mainHandler.post(() -> callback.onFailed(e));
+            }
+        });
+    }
+
+    private static byte[] compressVariant(Bitmap source, ImageVariant variant) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        float scale = Math.min(1f, (float) variant.getMaxDimension() / longest);
+        while (true) {
+            int width = Math.max(1, Math.round(source.getWidth() * scale));
+            int height = Math.max(1, Math.round(source.getHeight() * scale));
+            Bitmap scaled = scale < 1f ? Bitmap.createScaledBitmap(source, width, height, true) : source;
+            byte[] jpeg = null;
+            for (int quality = START_QUALITY; quality >= MIN_QUALITY; quality -= QUALITY_STEP) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                scaled.compress(Bitmap.CompressFormat.JPEG, quality, out);
+                jpeg = out.toByteArray();
+                if (jpeg.length <= variant.getMaxBytes()) break;
+            }
+            if (scaled != source) scaled.recycle();
+            if (jpeg.length <= variant.getMaxBytes() || width == 1 && height == 1) return jpeg;
+            scale *= DOWNSCALE_FACTOR;
+        }
+    }
+
+    /**
+     * Decodes an inline Base64 image, as stored by older versions, into its raw bytes.
+     *
+     * @param base64Code The Base64 content, optionally prefixed with a data URI header.
+     * @return The raw image bytes.
+     * @throws IllegalArgumentException If the content is not valid Base64.
+     */
+    public static @NotNull byte[] decodeBase64(@NotNull final String base64Code) {
+        String pureBase64 = base64Code.contains(",") ? base64Code.substring(base64Code.indexOf(",") + 1) : base64Code;
+        return Base64.decode(pureBase64, Base64.DEFAULT);
+    }
+
+    /**
+     * Loads an image into an ImageView, in the smallest variant that covers the view.
+     *
+     * @param imageRef  The content hash of the image, or its inline Base64 content.
+     * @param imageView The ImageView to load the image into.
+     * @see #loadImage(String, ImageView, ImageVariant)
+     */
+    public void loadImage(@Nullable final String imageRef, @NotNull final ImageView imageView) {
+        int[] targetSize = getTargetSize(imageView);
+        loadImage(imageRef, imageView, ImageVariant.forSize(targetSize[0], targetSize[1]));
+    }
+
+    /**
+     * Loads a variant of an image into an ImageView.
      * <p>
-     * This method decodes a Base64 string (optionally stripping the data URI prefix)
-     * into a Bitmap and sets it as the content of the provided ImageView.
-     * If the string is null or empty, a default user icon is displayed.
+     * A cached bitmap is set immediately. Otherwise the view is cleared, the variant is fetched
+     * from the blob store (falling back to the full image if it has no such variant, or to its
+     * inline Base64 content), decoded at most at the variant's size, cached and then set, unless
+     * another image was requested for the view in the meantime.
+     * If the reference is null or empty, a default user icon is displayed.
      * </p>
      *
-     * @param base64Code The Base64 encoded string of the image.
-     * @param imageView  The ImageView to load the image into.
+     * @param imageRef  The content hash of the image, or its inline Base64 content.
+     * @param imageView The ImageView to load the image into.
+     * @param variant   The variant matching the size the view is displayed at.
      */
-    public void loadImage(@Nullable final String base64Code, @NotNull final ImageView imageView) {
-        if (base64Code == null || base64Code.isEmpty()) {
+    public void loadImage(@Nullable final String imageRef, @NotNull final ImageView imageView, @NotNull final ImageVariant variant) {
+        cancel(imageView);
+        if (imageRef == null || imageRef.isEmpty()) {
             imageView.setImageResource(R.drawable.ic_user);
             return;
         }
 
-        try {
-            String pureBase64 = base64Code.contains(",") ? base64Code.substring(base64Code.indexOf(",") + 1) : base64Code;
-            byte[] decodedString = Base64.decode(pureBase64, Base64.DEFAULT);
+        String key = peekCacheKey(imageRef, variant);
+        Bitmap cached = key != null ? bitmapCache.get(key) : null;
+        if (cached != null) {
+            imageView.setImageBitmap(cached);
+            return;
+        }
 
-            Bitmap bitmap = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
-            if (bitmap != null) {
-                imageView.setImageBitmap(bitmap);
+        imageView.setImageDrawable(null);
+        LoadRequest request = new LoadRequest();
+        pendingRequests.put(imageView, request);
+        fetchBitmap(imageRef, variant, request, bitmap -> deliver(request, imageView, bitmap));
+    }
+
+    /**
+     * Loads images into the bitmap cache ahead of time, so a later {@link #loadImage} call with
+     * the same reference and variant sets them without any delay.
+     *
+     * @param imageRefs  The references of the images to load.
+     * @param variant    The variant the images will be displayed in.
+     * @param onComplete Invoked on the main thread once every image was loaded or failed.
+     */
+    public void prefetch(@NotNull final Collection<String> imageRefs, @NotNull final ImageVariant variant, @NotNull final Runnable onComplete) {
+        int[] remaining = {imageRefs.size()};
+        if (remaining[0] == 0) {
+            onComplete.run();
+            return;
+        }
+        for (String imageRef : imageRefs) {
+            Consumer<Bitmap> onLoaded = bitmap -> {
+                if (--remaining[0] == 0) onComplete.run();
+            };
+            String key = imageRef == null || imageRef.isEmpty() ? null : peekCacheKey(imageRef, variant);
+            if (imageRef == null || imageRef.isEmpty() || key != null && bitmapCache.get(key) != null) {
+                onLoaded.accept(null);
             } else {
-                imageView.setImageResource(R.drawable.ic_user);
+                fetchBitmap(imageRef, variant, new LoadRequest(), onLoaded);
             }
-        } catch (Exception e) {
+        }
+    }
+
+    /**
+     * Cancels the pending image load of a view, if any.
+     * Must be called before setting any other content on a view that may have a pending load,
+     * such as when it is recycled.
+     *
+     * @param imageView The view whose pending load should be dropped.
+     */
+    public void cancel(@NotNull final ImageView imageView) {
+        LoadRequest pending = pendingRequests.remove(imageView);
+        if (pending != null) pending.cancel();
+    }
+
+    /**
+     * Fetches the bytes of an image variant, decodes them in the background and caches the bitmap.
+     * An inline image is hashed in the background as well, and not decoded again if a bitmap with
+     * the same content is already cached.
+     *
+     * @param onResult Invoked on the main thread with the bitmap, or null if it could not be loaded.
+     */
+    private void fetchBitmap(String imageRef, ImageVariant variant, LoadRequest request, Consumer<Bitmap> onResult) {
+        int maxDimension = variant.getMaxDimension();
+        if (!ContentHash.isHash(imageRef)) {
+            decodeAsync(request, () -> hashInline(imageRef) + "/" + variant.name(), maxDimension, () -> decodeBase64(imageRef), onResult);
+            return;
+        }
+        Supplier<String> key = () -> imageRef + "/" + variant.name();
+        DatabaseCallback<byte[]> onFullImage = new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(byte[] data) {
+                if (request.cancelled) return;
+                decodeAsync(request, key, maxDimension, () -> data, onResult);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                Log.w(TAG, "Failed to load image " + imageRef, e);
+                onResult.accept(null);
+            }
+        };
+        if (variant.getSuffix() == null) {
+            blobStore.get(imageRef, onFullImage);
+            return;
+        }
+        blobStore.getVariant(imageRef, variant.getSuffix(), new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(byte[] data) {
+                onFullImage.onCompleted(data);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                // Images migrated from inline Base64 only have the full variant
+                if (!request.cancelled) blobStore.get(imageRef, onFullImage);
+            }
+        });
+    }
+
+    private void decodeAsync(LoadRequest request, Supplier<String> key, int maxDimension, Supplier<byte[]> source, Consumer<Bitmap> onResult) {
+        request.decode = decodeExecutor.submit(() -> {
+            String cacheKey = key.get();
+            Bitmap cached = bitmapCache.get(cacheKey);
+            Bitmap bitmap = cached != null ? cached : decode(source, maxDimension, maxDimension);
+            if (cached == null && bitmap != null) bitmapCache.put(cacheKey, bitmap);
+            mainHandler.post(() -> onResult.accept(bitmap));
+        });
+    }
+
+    private void deliver(LoadRequest request, ImageView imageView, @Nullable Bitmap bitmap) {
+        if (pendingRequests.get(imageView) != request) return;
+        pendingRequests.remove(imageView);
+        if (bitmap != null) {
+            imageView.setImageBitmap(bitmap);
+        } else {
             imageView.setImageResource(R.drawable.ic_user);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Decodes image bytes, sampled down to at least the requested size.
+     *
+     * @return The decoded bitmap, or null if the data is not a valid image.
+     */
+    @Nullable
+    private Bitmap decode(Supplier<byte[]> source, int reqWidth, int reqHeight) {
+        try {
+            byte[] data = source.get();
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeByteArray(data, 0, data.length, options);
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+            options.inJustDecodeBounds = false;
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to decode image", e);
+            return null;
+        }
+    }
+
+    /**
+     * Computes the largest power-of-two sample size that keeps both dimensions at or above the requested size.
+     */
+    private static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (width <= 0 || height <= 0) return inSampleSize;
+        while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Resolves the size to decode for: the view's measured or laid out size, falling back to the screen size.
+     */
+    private static int[] getTargetSize(ImageView imageView) {
+        DisplayMetrics metrics = imageView.getResources().getDisplayMetrics();
+        int width = imageView.getWidth();
+        int height = imageView.getHeight();
+        ViewGroup.LayoutParams params = imageView.getLayoutParams();
+        if (width <= 0 && params != null && params.width > 0) width = params.width;
+        if (height <= 0 && params != null && params.height > 0) height = params.height;
+        if (width <= 0) width = metrics.widthPixels;
+        if (height <= 0) height = metrics.heightPixels;
+        return new int[]{width, height};
+    }
+
+    /**
+     * Returns the key a decoded bitmap is cached under, its content hash and the variant it was
+     * decoded for, if it is known without hashing anything.
+     * <p>
+     * An inline image is keyed by the SHA-256 {@link ContentHash} of its content, which is only
+     * computed in the background. On the main thread it is looked up by the identity and length
+     * of the string, so rebinding the same string costs a map lookup.
+     * </p>
+     *
+     * @return The cache key, or null for an inline image that has not been hashed yet.
+     */
+    @Nullable
+    private String peekCacheKey(String imageRef, ImageVariant variant) {
+        if (ContentHash.isHash(imageRef)) return imageRef + "/" + variant.name();
+        InlineHash known = inlineHashes.get(inlineIdentity(imageRef));
+        return known != null && known.imageRef.get() == imageRef ? known.hash + "/" + variant.name() : null;
+    }
+
+    /**
+     * Hashes the content of an inline image, reusing the hash of the same string. Runs in the background.
+     */
+    private String hashInline(String imageRef) {
+        String identity = inlineIdentity(imageRef);
+        InlineHash known = inlineHashes.get(identity);
+        if (known != null && known.imageRef.get() == imageRef) return known.hash;
+        String hash = ContentHash.of(imageRef.getBytes(StandardCharsets.UTF_8));
+        inlineHashes.put(identity, new InlineHash(imageRef, hash));
+        return hash;
+    }
+
+    private static String inlineIdentity(String imageRef) {
+        return System.identityHashCode(imageRef) + ":" + imageRef.length();
+    }
+
+    /**
+     * The content hash of an inline image, valid only for the string it was computed from.
+     */
+    private static final class InlineHash {
+        private final WeakReference<String> imageRef;
+        private final String hash;
+
+        private InlineHash(String imageRef, String hash) {
+            this.imageRef = new WeakReference<>(imageRef);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * A pending load of one view. Cancelling it drops the result and stops a decode that has not started yet.
+     */
+    private static final class LoadRequest {
+        private volatile boolean cancelled;
+        private Future<?> decode;
+
+        private void cancel() {
+            cancelled = true;
+            if (decode != null) decode.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.sagivproject.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The resolutions an uploaded image is stored in.
+ * <p>
+ * Every variant is a JPEG whose longest side is at most {@link #getMaxDimension()} pixels and
+ * whose size is at most {@link #getMaxBytes()} bytes. The {@link #FULL} variant is the primary
+ * blob the database references by hash; the smaller ones are stored side by side with it (see
+ * {@link com.example.sagivproject.services.IBlobStore#putVariant}).
+ * </p>
+ */
+public enum ImageVariant {
+    /**
+     * Table cells and other small previews.
+     */
+    THUMBNAIL("thumb", 160, 16 * 1024),
+
+    /**
+     * Memory game cards and the profile picture.
+     */
+    GRID("grid", 480, 64 * 1024),
+
+    /**
+     * The full-screen image viewer.
+     */
+    FULL(null, 1280, 256 * 1024);
+
+    private final String suffix;
+    private final int maxDimension;
+    private final int maxBytes;
+
+    ImageVariant(@Nullable String suffix, int maxDimension, int maxBytes) {
+        this.suffix = suffix;
+        this.maxDimension = maxDimension;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Picks the smallest variant that covers a view of the given size.
+     *
+     * @param width  The width of the view in pixels.
+     * @param height The height of the view in pixels.
+     * @return The matching variant, {@link #FULL} for views larger than every other variant.
+     */
+    @NonNull
+    public static ImageVariant forSize(int width, int height) {
+        int size = Math.max(width, height);
+        for (ImageVariant variant : values()) {
+            if (size <= variant.maxDimension) return variant;
+        }
+        return FULL;
+    }
+
+    /**
+     * @return The name the variant is stored under next to the primary blob, or null for {@link #FULL}.
+     */
+    @Nullable
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return The maximum length of the longest side, in pixels.
+     */
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * @return The maximum size of the compressed image, in bytes.
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+}
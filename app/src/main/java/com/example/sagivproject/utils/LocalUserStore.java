@@ -0,0 +1,359 @@
+package com.example.sagivproject.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sagivproject.models.DailyStats;
+import com.example.sagivproject.models.EmergencyContact;
+import com.example.sagivproject.models.Medication;
+import com.example.sagivproject.models.User;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * Local copy of the logged-in {@link User}, held in memory and persisted part by part.
+ * <p>
+ * The profile, the profile image, the medications, the emergency contacts and every day of
+ * statistics are stored under separate keys, so saving the user only rewrites the parts that
+ * changed and a single answered question only rewrites today's statistics. The disk copy is
+ * parsed once per process; after that, reads are served from memory without any JSON parsing.
+ * </p>
+ * <p>
+ * Callers only ever get copies of the stored user, so changing a returned user, its daily
+ * statistics or its medications has no effect until it is saved. {@link #getUser} copies every
+ * part; hot paths that need only one part read it with {@link #getProfile}, {@link #getRole},
+ * {@link #getDailyStats(String)} or {@link #getMedication}, which copy nothing else. Listeners
+ * registered with {@link #addListener} are notified whenever the stored user changes, outside
+ * the store's lock, so a listener may read or save the user itself.
+ * </p>
+ */
+@Singleton
+public class LocalUserStore {
+    private static final String PREF_NAME = "com.example.sagivproject.LOCAL_USER_STORE";
+    private static final String KEY_PROFILE = "profile";
+    private static final String KEY_PROFILE_IMAGE = "profile_image";
+    private static final String KEY_MEDICATIONS = "medications";
+    private static final String KEY_EMERGENCY_CONTACTS = "emergency_contacts";
+    private static final String KEY_STATS_PREFIX = "daily_stats/";
+
+    private static final Type MEDICATIONS_TYPE = new TypeToken<HashMap<String, Medication>>() {
+    }.getType();
+    private static final Type CONTACTS_TYPE = new TypeToken<HashMap<String, EmergencyContact>>() {
+    }.getType();
+
+    private final SharedPreferences sharedPreferences;
+    private final Gson gson;
+    private final CopyOnWriteArrayList<OnUserChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The serialized value last written for each key, used to skip unchanged parts.
+     */
+    private final Map<String, String> storedValues = new HashMap<>();
+
+    private User user;
+    private boolean loaded;
+
+    /**
+     * Constructs a new LocalUserStore.
+     *
+     * @param context The application context used to access the backing preferences file.
+     * @param gson    The Gson instance used to serialize the individual parts.
+     */
+    @Inject
+    public LocalUserStore(@ApplicationContext Context context, Gson gson) {
+        this.sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.gson = gson;
+    }
+
+    /**
+     * Returns a deep copy of the stored user, which can be changed freely.
+     *
+     * @return The stored user, or null if no user is logged in.
+     */
+    @Nullable
+    public synchronized User getUser() {
+        ensureLoaded();
+        return user != null ? copyOf(user) : null;
+    }
+
+    /**
+     * Returns the profile of the stored user, without its image, statistics, medications or
+     * contacts, so that nothing but the profile fields is copied.
+     *
+     * @return The stored user's profile, or null if no user is logged in.
+     */
+    @Nullable
+    public synchronized User getProfile() {
+        ensureLoaded();
+        return user != null ? toProfile(user) : null;
+    }
+
+    /**
+     * @return The role of the stored user, or null if no user is logged in.
+     */
+    @Nullable
+    public synchronized User.UserRole getRole() {
+        ensureLoaded();
+        return user != null ? user.getRole() : null;
+    }
+
+    /**
+     * Returns a copy of the statistics of a single day.
+     *
+     * @param date The date of the statistics (yyyy-MM-dd).
+     * @return The statistics of that day, or null if none are stored.
+     */
+    @Nullable
+    public synchronized DailyStats getDailyStats(@NonNull String date) {
+        ensureLoaded();
+        DailyStats stats = user != null ? user.getDailyStats().get(date) : null;
+        return stats != null ? new DailyStats(stats) : null;
+    }
+
+    /**
+     * Returns a copy of a single medication of the stored user.
+     *
+     * @param medicationId The ID of the medication.
+     * @return The medication, or null if the user has no such medication.
+     */
+    @Nullable
+    public synchronized Medication getMedication(@Nullable String medicationId) {
+        ensureLoaded();
+        if (user == null || user.getMedications() == null) return null;
+        Medication medication = user.getMedications().get(medicationId);
+        return medication != null ? new Medication(medication) : null;
+    }
+
+    /**
+     * @return true if a user is stored.
+     */
+    public synchronized boolean hasUser() {
+        ensureLoaded();
+        return user != null;
+    }
+
+    /**
+     * Stores a user, writing only the parts that differ from the stored copy.
+     *
+     * @param newUser The user to store.
+     */
+    public void saveUser(@NonNull User newUser) {
+        synchronized (this) {
+            ensureLoaded();
+            SharedPreferences.Editor editor = sharedPreferences.edit();
+            if (user != null && !Objects.equals(user.getId(), newUser.getId())) {
+                editor.clear();
+                storedValues.clear();
+            }
+
+            putIfChanged(editor, KEY_PROFILE, gson.toJson(toProfile(newUser)));
+            putIfChanged(editor, KEY_PROFILE_IMAGE, newUser.getProfileImage());
+            putIfChanged(editor, KEY_MEDICATIONS, gson.toJson(newUser.getMedications()));
+            putIfChanged(editor, KEY_EMERGENCY_CONTACTS, gson.toJson(newUser.getEmergencyContacts()));
+
+            Map<String, DailyStats> dailyStats = newUser.getDailyStats();
+            for (Map.Entry<String, DailyStats> day : dailyStats.entrySet()) {
+                putIfChanged(editor, KEY_STATS_PREFIX + day.getKey(), gson.toJson(day.getValue()));
+            }
+            for (String key : storedValues.keySet().toArray(new String[0])) {
+                if (key.startsWith(KEY_STATS_PREFIX) && !dailyStats.containsKey(key.substring(KEY_STATS_PREFIX.length()))) {
+                    putIfChanged(editor, key, null);
+                }
+            }
+
+            editor.apply();
+            user = copyOf(newUser);
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Stores the statistics of a single day, leaving every other part untouched.
+     *
+     * @param date  The date of the statistics (yyyy-MM-dd).
+     * @param stats The statistics of that day.
+     */
+    public void saveDailyStats(@NonNull String date, @NonNull DailyStats stats) {
+        synchronized (this) {
+            ensureLoaded();
+            if (user == null) return;
+            SharedPreferences.Editor editor = sharedPreferences.edit();
+            putIfChanged(editor, KEY_STATS_PREFIX + date, gson.toJson(stats));
+            editor.apply();
+            user.getDailyStats().put(date, new DailyStats(stats));
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Stores the user's medications, leaving every other part untouched.
+     *
+     * @param medications The medications, keyed by ID.
+     */
+    public void saveMedications(@NonNull HashMap<String, Medication> medications) {
+        synchronized (this) {
+            ensureLoaded();
+            if (user == null) return;
+            SharedPreferences.Editor editor = sharedPreferences.edit();
+            putIfChanged(editor, KEY_MEDICATIONS, gson.toJson(medications));
+            editor.apply();
+            user.setMedications(copyMedications(medications));
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Removes the stored user from memory and disk.
+     */
+    public void clear() {
+        synchronized (this) {
+            sharedPreferences.edit().clear().apply();
+            storedValues.clear();
+            user = null;
+            loaded = true;
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Registers a listener for changes of the stored user.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(@NonNull OnUserChangedListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addListener}.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(@NonNull OnUserChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads every stored part from disk the first time the store is accessed.
+     */
+    private void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+
+        Map<String, ?> all = sharedPreferences.getAll();
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            if (entry.getValue() instanceof String) {
+                storedValues.put(entry.getKey(), (String) entry.getValue());
+            }
+        }
+
+        String profileJson = storedValues.get(KEY_PROFILE);
+        if (profileJson == null) return;
+        User stored = gson.fromJson(profileJson, User.class);
+        stored.setProfileImage(storedValues.get(KEY_PROFILE_IMAGE));
+        HashMap<String, Medication> medications = gson.fromJson(storedValues.get(KEY_MEDICATIONS), MEDICATIONS_TYPE);
+        stored.setMedications(medications != null ? medications : new HashMap<>());
+        HashMap<String, EmergencyContact> contacts = gson.fromJson(storedValues.get(KEY_EMERGENCY_CONTACTS), CONTACTS_TYPE);
+        stored.setEmergencyContacts(contacts != null ? contacts : new HashMap<>());
+
+        HashMap<String, DailyStats> dailyStats = new HashMap<>();
+        for (Map.Entry<String, String> entry : storedValues.entrySet()) {
+            if (entry.getKey().startsWith(KEY_STATS_PREFIX)) {
+                dailyStats.put(entry.getKey().substring(KEY_STATS_PREFIX.length()), gson.fromJson(entry.getValue(), DailyStats.class));
+            }
+        }
+        stored.setDailyStats(dailyStats);
+        user = stored;
+    }
+
+    /**
+     * Queues a write of a part if its serialized value differs from the stored one.
+     * A null value removes the part.
+     */
+    private void putIfChanged(SharedPreferences.Editor editor, String key, @Nullable String value) {
+        if (Objects.equals(storedValues.get(key), value)) return;
+        if (value == null) {
+            editor.remove(key);
+            storedValues.remove(key);
+        } else {
+            editor.putString(key, value);
+            storedValues.put(key, value);
+        }
+    }
+
+    /**
+     * Strips the image and the collections, which are stored under their own keys.
+     */
+    private User toProfile(User source) {
+        return new User(source.getId(), source.getFirstName(), source.getLastName(), source.getBirthDate(),
+                source.getEmail(), source.getPassword(), source.getRole());
+    }
+
+    /**
+     * Copies a user together with every statistics day, medication and contact it holds.
+     */
+    private static User copyOf(User source) {
+        User copy = new User(source);
+        HashMap<String, DailyStats> dailyStats = new HashMap<>();
+        for (Map.Entry<String, DailyStats> day : source.getDailyStats().entrySet()) {
+            dailyStats.put(day.getKey(), new DailyStats(day.getValue()));
+        }
+        copy.setDailyStats(dailyStats);
+        if (source.getMedications() != null) {
+            copy.setMedications(copyMedications(source.getMedications()));
+        }
+        HashMap<String, EmergencyContact> contacts = new HashMap<>();
+        for (Map.Entry<String, EmergencyContact> contact : source.getEmergencyContacts().entrySet()) {
+            contacts.put(contact.getKey(), new EmergencyContact(contact.getValue()));
+        }
+        copy.setEmergencyContacts(contacts);
+        return copy;
+    }
+
+    private static HashMap<String, Medication> copyMedications(Map<String, Medication> medications) {
+        HashMap<String, Medication> copy = new HashMap<>();
+        for (Map.Entry<String, Medication> medication : medications.entrySet()) {
+            copy.put(medication.getKey(), new Medication(medication.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Notifies the listeners with the profile of the current user. Must be called without holding
+     * the lock; the listener list is copy-on-write, so it is iterated as a snapshot.
+     */
+    private void notifyListeners() {
+        if (listeners.isEmpty()) return;
+        User current = getProfile();
+        for (OnUserChangedListener listener : listeners) {
+            listener.onUserChanged(current);
+        }
+    }
+
+    /**
+     * Listener for changes of the stored user.
+     */
+    public interface OnUserChangedListener {
+        /**
+         * Invoked after the stored user was saved, partially updated or cleared.
+         *
+         * @param user The profile of the stored user, as returned by {@link LocalUserStore#getProfile}, or
+         *             null after logout. Listeners that need more read it from the store.
+         */
+        void onUserChanged(@Nullable User user);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.sagivproject.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded in-memory cache whose entries expire a fixed time after they were stored.
+ * <p>
+ * Entries are kept in access order; once the cache is full, storing a new entry evicts the least
+ * recently used one. {@link #get} only returns entries younger than the time to live and counts
+ * hits and misses; {@link #peek} also returns expired entries, for showing a value while a fresh
+ * one is loaded. Both mark the entry as recently used. All methods are synchronized.
+ * </p>
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public class LruTtlCache<K, V> {
+    private final int maxSize;
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param maxSize          The largest number of entries kept.
+     * @param timeToLiveMillis How long an entry is returned by {@link #get} after it was stored.
+     * @param clock            The source of the current time in milliseconds.
+     */
+    public LruTtlCache(int maxSize, long timeToLiveMillis, @NonNull LongSupplier clock) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive, got " + maxSize);
+        this.maxSize = maxSize;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= LruTtlCache.this.maxSize) return false;
+                evictionCount++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The value, or null if it is not cached or has expired.
+     */
+    @Nullable
+    public synchronized V get(@NonNull K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || clock.getAsLong() - entry.storedAt >= timeToLiveMillis) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Returns a value even if it has expired, without counting a hit or a miss. The entry is still
+     * marked as recently used, since its value is being shown.
+     *
+     * @param key The key to look up.
+     * @return The value, or null if it is not cached.
+     */
+    @Nullable
+    public synchronized V peek(@NonNull K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Stores a value, restarting its time to live.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public synchronized void put(@NonNull K key, @NonNull V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+    }
+
+    /**
+     * @param key The key of the entry to drop.
+     */
+    public synchronized void remove(@NonNull K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops all entries. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return The number of stored entries, including expired ones.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of {@link #get} calls that returned a value.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of {@link #get} calls that found no value or an expired one.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return The number of entries evicted to stay within the maximum size.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -3,9 +3,13 @@ package com.example.sagivproject.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import com.example.sagivproject.models.DailyStats;
+import com.example.sagivproject.models.Medication;
 import com.example.sagivproject.models.User;
 import com.google.gson.Gson;
 
+import java.util.HashMap;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -16,7 +20,8 @@ import dagger.hilt.android.qualifiers.ApplicationContext;
  * <p>
  * This class provides a centralized and type-safe API for interacting with local storage.
  * It supports basic primitive types and uses the {@link Gson} library to serialize and
- * deserialize complex objects, such as the {@link User} profile, into JSON strings.
+ * deserialize complex objects into JSON strings. The logged-in {@link User} is delegated to the
+ * {@link LocalUserStore}, which keeps it in memory and persists it part by part.
  * </p>
  */
 @Singleton
@@ -25,20 +30,31 @@ public class SharedPreferencesUtil {
     private static final String KEY_USER = "user";
     private static final String KEY_THEME_MODE = "theme_mode";
     private static final String KEY_FALL_DETECTION_ENABLED = "fall_detection_enabled";
+    private static final String KEY_USER_SCHEMA_MIGRATED = "user_schema_migrated";
+    /**
+     * Versioned so the migration runs again to add the profile image hash entries.
+     */
+    private static final String KEY_IMAGES_MIGRATED = "images_migrated_v2";
+    private static final String KEY_LAST_ROOM_SWEEP = "last_room_sweep";
 
     private final SharedPreferences sharedPreferences;
     private final Gson gson;
+    private final LocalUserStore localUserStore;
 
     /**
      * Constructs a new SharedPreferencesUtil.
+     * A user saved as a single JSON blob by an older version is moved into the {@link LocalUserStore}.
      *
-     * @param context The application context used to access shared preferences.
-     * @param gson    The Gson instance used for object serialization.
+     * @param context        The application context used to access shared preferences.
+     * @param gson           The Gson instance used for object serialization.
+     * @param localUserStore The store holding the logged-in user.
      */
     @Inject
-    public SharedPreferencesUtil(@ApplicationContext Context context, Gson gson) {
+    public SharedPreferencesUtil(@ApplicationContext Context context, Gson gson, LocalUserStore localUserStore) {
         this.sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         this.gson = gson;
+        this.localUserStore = localUserStore;
+        migrateLegacyUser();
     }
 
     /**
@@ -83,6 +99,27 @@ public class SharedPreferencesUtil {
         return sharedPreferences.getInt(key, defaultValue);
     }
 
+    /**
+     * Saves a long value to preferences.
+     *
+     * @param key   The unique key for the preference.
+     * @param value The long value to store.
+     */
+    public void saveLong(String key, long value) {
+        sharedPreferences.edit().putLong(key, value).apply();
+    }
+
+    /**
+     * Retrieves a long value from preferences.
+     *
+     * @param key          The unique key for the preference.
+     * @param defaultValue The value to return if the key does not exist.
+     * @return The stored long or the default value.
+     */
+    public long getLong(String key, long defaultValue) {
+        return sharedPreferences.getLong(key, defaultValue);
+    }
+
     /**
      * Saves a boolean value to preferences.
      *
@@ -160,27 +197,76 @@ public class SharedPreferencesUtil {
 
     /**
      * Saves the current {@link User} object to persistent storage.
+     * Only the parts that changed since the last save are written.
      *
      * @param user The user profile to save.
      */
     public void saveUser(User user) {
-        saveObject(KEY_USER, user);
+        localUserStore.saveUser(user);
     }
 
     /**
-     * Retrieves the stored {@link User} profile.
+     * Saves one day of the current user's statistics without rewriting the rest of the user.
      *
-     * @return The User object, or null if no user is authenticated.
+     * @param date  The date of the statistics (yyyy-MM-dd).
+     * @param stats The statistics of that day.
+     */
+    public void saveDailyStats(String date, DailyStats stats) {
+        localUserStore.saveDailyStats(date, stats);
+    }
+
+    /**
+     * Saves the current user's medications without rewriting the rest of the user.
+     *
+     * @param medications The medications, keyed by ID.
+     */
+    public void saveMedications(HashMap<String, Medication> medications) {
+        localUserStore.saveMedications(medications);
+    }
+
+    /**
+     * Retrieves the stored {@link User} profile from memory.
+     *
+     * @return A copy of the User object, or null if no user is authenticated.
      */
     public User getUser() {
-        return getObject(KEY_USER, User.class);
+        return localUserStore.getUser();
+    }
+
+    /**
+     * Retrieves the stored user's profile without copying its statistics, medications or contacts.
+     *
+     * @return The profile, or null if no user is authenticated.
+     */
+    public User getUserProfile() {
+        return localUserStore.getProfile();
+    }
+
+    /**
+     * Retrieves one day of the current user's statistics.
+     *
+     * @param date The date of the statistics (yyyy-MM-dd).
+     * @return A copy of that day's statistics, or null if none are stored.
+     */
+    public DailyStats getDailyStats(String date) {
+        return localUserStore.getDailyStats(date);
+    }
+
+    /**
+     * Retrieves one of the current user's medications.
+     *
+     * @param medicationId The ID of the medication.
+     * @return A copy of the medication, or null if the user has no such medication.
+     */
+    public Medication getMedication(String medicationId) {
+        return localUserStore.getMedication(medicationId);
     }
 
     /**
-     * Logs out the user by removing their profile data from preferences.
+     * Logs out the user by removing their profile data from local storage.
      */
     public void signOutUser() {
-        remove(KEY_USER);
+        localUserStore.clear();
     }
 
     /**
@@ -189,7 +275,19 @@ public class SharedPreferencesUtil {
      * @return true if no user data is stored.
      */
     public boolean isUserNotLoggedIn() {
-        return !contains(KEY_USER);
+        return !localUserStore.hasUser();
+    }
+
+    /**
+     * Moves a user stored under the legacy single-blob key into the {@link LocalUserStore}.
+     */
+    private void migrateLegacyUser() {
+        if (!contains(KEY_USER)) return;
+        User legacyUser = getObject(KEY_USER, User.class);
+        if (legacyUser != null && !localUserStore.hasUser()) {
+            localUserStore.saveUser(legacyUser);
+        }
+        remove(KEY_USER);
     }
 
     /**
@@ -228,4 +326,58 @@ public class SharedPreferencesUtil {
     public void setFallDetectionEnabled(boolean enabled) {
         saveBoolean(KEY_FALL_DETECTION_ENABLED, enabled);
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if the legacy user records were already migrated to the normalized schema from this device.
+     *
+     * @return true if the migration completed.
+     */
+    public boolean isUserSchemaMigrated() {
+        return getBoolean(KEY_USER_SCHEMA_MIGRATED, false);
+    }
+
+    /**
+     * Records that the legacy user migration completed.
+     *
+     * @param migrated true once the migration succeeded.
+     */
+    public void setUserSchemaMigrated(boolean migrated) {
+        saveBoolean(KEY_USER_SCHEMA_MIGRATED, migrated);
+    }
+
+    /**
+     * Checks if the inline images were already moved to the blob store from this device.
+     *
+     * @return true if the migration completed.
+     */
+    public boolean isImagesMigrated() {
+        return getBoolean(KEY_IMAGES_MIGRATED, false);
+    }
+
+    /**
+     * Records that the image migration completed.
+     *
+     * @param migrated true once the migration succeeded.
+     */
+    public void setImagesMigrated(boolean migrated) {
+        saveBoolean(KEY_IMAGES_MIGRATED, migrated);
+    }
+
+    /**
+     * Gets when this device last swept the finished game rooms.
+     *
+     * @return The time of the last successful sweep in milliseconds, or 0 if there was none.
+     */
+    public long getLastRoomSweep() {
+        return getLong(KEY_LAST_ROOM_SWEEP, 0);
+    }
+
+    /**
+     * Records when this device swept the finished game rooms.
+     *
+     * @param time The time of the sweep in milliseconds.
+     */
+    public void setLastRoomSweep(long time) {
+        saveLong(KEY_LAST_ROOM_SWEEP, time);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.sagivproject.services.forum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.sagivproject.models.ForumMessage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link ForumMessageStore}.
+ */
+public class ForumMessageStoreTest {
+    /**
+     * Creates a message whose timestamp sorts by its number.
+     */
+    private static ForumMessage message(int number) {
+        return new ForumMessage(String.format("m%06d", number), "text " + number,
+                String.format("2026-01-01T%06d", number), "user" + (number % 7));
+    }
+
+    private static List<String> ids(List<ForumMessage> messages) {
+        List<String> ids = new ArrayList<>();
+        for (ForumMessage message : messages) ids.add(message.getId());
+        return ids;
+    }
+
+    @Test
+    public void put_keepsChronologicalOrderAndReportsPositions() {
+        ForumMessageStore store = new ForumMessageStore();
+        RecordingListener events = new RecordingListener();
+        store.setListener(events);
+
+        assertTrue(store.put(message(1)));
+        assertTrue(store.put(message(3)));
+        assertTrue(store.put(message(2)));
+
+        assertEquals(Arrays.asList("m000001", "m000002", "m000003"), ids(store.asList()));
+        assertEquals(Arrays.asList("insert 0+1", "insert 1+1", "insert 1+1"), events.events);
+        assertEquals(2, store.indexOf("m000003"));
+    }
+
+    @Test
+    public void put_sameIdReplacesInPlaceOrMoves() {
+        ForumMessageStore store = new ForumMessageStore();
+        store.putAll(Arrays.asList(message(1), message(2), message(3)));
+        RecordingListener events = new RecordingListener();
+        store.setListener(events);
+
+        ForumMessage edited = message(2);
+        edited.setMessage("edited");
+        assertFalse(store.put(edited));
+        assertFalse(store.put(message(3)));
+        ForumMessage retimed = message(1);
+        retimed.setTimestamp(message(4).getTimestamp());
+        assertFalse(store.put(retimed));
+
+        assertEquals("edited", store.get(0).getMessage());
+        assertEquals(Arrays.asList("m000002", "m000003", "m000001"), ids(store.asList()));
+        assertEquals(Arrays.asList("change 1", "move 0->2", "change 2"), events.events);
+    }
+
+    @Test
+    public void putAll_insertsOlderPageAsOneRange() {
+        ForumMessageStore store = new ForumMessageStore();
+        store.putAll(Arrays.asList(message(10), message(11)));
+        RecordingListener events = new RecordingListener();
+        store.setListener(events);
+
+        store.putAll(Arrays.asList(message(5), message(3), message(4)));
+
+        assertEquals(Arrays.asList("m000003", "m000004", "m000005", "m000010", "m000011"), ids(store.asList()));
+        assertEquals(Arrays.asList("insert 0+3"), events.events);
+        assertEquals("m000003", store.getOldest().getId());
+    }
+
+    @Test
+    public void remove_reportsPositionOnce() {
+        ForumMessageStore store = new ForumMessageStore();
+        store.putAll(Arrays.asList(message(1), message(2), message(3)));
+        RecordingListener events = new RecordingListener();
+        store.setListener(events);
+
+        assertTrue(store.remove("m000002"));
+        assertFalse(store.remove("m000002"));
+
+        assertEquals(-1, store.indexOf("m000002"));
+        assertEquals(Arrays.asList("remove 1"), events.events);
+    }
+
+    @Test
+    public void syncWindow_dropsMessagesDeletedWithinTheWindowOnly() {
+        ForumMessageStore store = new ForumMessageStore();
+        store.putAll(Arrays.asList(message(1), message(2), message(3), message(4), message(5)));
+
+        store.syncWindow(Arrays.asList(message(3), message(5), message(6)));
+
+        assertEquals(Arrays.asList("m000001", "m000002", "m000003", "m000005", "m000006"), ids(store.asList()));
+    }
+
+    @Test
+    public void clear_removesEverything() {
+        ForumMessageStore store = new ForumMessageStore();
+        store.putAll(Arrays.asList(message(1), message(2)));
+        RecordingListener events = new RecordingListener();
+        store.setListener(events);
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertNull(store.getOldest());
+        assertEquals(Arrays.asList("remove 0+2"), events.events);
+    }
+
+    /**
+     * Records the reported changes as short strings.
+     */
+    private static class RecordingListener implements ForumMessageStore.Listener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onItemRangeInserted(int position, int count) {
+            events.add("insert " + position + "+" + count);
+        }
+
+        @Override
+        public void onItemChanged(int position) {
+            events.add("change " + position);
+        }
+
+        @Override
+        public void onItemRemoved(int position) {
+            events.add("remove " + position);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int position, int count) {
+            events.add("remove " + position + "+" + count);
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+            events.add("move " + fromPosition + "->" + toPosition);
+        }
+    }
+}
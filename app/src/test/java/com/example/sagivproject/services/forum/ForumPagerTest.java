@@ -0,0 +1,206 @@
+package com.example.sagivproject.services.forum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.sagivproject.models.ForumMessage;
+import com.example.sagivproject.services.DatabaseCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unit tests for {@link ForumPager}.
+ */
+public class ForumPagerTest {
+    private static final Comparator<ForumMessage> ORDER = Comparator.comparing(ForumMessage::getTimestamp)
+            .thenComparing(ForumMessage::getId);
+
+    /**
+     * Creates a message whose timestamp sorts by its number.
+     */
+    private static ForumMessage message(int number) {
+        return new ForumMessage(String.format("m%06d", number), "text " + number,
+                String.format("2026-01-01T%06d", number), "user" + (number % 7));
+    }
+
+    private static List<ForumMessage> messages(int from, int to) {
+        List<ForumMessage> messages = new ArrayList<>();
+        for (int i = from; i < to; i++) messages.add(message(i));
+        return messages;
+    }
+
+    @Test
+    public void prefetchesOlderPageWithinAPageOfTheTop() {
+        FakeSource source = new FakeSource(messages(0, 100));
+        ForumMessageStore store = new ForumMessageStore();
+        ForumPager pager = new ForumPager(store, source, 20, 100, e -> {
+        });
+        store.putAll(messages(50, 100));
+
+        pager.onVisibleRangeChanged(30, 37);
+        assertEquals(0, source.requests);
+
+        pager.onVisibleRangeChanged(20, 27);
+        assertEquals(1, source.requests);
+        source.deliverAll();
+
+        assertEquals(70, store.size());
+        assertEquals("m000030", store.getOldest().getId());
+        assertTrue(pager.hasMoreOlder());
+    }
+
+    @Test
+    public void unloadsFarNewestPagesAndReattachesWhenPagingBack() {
+        FakeSource source = new FakeSource(messages(0, 200));
+        ForumMessageStore store = new ForumMessageStore();
+        ForumPager pager = new ForumPager(store, source, 20, 60, e -> {
+        });
+        store.putAll(messages(150, 200));
+
+        // Scroll to the top: the page above is loaded and the far newest rows are unloaded
+        pager.onVisibleRangeChanged(5, 12);
+        source.deliverAll();
+        assertEquals(60, store.size());
+        assertEquals("m000130", store.getOldest().getId());
+        assertEquals("m000189", store.getNewest().getId());
+        assertTrue(pager.isDetached());
+
+        // A new message past the unloaded ones is not added while detached
+        source.all.add(message(200));
+        assertFalse(pager.onMessageAdded(message(200)));
+        assertEquals(60, store.size());
+
+        // Scroll back down: the newer pages are read until the latest message is loaded again
+        for (int i = 0; i < 5 && pager.isDetached(); i++) {
+            pager.onVisibleRangeChanged(store.size() - 8, store.size() - 1);
+            source.deliverAll();
+        }
+        assertFalse(pager.isDetached());
+        assertEquals("m000200", store.getNewest().getId());
+        assertTrue(store.size() <= 60);
+    }
+
+    @Test
+    public void messageArrivingWhileReadingTheLastNewerPageIsAdded() {
+        FakeSource source = new FakeSource(messages(0, 200));
+        ForumMessageStore store = new ForumMessageStore();
+        ForumPager pager = new ForumPager(store, source, 20, 60, e -> {
+        });
+        store.putAll(messages(150, 200));
+        pager.onVisibleRangeChanged(5, 12);
+        source.deliverAll();
+        assertTrue(pager.isDetached());
+
+        // The page is read before the new message is written, and delivered after it arrives
+        pager.onVisibleRangeChanged(store.size() - 8, store.size() - 1);
+        assertFalse(pager.onMessageAdded(message(200)));
+        source.deliverAll();
+
+        assertFalse(pager.isDetached());
+        assertEquals("m000200", store.getNewest().getId());
+    }
+
+    @Test
+    public void liveMessagesAtTheBottomUnloadOldestPages() {
+        FakeSource source = new FakeSource(messages(0, 50));
+        ForumMessageStore store = new ForumMessageStore();
+        ForumPager pager = new ForumPager(store, source, 20, 60, e -> {
+        });
+        store.putAll(messages(0, 50));
+
+        for (int i = 50; i < 100; i++) {
+            assertTrue(pager.onMessageAdded(message(i)));
+            pager.onVisibleRangeChanged(store.size() - 8, store.size() - 1);
+        }
+
+        assertTrue(store.size() <= 60);
+        assertEquals("m000099", store.getNewest().getId());
+        assertTrue(pager.hasMoreOlder());
+        assertFalse(pager.isDetached());
+    }
+
+    @Test
+    public void jumpToLatestDropsPagesStillInFlight() {
+        FakeSource source = new FakeSource(messages(0, 200));
+        ForumMessageStore store = new ForumMessageStore();
+        ForumPager pager = new ForumPager(store, source, 20, 60, e -> {
+        });
+        store.putAll(messages(150, 200));
+        pager.onVisibleRangeChanged(5, 12);
+        source.deliverAll();
+        pager.onVisibleRangeChanged(5, 12);
+
+        boolean[] done = new boolean[1];
+        pager.jumpToLatest(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void object) {
+                done[0] = true;
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+            }
+        });
+        source.deliverAll();
+
+        assertTrue(done[0]);
+        assertFalse(pager.isDetached());
+        assertEquals(messages(180, 200), store.asList());
+    }
+
+    /**
+     * Serves pages from a sorted list. Pages are read when requested and delivered on
+     * {@link #deliverAll}.
+     */
+    private static class FakeSource implements ForumPager.PageSource {
+        final List<ForumMessage> all;
+        final List<Delivery> pending = new ArrayList<>();
+        int requests = 0;
+
+        FakeSource(List<ForumMessage> all) {
+            this.all = all;
+        }
+
+        @Override
+        public void loadBefore(ForumMessage before, int limit, DatabaseCallback<List<ForumMessage>> callback) {
+            int end = before == null ? all.size() : position(before);
+            enqueue(all.subList(Math.max(0, end - limit), end), callback);
+        }
+
+        @Override
+        public void loadAfter(ForumMessage after, int limit, DatabaseCallback<List<ForumMessage>> callback) {
+            int start = position(after) + 1;
+            enqueue(all.subList(start, Math.min(all.size(), start + limit)), callback);
+        }
+
+        void deliverAll() {
+            while (!pending.isEmpty()) {
+                Delivery delivery = pending.remove(0);
+                delivery.callback.onCompleted(delivery.page);
+            }
+        }
+
+        private int position(ForumMessage message) {
+            return Collections.binarySearch(all, message, ORDER);
+        }
+
+        private void enqueue(List<ForumMessage> page, DatabaseCallback<List<ForumMessage>> callback) {
+            requests++;
+            Delivery delivery = new Delivery();
+            delivery.page = new ArrayList<>(page);
+            delivery.callback = callback;
+            pending.add(delivery);
+        }
+    }
+
+    private static class Delivery {
+        List<ForumMessage> page;
+        DatabaseCallback<List<ForumMessage>> callback;
+    }
+}
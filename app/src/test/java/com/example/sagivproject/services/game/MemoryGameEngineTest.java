@@ -0,0 +1,390 @@
+package com.example.sagivproject.services.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.GameMove;
+import com.example.sagivproject.models.GameRoom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link MemoryGameEngine}, with a fake clock and moves applied to the room in
+ * memory. Also includes a simulation of turn timeouts between players with skewed clocks and
+ * random complete games between two engines.
+ */
+public class MemoryGameEngineTest {
+    private static final String PLAYER1 = "p1";
+    private static final String PLAYER2 = "p2";
+    private static final long NETWORK_DELAY = 500;
+    private static final long SIMULATED_TIME = 120000;
+
+    private final List<GameMove> sent = new ArrayList<>();
+    private long now = 0;
+    private GameRoom room;
+    private MemoryGameEngine engine;
+
+    /**
+     * Creates a playing room whose board holds the pairs a,a,b,b,c,c,... and whose deadlines
+     * were set at time 0.
+     */
+    private static GameRoom createRoom(int pairs) {
+        GameRoom room = new GameRoom("room1", PLAYER1, PLAYER2);
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            cards.add(new Card("card" + i, null));
+            cards.add(new Card("card" + i, null));
+        }
+        room.setCards(cards);
+        room.setCurrentTurnUid(PLAYER1);
+        room.setTurnDeadline(MemoryGameEngine.TURN_TIME_LIMIT);
+        room.setGameDeadline(MemoryGameEngine.TOTAL_GAME_TIME_LIMIT);
+        return room;
+    }
+
+    @Before
+    public void setUp() {
+        room = createRoom(6);
+        engine = new MemoryGameEngine(PLAYER1, () -> now, move -> {
+            sent.add(move);
+            MemoryGameEngine.apply(room, move);
+        });
+        engine.setRoom(room);
+    }
+
+    @Test
+    public void firstSelection_revealsCardAndRemembersIt() {
+        assertEquals(MemoryGameEngine.Selection.FIRST_CARD, engine.selectCard(3));
+
+        assertEquals(1, sent.size());
+        assertTrue(room.getCards().get(3).getIsRevealed());
+        assertEquals(Integer.valueOf(3), room.getFirstSelectedCardIndex());
+        assertFalse(room.isProcessingMatch());
+    }
+
+    @Test
+    public void secondSelection_startsMatchCheck() {
+        engine.selectCard(0);
+
+        assertEquals(MemoryGameEngine.Selection.SECOND_CARD, engine.selectCard(2));
+
+        assertTrue(room.isProcessingMatch());
+        assertTrue(engine.isCheckPending());
+        assertFalse(engine.isMyTurn());
+        assertEquals(MemoryGameEngine.Selection.IGNORED, engine.selectCard(4));
+    }
+
+    @Test
+    public void selectingTheSameCardTwice_isIgnored() {
+        engine.selectCard(0);
+
+        assertEquals(MemoryGameEngine.Selection.IGNORED, engine.selectCard(0));
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void selectionOnOpponentsTurn_isIgnored() {
+        room.setCurrentTurnUid(PLAYER2);
+
+        assertEquals(MemoryGameEngine.Selection.IGNORED, engine.selectCard(0));
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void match_scoresInOneMoveAndKeepsTurn() {
+        now = 5000;
+        engine.selectCard(0);
+        engine.selectCard(1);
+
+        assertTrue(engine.checkMatch(0, 1));
+
+        GameMove move = sent.get(sent.size() - 1);
+        assertEquals(1, move.getPlayer1ScoreDelta());
+        assertEquals(1, room.getPlayer1Score());
+        assertTrue(room.getCards().get(0).getIsMatched());
+        assertTrue(room.getCards().get(1).getIsMatched());
+        assertNull(room.getFirstSelectedCardIndex());
+        assertEquals(PLAYER1, room.getCurrentTurnUid());
+        assertEquals(5000 + MemoryGameEngine.TURN_TIME_LIMIT, room.getTurnDeadline());
+        assertTrue(engine.isMyTurn());
+    }
+
+    @Test
+    public void mismatch_flipsBackAndPassesTurn() {
+        engine.selectCard(0);
+        engine.selectCard(2);
+
+        assertFalse(engine.checkMatch(0, 2));
+        assertTrue(engine.isCheckPending());
+        engine.endTurn(0, 2);
+
+        assertFalse(room.getCards().get(0).getIsRevealed());
+        assertFalse(room.getCards().get(2).getIsRevealed());
+        assertFalse(room.isProcessingMatch());
+        assertEquals(PLAYER2, room.getCurrentTurnUid());
+        assertFalse(engine.isCheckPending());
+    }
+
+    @Test
+    public void turnTimeout_passesTurnOnlyWhenTimeIsUp() {
+        engine.selectCard(5);
+
+        now = MemoryGameEngine.TURN_TIME_LIMIT - 1;
+        assertFalse(engine.onTurnTimeout());
+
+        now = MemoryGameEngine.TURN_TIME_LIMIT;
+        assertTrue(engine.onTurnTimeout());
+        assertEquals(PLAYER2, room.getCurrentTurnUid());
+        assertEquals(now + MemoryGameEngine.TURN_TIME_LIMIT, room.getTurnDeadline());
+        assertFalse(room.getCards().get(5).getIsRevealed());
+        assertNull(room.getFirstSelectedCardIndex());
+    }
+
+    @Test
+    public void turnTimeout_isSentOncePerDeadline() {
+        now = MemoryGameEngine.TURN_TIME_LIMIT;
+        GameRoom stale = createRoom(6);
+        engine.setRoom(stale);
+
+        assertTrue(engine.onTurnTimeout());
+        assertFalse(engine.onTurnTimeout());
+        assertEquals(1, sent.size());
+        assertEquals(Long.valueOf(MemoryGameEngine.TURN_TIME_LIMIT), sent.get(0).getRequiredTurnDeadline());
+    }
+
+    @Test
+    public void turnTimeout_opponentWaitsForGracePeriod() {
+        room.setCurrentTurnUid(PLAYER2);
+
+        now = MemoryGameEngine.TURN_TIME_LIMIT;
+        assertEquals(MemoryGameEngine.TIMEOUT_GRACE_PERIOD, engine.getTurnTimeoutDelay());
+        assertFalse(engine.onTurnTimeout());
+
+        now = MemoryGameEngine.TURN_TIME_LIMIT + MemoryGameEngine.TIMEOUT_GRACE_PERIOD;
+        assertTrue(engine.onTurnTimeout());
+        assertEquals(PLAYER1, room.getCurrentTurnUid());
+    }
+
+    @Test
+    public void timeoutForAnOlderDeadline_isNotApplied() {
+        GameMove timeout = new GameMove().setCurrentTurnUid(PLAYER2).requireTurnDeadline(1);
+
+        assertFalse(MemoryGameEngine.apply(room, timeout));
+        assertEquals(PLAYER1, room.getCurrentTurnUid());
+    }
+
+    @Test
+    public void timeLeft_isReadFromTheRoomDeadlines() {
+        now = 10000;
+
+        assertEquals(MemoryGameEngine.TURN_TIME_LIMIT - 10000, engine.getTurnTimeLeft());
+        assertEquals(MemoryGameEngine.TOTAL_GAME_TIME_LIMIT - 10000, engine.getGameTimeLeft());
+    }
+
+    @Test
+    public void gameTimeout_isDueForTheHostFirst() {
+        MemoryGameEngine guest = new MemoryGameEngine(PLAYER2, () -> now, sent::add);
+        guest.setRoom(room);
+
+        now = MemoryGameEngine.TOTAL_GAME_TIME_LIMIT;
+        assertTrue(engine.isGameTimeoutDue());
+        assertFalse(guest.isGameTimeoutDue());
+
+        now += MemoryGameEngine.TIMEOUT_GRACE_PERIOD;
+        assertTrue(guest.isGameTimeoutDue());
+
+        room.setStatus("finished");
+        assertFalse(engine.isGameTimeoutDue());
+    }
+
+    /**
+     * Two idle players whose clocks are off from the server time by a few hundred milliseconds,
+     * as left after the server offset correction. Only the player whose turn it is sends the
+     * timeout, so every turn ends with a single commit and no rejected attempts.
+     */
+    @Test
+    public void skewedClocks_onlyTheTurnHolderTimesOut() {
+        long[][] skews = {{0, 0}, {400, -400}, {-400, 400}, {900, 0}};
+        for (long[] skew : skews) {
+            TimeoutRun run = runTimeouts(skew[0], skew[1]);
+
+            String label = "skews " + Arrays.toString(skew);
+            assertTrue(label, run.commitsPerTurn.size() >= 7);
+            for (int commits : run.commitsPerTurn.values()) assertEquals(label, 1, commits);
+            assertEquals(label, run.commitsPerTurn.size(), run.attempts);
+        }
+    }
+
+    /**
+     * Clocks so far apart that the other player's grace period runs out before the turn holder
+     * sees the deadline, so both send a timeout for the same turn. The deadline condition still
+     * lets only one of them commit.
+     */
+    @Test
+    public void farSkewedClocks_stillCommitOneTimeoutPerTurn() {
+        long[][] skews = {{3200, 300}, {300, 3200}, {3000, 0}};
+        for (long[] skew : skews) {
+            TimeoutRun run = runTimeouts(skew[0], skew[1]);
+
+            String label = "skews " + Arrays.toString(skew);
+            assertTrue(label, run.commitsPerTurn.size() >= 7);
+            for (int commits : run.commitsPerTurn.values()) assertEquals(label, 1, commits);
+            assertTrue(label, run.attempts > run.commitsPerTurn.size());
+        }
+    }
+
+    @Test
+    public void calculateWinner_prefersForfeitWinnerThenScores() {
+        assertEquals(MemoryGameEngine.DRAW, MemoryGameEngine.calculateWinner(room));
+
+        room.setPlayer2Score(2);
+        assertEquals(PLAYER2, MemoryGameEngine.calculateWinner(room));
+
+        room.setWinnerUid(PLAYER1);
+        assertEquals(PLAYER1, MemoryGameEngine.calculateWinner(room));
+    }
+
+    @Test
+    public void boardComplete_requiresAllPairsMatchedAndScored() {
+        for (Card card : room.getCards()) card.setMatched(true);
+        assertFalse(engine.isBoardComplete());
+
+        room.setPlayer1Score(4);
+        room.setPlayer2Score(2);
+        assertTrue(engine.isBoardComplete());
+
+        room.setStatus("finished");
+        assertFalse(engine.isBoardComplete());
+    }
+
+    @Test
+    public void randomGamesBetweenTwoEngines_alwaysComplete() {
+        GameStats stats = playGames(200, 42);
+
+        assertEquals(200, stats.completed);
+    }
+
+    /**
+     * Lets two idle players time out their turns for {@link #SIMULATED_TIME} of server time, then
+     * delivers the moves still on their way. Each player sees
+     * the server time plus its skew; its moves reach the server after {@link #NETWORK_DELAY},
+     * where conditional moves are checked against the stored room, and committed moves reach
+     * both players' copies of the room at once.
+     */
+    private static TimeoutRun runTimeouts(long player1Skew, long player2Skew) {
+        TimeoutRun run = new TimeoutRun();
+        long[] serverTime = {0};
+        GameRoom server = createRoom(6);
+        GameRoom[] views = {createRoom(6), createRoom(6)};
+        List<InFlightMove> inFlight = new ArrayList<>();
+        GameTransport transport = move -> {
+            run.attempts++;
+            inFlight.add(new InFlightMove(move, serverTime[0] + NETWORK_DELAY));
+        };
+        MemoryGameEngine[] players = {
+                new MemoryGameEngine(PLAYER1, () -> serverTime[0] + player1Skew, transport),
+                new MemoryGameEngine(PLAYER2, () -> serverTime[0] + player2Skew, transport)
+        };
+        players[0].setRoom(views[0]);
+        players[1].setRoom(views[1]);
+
+        for (; serverTime[0] < SIMULATED_TIME + NETWORK_DELAY; serverTime[0] += 50) {
+            Iterator<InFlightMove> iterator = inFlight.iterator();
+            while (iterator.hasNext()) {
+                InFlightMove next = iterator.next();
+                if (next.arrivesAt > serverTime[0]) continue;
+                iterator.remove();
+                if (MemoryGameEngine.apply(server, next.move)) {
+                    run.commitsPerTurn.merge(next.move.getRequiredTurnDeadline(), 1, Integer::sum);
+                    for (GameRoom view : views) MemoryGameEngine.apply(view, next.move);
+                }
+            }
+            if (serverTime[0] >= SIMULATED_TIME) continue;
+            for (MemoryGameEngine player : players) player.onTurnTimeout();
+        }
+        return run;
+    }
+
+    /**
+     * Plays complete games between two engines that pick random closed cards.
+     */
+    private static GameStats playGames(int games, long seed) {
+        Random random = new Random(seed);
+        GameStats stats = new GameStats();
+        for (int g = 0; g < games; g++) {
+            GameRoom shared = createRoom(6);
+            for (int i = shared.getCards().size() - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Card card = shared.getCards().set(j, shared.getCards().get(i));
+                shared.getCards().set(i, card);
+            }
+            long[] clock = {0};
+            GameTransport transport = move -> {
+                stats.moves++;
+                MemoryGameEngine.apply(shared, move);
+            };
+            MemoryGameEngine[] players = {
+                    new MemoryGameEngine(PLAYER1, () -> clock[0], transport),
+                    new MemoryGameEngine(PLAYER2, () -> clock[0], transport)
+            };
+            for (MemoryGameEngine player : players) player.setRoom(shared);
+
+            int guard = 0;
+            while (!players[0].isBoardComplete() && guard++ < 10000) {
+                MemoryGameEngine player = players[0].isMyTurn() ? players[0] : players[1];
+                int first = pickClosedCard(shared, random, -1);
+                int second = pickClosedCard(shared, random, first);
+                player.selectCard(first);
+                player.selectCard(second);
+                if (!player.checkMatch(first, second)) player.endTurn(first, second);
+                clock[0] += 1000;
+            }
+            if (players[0].isBoardComplete()) stats.completed++;
+        }
+        return stats;
+    }
+
+    private static int pickClosedCard(GameRoom room, Random random, int except) {
+        List<Integer> closed = new ArrayList<>();
+        for (int i = 0; i < room.getCards().size(); i++) {
+            Card card = room.getCards().get(i);
+            if (i != except && !card.getIsMatched() && !card.getIsRevealed()) closed.add(i);
+        }
+        return closed.get(random.nextInt(closed.size()));
+    }
+
+    private static class GameStats {
+        int completed;
+        long moves;
+    }
+
+    private static class TimeoutRun {
+        /**
+         * Committed timeouts, keyed by the turn deadline they ended.
+         */
+        final Map<Long, Integer> commitsPerTurn = new HashMap<>();
+        int attempts;
+    }
+
+    private static class InFlightMove {
+        final GameMove move;
+        final long arrivesAt;
+
+        InFlightMove(GameMove move, long arrivesAt) {
+            this.move = move;
+            this.arrivesAt = arrivesAt;
+        }
+    }
+}
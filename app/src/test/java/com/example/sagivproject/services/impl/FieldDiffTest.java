@@ -0,0 +1,123 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.sagivproject.models.EmergencyContact;
+import com.example.sagivproject.models.Medication;
+import com.example.sagivproject.models.User;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link FieldDiff}, covering the models that are edited field by field.
+ */
+public class FieldDiffTest {
+    private static final String USER_PATH = "user_profiles/u1";
+    private static final String MEDICATION_PATH = "user_medications/u1/m1";
+    private static final String CONTACT_PATH = "user_emergency_contacts/u1/c1";
+
+    private static User createUser() {
+        return new User("u1", "Dana", "Levi", "1950-01-01", "dana@example.com", "secret", User.UserRole.REGULAR);
+    }
+
+    @Test
+    public void identicalUsers_produceNoUpdates() {
+        assertTrue(FieldDiff.diff(USER_PATH, createUser(), createUser()).isEmpty());
+    }
+
+    @Test
+    public void changedFirstName_writesOnlyThatLeaf() {
+        User updated = createUser();
+        updated.setFirstName("Dina");
+
+        Map<String, Object> updates = FieldDiff.diff(USER_PATH, createUser(), updated);
+
+        assertEquals(Collections.singletonMap(USER_PATH + "/firstName", "Dina"), updates);
+    }
+
+    @Test
+    public void changedRole_isWrittenAsEnumName() {
+        User updated = createUser();
+        updated.setRole(User.UserRole.ADMIN);
+
+        Map<String, Object> updates = FieldDiff.diff(USER_PATH, createUser(), updated);
+
+        assertEquals(Collections.singletonMap(USER_PATH + "/role", "ADMIN"), updates);
+    }
+
+    @Test
+    public void clearedField_isWrittenAsNull() {
+        User updated = createUser();
+        updated.setBirthDate(null);
+
+        Map<String, Object> updates = FieldDiff.diff(USER_PATH, createUser(), updated);
+
+        assertEquals(1, updates.size());
+        assertTrue(updates.containsKey(USER_PATH + "/birthDate"));
+        assertNull(updates.get(USER_PATH + "/birthDate"));
+    }
+
+    @Test
+    public void excludedUserFields_areIgnored() {
+        User updated = createUser();
+        updated.setProfileImage("base64");
+        updated.setMedications(new HashMap<>(Collections.singletonMap("m1", new Medication())));
+        updated.setEmergencyContacts(new HashMap<>(Collections.singletonMap("c1", new EmergencyContact())));
+
+        Map<String, Object> updates = FieldDiff.diff(USER_PATH, createUser(), updated);
+
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    public void changedMedicationName_writesOnlyThatLeaf() {
+        Medication original = new Medication("m1", "Aspirin", "After food", Medication.MedicationType.PILL, Arrays.asList("08:00", "20:00"));
+        Medication updated = new Medication("m1", "Acamol", "After food", Medication.MedicationType.PILL, Arrays.asList("08:00", "20:00"));
+
+        Map<String, Object> updates = FieldDiff.diff(MEDICATION_PATH, original, updated);
+
+        assertEquals(Collections.singletonMap(MEDICATION_PATH + "/name", "Acamol"), updates);
+    }
+
+    @Test
+    public void changedReminderHours_rewritesTheWholeList() {
+        Medication original = new Medication("m1", "Aspirin", "", Medication.MedicationType.PILL, Arrays.asList("08:00", "14:00", "20:00"));
+        Medication updated = new Medication("m1", "Aspirin", "", Medication.MedicationType.PILL, Collections.singletonList("09:00"));
+
+        Map<String, Object> updates = FieldDiff.diff(MEDICATION_PATH, original, updated);
+
+        assertEquals(1, updates.size());
+        assertEquals(Collections.singletonMap("0", "09:00"), updates.get(MEDICATION_PATH + "/reminderHours"));
+    }
+
+    @Test
+    public void changedContactPhone_writesOnlyThatLeaf() {
+        EmergencyContact original = new EmergencyContact("c1", "Yossi", "Cohen", "0501234567");
+        EmergencyContact updated = new EmergencyContact("c1", "Yossi", "Cohen", "0527654321");
+
+        Map<String, Object> updates = FieldDiff.diff(CONTACT_PATH, original, updated);
+
+        assertEquals(Collections.singletonMap(CONTACT_PATH + "/phoneNumber", "0527654321"), updates);
+    }
+
+    @Test
+    public void missingOriginal_writesEveryField() {
+        EmergencyContact contact = new EmergencyContact("c1", "Yossi", "Cohen", "0501234567");
+
+        Map<String, Object> updates = FieldDiff.diff(CONTACT_PATH, null, contact);
+
+        assertEquals(1, updates.size());
+        Object stored = updates.get(CONTACT_PATH);
+        assertTrue(stored instanceof Map);
+        assertEquals("0501234567", ((Map<?, ?>) stored).get("phoneNumber"));
+        assertFalse(((Map<?, ?>) stored).containsKey("fullName"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.sagivproject.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.sagivproject.models.GameRoom;
+import com.example.sagivproject.utils.CalendarUtil;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link GameArchive} and the month keys that partition the game history.
+ */
+public class GameArchiveTest {
+    private static final String MONTH = "2026-02";
+    private static final Object SERVER_TIME = Collections.singletonMap(".sv", "timestamp");
+
+    private static GameRoom createFinishedRoom() {
+        GameRoom room = new GameRoom("r1", "u1", "u2");
+        room.setStatus("finished");
+        room.setPlayer1Score(4);
+        room.setPlayer2Score(2);
+        room.setWinnerUid("u1");
+        room.setStartedAt(1_000L);
+        room.setGameDeadline(500_000L);
+        return room;
+    }
+
+    private static long localMillis(String dateTime) {
+        return LocalDateTime.parse(dateTime).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void createUpdates_movesResultIntoMonthAndDeletesRoom() {
+        Map<String, Object> updates = GameArchive.createUpdates(createFinishedRoom(), MONTH, SERVER_TIME);
+
+        String resultPath = "game_history/" + MONTH + "/r1/";
+        assertTrue(updates.containsKey("rooms/r1"));
+        assertNull(updates.get("rooms/r1"));
+        assertEquals("r1", updates.get(resultPath + "id"));
+        assertEquals("finished", updates.get(resultPath + "status"));
+        assertEquals("u1", updates.get(resultPath + "player1Uid"));
+        assertEquals("u2", updates.get(resultPath + "player2Uid"));
+        assertEquals(4, updates.get(resultPath + "player1Score"));
+        assertEquals(2, updates.get(resultPath + "player2Score"));
+        assertEquals("u1", updates.get(resultPath + "winnerUid"));
+        assertEquals(1_000L, updates.get(resultPath + "startedAt"));
+    }
+
+    @Test
+    public void createUpdates_storesTheGivenFinishTime() {
+        Map<String, Object> updates = GameArchive.createUpdates(createFinishedRoom(), MONTH, SERVER_TIME);
+
+        assertEquals(SERVER_TIME, updates.get("game_history/" + MONTH + "/r1/finishedAt"));
+    }
+
+    @Test
+    public void createUpdates_hasNoOverlappingPaths() {
+        Map<String, Object> updates = GameArchive.createUpdates(createFinishedRoom(), MONTH, SERVER_TIME);
+
+        // A multi-path update is rejected if one path is an ancestor of another
+        for (String path : updates.keySet()) {
+            for (String other : updates.keySet()) {
+                assertFalse(path + " contains " + other, !path.equals(other) && other.startsWith(path + "/"));
+            }
+        }
+    }
+
+    @Test
+    public void createUpdates_isIdempotent() {
+        GameRoom room = createFinishedRoom();
+
+        assertEquals(GameArchive.createUpdates(room, MONTH, SERVER_TIME), GameArchive.createUpdates(room, MONTH, SERVER_TIME));
+    }
+
+    @Test
+    public void createUpdates_onlyDeletesNodeWithoutPlayers() {
+        GameRoom leftover = new GameRoom();
+        leftover.setId("r1");
+        leftover.setStatus("finished");
+        leftover.setWinnerUid("u2");
+
+        Map<String, Object> updates = GameArchive.createUpdates(leftover, MONTH, SERVER_TIME);
+
+        assertEquals(Collections.singletonMap("rooms/r1", null), updates);
+    }
+
+    @Test
+    public void isReadyToArchive_finishedWithStats() {
+        GameRoom room = createFinishedRoom();
+        room.setStatsUpdated(true);
+
+        assertTrue(GameArchive.isReadyToArchive(room, room.getGameDeadline()));
+    }
+
+    @Test
+    public void isReadyToArchive_waitsForPlayersToFinishTheGame() {
+        GameRoom room = createFinishedRoom();
+
+        assertFalse(GameArchive.isReadyToArchive(room, room.getGameDeadline() + GameArchive.ABANDONED_GRACE));
+        assertTrue(GameArchive.isReadyToArchive(room, room.getGameDeadline() + GameArchive.ABANDONED_GRACE + 1));
+    }
+
+    @Test
+    public void isReadyToArchive_neverForRunningGames() {
+        GameRoom room = createFinishedRoom();
+        room.setStatus("playing");
+        room.setStatsUpdated(true);
+
+        assertFalse(GameArchive.isReadyToArchive(room, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void monthKey_followsLocalMonthBoundaries() {
+        CalendarUtil calendarUtil = new CalendarUtil();
+
+        assertEquals("2026-01", calendarUtil.formatDate(localMillis("2026-01-31T23:59:59"), CalendarUtil.MONTH_KEY_FORMAT));
+        assertEquals("2026-02", calendarUtil.formatDate(localMillis("2026-02-01T00:00:00"), CalendarUtil.MONTH_KEY_FORMAT));
+        assertEquals("2025-12", calendarUtil.formatDate(localMillis("2025-12-31T12:00:00"), CalendarUtil.MONTH_KEY_FORMAT));
+    }
+
+    @Test
+    public void monthKey_roundTripsThroughParse() {
+        CalendarUtil calendarUtil = new CalendarUtil();
+
+        long start = calendarUtil.parseMonthKey(MONTH);
+
+        assertEquals(localMillis("2026-02-01T00:00:00"), start);
+        assertEquals(MONTH, calendarUtil.formatDate(start, CalendarUtil.MONTH_KEY_FORMAT));
+        assertEquals(-1, calendarUtil.parseMonthKey("2026/02"));
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.sagivproject.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.sagivproject.models.Card;
+import com.example.sagivproject.models.CompactBoard;
+import com.example.sagivproject.models.GameMove;
+import com.example.sagivproject.models.GameRoom;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link BoardCodec}, the compact board fields of {@link GameRoom} and
+ * {@link GameMove#onBoard}. Also checks that the compact form takes less than half the bytes of
+ * the legacy one in a room snapshot.
+ */
+public class BoardCodecTest {
+    private static final String PUSH_ID_CHARS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Creates a shuffled board of pairs whose image IDs look like database push IDs.
+     */
+    private static List<Card> createBoard(int cardCount, Random random) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < cardCount / 2; i++) {
+            StringBuilder id = new StringBuilder("-");
+            for (int c = 0; c < 19; c++) id.append(PUSH_ID_CHARS.charAt(random.nextInt(PUSH_ID_CHARS.length())));
+            cards.add(new Card(id.toString(), null));
+            cards.add(new Card(id.toString(), null));
+        }
+        Collections.shuffle(cards, random);
+        return cards;
+    }
+
+    @Test
+    public void encode_buildsImageTableAndLayout() {
+        List<Card> cards = Arrays.asList(new Card("x", null), new Card("y", null), new Card("x", null), new Card("y", null));
+
+        CompactBoard board = BoardCodec.encode(cards);
+
+        assertEquals(Arrays.asList("x", "y"), board.getImages());
+        assertEquals("ABAB", board.getLayout());
+    }
+
+    @Test
+    public void roundTrip_keepsIdsAndStates() {
+        List<Card> cards = createBoard(48, new Random(1));
+        cards.get(0).setRevealed(true);
+        cards.get(47).setRevealed(true);
+        cards.get(47).setMatched(true);
+
+        List<Card> decoded = BoardCodec.decode(BoardCodec.encode(cards),
+                BoardCodec.revealedMask(cards), BoardCodec.matchedMask(cards));
+
+        assertEquals(describe(cards), describe(decoded));
+    }
+
+    @Test
+    public void masks_holdOneBitPerCard() {
+        List<Card> cards = createBoard(64, new Random(2));
+        cards.get(63).setRevealed(true);
+        cards.get(5).setMatched(true);
+
+        assertEquals(1L << 63, BoardCodec.revealedMask(cards));
+        assertEquals(1L << 5, BoardCodec.matchedMask(cards));
+        assertTrue(BoardCodec.isSet(BoardCodec.withBit(0, 63, true), 63));
+        assertEquals(0, BoardCodec.withBit(1L << 63, 63, false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsBoardsLargerThanAMask() {
+        BoardCodec.encode(createBoard(BoardCodec.MAX_CARDS + 2, new Random(3)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsLayoutNamingAMissingImage() {
+        BoardCodec.decode(new CompactBoard(Collections.singletonList("x"), "AB"), 0, 0);
+    }
+
+    @Test
+    public void readLegacy_readsListAndSparseMap() {
+        List<Object> list = Arrays.asList(legacyCard("x", true, false), legacyCard("x", false, true));
+        Map<String, Object> map = new HashMap<>();
+        map.put("0", legacyCard("y", false, false));
+        map.put("1", legacyCard("y", true, true));
+
+        List<Card> fromList = BoardCodec.readLegacy(list);
+        List<Card> fromMap = BoardCodec.readLegacy(map);
+
+        assertEquals(2, fromList.size());
+        assertTrue(fromList.get(0).getIsRevealed());
+        assertTrue(fromList.get(1).getIsMatched());
+        assertEquals("y", fromMap.get(1).getId());
+        assertTrue(fromMap.get(1).getIsRevealed());
+        assertTrue(BoardCodec.readLegacy(null).isEmpty());
+    }
+
+    @Test
+    public void gameRoom_readsMasksBeforeOrAfterTheBoard() {
+        List<Card> cards = createBoard(12, new Random(4));
+        CompactBoard board = BoardCodec.encode(cards);
+
+        GameRoom masksFirst = new GameRoom();
+        masksFirst.setRevealedMask(0b101);
+        masksFirst.setMatchedMask(0b100);
+        masksFirst.setBoard(board);
+        GameRoom boardFirst = new GameRoom();
+        boardFirst.setBoard(board);
+        boardFirst.setRevealedMask(0b101);
+        boardFirst.setMatchedMask(0b100);
+
+        assertEquals(describe(masksFirst.getCards()), describe(boardFirst.getCards()));
+        assertTrue(boardFirst.getCards().get(0).getIsRevealed());
+        assertTrue(boardFirst.getCards().get(2).getIsMatched());
+        assertEquals(board, boardFirst.getBoard());
+        assertEquals(0b101, boardFirst.getRevealedMask());
+    }
+
+    @Test
+    public void gameMove_onBoard_appliesCardChangesToMasks() {
+        List<Card> cards = createBoard(12, new Random(5));
+        cards.get(3).setRevealed(true);
+
+        GameMove move = new GameMove()
+                .setCard(3, false, false)
+                .setCard(7, true, true)
+                .onBoard(cards);
+
+        assertEquals(Long.valueOf(1L << 7), move.getRevealedMask());
+        assertEquals(Long.valueOf(1L << 7), move.getMatchedMask());
+        assertFalse(cards.get(7).getIsRevealed());
+    }
+
+    /**
+     * Compares the JSON bytes of the board in a room snapshot, as the legacy list of card objects
+     * and as the compact layout and masks, with half of the cards open.
+     */
+    @Test
+    public void compactBoard_takesLessThanHalfTheLegacyBytes() {
+        Gson gson = new Gson();
+        Random random = new Random(6);
+        for (int cardCount : new int[]{12, 24, 48}) {
+            List<Card> cards = createBoard(cardCount, random);
+            for (int i = 0; i < cardCount; i += 2) cards.get(i).setRevealed(true);
+
+            List<Map<String, Object>> legacy = new ArrayList<>();
+            for (Card card : cards) legacy.add(legacyCard(card.getId(), card.getIsRevealed(), card.getIsMatched()));
+            Map<String, Object> compact = new LinkedHashMap<>();
+            compact.put("board", BoardCodec.encode(cards));
+            compact.put("revealedMask", BoardCodec.revealedMask(cards));
+            compact.put("matchedMask", BoardCodec.matchedMask(cards));
+
+            int legacyBytes = gson.toJson(legacy).getBytes(StandardCharsets.UTF_8).length;
+            int compactBytes = gson.toJson(compact).getBytes(StandardCharsets.UTF_8).length;
+            assertTrue(cardCount + " cards: legacy " + legacyBytes + " bytes, compact " + compactBytes + " bytes",
+                    compactBytes * 2 < legacyBytes);
+        }
+    }
+
+    /**
+     * Describes the ID and state of every card, since cards are compared by identity.
+     */
+    private static List<String> describe(List<Card> cards) {
+        List<String> descriptions = new ArrayList<>();
+        for (Card card : cards) {
+            descriptions.add(card.getId() + (card.getIsRevealed() ? " revealed" : "") + (card.getIsMatched() ? " matched" : ""));
+        }
+        return descriptions;
+    }
+
+    private static Map<String, Object> legacyCard(String id, boolean revealed, boolean matched) {
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("id", id);
+        card.put("isRevealed", revealed);
+        card.put("isMatched", matched);
+        return card;
+    }
+}
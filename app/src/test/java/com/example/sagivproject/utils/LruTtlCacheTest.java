@@ -0,0 +1,75 @@
+package com.example.sagivproject.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LruTtlCache}, driven by a fake clock.
+ */
+public class LruTtlCacheTest {
+    private long now = 0;
+
+    @Test
+    public void get_countsHitsAndMisses() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 1000, () -> now);
+
+        assertNull(cache.get("a"));
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a"));
+        assertEquals("A", cache.get("a"));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void get_expiresAfterTimeToLive_peekDoesNot() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 1000, () -> now);
+        cache.put("a", "A");
+
+        now = 999;
+        assertEquals("A", cache.get("a"));
+        now = 1000;
+        assertNull(cache.get("a"));
+        assertEquals("A", cache.peek("a"));
+
+        cache.put("a", "A2");
+        assertEquals("A2", cache.get("a"));
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(2, 1000, () -> now);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+
+        cache.put("c", "C");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.peek("b"));
+        assertEquals("A", cache.peek("a"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void peek_marksRecentlyUsedWithoutCounting() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(2, 1000, () -> now);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.peek("a");
+
+        cache.put("c", "C");
+
+        assertNull(cache.peek("b"));
+        assertEquals("A", cache.peek("a"));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsEmptyCache() {
+        new LruTtlCache<String, String>(0, 1000, () -> 0L);
+    }
+}